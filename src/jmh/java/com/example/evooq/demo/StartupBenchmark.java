@@ -0,0 +1,152 @@
+package com.example.evooq.demo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Cold start of the application as a child JVM, from launch to the {@code Started DemoApplication}
+ * log line and to the first successful {@code GET /actions/{userId}}. {@code jar} runs the boot jar
+ * as the {@code Dockerfile} image does; {@code aot-cds} runs the extracted jar with the AOT bean
+ * definitions, the class data sharing archive and the {@code prod} profile, as {@code
+ * Dockerfile.aot} does. Build both first with {@code ./gradlew cdsArchive -Paot}.
+ *
+ * <p>Starts a Postgres container (needs Docker), unless {@code -Dstartup.datasource.url} names a
+ * running one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+  private static final long TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+  @Param({"jar", "aot-cds"})
+  String variant;
+
+  private PostgreSQLContainer<?> postgres;
+  private String url;
+  private String username;
+  private String password;
+  private HttpClient client;
+  private Process app;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    url = System.getProperty("startup.datasource.url");
+    username = System.getProperty("startup.datasource.username", "postgres");
+    password = System.getProperty("startup.datasource.password", "postgres");
+    if (url == null) {
+      postgres = new PostgreSQLContainer<>("postgres:16");
+      postgres.start();
+      url = postgres.getJdbcUrl();
+      username = postgres.getUsername();
+      password = postgres.getPassword();
+    }
+    client = HttpClient.newHttpClient();
+  }
+
+  @TearDown(Level.Invocation)
+  public void stopApp() throws InterruptedException {
+    app.destroy();
+    app.waitFor();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    if (postgres != null) postgres.stop();
+  }
+
+  @Benchmark
+  public void started() throws IOException {
+    app = launch(freePort(), ProcessBuilder.Redirect.PIPE);
+    BufferedReader output = new BufferedReader(new InputStreamReader(app.getInputStream()));
+    String line;
+    while ((line = output.readLine()) != null) {
+      if (line.contains("Started DemoApplication")) return;
+    }
+    throw new IllegalStateException("Exited before it started: " + app.exitValue());
+  }
+
+  @Benchmark
+  public int firstRequest() throws IOException, InterruptedException {
+    int port = freePort();
+    app = launch(port, ProcessBuilder.Redirect.DISCARD);
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actions/1")).build();
+    long deadline = System.nanoTime() + TIMEOUT_NANOS;
+    while (System.nanoTime() < deadline && app.isAlive()) {
+      try {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200) return response.body().length();
+      } catch (IOException e) {
+        // Not listening yet
+      }
+      Thread.sleep(5);
+    }
+    throw new IllegalStateException("No response from the " + variant + " start");
+  }
+
+  private Process launch(int port, ProcessBuilder.Redirect output) throws IOException {
+    String java = ProcessHandle.current().info().command().orElse("java");
+    List<String> command = new ArrayList<>(List.of(java));
+    File directory;
+    if (variant.equals("aot-cds")) {
+      directory = new File("build/cds");
+      command.addAll(
+          List.of(
+              "-XX:SharedArchiveFile=app.jsa",
+              "-Dspring.aot.enabled=true",
+              "-Dspring.profiles.active=prod",
+              "-jar",
+              "app.jar"));
+    } else {
+      directory = new File(".");
+      command.addAll(List.of("-jar", bootJar().getPath()));
+    }
+    command.addAll(
+        List.of(
+            "--server.port=" + port,
+            "--spring.datasource.url=" + url,
+            "--spring.datasource.username=" + username,
+            "--spring.datasource.password=" + password));
+    return new ProcessBuilder(command)
+        .directory(directory)
+        .redirectErrorStream(true)
+        .redirectOutput(output)
+        .start();
+  }
+
+  private static File bootJar() {
+    File[] jars =
+        new File("build/libs")
+            .listFiles(
+                (directory, name) ->
+                    name.endsWith(".jar")
+                        && !name.endsWith("-plain.jar")
+                        && !name.endsWith("-jmh.jar"));
+    if (jars == null || jars.length != 1) {
+      throw new IllegalStateException("Expected one boot jar in build/libs, run bootJar first");
+    }
+    return jars[0];
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.evooq.demo;
+
+import com.example.evooq.demo.db.model.UserEntity;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.services.ActionService;
+import com.example.evooq.demo.services.UserService;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Request throughput of the platform-thread and the virtual-thread mode under the same burst of
+ * concurrent API calls. Each invocation sends {@code concurrency} requests at once and waits for
+ * all of them; {@code ok} and {@code rejected} count 200s and bulkhead 503s. Needs Docker for the
+ * Postgres container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadModeLoadBenchmark {
+  private static final int CONCURRENCY = 1000;
+
+  @Param({"platform", "virtual"})
+  String mode;
+
+  private PostgreSQLContainer<?> postgres;
+  private ConfigurableApplicationContext context;
+  private ExecutorService clientThreads;
+  private HttpClient client;
+  private List<URI> uris;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Responses {
+    public long ok;
+    public long rejected;
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    postgres = new PostgreSQLContainer<>("postgres:16");
+    postgres.start();
+    context =
+        new SpringApplicationBuilder(DemoApplication.class)
+            .profiles(mode.equals("virtual") ? "virtual" : "default")
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "spring.jpa.show-sql=false")
+            .run();
+    int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+
+    UserService userService = context.getBean(UserService.class);
+    ActionService actionService = context.getBean(ActionService.class);
+    uris = new ArrayList<>();
+    for (int u = 0; u < 100; u++) {
+      UserEntity user = userService.login("Load " + u, "load" + u + "@example.com");
+      for (int a = 0; a < 50; a++) {
+        actionService.create(
+            new SellAutomaticAction(
+                String.valueOf(user.getId()),
+                "sell " + a,
+                ContextRegistry.STOCK_PRICES,
+                "SYM" + a,
+                Price.of(100 + a, ContextRegistry.STOCK_PRICES),
+                Price.of(1, ContextRegistry.STOCK_PRICES),
+                true));
+      }
+      uris.add(URI.create("http://localhost:" + port + "/actions/" + user.getId() + "?limit=20"));
+    }
+
+    clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+    client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(clientThreads)
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    client.close();
+    clientThreads.close();
+    context.close();
+    postgres.stop();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENCY)
+  public void burst(Responses responses) {
+    List<CompletableFuture<HttpResponse<Void>>> inFlight = new ArrayList<>(CONCURRENCY);
+    for (int i = 0; i < CONCURRENCY; i++) {
+      HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size())).GET().build();
+      inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+    }
+    for (CompletableFuture<HttpResponse<Void>> response : inFlight) {
+      if (response.join().statusCode() == 200) {
+        responses.ok++;
+      } else {
+        responses.rejected++;
+      }
+    }
+  }
+}
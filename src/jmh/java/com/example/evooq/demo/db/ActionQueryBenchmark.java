@@ -0,0 +1,171 @@
+package com.example.evooq.demo.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Latency of the action and user access paths on a seeded table of {@code rows} actions, 100 per
+ * user over 5,000 symbols. {@code public} is the schema the Flyway migrations create; {@code
+ * unindexed} holds the same rows in plain tables with only a primary key on id, as the schema was
+ * before the migrations. The setup prints the {@code EXPLAIN (ANALYZE, BUFFERS)} plan of each
+ * query. Each trial seeds its own Postgres container, which takes a few minutes at 10M rows. Needs
+ * Docker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ActionQueryBenchmark {
+  private static final int ACTIONS_PER_USER = 100;
+  private static final int SYMBOLS = 5_000;
+  private static final String[] ACTION_TYPES = {"SELL_AUTOMATIC", "BUY_AUTOMATIC", "SET_STOP_LOSS"};
+
+  private static final String PAGE_BY_USER =
+      "SELECT * FROM actions WHERE user_id = ? AND id > 0 ORDER BY id LIMIT 50";
+  private static final String BY_CONTEXT_AND_TYPE =
+      "SELECT id FROM actions WHERE context_id = ? AND action_type = ?";
+  private static final String BY_USER_AND_ID = "SELECT * FROM actions WHERE user_id = ? AND id = ?";
+  private static final String BY_EMAIL = "SELECT * FROM users WHERE email = ?";
+
+  @Param({"10000000"})
+  int rows;
+
+  @Param({"public", "unindexed"})
+  String schema;
+
+  private PostgreSQLContainer<?> postgres;
+  private Connection connection;
+  private PreparedStatement pageByUser;
+  private PreparedStatement byContextAndType;
+  private PreparedStatement byUserAndId;
+  private PreparedStatement byEmail;
+  private int users;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    postgres = new PostgreSQLContainer<>("postgres:16");
+    postgres.start();
+    Flyway.configure()
+        .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+        .load()
+        .migrate();
+    connection =
+        DriverManager.getConnection(
+            postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    users = rows / ACTIONS_PER_USER;
+    seed(connection, rows, users);
+
+    connection.setSchema(schema);
+    printPlan("SELECT * FROM actions WHERE user_id = '42' AND id > 0 ORDER BY id LIMIT 50");
+    printPlan(
+        "SELECT id FROM actions WHERE context_id = 'SYM42' AND action_type = 'BUY_AUTOMATIC'");
+    // Seeded action i belongs to user i % users + 1
+    printPlan("SELECT * FROM actions WHERE user_id = '" + (4242 % users + 1) + "' AND id = 4242");
+    printPlan("SELECT * FROM users WHERE email = 'user42@example.com'");
+
+    pageByUser = connection.prepareStatement(PAGE_BY_USER);
+    byContextAndType = connection.prepareStatement(BY_CONTEXT_AND_TYPE);
+    byUserAndId = connection.prepareStatement(BY_USER_AND_ID);
+    byEmail = connection.prepareStatement(BY_EMAIL);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+    postgres.stop();
+  }
+
+  @Benchmark
+  public void pageByUser(Blackhole blackhole) throws SQLException {
+    pageByUser.setString(1, String.valueOf(1 + ThreadLocalRandom.current().nextInt(users)));
+    consume(pageByUser, blackhole);
+  }
+
+  @Benchmark
+  public void byContextAndType(Blackhole blackhole) throws SQLException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    byContextAndType.setString(1, "SYM" + random.nextInt(SYMBOLS));
+    byContextAndType.setString(2, ACTION_TYPES[random.nextInt(ACTION_TYPES.length)]);
+    consume(byContextAndType, blackhole);
+  }
+
+  @Benchmark
+  public void byUserAndId(Blackhole blackhole) throws SQLException {
+    long id = 1 + ThreadLocalRandom.current().nextInt(rows);
+    byUserAndId.setString(1, String.valueOf(id % users + 1));
+    byUserAndId.setLong(2, id);
+    consume(byUserAndId, blackhole);
+  }
+
+  @Benchmark
+  public void byEmail(Blackhole blackhole) throws SQLException {
+    byEmail.setString(
+        1, "user" + (1 + ThreadLocalRandom.current().nextInt(users)) + "@example.com");
+    consume(byEmail, blackhole);
+  }
+
+  private static void consume(PreparedStatement query, Blackhole blackhole) throws SQLException {
+    try (ResultSet result = query.executeQuery()) {
+      while (result.next()) {
+        blackhole.consume(result.getLong(1));
+      }
+    }
+  }
+
+  private static void seed(Connection connection, int rows, int users) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "INSERT INTO users (name, email, balance)"
+              + " SELECT 'user ' || i, 'user' || i || '@example.com', 0"
+              + " FROM generate_series(1, "
+              + users
+              + ") i");
+      statement.execute(
+          "INSERT INTO actions (id, version, user_id, description, context_id, context_type,"
+              + " action_type, created_at, target_value, divergence_tolerance,"
+              + " price_is_less_than_target, amount)"
+              + " SELECT i, 0, (i % "
+              + users
+              + " + 1)::text, 'action ' || i, 'SYM' || (i % "
+              + SYMBOLS
+              + "), 'STOCK_PRICES',"
+              + " (ARRAY['SELL_AUTOMATIC', 'BUY_AUTOMATIC', 'SET_STOP_LOSS'])[i % 3 + 1],"
+              + " now(), 100 + i % 100, 0.5, i % 2 = 0, 1"
+              + " FROM generate_series(1, "
+              + rows
+              + ") i");
+
+      statement.execute("CREATE SCHEMA unindexed");
+      statement.execute(
+          "CREATE TABLE unindexed.users (LIKE public.users INCLUDING DEFAULTS, PRIMARY KEY (id))");
+      statement.execute("INSERT INTO unindexed.users SELECT * FROM public.users");
+      statement.execute(
+          "CREATE TABLE unindexed.actions"
+              + " (LIKE public.actions INCLUDING DEFAULTS, PRIMARY KEY (id))");
+      statement.execute("INSERT INTO unindexed.actions SELECT * FROM public.actions");
+      statement.execute("VACUUM ANALYZE");
+    }
+  }
+
+  private void printPlan(String query) throws SQLException {
+    System.out.println("\n[" + schema + "] " + query);
+    try (Statement statement = connection.createStatement();
+        ResultSet plan = statement.executeQuery("EXPLAIN (ANALYZE, BUFFERS) " + query)) {
+      while (plan.next()) {
+        System.out.println("  " + plan.getString(1));
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.evooq.demo.db.mapper;
+
+import com.example.evooq.demo.db.model.ActionEntity;
+import com.example.evooq.demo.db.model.ActionType;
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.resource.mapper.ActionResourceMapper;
+import com.example.evooq.demo.resource.model.ActionResource;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+/** Resource, domain and entity conversions done on every create and edit request. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionMappingBenchmark {
+
+  @Param({"SELL_AUTOMATIC", "BUY_AUTOMATIC", "SET_STOP_LOSS"})
+  String type;
+
+  private final ActionEntityMapper entityMapper = Mappers.getMapper(ActionEntityMapper.class);
+  private final ActionResourceMapper resourceMapper = Mappers.getMapper(ActionResourceMapper.class);
+
+  private ActionResource resource;
+  private Action action;
+  private ActionEntity entity;
+  private ActionEntity patch;
+
+  @Setup
+  public void setUp() {
+    resource =
+        new ActionResource(
+            null,
+            null,
+            "42",
+            "Benchmark " + type,
+            com.example.evooq.demo.resource.model.ActionType.valueOf(type),
+            new BigDecimal("101.5"),
+            new BigDecimal("0.5"),
+            true,
+            "AAPL",
+            ContextRegistry.STOCK_PRICES,
+            null,
+            null,
+            null);
+    action = resourceMapper.mapToDomainAction(resource);
+    entity = entityMapper.toEntity(action);
+    entity.setActionType(ActionType.valueOf(type));
+    patch = new ActionEntity();
+    patch.setDescription("patched");
+    patch.setAmount(10.0);
+    patch.setAssetSymbol("MSFT");
+    patch.setTargetValue(new BigDecimal("99"));
+    patch.setStopLossValue(0.05);
+  }
+
+  @Benchmark
+  public Action resourceToDomain() {
+    return resourceMapper.mapToDomainAction(resource);
+  }
+
+  @Benchmark
+  public ActionEntity domainToEntity() {
+    return entityMapper.toEntity(action);
+  }
+
+  @Benchmark
+  public Action entityToDomain() {
+    return entityMapper.toDomain(entity);
+  }
+
+  // Create request: resource in, persisted entity, resource out
+  @Benchmark
+  public ActionResource roundTrip() {
+    ActionEntity mapped = entityMapper.toEntity(resourceMapper.mapToDomainAction(resource));
+    return resourceMapper.mapToResource(entityMapper.toDomain(mapped));
+  }
+
+  @Benchmark
+  public ActionEntity patch() {
+    entity.patch(patch);
+    return entity;
+  }
+}
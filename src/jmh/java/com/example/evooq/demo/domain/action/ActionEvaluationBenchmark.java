@@ -0,0 +1,74 @@
+package com.example.evooq.demo.domain.action;
+
+import com.example.evooq.demo.domain.context.ActionContext;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** One full pass of {@code shouldTake} over a mixed book of buy, sell and stop-loss actions. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActionEvaluationBenchmark {
+  private static final int SYMBOLS = 500;
+
+  @Param({"1000", "100000", "1000000"})
+  int actionCount;
+
+  private TargetPriceAction[] actions;
+  private MarketSnapshot snapshot;
+  private ActionContext context;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(11);
+    snapshot = new MarketSnapshot();
+    for (int i = 0; i < SYMBOLS; i++) {
+      snapshot.set(ContextRegistry.STOCK_PRICES, "SYM" + i, 95 + random.nextDouble() * 10);
+    }
+    context = new ActionContext(snapshot);
+
+    actions = new TargetPriceAction[actionCount];
+    for (int i = 0; i < actionCount; i++) {
+      String symbol = "SYM" + random.nextInt(SYMBOLS);
+      long target = Price.of(90f + random.nextFloat() * 20f, ContextRegistry.STOCK_PRICES);
+      long tolerance = Price.of(5, ContextRegistry.STOCK_PRICES);
+      actions[i] =
+          switch (i % 3) {
+            case 0 ->
+                new BuyAutomaticAction(
+                    "u", "buy", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, false);
+            case 1 ->
+                new SellAutomaticAction(
+                    "u", "sell", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, true);
+            default ->
+                new SetStopLossAction(
+                    "u", "stop", ContextRegistry.STOCK_PRICES, symbol, target, 0.1f);
+          };
+    }
+  }
+
+  @Benchmark
+  public int snapshot() {
+    int fired = 0;
+    for (TargetPriceAction action : actions) {
+      if (action.shouldTake(snapshot)) fired++;
+    }
+    return fired;
+  }
+
+  @Benchmark
+  public int actionContext() {
+    int fired = 0;
+    for (TargetPriceAction action : actions) {
+      if (action.shouldTake(context)) fired++;
+    }
+    return fired;
+  }
+}
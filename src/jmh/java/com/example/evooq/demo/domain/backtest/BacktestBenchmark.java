@@ -0,0 +1,78 @@
+package com.example.evooq.demo.domain.backtest;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.marketdata.GeneratorSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Ticks per second through a memory-mapped tick file of 10M ticks over 500 symbols: the bare
+ * replay, and a backtest of 10,000 actions. The file stays in the page cache after setup, so this
+ * measures the replay loop rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BacktestBenchmark {
+  private static final int TICKS = 10_000_000;
+  private static final int SYMBOLS = 500;
+
+  private Path file;
+  private MappedTickFile ticks;
+  private List<TargetPriceAction> actions;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    file = Files.createTempFile("backtest", ".bin");
+    SymbolTable symbols = new SymbolTable();
+    try (TickFileWriter writer = new TickFileWriter(file, symbols)) {
+      new GeneratorSource(symbols, SYMBOLS, TICKS, 42).run(writer);
+    }
+    ticks = MappedTickFile.open(file);
+
+    actions = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      String symbol = "SYM" + i % SYMBOLS;
+      long target = Price.of(95 + (i % 100) * 0.1, ContextRegistry.STOCK_PRICES);
+      long tolerance = Price.of(1, ContextRegistry.STOCK_PRICES);
+      actions.add(
+          i % 2 == 0
+              ? new BuyAutomaticAction(
+                  "1", "buy", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, false)
+              : new SellAutomaticAction(
+                  "1", "sell", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, true));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    ticks = null;
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TICKS)
+  public void replay(Blackhole blackhole) {
+    ticks.replay((registry, symbolId, value, timestamp) -> blackhole.consume(value));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TICKS)
+  public BacktestReport backtest() {
+    return Backtest.run(ticks, actions);
+  }
+}
@@ -0,0 +1,80 @@
+package com.example.evooq.demo.domain.condition;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.indicator.Indicators;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Conditions evaluated per second: walking the parsed tree and looking symbols up by name, against
+ * the compiled branch table. Each condition is {@code price(S) < x AND spread(S) < y AND (status(M)
+ * == OPEN OR volume(S) > z)}, with thresholds picked so that most evaluations read several values
+ * before they short-circuit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionBenchmark {
+  private static final int CONDITIONS = 10_000;
+  private static final int SYMBOLS = 500;
+
+  private MarketSnapshot snapshot;
+  private final Indicators indicators = new Indicators();
+  private Condition[] parsed;
+  private CompiledCondition[] compiled;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    snapshot = new MarketSnapshot();
+    for (int i = 0; i < SYMBOLS; i++) {
+      snapshot.set(ContextRegistry.STOCK_PRICES, "S" + i, 100 + random.nextDouble() * 10);
+      snapshot.set(ContextRegistry.SPREADS, "S" + i, random.nextDouble() * 0.1);
+      snapshot.set(ContextRegistry.VOLUMES, "S" + i, random.nextInt(10_000));
+    }
+    snapshot.set(ContextRegistry.MARKET_STATUS, "NYSE", 0);
+    snapshot.set(ContextRegistry.MARKET_STATUS, "NASDAQ", 1);
+
+    parsed = new Condition[CONDITIONS];
+    compiled = new CompiledCondition[CONDITIONS];
+    for (int i = 0; i < CONDITIONS; i++) {
+      String symbol = "S" + random.nextInt(SYMBOLS);
+      String expression =
+          "price(%s) < %d AND spread(%s) < 0.08 AND (status(%s) == OPEN OR volume(%s) > %d)"
+              .formatted(
+                  symbol,
+                  105 + random.nextInt(10),
+                  symbol,
+                  random.nextBoolean() ? "NYSE" : "NASDAQ",
+                  symbol,
+                  random.nextInt(10_000));
+      parsed[i] = Condition.parse(expression);
+      compiled[i] = CompiledCondition.compile(parsed[i], snapshot.symbols());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONDITIONS)
+  public int interpreted() {
+    int holding = 0;
+    for (Condition condition : parsed) {
+      if (condition.test(snapshot, indicators)) holding++;
+    }
+    return holding;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONDITIONS)
+  public int compiled() {
+    int holding = 0;
+    for (CompiledCondition condition : compiled) {
+      if (condition.test(snapshot, indicators)) holding++;
+    }
+    return holding;
+  }
+}
@@ -0,0 +1,85 @@
+package com.example.evooq.demo.domain.context;
+
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Single {@code shouldTake} evaluation through the string-keyed map the context used to be and
+ * through the primitive snapshot. Run with {@code -prof gc} to compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketSnapshotBenchmark {
+  private static final int SYMBOLS = 1000;
+
+  private final Map<String, Object> legacyContext = new HashMap<>();
+  private MarketSnapshot snapshot;
+  private ActionContext actionContext;
+  private SellAutomaticAction action;
+  private float price;
+
+  @Setup
+  public void setUp() {
+    HashMap<String, Float> prices = new HashMap<>();
+    snapshot = new MarketSnapshot();
+    for (int i = 0; i < SYMBOLS; i++) {
+      prices.put("SYM" + i, 100f + i);
+      snapshot.set(ContextRegistry.STOCK_PRICES, "SYM" + i, 100f + i);
+    }
+    legacyContext.put(ContextRegistry.STOCK_PRICES.name(), prices);
+    actionContext = new ActionContext(snapshot);
+    action =
+        new SellAutomaticAction(
+            "u1", "sell", ContextRegistry.STOCK_PRICES, "SYM500", 5_500_000, 10_000, true);
+    price = 600.25f;
+  }
+
+  // The evaluation shouldTake performed against the HashMap-backed context
+  @Benchmark
+  public boolean hashMapEvaluate() {
+    HashMap<?, ?> prices =
+        HashMap.class.cast(legacyContext.get(ContextRegistry.STOCK_PRICES.name()));
+    Float currentPrice = (Float) prices.get(action.getContextId());
+    return currentPrice != null
+        && Math.abs(currentPrice - action.getTargetPrice()) > action.getDivergenceTolerance();
+  }
+
+  // Publishing a fresh price the way the HashMap context required, boxing included
+  @Benchmark
+  @SuppressWarnings("unchecked")
+  public Object hashMapUpdate() {
+    price += 0.25f;
+    HashMap<String, Object> prices =
+        (HashMap<String, Object>) legacyContext.get(ContextRegistry.STOCK_PRICES.name());
+    return prices.put("SYM500", price);
+  }
+
+  @Benchmark
+  public boolean snapshotEvaluate() {
+    return action.shouldTake(snapshot);
+  }
+
+  @Benchmark
+  public boolean adapterEvaluate() {
+    return action.shouldTake(actionContext);
+  }
+
+  // Legacy read of a whole channel through the adapter, which materialises a copy
+  @Benchmark
+  public Object adapterChannelRead() {
+    return actionContext.get(ContextRegistry.STOCK_PRICES.name(), Map.class).get("SYM500");
+  }
+
+  @Benchmark
+  public void snapshotUpdate() {
+    price += 0.25f;
+    snapshot.set(ContextRegistry.STOCK_PRICES, 500, price);
+  }
+}
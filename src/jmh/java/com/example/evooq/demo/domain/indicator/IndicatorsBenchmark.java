@@ -0,0 +1,110 @@
+package com.example.evooq.demo.domain.indicator;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Ticks per second over 10k symbols, each tracking SMA, MIN, MAX, VOLATILITY and VWAP, reading the
+ * indicators after every tick. {@code incremental} updates the {@link Indicators}; {@code
+ * recomputed} keeps the same rings and recomputes every aggregate from the whole window instead,
+ * the cost that grows with the window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndicatorsBenchmark {
+  private static final int SYMBOLS = 10_000;
+  private static final int TICKS = 1 << 16;
+  private static final ContextRegistry PRICES = ContextRegistry.STOCK_PRICES;
+
+  @Param({"50", "500"})
+  public int window;
+
+  private Indicators indicators;
+  private double[][] prices;
+  private double[][] volumes;
+  private int[] positions;
+  private int[] symbols;
+  private double[] values;
+  private boolean[] isVolume;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    indicators = new Indicators(window);
+    prices = new double[SYMBOLS][window];
+    volumes = new double[SYMBOLS][window];
+    positions = new int[SYMBOLS];
+    for (int s = 0; s < SYMBOLS; s++) {
+      Arrays.fill(prices[s], 100);
+      Arrays.fill(volumes[s], 100);
+      for (Indicator indicator : Indicator.values()) indicators.track(indicator, PRICES, s);
+    }
+    symbols = new int[TICKS];
+    values = new double[TICKS];
+    isVolume = new boolean[TICKS];
+    for (int i = 0; i < TICKS; i++) {
+      symbols[i] = random.nextInt(SYMBOLS);
+      isVolume[i] = random.nextInt(4) == 0;
+      values[i] = isVolume[i] ? random.nextInt(1_000) : 100 + random.nextGaussian();
+    }
+    // Fill every window, so that reads take the full path
+    for (int i = 0; i < SYMBOLS * window * 2; i++) {
+      indicators.onTick(i % 2 == 0 ? PRICES : ContextRegistry.VOLUMES, i / 2 % SYMBOLS, 100);
+    }
+  }
+
+  @Benchmark
+  public double incremental() {
+    int i = next++ & (TICKS - 1);
+    int symbol = symbols[i];
+    indicators.onTick(isVolume[i] ? ContextRegistry.VOLUMES : PRICES, symbol, values[i]);
+    return indicators.value(Indicator.SMA, PRICES, symbol)
+        + indicators.value(Indicator.MIN, PRICES, symbol)
+        + indicators.value(Indicator.MAX, PRICES, symbol)
+        + indicators.value(Indicator.VOLATILITY, PRICES, symbol)
+        + indicators.value(Indicator.VWAP, PRICES, symbol);
+  }
+
+  @Benchmark
+  public double recomputed() {
+    int i = next++ & (TICKS - 1);
+    int symbol = symbols[i];
+    double[] ring = isVolume[i] ? volumes[symbol] : prices[symbol];
+    ring[positions[symbol]++ % window] = values[i];
+    double[] series = prices[symbol];
+    double[] traded = volumes[symbol];
+    double sum = 0;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    double returns = 0;
+    double squares = 0;
+    double notional = 0;
+    double volume = 0;
+    for (int j = 0; j < series.length; j++) {
+      double price = series[j];
+      sum += price;
+      min = Math.min(min, price);
+      max = Math.max(max, price);
+      double previous = series[j == 0 ? series.length - 1 : j - 1];
+      double change = price / previous - 1;
+      returns += change;
+      squares += change * change;
+      notional += price * traded[j];
+      volume += traded[j];
+    }
+    double meanReturn = returns / series.length;
+    return sum / series.length
+        + min
+        + max
+        + Math.sqrt(squares / series.length - meanReturn * meanReturn)
+        + notional / volume;
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Sustained ingestion rate: one thread publishing ticks while two subscriptions drain the ring, one
+ * of them into a {@link MarketDataPublisher}. The {@code publish} score is ticks per second; the
+ * backlog printed after each iteration shows how far the consumers fell behind at that rate.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickRingBufferBenchmark {
+  private static final int SYMBOLS = 1000;
+
+  @Param({"1024", "65536"})
+  public int capacity;
+
+  private TickRingBuffer ring;
+  private TickRingBuffer.Subscription publisherSubscription;
+  private TickRingBuffer.Subscription evaluatorSubscription;
+  private MarketDataPublisher publisher;
+  private TickHandler evaluator;
+  private int symbolId;
+  private double price;
+
+  @Setup
+  public void setUp() {
+    ring = new TickRingBuffer(capacity);
+    publisherSubscription = ring.subscribe();
+    evaluatorSubscription = ring.subscribe();
+    publisher = new MarketDataPublisher(new SymbolTable());
+    evaluator = (registry, id, value, timestamp) -> {};
+  }
+
+  // Printed per iteration: how far behind the consumers ended and how much was conflated away
+  @TearDown(Level.Iteration)
+  public void reportBacklog() {
+    long published = ring.published();
+    long conflated = ring.conflated();
+    System.out.printf(
+        "%n  depth=%d pending=%d conflated=%.1f%%%n",
+        ring.depth(), ring.pending(), 100.0 * conflated / Math.max(1, published + conflated));
+  }
+
+  @Benchmark
+  @Group("spmc")
+  @GroupThreads(1)
+  public void publish() {
+    symbolId = symbolId + 1 == SYMBOLS ? 0 : symbolId + 1;
+    price += 0.01;
+    ring.publish(ContextRegistry.STOCK_PRICES, symbolId, price, 0L);
+  }
+
+  @Benchmark
+  @Group("spmc")
+  @GroupThreads(1)
+  public int drainIntoSnapshot() {
+    int polled = publisherSubscription.poll(publisher, 4096);
+    if (polled == 0) publisher.publish();
+    return polled;
+  }
+
+  @Benchmark
+  @Group("spmc")
+  @GroupThreads(1)
+  public int drainIntoEvaluator() {
+    return evaluatorSubscription.poll(evaluator, 4096);
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.evooq.demo.domain.orderbook;
+
+import com.example.evooq.demo.domain.context.SymbolTable;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Level changes per second applied by the single writer over 1000 books of 32 levels, alone and
+ * with two threads reading top of book, spread and depth-at-5 of random symbols meanwhile. Updates
+ * are a mix of new levels, size changes and deletes around a moving price, a few of them crossing.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookBenchmark {
+  private static final int SYMBOLS = 1000;
+  private static final int UPDATES = 1 << 16;
+
+  private OrderBooks books;
+  private int[] symbolIds;
+  private Side[] sides;
+  private long[] prices;
+  private long[] sizes;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    books = new OrderBooks(new SymbolTable(), 32);
+    SplittableRandom random = new SplittableRandom(42);
+    symbolIds = new int[UPDATES];
+    sides = new Side[UPDATES];
+    prices = new long[UPDATES];
+    sizes = new long[UPDATES];
+    long[] mids = new long[SYMBOLS];
+    Arrays.fill(mids, 1_000_000);
+    for (int i = 0; i < UPDATES; i++) {
+      int symbol = random.nextInt(SYMBOLS);
+      mids[symbol] += random.nextInt(-100, 101);
+      Side side = random.nextBoolean() ? Side.BID : Side.ASK;
+      // Mostly behind the mid on its own side, now and then through it
+      long offset = random.nextInt(-2, 40) * 100L;
+      symbolIds[i] = symbol;
+      sides[i] = side;
+      prices[i] = side == Side.BID ? mids[symbol] - offset : mids[symbol] + offset;
+      sizes[i] = random.nextInt(4) == 0 ? 0 : random.nextInt(1, 1_000);
+    }
+    for (int i = 0; i < UPDATES; i++) update();
+  }
+
+  @Benchmark
+  @Group("alone")
+  public OrderBook update() {
+    int i = next++ & (UPDATES - 1);
+    return books.apply(symbolIds[i], sides[i], prices[i], sizes[i]);
+  }
+
+  @Benchmark
+  @Group("read")
+  @GroupThreads(1)
+  public OrderBook updateWhileRead() {
+    return update();
+  }
+
+  @Benchmark
+  @Group("read")
+  @GroupThreads(2)
+  public long read(ReaderState reader) {
+    OrderBook book = books.book(reader.random.nextInt(SYMBOLS));
+    if (book == null) return 0;
+    book.read(reader.view);
+    return reader.view.best(Side.BID) + reader.view.spread() + reader.view.depth(Side.ASK, 5);
+  }
+
+  @State(Scope.Thread)
+  public static class ReaderState {
+    final SplittableRandom random = new SplittableRandom(7);
+    final OrderBookView view = new OrderBookView(8);
+  }
+}
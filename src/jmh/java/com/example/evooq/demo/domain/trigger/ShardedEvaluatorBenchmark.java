@@ -0,0 +1,95 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Tick throughput of {@link ShardedEvaluator} as shards are added. Each invocation routes a batch
+ * of ticks and waits until every shard has evaluated its share, so the score is end-to-end ticks
+ * per second. Near-linear scaling needs as many free cores as shards plus one for the router, e.g.
+ * {@code -p shards=1,2,4,8,16}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedEvaluatorBenchmark {
+  private static final int BATCH = 4096;
+
+  @Param({"1", "2", "4", "8"})
+  int shards;
+
+  @Param({"200000"})
+  int actionCount;
+
+  @Param({"1000"})
+  int symbolCount;
+
+  private ShardedEvaluator evaluator;
+  private int[] tickSymbols;
+  private double[] tickPrices;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    Random random = new Random(7);
+    SymbolTable symbols = new SymbolTable();
+    evaluator = new ShardedEvaluator(symbols, shards, BATCH * 2, false, (action, price) -> {});
+    for (int i = 0; i < actionCount; i++) {
+      String symbol = "SYM" + random.nextInt(symbolCount);
+      long target = Price.of(90f + random.nextFloat() * 20f, ContextRegistry.STOCK_PRICES);
+      long tolerance = Price.of(5f + random.nextFloat() * 10f, ContextRegistry.STOCK_PRICES);
+      evaluator
+          .register(
+              random.nextBoolean()
+                  ? new BuyAutomaticAction(
+                      "u" + i,
+                      "buy",
+                      ContextRegistry.STOCK_PRICES,
+                      symbol,
+                      target,
+                      tolerance,
+                      false)
+                  : new SellAutomaticAction(
+                      "u" + i,
+                      "sell",
+                      ContextRegistry.STOCK_PRICES,
+                      symbol,
+                      target,
+                      tolerance,
+                      true))
+          .get();
+    }
+
+    tickSymbols = new int[BATCH];
+    tickPrices = new double[BATCH];
+    for (int i = 0; i < BATCH; i++) {
+      tickSymbols[i] = symbols.register("SYM" + random.nextInt(symbolCount));
+      tickPrices[i] = 95 + random.nextDouble() * 10;
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws InterruptedException {
+    evaluator.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public long routeBatch() {
+    for (int i = 0; i < BATCH; i++) {
+      evaluator.onTick(ContextRegistry.STOCK_PRICES, tickSymbols[i], tickPrices[i], i);
+    }
+    while (!evaluator.drained()) {
+      Thread.onSpinWait();
+    }
+    return evaluator.fired();
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-tick cost of trailing stops on one symbol: the engine's grouped heaps against raising and
+ * checking every stop's mark, as a per-stop implementation would. The price walks randomly within a
+ * band, so that marks keep moving and stops fire; each stop that fires is replaced by a new one
+ * bought at the current price, keeping the count constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrailingStopBenchmark {
+  private static final int TICKS = 4096;
+  private static final ContextRegistry REGISTRY = ContextRegistry.STOCK_PRICES;
+
+  @Param({"100000"})
+  int stopCount;
+
+  private TriggerEngine engine;
+  private TriggerListener replace;
+  private long[] marks;
+  private float[] trails;
+  private long[] tickPrices;
+  private int tick;
+
+  @Setup(Level.Trial)
+  public void setUp(Blackhole blackhole) {
+    Random random = new Random(7);
+    engine = new TriggerEngine();
+    marks = new long[stopCount];
+    trails = new float[stopCount];
+    for (int i = 0; i < stopCount; i++) {
+      long purchase = Price.of(90 + random.nextInt(1_100) / 100.0, REGISTRY);
+      long mark = purchase + Price.of(random.nextInt(500) / 100.0, REGISTRY);
+      trails[i] = (5 + random.nextInt(16)) / 100f;
+      TrailingStopAction stop =
+          new TrailingStopAction("u" + i, "trail", REGISTRY, "AAPL", purchase, trails[i], mark);
+      marks[i] = stop.getHighWaterMark();
+      engine.register(stop);
+    }
+
+    // Reflected between 95 and 105, so that the tighter stops fire on the larger swings
+    tickPrices = new long[TICKS];
+    long price = Price.of(100.0, REGISTRY);
+    long low = Price.of(95.0, REGISTRY);
+    long high = Price.of(105.0, REGISTRY);
+    long step = Price.of(0.01, REGISTRY);
+    for (int i = 0; i < TICKS; i++) {
+      price += (random.nextInt(21) - 10) * step;
+      if (price < low) price = 2 * low - price;
+      if (price > high) price = 2 * high - price;
+      tickPrices[i] = price;
+    }
+    replace =
+        (action, firedAt) -> {
+          TrailingStopAction fired = (TrailingStopAction) action;
+          blackhole.consume(fired);
+          engine.register(
+              new TrailingStopAction(
+                  fired.getUserId(),
+                  "trail",
+                  REGISTRY,
+                  "AAPL",
+                  firedAt,
+                  fired.getTrailPercent(),
+                  Price.NONE));
+        };
+  }
+
+  @Benchmark
+  public int heapTick() {
+    long price = tickPrices[tick++ & (TICKS - 1)];
+    return engine.trigger(REGISTRY, "AAPL", price, replace);
+  }
+
+  @Benchmark
+  public int scanTick(Blackhole blackhole) {
+    long price = tickPrices[tick++ & (TICKS - 1)];
+    int fired = 0;
+    for (int i = 0; i < marks.length; i++) {
+      if (price > marks[i]) marks[i] = price;
+      if (price <= TrailingStopAction.stopPrice(marks[i], trails[i])) {
+        blackhole.consume(i);
+        marks[i] = price;
+        fired++;
+      }
+    }
+    return fired;
+  }
+}
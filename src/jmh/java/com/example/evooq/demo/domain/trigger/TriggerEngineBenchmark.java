@@ -0,0 +1,96 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ActionContext;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Per-tick cost of the indexed engine against scanning every action with {@code shouldTake}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TriggerEngineBenchmark {
+  private static final int TICKS = 4096;
+
+  @Param({"1000000"})
+  int actionCount;
+
+  @Param({"1000"})
+  int symbolCount;
+
+  private TargetPriceAction[] actions;
+  private TriggerEngine engine;
+  private TriggerListener listener;
+  private String[] tickSymbols;
+  private long[] tickPrices;
+  private ActionContext[] tickContexts;
+  private int tick;
+
+  @Setup(Level.Trial)
+  public void setUp(Blackhole blackhole) {
+    Random random = new Random(7);
+    String[] symbols = new String[symbolCount];
+    for (int i = 0; i < symbolCount; i++) {
+      symbols[i] = "SYM" + i;
+    }
+
+    actions = new TargetPriceAction[actionCount];
+    engine = new TriggerEngine();
+    for (int i = 0; i < actionCount; i++) {
+      String symbol = symbols[random.nextInt(symbolCount)];
+      long target = Price.of(90f + random.nextFloat() * 20f, ContextRegistry.STOCK_PRICES);
+      long tolerance = Price.of(5f + random.nextFloat() * 10f, ContextRegistry.STOCK_PRICES);
+      actions[i] =
+          random.nextBoolean()
+              ? new BuyAutomaticAction(
+                  "u" + i, "buy", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, false)
+              : new SellAutomaticAction(
+                  "u" + i, "sell", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, true);
+      engine.register(actions[i]);
+    }
+
+    tickSymbols = new String[TICKS];
+    tickPrices = new long[TICKS];
+    tickContexts = new ActionContext[TICKS];
+    for (int i = 0; i < TICKS; i++) {
+      tickSymbols[i] = symbols[random.nextInt(symbolCount)];
+      float price = 95f + random.nextFloat() * 10f;
+      tickPrices[i] = Price.of(price, ContextRegistry.STOCK_PRICES);
+      Map<String, Float> prices = new HashMap<>();
+      prices.put(tickSymbols[i], price);
+      tickContexts[i] = new ActionContext();
+      tickContexts[i].set(ContextRegistry.STOCK_PRICES.name(), prices);
+    }
+    listener = (action, price) -> blackhole.consume(action);
+  }
+
+  @Benchmark
+  public int indexedTick() {
+    int i = tick++ & (TICKS - 1);
+    return engine.evaluate(ContextRegistry.STOCK_PRICES, tickSymbols[i], tickPrices[i], listener);
+  }
+
+  @Benchmark
+  public int scanTick(Blackhole blackhole) {
+    ActionContext context = tickContexts[tick++ & (TICKS - 1)];
+    int fired = 0;
+    for (TargetPriceAction action : actions) {
+      if (action.shouldTake(context)) {
+        blackhole.consume(action);
+        fired++;
+      }
+    }
+    return fired;
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.DemoApplication;
+import com.example.evooq.demo.db.jpa.UserRepository;
+import com.example.evooq.demo.db.model.UserEntity;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Many threads updating the balance of one hot account, through the row-lock path and through group
+ * commit. Needs Docker for the Postgres container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class BalanceUpdateBenchmark {
+  private static final BigDecimal DELTA = BigDecimal.ONE;
+
+  private PostgreSQLContainer<?> postgres;
+  private ConfigurableApplicationContext context;
+  private UserService userService;
+  private Long userId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    postgres = new PostgreSQLContainer<>("postgres:16");
+    postgres.start();
+    context =
+        new SpringApplicationBuilder(DemoApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "spring.jpa.show-sql=false")
+            .run();
+    userService = context.getBean(UserService.class);
+
+    UserEntity user = new UserEntity();
+    user.setName("Market Maker");
+    user.setEmail("mm@example.com");
+    user.setBalance(BigDecimal.ZERO);
+    userId = context.getBean(UserRepository.class).save(user).getId();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+    postgres.stop();
+  }
+
+  @Benchmark
+  public void rowLock() {
+    userService.updateBalance(userId, DELTA);
+  }
+
+  @Benchmark
+  public void groupCommit() {
+    userService.updateBalanceAsync(userId, DELTA).join();
+  }
+}
@@ -0,0 +1,120 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.DemoApplication;
+import com.example.evooq.demo.db.jpa.ActionRepository;
+import com.example.evooq.demo.db.jpa.UserRepository;
+import com.example.evooq.demo.db.mapper.ActionEntityMapper;
+import com.example.evooq.demo.db.model.ActionEntity;
+import com.example.evooq.demo.db.model.ActionType;
+import com.example.evooq.demo.db.model.UserEntity;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.trigger.ActionTriggeredEvent;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * A market gap firing {@code BURST} actions across 100 users at once, written to the outbox with
+ * their balance deltas in transactions of {@code batchSize} triggers. Needs Docker for the Postgres
+ * container.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TriggerExecutorBenchmark {
+  private static final int BURST = 5000;
+  private static final int USERS = 100;
+
+  @Param({"1", "100", "1000"})
+  int batchSize;
+
+  private PostgreSQLContainer<?> postgres;
+  private ConfigurableApplicationContext context;
+  private TriggerExecutor triggerExecutor;
+  private ActionRepository actionRepository;
+  private ActionEntityMapper actionEntityMapper;
+  private List<Long> userIds;
+  private List<ActionTriggeredEvent> burst;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    postgres = new PostgreSQLContainer<>("postgres:16");
+    postgres.start();
+    context =
+        new SpringApplicationBuilder(DemoApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.datasource.url=" + postgres.getJdbcUrl(),
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "spring.jpa.show-sql=false",
+                "execution.relay.enabled=false")
+            .run();
+    triggerExecutor = context.getBean(TriggerExecutor.class);
+    actionRepository = context.getBean(ActionRepository.class);
+    actionEntityMapper = context.getBean(ActionEntityMapper.class);
+
+    UserRepository userRepository = context.getBean(UserRepository.class);
+    userIds = new ArrayList<>();
+    for (int u = 0; u < USERS; u++) {
+      UserEntity user = new UserEntity();
+      user.setName("Trader " + u);
+      user.setEmail("trader" + u + "@example.com");
+      user.setBalance(BigDecimal.valueOf(1_000_000));
+      userIds.add(userRepository.save(user).getId());
+    }
+  }
+
+  // Every trigger needs an action of its own, or the idempotency key would skip it
+  @Setup(Level.Invocation)
+  public void fire() {
+    List<ActionEntity> actions = new ArrayList<>(BURST);
+    for (int i = 0; i < BURST; i++) {
+      boolean buy = i % 2 == 0;
+      ActionEntity action =
+          new ActionEntity(
+              String.valueOf(userIds.get(i % USERS)),
+              "gap",
+              "SYM" + i % 50,
+              "STOCK_PRICES",
+              buy ? ActionType.BUY_AUTOMATIC : ActionType.SELL_AUTOMATIC);
+      action.setTargetValue(BigDecimal.valueOf(100));
+      action.setDivergenceTolerance(BigDecimal.ZERO);
+      action.setPriceIsLessThanTarget(buy);
+      action.setAmount(1.0);
+      actions.add(action);
+    }
+    burst = new ArrayList<>(BURST);
+    for (ActionEntity action : actionRepository.saveAll(actions)) {
+      burst.add(
+          new ActionTriggeredEvent(
+              (TargetPriceAction) actionEntityMapper.toDomain(action),
+              Price.of(100, ContextRegistry.STOCK_PRICES)));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+    postgres.stop();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BURST)
+  public void write() {
+    for (int from = 0; from < BURST; from += batchSize) {
+      triggerExecutor.write(burst.subList(from, Math.min(from + batchSize, BURST)));
+    }
+  }
+}
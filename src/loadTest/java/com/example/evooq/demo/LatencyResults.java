@@ -0,0 +1,88 @@
+package com.example.evooq.demo;
+
+import com.example.evooq.demo.OperationMix.Operation;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histograms, in microseconds, and counts per operation over the measured window. Failed
+ * requests are counted but kept out of the histograms; requests not sent because too many were in
+ * flight are counted as dropped.
+ */
+final class LatencyResults {
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+  private static final double MICROS_PER_MILLI = 1000.0;
+
+  private final Histogram[] latencies = new Histogram[Operation.values().length];
+  private final AtomicLongArray errors = new AtomicLongArray(Operation.values().length);
+  private final AtomicLongArray dropped = new AtomicLongArray(Operation.values().length);
+  private final AtomicLongArray completedInWindow = new AtomicLongArray(Operation.values().length);
+
+  LatencyResults() {
+    for (int i = 0; i < latencies.length; i++) {
+      latencies[i] = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    }
+  }
+
+  void record(Operation operation, long latencyNanos, boolean ok, boolean completedInWindow) {
+    if (ok) {
+      latencies[operation.ordinal()].recordValue(
+          Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+    } else {
+      errors.incrementAndGet(operation.ordinal());
+    }
+    if (completedInWindow) this.completedInWindow.incrementAndGet(operation.ordinal());
+  }
+
+  void dropped(Operation operation) {
+    dropped.incrementAndGet(operation.ordinal());
+  }
+
+  // Counts, throughput and percentiles per operation, one line each
+  void write(PrintStream out, String header, long windowSeconds) {
+    out.println("# " + header);
+    out.printf(
+        "%-8s %9s %7s %8s %10s %9s %9s %9s %9s%n",
+        "op", "count", "errors", "dropped", "per_sec", "p50_ms", "p99_ms", "p999_ms", "max_ms");
+    for (Operation operation : Operation.values()) {
+      int i = operation.ordinal();
+      Histogram histogram = latencies[i];
+      if (histogram.getTotalCount() + errors.get(i) + dropped.get(i) == 0) continue;
+      out.printf(
+          "%-8s %9d %7d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+          operation.name().toLowerCase(),
+          histogram.getTotalCount(),
+          errors.get(i),
+          dropped.get(i),
+          completedInWindow.get(i) / (double) windowSeconds,
+          histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+          histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+  }
+
+  /**
+   * Writes the summary, then the percentile distribution of each operation in HdrHistogram's {@code
+   * .hgrm} format, in milliseconds.
+   */
+  void writeTo(Path file, String header, long windowSeconds) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+      write(out, header, windowSeconds);
+      for (Operation operation : Operation.values()) {
+        Histogram histogram = latencies[operation.ordinal()];
+        if (histogram.getTotalCount() == 0) continue;
+        out.println();
+        out.println("## " + operation.name().toLowerCase());
+        histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+      }
+    }
+  }
+}
@@ -0,0 +1,309 @@
+package com.example.evooq.demo;
+
+import com.example.evooq.demo.OperationMix.Operation;
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.services.ActionService;
+import com.example.evooq.demo.services.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Open-model load test of the REST API. Requests arrive as a Poisson process at {@code
+ * loadTest.rate} per second, whatever the response times: a slow server builds a queue rather than
+ * slowing the load down. Latency is measured from each request's scheduled arrival, so time spent
+ * queued counts towards the percentiles.
+ *
+ * <p>The application is booted in this JVM against {@code loadTest.datasource.url}, or against an
+ * embedded Postgres when none is given. Users and actions are seeded first, then the {@link
+ * OperationMix} runs for {@code loadTest.warmup} seconds and then {@code loadTest.duration} more.
+ * Only the second part is recorded. Balance updates have no endpoint, so they go through the group
+ * commit of {@link UserService} on a few hot users, as a trigger execution would.
+ *
+ * <p>The arrival times and the operation sequence depend only on {@code loadTest.seed}. The load
+ * generator shares the machine with the application, so compare runs made on the same machine.
+ */
+public class LoadTest {
+  private static final ContextRegistry REGISTRY = ContextRegistry.STOCK_PRICES;
+  private static final int ACTIONS_PER_USER = 5;
+  private static final int SYMBOLS = 50;
+  private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+  private static final Pattern VERSION = Pattern.compile("\"version\":(\\d+)");
+
+  private final HttpClient client;
+  private final URI base;
+  private final UserService userService;
+  private final long[] userIds;
+  private final int hotUsers;
+  // Actions that exist, as {userId, actionId, version}; edits take one and put it back, deletes
+  // take one, so no two requests work on the same action
+  private final Queue<long[]> actions = new ConcurrentLinkedQueue<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  private LoadTest(
+      HttpClient client, URI base, UserService userService, long[] userIds, int hotUsers) {
+    this.client = client;
+    this.base = base;
+    this.userService = userService;
+    this.userIds = userIds;
+    this.hotUsers = hotUsers;
+  }
+
+  public static void main(String[] args) throws Exception {
+    double rate = Double.parseDouble(System.getProperty("loadTest.rate", "200"));
+    long warmupSeconds = Long.getLong("loadTest.warmup", 10);
+    long durationSeconds = Long.getLong("loadTest.duration", 60);
+    OperationMix mix =
+        OperationMix.parse(
+            System.getProperty("loadTest.mix", "create=20,edit=30,delete=10,login=30,balance=10"));
+    int users = Integer.getInteger("loadTest.users", 1000);
+    int hotUsers = Math.min(Integer.getInteger("loadTest.hot-users", 1), users);
+    int maxInFlight = Integer.getInteger("loadTest.max-in-flight", 10_000);
+    long seed = Long.getLong("loadTest.seed", 42);
+    String profiles = System.getProperty("loadTest.profiles", "default");
+    Path resultsFile = Path.of(System.getProperty("loadTest.results", "load-test.txt"));
+
+    EmbeddedPostgres embedded = null;
+    String url = System.getProperty("loadTest.datasource.url");
+    String username = System.getProperty("loadTest.datasource.username", "postgres");
+    String password = System.getProperty("loadTest.datasource.password", "postgres");
+    if (url == null) {
+      embedded = EmbeddedPostgres.builder().start();
+      url = embedded.getJdbcUrl("postgres", "postgres");
+    }
+
+    try (ConfigurableApplicationContext context =
+            new SpringApplicationBuilder(DemoApplication.class)
+                .profiles(profiles.split(","))
+                .run(
+                    "--server.port=0",
+                    "--spring.datasource.url=" + url,
+                    "--spring.datasource.username=" + username,
+                    "--spring.datasource.password=" + password,
+                    "--spring.jpa.show-sql=false");
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client =
+            HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(workers)
+                .build()) {
+      int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+      LoadTest test =
+          new LoadTest(
+              client,
+              URI.create("http://localhost:" + port),
+              context.getBean(UserService.class),
+              seedUsers(context.getBean(UserService.class), users),
+              hotUsers);
+      test.seedActions(context.getBean(ActionService.class));
+
+      LatencyResults results =
+          test.run(mix, rate, warmupSeconds, durationSeconds, maxInFlight, seed, workers);
+      String header =
+          String.format(
+              "rate=%s/s warmup=%ds duration=%ds mix=%s users=%d hot-users=%d seed=%d profiles=%s"
+                  + " database=%s",
+              rate,
+              warmupSeconds,
+              durationSeconds,
+              mix,
+              users,
+              hotUsers,
+              seed,
+              profiles,
+              embedded == null ? url : "embedded");
+      results.write(System.out, header, durationSeconds);
+      results.writeTo(resultsFile, header, durationSeconds);
+      System.out.println("Results written to " + resultsFile.toAbsolutePath());
+    } finally {
+      if (embedded != null) embedded.close();
+    }
+  }
+
+  private static long[] seedUsers(UserService userService, int count) {
+    long[] ids = new long[count];
+    for (int u = 0; u < count; u++) {
+      ids[u] = userService.login("Load " + u, "load" + u + "@example.com").getId();
+    }
+    return ids;
+  }
+
+  private void seedActions(ActionService actionService) {
+    for (long userId : userIds) {
+      for (int a = 0; a < ACTIONS_PER_USER; a++) {
+        Action created =
+            actionService.create(
+                new SellAutomaticAction(
+                    String.valueOf(userId),
+                    "seed " + a,
+                    REGISTRY,
+                    "SYM" + a,
+                    Price.of(100 + a, REGISTRY),
+                    Price.of(1, REGISTRY),
+                    true));
+        actions.offer(new long[] {userId, created.getId(), created.getVersion()});
+      }
+    }
+  }
+
+  private LatencyResults run(
+      OperationMix mix,
+      double rate,
+      long warmupSeconds,
+      long durationSeconds,
+      int maxInFlight,
+      long seed,
+      ExecutorService workers)
+      throws InterruptedException {
+    LatencyResults results = new LatencyResults();
+    Semaphore inFlight = new Semaphore(maxInFlight);
+    Random random = new Random(seed);
+    double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    long start = System.nanoTime();
+    long recordFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+    long end = recordFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+    long arrival = start;
+    while (true) {
+      arrival += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+      if (arrival >= end) break;
+      Operation operation = mix.next(random);
+      // Drawn here rather than on the worker, so the seed fixes which users are hit too
+      int user = random.nextInt(operation == Operation.BALANCE ? hotUsers : userIds.length);
+      long wait;
+      while ((wait = arrival - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      boolean recorded = arrival >= recordFrom;
+      if (!inFlight.tryAcquire()) {
+        if (recorded) results.dropped(operation);
+        continue;
+      }
+      long scheduled = arrival;
+      workers.execute(
+          () -> {
+            boolean ok;
+            try {
+              ok = perform(operation, user);
+            } catch (IOException | RuntimeException e) {
+              ok = false;
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              ok = false;
+            } finally {
+              inFlight.release();
+            }
+            long completed = System.nanoTime();
+            if (recorded) results.record(operation, completed - scheduled, ok, completed <= end);
+          });
+    }
+    // Requests still in flight belong to the window they were sent in
+    inFlight.acquire(maxInFlight);
+    return results;
+  }
+
+  // user indexes userIds, among the hot users for BALANCE
+  private boolean perform(Operation operation, int user) throws IOException, InterruptedException {
+    return switch (operation) {
+      case CREATE -> create(userIds[user]);
+      case EDIT -> edit();
+      case DELETE -> delete();
+      case LOGIN -> login(user);
+      case BALANCE -> {
+        userService.updateBalanceAsync(userIds[user], BigDecimal.ONE).join();
+        yield true;
+      }
+    };
+  }
+
+  private boolean create(long userId) throws IOException, InterruptedException {
+    HttpResponse<String> response =
+        send(
+            HttpRequest.newBuilder(base.resolve("/actions/" + userId))
+                .POST(actionBody(userId, null))
+                .header("Content-Type", "application/json"));
+    if (response.statusCode() != 201) return false;
+    Matcher id = ID.matcher(response.body());
+    Matcher version = VERSION.matcher(response.body());
+    if (id.find() && version.find()) {
+      actions.offer(
+          new long[] {userId, Long.parseLong(id.group(1)), Long.parseLong(version.group(1))});
+    }
+    return true;
+  }
+
+  private boolean edit() throws IOException, InterruptedException {
+    long[] action = actions.poll();
+    if (action == null) return false;
+    try {
+      HttpResponse<String> response =
+          send(
+              HttpRequest.newBuilder(base.resolve("/actions/" + action[0] + "/" + action[1]))
+                  .PUT(actionBody(action[0], action[2]))
+                  .header("Content-Type", "application/json"));
+      if (response.statusCode() != 200) return false;
+      Matcher version = VERSION.matcher(response.body());
+      if (version.find()) action[2] = Long.parseLong(version.group(1));
+      return true;
+    } finally {
+      actions.offer(action);
+    }
+  }
+
+  private boolean delete() throws IOException, InterruptedException {
+    long[] action = actions.poll();
+    if (action == null) return false;
+    return send(HttpRequest.newBuilder(base.resolve("/actions/" + action[0] + "/" + action[1]))
+                .DELETE())
+            .statusCode()
+        == 204;
+  }
+
+  private boolean login(int user) throws IOException, InterruptedException {
+    String query = "?name=Load%20" + user + "&email=load" + user + "%40example.com";
+    return send(HttpRequest.newBuilder(base.resolve("/user/login" + query))
+                .POST(HttpRequest.BodyPublishers.noBody()))
+            .statusCode()
+        == 200;
+  }
+
+  private HttpRequest.BodyPublisher actionBody(long userId, Long version) {
+    long n = sequence.incrementAndGet();
+    return HttpRequest.BodyPublishers.ofString(
+        String.format(
+            "{%s\"userId\":\"%d\",\"description\":\"load %d\",\"type\":\"SELL_AUTOMATIC\","
+                + "\"targetPrice\":%d.25,\"divergenceTolerance\":1,\"priceIsLessThanTarget\":true,"
+                + "\"contextId\":\"SYM%d\",\"contextRegistry\":\"STOCK_PRICES\"}",
+            version == null ? "" : "\"version\":" + version + ",",
+            userId,
+            n,
+            100 + n % 100,
+            n % SYMBOLS));
+  }
+
+  private HttpResponse<String> send(HttpRequest.Builder request)
+      throws IOException, InterruptedException {
+    return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+}
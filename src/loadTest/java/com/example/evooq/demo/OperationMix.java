@@ -0,0 +1,63 @@
+package com.example.evooq.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/** Weighted choice of the next operation, parsed from e.g. {@code create=20,login=80}. */
+final class OperationMix {
+  enum Operation {
+    CREATE,
+    EDIT,
+    DELETE,
+    LOGIN,
+    BALANCE
+  }
+
+  private final String spec;
+  private final Operation[] operations;
+  private final int[] cumulativeWeights;
+
+  private OperationMix(String spec, Operation[] operations, int[] cumulativeWeights) {
+    this.spec = spec;
+    this.operations = operations;
+    this.cumulativeWeights = cumulativeWeights;
+  }
+
+  static OperationMix parse(String spec) {
+    List<Operation> operations = new ArrayList<>();
+    List<Integer> weights = new ArrayList<>();
+    int total = 0;
+    for (String entry : spec.split(",")) {
+      String[] parts = entry.trim().split("=");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Expected operation=weight, got: " + entry);
+      }
+      Operation operation = Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight < 0) throw new IllegalArgumentException("Negative weight for " + operation);
+      if (weight == 0) continue;
+      total += weight;
+      operations.add(operation);
+      weights.add(total);
+    }
+    if (total == 0) throw new IllegalArgumentException("No operation has a weight: " + spec);
+    return new OperationMix(
+        spec,
+        operations.toArray(Operation[]::new),
+        weights.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  Operation next(Random random) {
+    int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+    int i = 0;
+    while (cumulativeWeights[i] <= pick) i++;
+    return operations[i];
+  }
+
+  @Override
+  public String toString() {
+    return spec;
+  }
+}
@@ -2,6 +2,9 @@ package com.example.evooq.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
@@ -11,4 +14,12 @@ public class DemoApplication {
   public static void main(String[] args) {
     SpringApplication.run(DemoApplication.class, args);
   }
+
+  // The class data sharing training run (spring.context.exit=onRefresh) starts without a database
+  @Bean
+  FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+    return flyway -> {
+      if (!"onRefresh".equals(environment.getProperty("spring.context.exit"))) flyway.migrate();
+    };
+  }
 }
@@ -1,6 +1,159 @@
 package com.example.evooq.demo.db.jpa;
 
 import com.example.evooq.demo.db.model.ActionEntity;
+import com.example.evooq.demo.db.model.ActionType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface ActionRepository extends JpaRepository<ActionEntity, Long> {}
+public interface ActionRepository extends JpaRepository<ActionEntity, Long> {
+
+  // Keyset page on (userId, id): the position is the last id seen, never an offset
+  @Query(
+      "SELECT a FROM ActionEntity a WHERE a.userId = :userId AND a.id > :afterId"
+          + " AND (:actionType IS NULL OR a.actionType = :actionType)"
+          + " AND (:assetSymbol IS NULL OR a.assetSymbol = :assetSymbol)"
+          + " ORDER BY a.id")
+  List<ActionEntity> findPage(
+      @Param("userId") String userId,
+      @Param("afterId") long afterId,
+      @Param("actionType") ActionType actionType,
+      @Param("assetSymbol") String assetSymbol,
+      Limit limit);
+
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query(
+      "SELECT a FROM ActionEntity a WHERE a.userId = :userId"
+          + " AND (:actionType IS NULL OR a.actionType = :actionType)"
+          + " AND (:assetSymbol IS NULL OR a.assetSymbol = :assetSymbol)"
+          + " ORDER BY a.id")
+  Stream<ActionEntity> streamAll(
+      @Param("userId") String userId,
+      @Param("actionType") ActionType actionType,
+      @Param("assetSymbol") String assetSymbol);
+
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  // Fired actions are left out: they must not be armed again
+  @Query("SELECT a FROM ActionEntity a WHERE a.triggeredAt IS NULL ORDER BY a.id")
+  Stream<ActionEntity> streamArmed();
+
+  // FOR SHARE waits for writers still holding the rows, so what it reads is committed
+  @Lock(LockModeType.PESSIMISTIC_READ)
+  @Query("SELECT a FROM ActionEntity a WHERE a.id IN :ids ORDER BY a.id")
+  List<ActionEntity> findAllByIdForShare(@Param("ids") Collection<Long> ids);
+
+  // Scoped to the owner, so that ids of other users' actions match nothing
+  @Query("SELECT a FROM ActionEntity a WHERE a.userId = :userId AND a.id IN :ids")
+  List<ActionEntity> findAllByIdForUser(
+      @Param("userId") String userId, @Param("ids") Collection<Long> ids);
+
+  /** Deletes the user's actions among {@code ids} in one statement and returns their ids. */
+  @Query(
+      nativeQuery = true,
+      value = "DELETE FROM actions WHERE user_id = :userId AND id IN (:ids) RETURNING id")
+  List<Long> deleteAllForUser(@Param("userId") String userId, @Param("ids") Collection<Long> ids);
+
+  boolean existsByUserIdAndId(String userId, Long id);
+
+  /**
+   * {@link ActionEntity#patch} as a single statement: non-null values are written only to the
+   * columns the stored action type allows. Empty when the user has no such action or its version
+   * has moved on. The user id keeps the update to one partition.
+   */
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          UPDATE actions SET
+            description = COALESCE(CAST(:description AS varchar), description),
+            amount = CASE WHEN action_type IN ('BUY_AUTOMATIC', 'SELL_AUTOMATIC', 'TRAILING_STOP')
+              THEN COALESCE(CAST(:amount AS double precision), amount) ELSE amount END,
+            asset_symbol = CASE WHEN action_type <> 'CONDITION'
+              THEN COALESCE(CAST(:assetSymbol AS varchar), asset_symbol) ELSE asset_symbol END,
+            target_value = CASE WHEN action_type = 'SELL_AUTOMATIC'
+              THEN COALESCE(CAST(:targetValue AS numeric), target_value)
+              ELSE target_value END,
+            stop_loss_value = CASE WHEN action_type IN ('SET_STOP_LOSS', 'TRAILING_STOP')
+              THEN COALESCE(CAST(:stopLossValue AS double precision), stop_loss_value)
+              ELSE stop_loss_value END,
+            condition_expression = CASE WHEN action_type = 'CONDITION'
+              THEN COALESCE(CAST(:conditionExpression AS varchar), condition_expression)
+              ELSE condition_expression END,
+            context_id = CASE WHEN action_type = 'CONDITION'
+                AND CAST(:conditionExpression AS varchar) IS NOT NULL
+              THEN CAST(:contextId AS varchar) ELSE context_id END,
+            context_type = CASE WHEN action_type = 'CONDITION'
+                AND CAST(:conditionExpression AS varchar) IS NOT NULL
+              THEN CAST(:contextType AS varchar) ELSE context_type END,
+            triggered_at = NULL,
+            version = version + 1
+          WHERE user_id = :userId AND id = :id AND version = :version
+          RETURNING *
+          """)
+  Optional<ActionEntity> patch(
+      @Param("userId") String userId,
+      @Param("id") Long id,
+      @Param("version") Long version,
+      @Param("description") String description,
+      @Param("amount") Double amount,
+      @Param("assetSymbol") String assetSymbol,
+      @Param("targetValue") BigDecimal targetValue,
+      @Param("stopLossValue") Double stopLossValue,
+      @Param("conditionExpression") String conditionExpression,
+      @Param("contextId") String contextId,
+      @Param("contextType") String contextType);
+
+  /**
+   * Raises the high-water marks of trailing stops, pairing {@code ids} and {@code marks} by index,
+   * in one statement. A stored mark that is already higher is kept. The version is left alone: the
+   * mark is evaluation state, not an edit, and must not fail a concurrent one.
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          UPDATE actions SET high_water_mark = GREATEST(actions.high_water_mark, marks.mark)
+          FROM unnest(CAST(:ids AS bigint[]), CAST(:marks AS numeric[])) AS marks(id, mark)
+          WHERE actions.id = marks.id AND actions.action_type = 'TRAILING_STOP'
+          """)
+  int raiseHighWaterMarks(@Param("ids") Long[] ids, @Param("marks") BigDecimal[] marks);
+
+  /**
+   * Marks actions as fired, pairing {@code ids} and {@code versions} by index. An action edited
+   * since it fired has moved to another version and stays armed. Like the high-water mark, this
+   * leaves the version alone.
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          UPDATE actions SET triggered_at = :triggeredAt
+          FROM unnest(CAST(:ids AS bigint[]), CAST(:versions AS bigint[])) AS fired(id, version)
+          WHERE actions.id = fired.id AND actions.version = fired.version
+          """)
+  int markTriggered(
+      @Param("ids") Long[] ids,
+      @Param("versions") Long[] versions,
+      @Param("triggeredAt") LocalDateTime triggeredAt);
+}
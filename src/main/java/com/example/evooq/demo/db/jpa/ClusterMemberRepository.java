@@ -0,0 +1,33 @@
+package com.example.evooq.demo.db.jpa;
+
+import com.example.evooq.demo.db.model.ClusterMemberEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ClusterMemberRepository extends JpaRepository<ClusterMemberEntity, String> {
+
+  @Transactional
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          INSERT INTO cluster_members (node_id, expires_at)
+          VALUES (:nodeId, now() + CAST(:ttlMillis AS bigint) * interval '1 millisecond')
+          ON CONFLICT (node_id) DO UPDATE SET expires_at = EXCLUDED.expires_at
+          """)
+  int heartbeat(@Param("nodeId") String nodeId, @Param("ttlMillis") long ttlMillis);
+
+  @Query(
+      nativeQuery = true,
+      value = "SELECT count(*) FROM cluster_members WHERE expires_at > now()")
+  long countLive();
+
+  @Transactional
+  @Modifying
+  @Query(nativeQuery = true, value = "DELETE FROM cluster_members WHERE expires_at < now()")
+  int deleteExpired();
+}
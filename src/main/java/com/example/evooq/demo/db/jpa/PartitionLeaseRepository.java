@@ -0,0 +1,58 @@
+package com.example.evooq.demo.db.jpa;
+
+import com.example.evooq.demo.db.model.PartitionLeaseEntity;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+// Expiry is computed on the database clock, so instances never compare their own clocks
+public interface PartitionLeaseRepository extends JpaRepository<PartitionLeaseEntity, Integer> {
+
+  // Also takes back leases that expired but were not claimed by anyone else in the meantime
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          UPDATE partition_leases
+          SET expires_at = now() + CAST(:ttlMillis AS bigint) * interval '1 millisecond'
+          WHERE owner = :owner
+          RETURNING partition_id
+          """)
+  List<Integer> renew(@Param("owner") String owner, @Param("ttlMillis") long ttlMillis);
+
+  // SKIP LOCKED: instances claiming at the same moment take disjoint partitions
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          UPDATE partition_leases
+          SET owner = :owner,
+            expires_at = now() + CAST(:ttlMillis AS bigint) * interval '1 millisecond'
+          WHERE partition_id IN (
+            SELECT partition_id FROM partition_leases
+            WHERE owner IS NULL OR expires_at < now()
+            ORDER BY partition_id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED)
+          RETURNING partition_id
+          """)
+  List<Integer> claim(
+      @Param("owner") String owner, @Param("ttlMillis") long ttlMillis, @Param("limit") int limit);
+
+  @Transactional
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          UPDATE partition_leases SET owner = NULL, expires_at = NULL
+          WHERE owner = :owner AND partition_id IN (:partitions)
+          """)
+  int release(@Param("owner") String owner, @Param("partitions") Collection<Integer> partitions);
+}
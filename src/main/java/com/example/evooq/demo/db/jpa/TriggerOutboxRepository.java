@@ -0,0 +1,31 @@
+package com.example.evooq.demo.db.jpa;
+
+import com.example.evooq.demo.db.model.TriggerOutboxEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface TriggerOutboxRepository extends JpaRepository<TriggerOutboxEntity, Long> {
+
+  @Query("SELECT o.idempotencyKey FROM TriggerOutboxEntity o WHERE o.idempotencyKey IN :keys")
+  List<String> findExistingKeys(@Param("keys") Collection<String> keys);
+
+  // A lock timeout of -2 is SKIP LOCKED: concurrent relays take disjoint batches
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("SELECT o FROM TriggerOutboxEntity o WHERE o.relayedAt IS NULL ORDER BY o.id")
+  List<TriggerOutboxEntity> findUnrelayedForUpdate(Limit limit);
+
+  @Modifying
+  @Query("UPDATE TriggerOutboxEntity o SET o.relayedAt = :relayedAt WHERE o.id IN :ids")
+  int markRelayed(@Param("ids") Collection<Long> ids, @Param("relayedAt") LocalDateTime relayedAt);
+}
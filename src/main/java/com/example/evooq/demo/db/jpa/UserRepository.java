@@ -2,11 +2,16 @@ package com.example.evooq.demo.db.jpa;
 
 import com.example.evooq.demo.db.model.UserEntity;
 import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
   Optional<UserEntity> findByEmail(String email);
@@ -14,4 +19,31 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("SELECT u FROM UserEntity u WHERE u.id = :id")
   Optional<UserEntity> findByIdForUpdate(@Param("id") Long id);
+
+  // Locked in id order, so batches touching overlapping users cannot deadlock
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM UserEntity u WHERE u.id IN :ids ORDER BY u.id")
+  List<UserEntity> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+  // The no-op update makes RETURNING yield the existing row on conflict, which DO NOTHING would not
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          INSERT INTO users (name, email, balance) VALUES (:name, :email, 0)
+          ON CONFLICT (email) DO UPDATE SET email = EXCLUDED.email
+          RETURNING *
+          """)
+  UserEntity upsertByEmail(@Param("name") String name, @Param("email") String email);
+
+  @Modifying
+  @Query("UPDATE UserEntity u SET u.balance = u.balance + :delta WHERE u.id = :id")
+  int addToBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+  @Modifying
+  @Query(
+      "UPDATE UserEntity u SET u.balance = u.balance + :delta"
+          + " WHERE u.id = :id AND u.balance + :delta >= 0")
+  int addToBalanceIfNotNegative(@Param("id") Long id, @Param("delta") BigDecimal delta);
 }
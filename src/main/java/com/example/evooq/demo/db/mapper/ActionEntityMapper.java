@@ -5,10 +5,18 @@ import static com.example.evooq.demo.db.model.ActionType.*;
 import com.example.evooq.demo.db.model.ActionEntity;
 import com.example.evooq.demo.domain.action.Action;
 import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.ConditionAction;
 import com.example.evooq.demo.domain.action.SellAutomaticAction;
 import com.example.evooq.demo.domain.action.SetStopLossAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import java.math.BigDecimal;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
+// Prices are converted explicitly: the scale depends on the context registry, and MapStruct's
+// built-in BigDecimal to long conversion would silently drop the decimals
 @Mapper(componentModel = "spring")
 public interface ActionEntityMapper {
 
@@ -19,6 +27,8 @@ public interface ActionEntityMapper {
       case SELL_AUTOMATIC -> toDomainSellAutomatic(entity);
       case BUY_AUTOMATIC -> toDomainBuyAutomatic(entity);
       case SET_STOP_LOSS -> toDomainSetStopLoss(entity);
+      case CONDITION -> toDomainCondition(entity);
+      case TRAILING_STOP -> toDomainTrailingStop(entity);
       default ->
           throw new IllegalArgumentException("Unsupported action type: " + entity.getActionType());
     };
@@ -29,22 +39,110 @@ public interface ActionEntityMapper {
     return switch (action) {
       case null -> null;
       case SetStopLossAction stopLoss -> toEntitySetStopLoss(stopLoss);
+      case TrailingStopAction trailingStop -> toEntityTrailingStop(trailingStop);
       case SellAutomaticAction sell -> toEntitySellAutomatic(sell);
       case BuyAutomaticAction buy -> toEntityBuyAutomatic(buy);
+      case ConditionAction condition -> toEntityCondition(condition);
       default ->
           throw new IllegalArgumentException("Unsupported action type: " + action.getClass());
     };
   }
 
+  @Mapping(target = "contextRegistry", source = "contextType")
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(toPrice(entity.getTargetValue(), entity.getContextType()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression = "java(toPrice(entity.getDivergenceTolerance(), entity.getContextType()))")
   SellAutomaticAction toDomainSellAutomatic(ActionEntity entity);
 
+  @Mapping(target = "contextRegistry", source = "contextType")
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(toPrice(entity.getTargetValue(), entity.getContextType()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression = "java(toPrice(entity.getDivergenceTolerance(), entity.getContextType()))")
   BuyAutomaticAction toDomainBuyAutomatic(ActionEntity entity);
 
+  @Mapping(target = "contextRegistry", source = "contextType")
+  @Mapping(
+      target = "purchasePrice",
+      expression = "java(toPrice(entity.getTargetValue(), entity.getContextType()))")
+  @Mapping(target = "stopLossPercent", source = "stopLossValue")
   SetStopLossAction toDomainSetStopLoss(ActionEntity entity);
 
+  @Mapping(target = "contextRegistry", source = "contextType")
+  @Mapping(
+      target = "purchasePrice",
+      expression = "java(toPrice(entity.getTargetValue(), entity.getContextType()))")
+  @Mapping(target = "trailPercent", source = "stopLossValue")
+  @Mapping(
+      target = "highWaterMark",
+      expression = "java(toPrice(entity.getHighWaterMark(), entity.getContextType()))")
+  TrailingStopAction toDomainTrailingStop(ActionEntity entity);
+
+  @Mapping(target = "condition", source = "conditionExpression")
+  ConditionAction toDomainCondition(ActionEntity entity);
+
+  @Mapping(target = "actionType", constant = "SELL_AUTOMATIC")
+  @Mapping(target = "contextType", source = "contextRegistry")
+  @Mapping(
+      target = "targetValue",
+      expression = "java(toDecimal(action.getTargetPrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression = "java(toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
   ActionEntity toEntitySellAutomatic(SellAutomaticAction action);
 
+  @Mapping(target = "actionType", constant = "BUY_AUTOMATIC")
+  @Mapping(target = "contextType", source = "contextRegistry")
+  @Mapping(
+      target = "targetValue",
+      expression = "java(toDecimal(action.getTargetPrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression = "java(toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
   ActionEntity toEntityBuyAutomatic(BuyAutomaticAction action);
 
+  @Mapping(target = "actionType", constant = "SET_STOP_LOSS")
+  @Mapping(target = "contextType", source = "contextRegistry")
+  @Mapping(
+      target = "targetValue",
+      expression = "java(toDecimal(action.getPurchasePrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression = "java(toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
+  @Mapping(target = "stopLossValue", source = "stopLossPercent")
   ActionEntity toEntitySetStopLoss(SetStopLossAction action);
+
+  @Mapping(target = "actionType", constant = "TRAILING_STOP")
+  @Mapping(target = "contextType", source = "contextRegistry")
+  @Mapping(
+      target = "targetValue",
+      expression = "java(toDecimal(action.getPurchasePrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression = "java(toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
+  @Mapping(target = "stopLossValue", source = "trailPercent")
+  // Not in the domain model: left null, which a patch reads as unchanged
+  @Mapping(target = "amount", ignore = true)
+  @Mapping(
+      target = "highWaterMark",
+      expression = "java(toDecimal(action.getHighWaterMark(), action.getContextRegistry()))")
+  ActionEntity toEntityTrailingStop(TrailingStopAction action);
+
+  @Mapping(target = "actionType", constant = "CONDITION")
+  @Mapping(target = "contextType", source = "contextRegistry")
+  @Mapping(target = "conditionExpression", source = "condition")
+  ActionEntity toEntityCondition(ConditionAction action);
+
+  default long toPrice(BigDecimal value, String contextType) {
+    return Price.of(value, contextType == null ? null : ContextRegistry.valueOf(contextType));
+  }
+
+  default BigDecimal toDecimal(long price, ContextRegistry registry) {
+    return Price.toDecimal(price, registry);
+  }
 }
@@ -1,15 +1,23 @@
 package com.example.evooq.demo.db.model;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// The schema, with its indexes and hash partitions, is owned by the Flyway migrations
 @Entity
 @Table(name = "actions")
 public class ActionEntity {
+  // Pooled sequence ids let Hibernate batch inserts, IDENTITY would force one round trip per row
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "actions_seq")
+  @SequenceGenerator(name = "actions_seq", sequenceName = "actions_seq", allocationSize = 500)
   private Long id;
 
+  @Version
+  @Column(nullable = false)
+  private Long version;
+
   private String userId;
   private String description;
   private String contextId;
@@ -20,11 +28,28 @@ public class ActionEntity {
 
   private LocalDateTime createdAt;
 
-  private Double targetValue;
+  // Exact decimals; the domain holds them as fixed-point prices at the context registry's scale
+  @Column(precision = 19, scale = 8)
+  private BigDecimal targetValue;
+
+  @Column(precision = 19, scale = 8)
+  private BigDecimal divergenceTolerance;
+
+  private Boolean priceIsLessThanTarget;
   private Double stopLossValue;
   private Double amount;
   private String assetSymbol;
 
+  @Column(length = 1000)
+  private String conditionExpression;
+
+  // Highest price seen by a trailing stop, as of the evaluator's last write-back
+  @Column(precision = 19, scale = 8)
+  private BigDecimal highWaterMark;
+
+  // When the action fired; null while it is armed
+  private LocalDateTime triggeredAt;
+
   public ActionEntity() {
     this.createdAt = LocalDateTime.now();
   }
@@ -51,6 +76,14 @@ public class ActionEntity {
     this.id = id;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public String getUserId() {
     return userId;
   }
@@ -99,14 +132,30 @@ public class ActionEntity {
     this.createdAt = createdAt;
   }
 
-  public Double getTargetValue() {
+  public BigDecimal getTargetValue() {
     return targetValue;
   }
 
-  public void setTargetValue(Double targetValue) {
+  public void setTargetValue(BigDecimal targetValue) {
     this.targetValue = targetValue;
   }
 
+  public BigDecimal getDivergenceTolerance() {
+    return divergenceTolerance;
+  }
+
+  public void setDivergenceTolerance(BigDecimal divergenceTolerance) {
+    this.divergenceTolerance = divergenceTolerance;
+  }
+
+  public Boolean getPriceIsLessThanTarget() {
+    return priceIsLessThanTarget;
+  }
+
+  public void setPriceIsLessThanTarget(Boolean priceIsLessThanTarget) {
+    this.priceIsLessThanTarget = priceIsLessThanTarget;
+  }
+
   public Double getStopLossValue() {
     return stopLossValue;
   }
@@ -131,8 +180,34 @@ public class ActionEntity {
     this.assetSymbol = assetSymbol;
   }
 
+  public String getConditionExpression() {
+    return conditionExpression;
+  }
+
+  public void setConditionExpression(String conditionExpression) {
+    this.conditionExpression = conditionExpression;
+  }
+
+  public BigDecimal getHighWaterMark() {
+    return highWaterMark;
+  }
+
+  public void setHighWaterMark(BigDecimal highWaterMark) {
+    this.highWaterMark = highWaterMark;
+  }
+
+  public LocalDateTime getTriggeredAt() {
+    return triggeredAt;
+  }
+
+  public void setTriggeredAt(LocalDateTime triggeredAt) {
+    this.triggeredAt = triggeredAt;
+  }
+
   public void patch(ActionEntity source) {
     if (source == null) return;
+    // An edited action is armed again
+    this.triggeredAt = null;
 
     if (source.getDescription() != null) {
       this.description = source.getDescription();
@@ -158,6 +233,17 @@ public class ActionEntity {
           this.targetValue = source.getTargetValue();
         }
         break;
+      case TRAILING_STOP:
+        if (source.getAmount() != null) {
+          this.amount = source.getAmount();
+        }
+        if (source.getStopLossValue() != null) {
+          this.stopLossValue = source.getStopLossValue();
+        }
+        if (source.getAssetSymbol() != null) {
+          this.assetSymbol = source.getAssetSymbol();
+        }
+        break;
       case SET_STOP_LOSS:
         if (source.getStopLossValue() != null) {
           this.stopLossValue = source.getStopLossValue();
@@ -166,6 +252,14 @@ public class ActionEntity {
           this.assetSymbol = source.getAssetSymbol();
         }
         break;
+      case CONDITION:
+        // The context is derived from the condition, so it moves with it
+        if (source.getConditionExpression() != null) {
+          this.conditionExpression = source.getConditionExpression();
+          this.contextId = source.getContextId();
+          this.contextType = source.getContextType();
+        }
+        break;
       default:
         break;
     }
@@ -0,0 +1,22 @@
+package com.example.evooq.demo.db.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** An instance taking part in partition ownership, live until {@code expiresAt}. */
+@Entity
+@Table(name = "cluster_members")
+public class ClusterMemberEntity {
+  @Id private String nodeId;
+
+  @Column(nullable = false)
+  private LocalDateTime expiresAt;
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+}
@@ -0,0 +1,9 @@
+package com.example.evooq.demo.db.model;
+
+public enum ExecutionStatus {
+  EXECUTED,
+  // The balance delta would have overdrawn the account, or the user does not exist
+  REJECTED,
+  // Could not be written even on its own; dead-lettered without a balance change
+  FAILED
+}
@@ -0,0 +1,26 @@
+package com.example.evooq.demo.db.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/** Lease on one action partition. {@code owner} is null while nobody holds it. */
+@Entity
+@Table(name = "partition_leases")
+public class PartitionLeaseEntity {
+  @Id private Integer partitionId;
+
+  private String owner;
+  private LocalDateTime expiresAt;
+
+  public Integer getPartitionId() {
+    return partitionId;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public LocalDateTime getExpiresAt() {
+    return expiresAt;
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.evooq.demo.db.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One fired action. Written in the same transaction as its balance delta, and relayed afterwards;
+ * {@code relayedAt} stays null until then.
+ */
+@Entity
+@Table(
+    name = "trigger_outbox",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_trigger_outbox_idempotency_key",
+            columnNames = "idempotency_key"))
+public class TriggerOutboxEntity {
+  // A large pooled allocation keeps id generation out of the way of batches of thousands of rows
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trigger_outbox_seq")
+  @SequenceGenerator(
+      name = "trigger_outbox_seq",
+      sequenceName = "trigger_outbox_seq",
+      allocationSize = 500)
+  private Long id;
+
+  private String idempotencyKey;
+  private Long actionId;
+  private String userId;
+  private String contextId;
+
+  @Enumerated(EnumType.STRING)
+  private ActionType actionType;
+
+  @Enumerated(EnumType.STRING)
+  private ExecutionStatus status;
+
+  @Column(precision = 19, scale = 8)
+  private BigDecimal price;
+
+  private Double amount;
+
+  @Column(precision = 19, scale = 4)
+  private BigDecimal balanceDelta;
+
+  private LocalDateTime createdAt;
+  private LocalDateTime relayedAt;
+
+  public TriggerOutboxEntity() {
+    this.createdAt = LocalDateTime.now();
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  public void setIdempotencyKey(String idempotencyKey) {
+    this.idempotencyKey = idempotencyKey;
+  }
+
+  public Long getActionId() {
+    return actionId;
+  }
+
+  public void setActionId(Long actionId) {
+    this.actionId = actionId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public String getContextId() {
+    return contextId;
+  }
+
+  public void setContextId(String contextId) {
+    this.contextId = contextId;
+  }
+
+  public ActionType getActionType() {
+    return actionType;
+  }
+
+  public void setActionType(ActionType actionType) {
+    this.actionType = actionType;
+  }
+
+  public ExecutionStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(ExecutionStatus status) {
+    this.status = status;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public void setPrice(BigDecimal price) {
+    this.price = price;
+  }
+
+  public Double getAmount() {
+    return amount;
+  }
+
+  public void setAmount(Double amount) {
+    this.amount = amount;
+  }
+
+  public BigDecimal getBalanceDelta() {
+    return balanceDelta;
+  }
+
+  public void setBalanceDelta(BigDecimal balanceDelta) {
+    this.balanceDelta = balanceDelta;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public LocalDateTime getRelayedAt() {
+    return relayedAt;
+  }
+
+  public void setRelayedAt(LocalDateTime relayedAt) {
+    this.relayedAt = relayedAt;
+  }
+}
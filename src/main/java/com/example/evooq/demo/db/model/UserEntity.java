@@ -1,17 +1,25 @@
 package com.example.evooq.demo.db.model;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email"))
 public class UserEntity {
+  /** Decimals kept in {@code balance}. */
+  public static final int BALANCE_SCALE = 4;
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
   private String name;
   private String email;
-  private Double balance;
+
+  @Column(precision = 19, scale = BALANCE_SCALE)
+  private BigDecimal balance;
 
   // Getters and setters
   public Long getId() {
@@ -38,12 +46,12 @@ public class UserEntity {
     this.email = email;
   }
 
-  public Double getBalance() {
+  public BigDecimal getBalance() {
     return balance;
   }
 
-  public void setBalance(Double balance) {
-    if (balance < 0) {
+  public void setBalance(BigDecimal balance) {
+    if (balance.signum() < 0) {
       throw new IllegalArgumentException("Balance cannot be negative");
     }
     this.balance = balance;
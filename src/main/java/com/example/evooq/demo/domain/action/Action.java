@@ -4,6 +4,8 @@ import com.example.evooq.demo.domain.context.ActionContext;
 import com.example.evooq.demo.domain.context.ContextRegistry;
 
 public abstract class Action {
+  protected Long id;
+  protected Long version;
   protected String userId;
   protected String description;
   protected ContextRegistry contextRegistry;
@@ -17,6 +19,22 @@ public abstract class Action {
     this.contextId = contextId;
   }
 
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public String getUserId() {
     return userId;
   }
@@ -0,0 +1,25 @@
+package com.example.evooq.demo.domain.action;
+
+/**
+ * A committed change to a stored action. Inserts and patches carry the full new state; a delete
+ * only carries the id, and {@code action} is {@code null}.
+ */
+public record ActionChange(Type type, long actionId, Action action) {
+  public enum Type {
+    INSERT,
+    PATCH,
+    DELETE
+  }
+
+  public static ActionChange insert(Action action) {
+    return new ActionChange(Type.INSERT, action.getId(), action);
+  }
+
+  public static ActionChange patch(Action action) {
+    return new ActionChange(Type.PATCH, action.getId(), action);
+  }
+
+  public static ActionChange delete(long actionId) {
+    return new ActionChange(Type.DELETE, actionId, null);
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.evooq.demo.domain.action;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded in-memory log of committed {@link ActionChange}s, read by any number of subscriptions. It
+ * retains the last {@code capacity} sequence numbers; a subscription that falls further behind is
+ * resynced instead of being handed a gap.
+ *
+ * <p>Writers {@link #reserve} sequence numbers before their transaction commits and {@link
+ * #complete} them afterwards. Reserving while the transaction still holds its row locks means two
+ * transactions changing the same action reserve in the order they commit, so every subscription
+ * sees the changes to an action in commit order. A subscription never reads past a reservation that
+ * has not completed yet.
+ */
+public class ActionChangeFeed {
+  private final int capacity;
+  private final int mask;
+  // Slot i holds the change for sequences[i], or -1 while it is being overwritten
+  private final AtomicLongArray sequences;
+  private final AtomicReferenceArray<ActionChange> changes;
+  // First sequence and size of each reservation still waiting for its transaction, guarded by this
+  private final TreeMap<Long, Integer> inFlight = new TreeMap<>();
+  private volatile long next;
+  // Times changes were lost to every subscription: a completion that arrived after its slot had
+  // been reserved again, or an invalidate
+  private volatile long lapped;
+
+  public ActionChangeFeed(int capacity) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Change feed capacity must be a power of two");
+    }
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.sequences = new AtomicLongArray(capacity);
+    this.changes = new AtomicReferenceArray<>(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, -1);
+    }
+  }
+
+  /** A new subscription starts with a {@link ActionChangeHandler#resync}. */
+  public Subscription subscribe() {
+    return new Subscription();
+  }
+
+  /** Reserves {@code count} consecutive sequence numbers and returns the first. */
+  public synchronized long reserve(int count) {
+    long first = next;
+    inFlight.put(first, count);
+    next = first + count;
+    return first;
+  }
+
+  /**
+   * Completes the reservation starting at {@code first} with one change per sequence number, or
+   * with none when the transaction rolled back.
+   */
+  public synchronized void complete(long first, List<ActionChange> committed) {
+    int count = inFlight.remove(first);
+    for (int i = 0; i < count; i++) {
+      long sequence = first + i;
+      if (sequence < next - capacity) {
+        lapped = lapped + 1;
+        continue;
+      }
+      int index = (int) sequence & mask;
+      sequences.set(index, -1);
+      changes.set(index, committed == null ? null : committed.get(i));
+      sequences.set(index, sequence);
+    }
+  }
+
+  /** Makes every subscription resync, for changes that were lost before reaching the feed. */
+  public synchronized void invalidate() {
+    lapped = lapped + 1;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /** Sequence numbers reserved so far. */
+  public long reserved() {
+    return next;
+  }
+
+  // Everything before the oldest open reservation has completed, so it is already in the store
+  private synchronized long resyncPoint() {
+    long oldest = inFlight.isEmpty() ? next : inFlight.firstKey();
+    return Math.max(oldest, next - capacity);
+  }
+
+  /** A consumer's read position. Each subscription is meant to be polled by one thread. */
+  public final class Subscription {
+    private long position = -1;
+    private long lappedSeen;
+
+    private Subscription() {}
+
+    /**
+     * Hands up to {@code limit} changes to the handler, in sequence order, and returns how many
+     * sequence numbers it moved past. Resyncs first when changes were lost to this subscription.
+     */
+    public int poll(ActionChangeHandler handler, int limit) {
+      if (position < 0 || lappedSeen != lapped || next - position > capacity) {
+        resync(handler);
+      }
+      int polled = 0;
+      while (polled < limit) {
+        int index = (int) position & mask;
+        long sequence = sequences.get(index);
+        // Not completed yet, or nothing new
+        if (sequence < position) break;
+        ActionChange change = changes.get(index);
+        if (sequence > position || sequences.get(index) != position) {
+          resync(handler);
+          break;
+        }
+        position++;
+        polled++;
+        if (change != null) handler.onChange(change);
+      }
+      return polled;
+    }
+
+    /** The next poll resyncs, e.g. because the handler now keeps a different subset. */
+    public void requestResync() {
+      position = -1;
+    }
+
+    public long lag() {
+      return next - Math.max(position, 0);
+    }
+
+    // Until the handler returns, the next poll resyncs again
+    private void resync(ActionChangeHandler handler) {
+      long lappedBefore = lapped;
+      long point = resyncPoint();
+      position = -1;
+      handler.resync();
+      lappedSeen = lappedBefore;
+      position = point;
+    }
+  }
+}
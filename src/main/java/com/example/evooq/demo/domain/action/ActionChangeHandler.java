@@ -0,0 +1,13 @@
+package com.example.evooq.demo.domain.action;
+
+/** Receives the changes of an {@link ActionChangeFeed} subscription, on the polling thread. */
+public interface ActionChangeHandler {
+  void onChange(ActionChange change);
+
+  /**
+   * Changes were lost to this subscription, or it has just been created: rebuild the state from the
+   * store. Every change committed after this call starts is still delivered, some possibly twice,
+   * so applying a change must be idempotent.
+   */
+  void resync();
+}
@@ -0,0 +1,64 @@
+package com.example.evooq.demo.domain.action;
+
+import com.example.evooq.demo.domain.condition.CompiledCondition;
+import com.example.evooq.demo.domain.condition.Condition;
+import com.example.evooq.demo.domain.context.ActionContext;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.indicator.Indicators;
+
+/**
+ * A one-shot alert that fires once its {@link Condition} holds, e.g. {@code price(AAPL) < 180 AND
+ * spread(AAPL) < 0.05}. It moves no money. {@code contextRegistry} and {@code contextId} are those
+ * of the first value the condition reads, which decides the partition it is evaluated in.
+ *
+ * <p>Indicators the condition reads, e.g. {@code sma(price(AAPL))}, come from the context's {@link
+ * Indicators}, which must be tracking them (see {@link CompiledCondition#track}), as the context of
+ * the {@code ConditionEvaluator} the action is registered with does.
+ */
+public class ConditionAction extends AutomaticAction {
+
+  private final String condition;
+  private final Condition parsed;
+  // Compiled against the last symbol table it was evaluated with
+  private volatile CompiledCondition compiled;
+
+  public ConditionAction(String userId, String description, String condition) {
+    this(userId, description, Condition.parse(condition), condition);
+  }
+
+  private ConditionAction(String userId, String description, Condition parsed, String condition) {
+    super(
+        userId,
+        description,
+        parsed.values().getFirst().registry(),
+        parsed.values().getFirst().symbol());
+    this.condition = condition;
+    this.parsed = parsed;
+  }
+
+  public String getCondition() {
+    return condition;
+  }
+
+  public Condition parsed() {
+    return parsed;
+  }
+
+  public CompiledCondition compile(SymbolTable symbols) {
+    CompiledCondition current = compiled;
+    if (current != null && current.symbols() == symbols) return current;
+    current = CompiledCondition.compile(parsed, symbols);
+    compiled = current;
+    return current;
+  }
+
+  @Override
+  public boolean shouldTake(ActionContext context) {
+    return shouldTake(context.snapshot(), context.indicators());
+  }
+
+  public boolean shouldTake(MarketSnapshot snapshot, Indicators indicators) {
+    return compile(snapshot.symbols()).test(snapshot, indicators);
+  }
+}
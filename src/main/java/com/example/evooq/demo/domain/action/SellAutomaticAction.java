@@ -1,8 +1,6 @@
 package com.example.evooq.demo.domain.action;
 
-import com.example.evooq.demo.domain.context.ActionContext;
 import com.example.evooq.demo.domain.context.ContextRegistry;
-import java.util.HashMap;
 
 public class SellAutomaticAction extends TargetPriceAction {
 
@@ -11,8 +9,8 @@ public class SellAutomaticAction extends TargetPriceAction {
       String description,
       ContextRegistry contextRegistry,
       String contextId,
-      Float targetPrice,
-      Float divergenceTolerance,
+      long targetPrice,
+      long divergenceTolerance,
       Boolean priceIsLessThanTarget) {
     super(
         userId,
@@ -25,12 +23,7 @@ public class SellAutomaticAction extends TargetPriceAction {
   }
 
   @Override
-  public boolean shouldTake(ActionContext context) {
-    if (priceIsLessThanTarget) {
-      Float currentPrice =
-          (Float) context.get(contextRegistry.name(), HashMap.class).get(contextId);
-      return currentPrice != null && Math.abs(currentPrice - targetPrice) > divergenceTolerance;
-    }
-    return false;
+  public boolean isArmed() {
+    return priceIsLessThanTarget;
   }
 }
@@ -1,10 +1,12 @@
 package com.example.evooq.demo.domain.action;
 
 import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
 
+/** Sells once the price falls {@code stopLossPercent} (a fraction) below {@code purchasePrice}. */
 public class SetStopLossAction extends SellAutomaticAction {
 
-  private final Float purchasePrice;
+  private final long purchasePrice;
   private final Float stopLossPercent;
 
   public SetStopLossAction(
@@ -12,22 +14,27 @@ public class SetStopLossAction extends SellAutomaticAction {
       String description,
       ContextRegistry contextRegistry,
       String contextId,
-      float purchasePrice,
+      long purchasePrice,
       float stopLossPercent) {
     super(
         userId,
         description,
         contextRegistry,
         contextId,
-        purchasePrice * (1 - stopLossPercent), // targetPrice
-        0f, // divergenceTolerance
+        stopPrice(purchasePrice, stopLossPercent), // targetPrice
+        0L, // divergenceTolerance
         true // below
         );
     this.purchasePrice = purchasePrice;
     this.stopLossPercent = stopLossPercent;
   }
 
-  public Float getPurchasePrice() {
+  private static long stopPrice(long purchasePrice, float stopLossPercent) {
+    if (purchasePrice == Price.NONE) return Price.NONE;
+    return Math.round(purchasePrice * (1 - (double) stopLossPercent));
+  }
+
+  public long getPurchasePrice() {
     return purchasePrice;
   }
 
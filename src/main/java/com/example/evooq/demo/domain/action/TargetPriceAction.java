@@ -1,19 +1,33 @@
 package com.example.evooq.demo.domain.action;
 
+import com.example.evooq.demo.domain.context.ActionContext;
 import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
 
+/**
+ * An action on the price of {@code contextId}. {@code targetPrice} and {@code divergenceTolerance}
+ * are fixed-point {@link Price}s at the scale of {@code contextRegistry}, {@link Price#NONE} when
+ * absent.
+ */
 public abstract class TargetPriceAction extends AutomaticAction {
-  protected Float targetPrice;
-  protected Float divergenceTolerance;
+  protected long targetPrice;
+  protected long divergenceTolerance;
   protected Boolean priceIsLessThanTarget;
 
+  // Symbol id of contextId, cached per symbol table
+  private SymbolId symbolId;
+
+  private record SymbolId(SymbolTable symbols, int id) {}
+
   public TargetPriceAction(
       String userId,
       String description,
       ContextRegistry contextRegistry,
       String contextId,
-      Float targetPrice,
-      Float divergenceTolerance,
+      long targetPrice,
+      long divergenceTolerance,
       Boolean priceIsLessThanTarget) {
     super(userId, description, contextRegistry, contextId);
     this.targetPrice = targetPrice;
@@ -21,5 +35,40 @@ public abstract class TargetPriceAction extends AutomaticAction {
     this.priceIsLessThanTarget = priceIsLessThanTarget;
   }
 
-  // Getters and setters as needed
+  public long getTargetPrice() {
+    return targetPrice;
+  }
+
+  public long getDivergenceTolerance() {
+    return divergenceTolerance;
+  }
+
+  public Boolean getPriceIsLessThanTarget() {
+    return priceIsLessThanTarget;
+  }
+
+  // Whether the price direction flag allows this action to fire at all
+  public abstract boolean isArmed();
+
+  @Override
+  public boolean shouldTake(ActionContext context) {
+    return shouldTake(context.snapshot());
+  }
+
+  public boolean shouldTake(MarketSnapshot snapshot) {
+    if (!isArmed()) return false;
+    double currentPrice = snapshot.value(contextRegistry, symbolId(snapshot.symbols()));
+    return !Double.isNaN(currentPrice)
+        && Math.abs(Price.of(currentPrice, contextRegistry) - targetPrice) > divergenceTolerance;
+  }
+
+  private int symbolId(SymbolTable symbols) {
+    SymbolId resolved = symbolId;
+    if (resolved != null && resolved.symbols() == symbols) return resolved.id();
+    int id = symbols.idOf(contextId);
+    if (id != SymbolTable.UNKNOWN) {
+      symbolId = new SymbolId(symbols, id);
+    }
+    return id;
+  }
 }
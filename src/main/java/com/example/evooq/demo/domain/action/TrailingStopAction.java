@@ -0,0 +1,90 @@
+package com.example.evooq.demo.domain.action;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+
+/**
+ * Sells once the price falls {@code trailPercent} (a fraction) below its high-water mark, the
+ * highest price seen since {@code purchasePrice}. The stop ratchets up with the mark and never
+ * moves down.
+ *
+ * <p>The running mark is kept by the {@link com.example.evooq.demo.domain.trigger.TriggerEngine}
+ * evaluating the action, and written back here with {@link #ratchet} when it is persisted; {@link
+ * #shouldTake} reads the mark as of that point.
+ */
+public class TrailingStopAction extends SellAutomaticAction {
+
+  private final long purchasePrice;
+  private final Float trailPercent;
+  private volatile long highWaterMark;
+
+  public TrailingStopAction(
+      String userId,
+      String description,
+      ContextRegistry contextRegistry,
+      String contextId,
+      long purchasePrice,
+      Float trailPercent,
+      long highWaterMark) {
+    super(
+        userId,
+        description,
+        contextRegistry,
+        contextId,
+        trailPercent == null
+            ? Price.NONE
+            : stopPrice(Math.max(purchasePrice, highWaterMark), trailPercent), // targetPrice
+        0L, // divergenceTolerance
+        true // below
+        );
+    // Null in a partial edit, which leaves the stored percent as it is
+    if (trailPercent != null && (trailPercent <= 0 || trailPercent >= 1)) {
+      throw new IllegalArgumentException("Trail percent must be between 0 and 1: " + trailPercent);
+    }
+    this.purchasePrice = purchasePrice;
+    this.trailPercent = trailPercent;
+    this.highWaterMark = Math.max(purchasePrice, highWaterMark);
+  }
+
+  public static long stopPrice(long highWaterMark, float trailPercent) {
+    if (highWaterMark == Price.NONE) return Price.NONE;
+    return Math.round(highWaterMark * (1 - (double) trailPercent));
+  }
+
+  public long getPurchasePrice() {
+    return purchasePrice;
+  }
+
+  public Float getTrailPercent() {
+    return trailPercent;
+  }
+
+  public long getHighWaterMark() {
+    return highWaterMark;
+  }
+
+  /**
+   * Raises the mark, and the stop with it; a lower mark is ignored. Single writer: the shard thread
+   * evaluating the action.
+   */
+  public void ratchet(long mark) {
+    if (mark <= highWaterMark) return;
+    highWaterMark = mark;
+    targetPrice = stopPrice(mark, trailPercent);
+  }
+
+  // Derived from the volatile mark, so a reader on another thread never sees a stale stop
+  @Override
+  public long getTargetPrice() {
+    return trailPercent == null ? targetPrice : stopPrice(highWaterMark, trailPercent);
+  }
+
+  @Override
+  public boolean shouldTake(MarketSnapshot snapshot) {
+    double currentPrice = snapshot.value(contextRegistry, contextId);
+    return !Double.isNaN(currentPrice)
+        && trailPercent != null
+        && Price.of(currentPrice, contextRegistry) <= stopPrice(highWaterMark, trailPercent);
+  }
+}
@@ -0,0 +1,62 @@
+package com.example.evooq.demo.domain.backtest;
+
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.marketdata.TickHandler;
+import com.example.evooq.demo.domain.trigger.TriggerEngine;
+import com.example.evooq.demo.domain.trigger.TriggerListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Replays a {@link MappedTickFile} against a set of actions. The actions are indexed in a {@link
+ * TriggerEngine} and fire once, on the first tick for which {@code shouldTake} holds, as they do in
+ * live evaluation. Only fires allocate; ticks that cross no action cost a map lookup.
+ */
+public class Backtest implements TickHandler, TriggerListener {
+  private final TriggerEngine engine = new TriggerEngine();
+  private final List<BacktestFire> fires = new ArrayList<>();
+  private final String[] contextIds;
+  private long timestamp;
+
+  private Backtest(String[] contextIds) {
+    this.contextIds = contextIds;
+  }
+
+  /** Actions that can never fire, because they are disarmed or incomplete, are left out. */
+  public static BacktestReport run(
+      MappedTickFile ticks, Collection<? extends TargetPriceAction> actions) {
+    String[] contextIds = new String[ticks.symbols().size()];
+    for (int id = 0; id < contextIds.length; id++) {
+      contextIds[id] = ticks.symbols().symbolOf(id);
+    }
+    Backtest backtest = new Backtest(contextIds);
+    int registered = 0;
+    for (TargetPriceAction action : actions) {
+      try {
+        if (backtest.engine.register(action)) registered++;
+      } catch (IllegalArgumentException e) {
+        // Incomplete actions cannot fire live either
+      }
+    }
+
+    long started = System.nanoTime();
+    ticks.replay(backtest);
+    return new BacktestReport(
+        ticks.size(), registered, List.copyOf(backtest.fires), System.nanoTime() - started);
+  }
+
+  @Override
+  public void onTick(ContextRegistry registry, int symbolId, double value, long timestamp) {
+    if (Double.isNaN(value)) return;
+    this.timestamp = timestamp;
+    engine.trigger(registry, contextIds[symbolId], Price.of(value, registry), this);
+  }
+
+  @Override
+  public void onTrigger(TargetPriceAction action, long price) {
+    fires.add(new BacktestFire(action, timestamp, price));
+  }
+}
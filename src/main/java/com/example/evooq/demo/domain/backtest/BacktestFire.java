@@ -0,0 +1,9 @@
+package com.example.evooq.demo.domain.backtest;
+
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+
+/**
+ * An action firing during a backtest, at the timestamp and fixed-point price of the tick that fired
+ * it.
+ */
+public record BacktestFire(TargetPriceAction action, long timestamp, long price) {}
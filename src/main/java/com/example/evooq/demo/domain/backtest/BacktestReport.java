@@ -0,0 +1,11 @@
+package com.example.evooq.demo.domain.backtest;
+
+import java.util.List;
+
+/** Fires are in tick order; {@code actions} counts the actions that could fire at all. */
+public record BacktestReport(long ticks, int actions, List<BacktestFire> fires, long elapsedNanos) {
+
+  public double ticksPerSecond() {
+    return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+  }
+}
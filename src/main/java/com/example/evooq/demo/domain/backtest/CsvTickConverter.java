@@ -0,0 +1,79 @@
+package com.example.evooq.demo.domain.backtest;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.orderbook.Side;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts {@code timestamp,registry,symbol,price[,volume]} lines, the format of {@link
+ * com.example.evooq.demo.domain.marketdata.CsvTickSource} with an optional volume, into a {@link
+ * TickFile}. Blank lines, lines starting with {@code #} and the source's order book levels are
+ * skipped.
+ *
+ * <p>Usage: {@code ./gradlew convertTicks --args="ticks.csv ticks.bin"}
+ */
+public class CsvTickConverter {
+  private static final ContextRegistry[] REGISTRIES = ContextRegistry.values();
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: CsvTickConverter <ticks.csv> <ticks.bin>");
+      System.exit(2);
+    }
+    long ticks = convert(Path.of(args[0]), Path.of(args[1]));
+    System.out.println("Wrote " + ticks + " ticks to " + args[1]);
+  }
+
+  /** Returns the number of ticks written. */
+  public static long convert(Path csv, Path out) throws IOException {
+    SymbolTable symbols = new SymbolTable();
+    try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8);
+        TickFileWriter writer = new TickFileWriter(out, symbols)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isBlank() || line.charAt(0) == '#') continue;
+        write(line, symbols, writer);
+      }
+      return writer.written();
+    }
+  }
+
+  private static void write(String line, SymbolTable symbols, TickFileWriter writer)
+      throws IOException {
+    int first = line.indexOf(',');
+    int second = line.indexOf(',', first + 1);
+    int third = line.indexOf(',', second + 1);
+    if (first < 0 || second < 0 || third < 0) {
+      throw new IllegalArgumentException("Malformed tick: " + line);
+    }
+    int fourth = line.indexOf(',', third + 1);
+    if (isLevel(line, first + 1, second)) return;
+    long timestamp = Long.parseLong(line, 0, first, 10);
+    ContextRegistry registry = registryOf(line, first + 1, second);
+    int symbolId = symbols.register(line.substring(second + 1, third));
+    double price =
+        Double.parseDouble(line.substring(third + 1, fourth < 0 ? line.length() : fourth));
+    double volume = fourth < 0 ? 0 : Double.parseDouble(line.substring(fourth + 1));
+    writer.write(registry, symbolId, timestamp, price, volume);
+  }
+
+  private static boolean isLevel(String line, int from, int to) {
+    for (Side side : Side.values()) {
+      if (side.name().length() == to - from && line.startsWith(side.name(), from)) return true;
+    }
+    return false;
+  }
+
+  private static ContextRegistry registryOf(String line, int from, int to) {
+    for (ContextRegistry registry : REGISTRIES) {
+      String name = registry.name();
+      if (name.length() == to - from && line.startsWith(name, from)) return registry;
+    }
+    throw new IllegalArgumentException("Unknown context registry in tick: " + line);
+  }
+}
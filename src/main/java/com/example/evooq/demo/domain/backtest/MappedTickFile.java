@@ -0,0 +1,135 @@
+package com.example.evooq.demo.domain.backtest;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.marketdata.TickHandler;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a {@link TickFile} through a memory map. Replay reads each record in place and
+ * hands its fields to a {@link TickHandler}, so it allocates nothing per tick and the page cache
+ * does the I/O. Files larger than a single mapping are mapped in segments of whole records.
+ */
+public class MappedTickFile {
+  private static final ContextRegistry[] REGISTRIES = ContextRegistry.values();
+  private static final long SEGMENT_BYTES =
+      (Integer.MAX_VALUE / TickFile.RECORD_BYTES) * (long) TickFile.RECORD_BYTES;
+
+  private final MappedByteBuffer[] segments;
+  private final long size;
+  private final SymbolTable symbols;
+
+  private MappedTickFile(MappedByteBuffer[] segments, long size, SymbolTable symbols) {
+    this.segments = segments;
+    this.size = size;
+    this.symbols = symbols;
+  }
+
+  public static MappedTickFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(TickFile.HEADER_BYTES).order(TickFile.ORDER);
+      channel.read(header, 0);
+      header.flip();
+      if (header.remaining() < TickFile.HEADER_BYTES || header.getInt() != TickFile.MAGIC) {
+        throw new IOException("Not a tick file: " + path);
+      }
+      int version = header.getInt();
+      if (version != TickFile.VERSION) {
+        throw new IOException("Unsupported tick file version " + version + ": " + path);
+      }
+      long symbolsOffset = header.getLong();
+      long recordBytes = symbolsOffset - TickFile.HEADER_BYTES;
+      if (symbolsOffset < TickFile.HEADER_BYTES
+          || symbolsOffset > channel.size()
+          || recordBytes % TickFile.RECORD_BYTES != 0) {
+        throw new IOException("Truncated tick file: " + path);
+      }
+
+      MappedByteBuffer[] segments =
+          new MappedByteBuffer[(int) ((recordBytes + SEGMENT_BYTES - 1) / SEGMENT_BYTES)];
+      for (int i = 0; i < segments.length; i++) {
+        long from = i * SEGMENT_BYTES;
+        segments[i] =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY,
+                TickFile.HEADER_BYTES + from,
+                Math.min(SEGMENT_BYTES, recordBytes - from));
+        segments[i].order(TickFile.ORDER);
+      }
+      ByteBuffer trailer =
+          channel
+              .map(FileChannel.MapMode.READ_ONLY, symbolsOffset, channel.size() - symbolsOffset)
+              .order(TickFile.ORDER);
+      return new MappedTickFile(
+          segments, recordBytes / TickFile.RECORD_BYTES, readSymbols(trailer));
+    }
+  }
+
+  /** Symbol names by the ids the ticks carry. */
+  public SymbolTable symbols() {
+    return symbols;
+  }
+
+  public long size() {
+    return size;
+  }
+
+  /** Replays every tick in file order; prices are passed as the {@code value}. */
+  public void replay(TickHandler handler) {
+    for (MappedByteBuffer segment : segments) {
+      int limit = segment.limit();
+      for (int at = 0; at < limit; at += TickFile.RECORD_BYTES) {
+        handler.onTick(
+            REGISTRIES[segment.getInt(at + TickFile.REGISTRY)],
+            segment.getInt(at + TickFile.SYMBOL_ID),
+            segment.getDouble(at + TickFile.PRICE),
+            segment.getLong(at + TickFile.TIMESTAMP));
+      }
+    }
+  }
+
+  public int symbolId(long index) {
+    return segment(index).getInt(offset(index) + TickFile.SYMBOL_ID);
+  }
+
+  public ContextRegistry registry(long index) {
+    return REGISTRIES[segment(index).getInt(offset(index) + TickFile.REGISTRY)];
+  }
+
+  public long timestamp(long index) {
+    return segment(index).getLong(offset(index) + TickFile.TIMESTAMP);
+  }
+
+  public double price(long index) {
+    return segment(index).getDouble(offset(index) + TickFile.PRICE);
+  }
+
+  public double volume(long index) {
+    return segment(index).getDouble(offset(index) + TickFile.VOLUME);
+  }
+
+  private MappedByteBuffer segment(long index) {
+    return segments[(int) (index * TickFile.RECORD_BYTES / SEGMENT_BYTES)];
+  }
+
+  private static int offset(long index) {
+    return (int) (index * TickFile.RECORD_BYTES % SEGMENT_BYTES);
+  }
+
+  private static SymbolTable readSymbols(ByteBuffer trailer) {
+    SymbolTable symbols = new SymbolTable();
+    int count = trailer.getInt();
+    for (int id = 0; id < count; id++) {
+      byte[] name = new byte[trailer.getShort()];
+      trailer.get(name);
+      symbols.register(new String(name, StandardCharsets.UTF_8));
+    }
+    return symbols;
+  }
+}
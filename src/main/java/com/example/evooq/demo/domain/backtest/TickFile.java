@@ -0,0 +1,32 @@
+package com.example.evooq.demo.domain.backtest;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of a binary tick file, little-endian throughout:
+ *
+ * <pre>
+ * header   int magic, int version, long symbolsOffset
+ * ticks    RECORD_BYTES each: int symbolId, int registry ordinal, long timestamp,
+ *          double price, double volume
+ * symbols  at symbolsOffset: int count, then per symbol id a short length and UTF-8 bytes
+ * </pre>
+ *
+ * Records are fixed-size, so tick {@code i} starts at {@code HEADER_BYTES + i * RECORD_BYTES} and
+ * the file can be read through a memory map without any parsing.
+ */
+public final class TickFile {
+  public static final int MAGIC = 0x4B434954; // "TICK"
+  public static final int VERSION = 1;
+  public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+  public static final int HEADER_BYTES = 16;
+  public static final int RECORD_BYTES = 32;
+
+  static final int SYMBOL_ID = 0;
+  static final int REGISTRY = 4;
+  static final int TIMESTAMP = 8;
+  static final int PRICE = 16;
+  static final int VOLUME = 24;
+
+  private TickFile() {}
+}
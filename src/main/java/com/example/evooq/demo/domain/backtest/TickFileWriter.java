@@ -0,0 +1,93 @@
+package com.example.evooq.demo.domain.backtest;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.marketdata.TickHandler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends ticks to a {@link TickFile}. Symbol ids are those of the given {@link SymbolTable}, which
+ * is written out on {@link #close()}, so symbols may still be registered while ticks are written.
+ */
+public class TickFileWriter implements TickHandler, AutoCloseable {
+  private static final int BUFFER_BYTES = 1 << 20;
+
+  private final FileChannel channel;
+  private final SymbolTable symbols;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(TickFile.ORDER);
+  private long written;
+
+  public TickFileWriter(Path path, SymbolTable symbols) throws IOException {
+    this.channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    this.symbols = symbols;
+    // The symbols offset is patched in on close
+    buffer.putInt(TickFile.MAGIC).putInt(TickFile.VERSION).putLong(0);
+  }
+
+  public void write(
+      ContextRegistry registry, int symbolId, long timestamp, double price, double volume)
+      throws IOException {
+    if (buffer.remaining() < TickFile.RECORD_BYTES) {
+      drain();
+    }
+    buffer
+        .putInt(symbolId)
+        .putInt(registry.ordinal())
+        .putLong(timestamp)
+        .putDouble(price)
+        .putDouble(volume);
+    written++;
+  }
+
+  // Lets a MarketDataSource record straight into a file; the volume is left at zero
+  @Override
+  public void onTick(ContextRegistry registry, int symbolId, double value, long timestamp) {
+    try {
+      write(registry, symbolId, timestamp, value, 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public long written() {
+    return written;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try (channel) {
+      drain();
+      long symbolsOffset = channel.position();
+      buffer.putInt(symbols.size());
+      for (int id = 0; id < symbols.size(); id++) {
+        byte[] name = symbols.symbolOf(id).getBytes(StandardCharsets.UTF_8);
+        if (buffer.remaining() < Short.BYTES + name.length) {
+          drain();
+        }
+        buffer.putShort((short) name.length).put(name);
+      }
+      drain();
+      ByteBuffer offset = ByteBuffer.allocate(Long.BYTES).order(TickFile.ORDER);
+      channel.write(offset.putLong(0, symbolsOffset), Integer.BYTES * 2);
+    }
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
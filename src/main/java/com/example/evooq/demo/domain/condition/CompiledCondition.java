@@ -0,0 +1,210 @@
+package com.example.evooq.demo.domain.condition;
+
+import com.example.evooq.demo.domain.condition.Condition.And;
+import com.example.evooq.demo.domain.condition.Condition.Comparison;
+import com.example.evooq.demo.domain.condition.Condition.Constant;
+import com.example.evooq.demo.domain.condition.Condition.IndicatorValue;
+import com.example.evooq.demo.domain.condition.Condition.Not;
+import com.example.evooq.demo.domain.condition.Condition.Operand;
+import com.example.evooq.demo.domain.condition.Condition.Operator;
+import com.example.evooq.demo.domain.condition.Condition.Or;
+import com.example.evooq.demo.domain.condition.Condition.Value;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.indicator.Indicator;
+import com.example.evooq.demo.domain.indicator.Indicators;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link Condition} flattened into a branch table over primitive arrays. Each comparison is one
+ * slot holding its operands as symbol ids and its successors for either outcome: the next slot to
+ * evaluate, or the result. {@code AND}, {@code OR} and {@code NOT} only exist as those jumps, so
+ * {@link #test} is a loop over array reads with the same short-circuit order as the tree, and
+ * allocates nothing.
+ *
+ * <p>Symbols are resolved against one {@link SymbolTable} at compile time; {@link #test} must be
+ * given a snapshot and indicators over that table. Immutable once compiled.
+ */
+public final class CompiledCondition {
+  private static final int CHANNELS = ContextRegistry.values().length;
+  private static final Operator[] OPERATORS = Operator.values();
+  private static final Indicator[] INDICATORS = Indicator.values();
+  // Indicator slot value for an operand read straight from the snapshot
+  private static final byte RAW = -1;
+  private static final int TRUE = -1;
+  private static final int FALSE = -2;
+
+  private final SymbolTable symbols;
+  private final ContextRegistry[] leftRegistries;
+  private final int[] leftSymbols;
+  private final byte[] leftIndicators;
+  // A null registry means the right operand is the constant
+  private final ContextRegistry[] rightRegistries;
+  private final int[] rightSymbols;
+  private final byte[] rightIndicators;
+  private final double[] constants;
+  private final byte[] operators;
+  private final int[] onTrue;
+  private final int[] onFalse;
+
+  private CompiledCondition(SymbolTable symbols, List<Slot> slots) {
+    int size = slots.size();
+    this.symbols = symbols;
+    this.leftRegistries = new ContextRegistry[size];
+    this.leftSymbols = new int[size];
+    this.leftIndicators = new byte[size];
+    this.rightRegistries = new ContextRegistry[size];
+    this.rightSymbols = new int[size];
+    this.rightIndicators = new byte[size];
+    this.constants = new double[size];
+    this.operators = new byte[size];
+    this.onTrue = new int[size];
+    this.onFalse = new int[size];
+    // Slots were emitted last to first; reversed, the entry is slot 0 and jumps only go forward
+    for (int i = 0; i < size; i++) {
+      Slot slot = slots.get(size - 1 - i);
+      Comparison comparison = slot.comparison();
+      resolve(comparison.left(), i, leftRegistries, leftSymbols, leftIndicators);
+      if (comparison.right() instanceof Constant constant) {
+        constants[i] = constant.value();
+      } else {
+        resolve(comparison.right(), i, rightRegistries, rightSymbols, rightIndicators);
+      }
+      operators[i] = (byte) comparison.operator().ordinal();
+      onTrue[i] = reversed(slot.onTrue(), size);
+      onFalse[i] = reversed(slot.onFalse(), size);
+    }
+  }
+
+  private void resolve(
+      Operand operand, int slot, ContextRegistry[] registries, int[] symbolIds, byte[] indicators) {
+    Value value = operand instanceof IndicatorValue indicator ? indicator.value() : (Value) operand;
+    registries[slot] = value.registry();
+    symbolIds[slot] = symbols.register(value.symbol());
+    indicators[slot] =
+        operand instanceof IndicatorValue indicator ? (byte) indicator.indicator().ordinal() : RAW;
+  }
+
+  private record Slot(Comparison comparison, int onTrue, int onFalse) {}
+
+  /** Registers every symbol {@code condition} reads in {@code symbols}. */
+  public static CompiledCondition compile(Condition condition, SymbolTable symbols) {
+    List<Slot> slots = new ArrayList<>();
+    emit(condition, TRUE, FALSE, slots);
+    return new CompiledCondition(symbols, slots);
+  }
+
+  // Emits the successors before the node that jumps to them, returning the node's slot
+  private static int emit(Condition condition, int onTrue, int onFalse, List<Slot> slots) {
+    return switch (condition) {
+      case And and -> emit(and.left(), emit(and.right(), onTrue, onFalse, slots), onFalse, slots);
+      case Or or -> emit(or.left(), onTrue, emit(or.right(), onTrue, onFalse, slots), slots);
+      case Not not -> emit(not.operand(), onFalse, onTrue, slots);
+      case Comparison comparison -> {
+        slots.add(new Slot(comparison, onTrue, onFalse));
+        yield slots.size() - 1;
+      }
+    };
+  }
+
+  private static int reversed(int target, int size) {
+    return target < 0 ? target : size - 1 - target;
+  }
+
+  /** Same result as {@link Condition#test}: {@code false} once a value read is missing. */
+  public boolean test(MarketSnapshot snapshot, Indicators indicators) {
+    int slot = 0;
+    while (true) {
+      double left =
+          read(leftIndicators[slot], leftRegistries[slot], leftSymbols[slot], snapshot, indicators);
+      ContextRegistry rightRegistry = rightRegistries[slot];
+      double right =
+          rightRegistry == null
+              ? constants[slot]
+              : read(
+                  rightIndicators[slot], rightRegistry, rightSymbols[slot], snapshot, indicators);
+      if (Double.isNaN(left) || Double.isNaN(right)) return false;
+      int next = OPERATORS[operators[slot]].test(left, right) ? onTrue[slot] : onFalse[slot];
+      if (next < 0) return next == TRUE;
+      slot = next;
+    }
+  }
+
+  private static double read(
+      byte indicator,
+      ContextRegistry registry,
+      int symbolId,
+      MarketSnapshot snapshot,
+      Indicators indicators) {
+    return indicator == RAW
+        ? snapshot.value(registry, symbolId)
+        : indicators.value(INDICATORS[indicator], registry, symbolId);
+  }
+
+  /** The first value the condition reads, {@code NaN} when missing. */
+  public double firstValue(MarketSnapshot snapshot, Indicators indicators) {
+    return read(leftIndicators[0], leftRegistries[0], leftSymbols[0], snapshot, indicators);
+  }
+
+  /** Has {@code indicators} keep every indicator this condition reads. */
+  public void track(Indicators indicators) {
+    for (int i = 0; i < size(); i++) {
+      if (leftIndicators[i] != RAW) {
+        indicators.track(INDICATORS[leftIndicators[i]], leftRegistries[i], leftSymbols[i]);
+      }
+      if (rightRegistries[i] != null && rightIndicators[i] != RAW) {
+        indicators.track(INDICATORS[rightIndicators[i]], rightRegistries[i], rightSymbols[i]);
+      }
+    }
+  }
+
+  /** Undoes {@link #track}. */
+  public void untrack(Indicators indicators) {
+    for (int i = 0; i < size(); i++) {
+      if (leftIndicators[i] != RAW) {
+        indicators.untrack(INDICATORS[leftIndicators[i]], leftRegistries[i], leftSymbols[i]);
+      }
+      if (rightRegistries[i] != null && rightIndicators[i] != RAW) {
+        indicators.untrack(INDICATORS[rightIndicators[i]], rightRegistries[i], rightSymbols[i]);
+      }
+    }
+  }
+
+  public SymbolTable symbols() {
+    return symbols;
+  }
+
+  /** Number of comparisons. */
+  public int size() {
+    return operators.length;
+  }
+
+  /**
+   * The distinct {@link #key}s of the values read, the ticks that can change the result. A VWAP
+   * also depends on the symbol's volume ticks.
+   */
+  public int[] dependencies() {
+    int[] keys = new int[4 * size()];
+    int count = 0;
+    for (int i = 0; i < size(); i++) {
+      keys[count++] = key(leftRegistries[i], leftSymbols[i]);
+      if (leftIndicators[i] == Indicator.VWAP.ordinal()) {
+        keys[count++] = key(ContextRegistry.VOLUMES, leftSymbols[i]);
+      }
+      if (rightRegistries[i] == null) continue;
+      keys[count++] = key(rightRegistries[i], rightSymbols[i]);
+      if (rightIndicators[i] == Indicator.VWAP.ordinal()) {
+        keys[count++] = key(ContextRegistry.VOLUMES, rightSymbols[i]);
+      }
+    }
+    return Arrays.stream(keys, 0, count).distinct().toArray();
+  }
+
+  /** A dense index over every channel and symbol of a symbol table. */
+  public static int key(ContextRegistry registry, int symbolId) {
+    return symbolId * CHANNELS + registry.ordinal();
+  }
+}
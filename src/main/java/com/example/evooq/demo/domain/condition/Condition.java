@@ -0,0 +1,116 @@
+package com.example.evooq.demo.domain.condition;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.indicator.Indicator;
+import com.example.evooq.demo.domain.indicator.Indicators;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A parsed condition over market data, e.g. {@code price(AAPL) < 180 AND spread(AAPL) < 0.05 AND
+ * status(NYSE) == OPEN}. See {@link ConditionParser} for the language.
+ *
+ * <p>A condition never holds while a value it reads is missing, including an indicator whose window
+ * is not full yet: evaluation stops with {@code false} at the first comparison that reads one.
+ * {@link #test} is the reference evaluation: it walks the tree and looks every symbol up by name on
+ * each call. Evaluation on the tick path uses the {@link CompiledCondition} instead.
+ */
+public sealed interface Condition {
+
+  static Condition parse(String expression) {
+    return new ConditionParser(expression).parse();
+  }
+
+  default boolean test(MarketSnapshot snapshot, Indicators indicators) {
+    return ConditionInterpreter.test(this, snapshot, indicators);
+  }
+
+  /** The values this condition reads, directly or through an indicator, in evaluation order. */
+  default List<Value> values() {
+    List<Value> values = new ArrayList<>();
+    collect(
+        this,
+        operand -> values.add(operand instanceof IndicatorValue i ? i.value() : (Value) operand));
+    return values;
+  }
+
+  record And(Condition left, Condition right) implements Condition {}
+
+  record Or(Condition left, Condition right) implements Condition {}
+
+  record Not(Condition operand) implements Condition {}
+
+  record Comparison(Operand left, Operator operator, Operand right) implements Condition {}
+
+  sealed interface Operand {}
+
+  /** The latest value of {@code symbol} on the {@code registry} channel. */
+  record Value(ContextRegistry registry, String symbol) implements Operand {}
+
+  /** An {@link Indicator} over the series of {@code value}, kept by {@link Indicators}. */
+  record IndicatorValue(Indicator indicator, Value value) implements Operand {}
+
+  record Constant(double value) implements Operand {}
+
+  enum Operator {
+    LT("<"),
+    LE("<="),
+    GT(">"),
+    GE(">="),
+    EQ("=="),
+    NE("!=");
+
+    private final String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    public String symbol() {
+      return symbol;
+    }
+
+    public boolean test(double left, double right) {
+      return switch (this) {
+        case LT -> left < right;
+        case LE -> left <= right;
+        case GT -> left > right;
+        case GE -> left >= right;
+        case EQ -> left == right;
+        case NE -> left != right;
+      };
+    }
+
+    // The operator that gives the same result with the operands swapped
+    public Operator swapped() {
+      return switch (this) {
+        case LT -> GT;
+        case LE -> GE;
+        case GT -> LT;
+        case GE -> LE;
+        case EQ, NE -> this;
+      };
+    }
+  }
+
+  // Hands every operand other than a constant to the consumer
+  private static void collect(Condition condition, Consumer<Operand> operands) {
+    switch (condition) {
+      case And and -> {
+        collect(and.left(), operands);
+        collect(and.right(), operands);
+      }
+      case Or or -> {
+        collect(or.left(), operands);
+        collect(or.right(), operands);
+      }
+      case Not not -> collect(not.operand(), operands);
+      case Comparison comparison -> {
+        if (!(comparison.left() instanceof Constant)) operands.accept(comparison.left());
+        if (!(comparison.right() instanceof Constant)) operands.accept(comparison.right());
+      }
+    }
+  }
+}
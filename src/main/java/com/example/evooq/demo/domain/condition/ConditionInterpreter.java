@@ -0,0 +1,65 @@
+package com.example.evooq.demo.domain.condition;
+
+import com.example.evooq.demo.domain.condition.Condition.And;
+import com.example.evooq.demo.domain.condition.Condition.Comparison;
+import com.example.evooq.demo.domain.condition.Condition.Constant;
+import com.example.evooq.demo.domain.condition.Condition.IndicatorValue;
+import com.example.evooq.demo.domain.condition.Condition.Not;
+import com.example.evooq.demo.domain.condition.Condition.Operand;
+import com.example.evooq.demo.domain.condition.Condition.Or;
+import com.example.evooq.demo.domain.condition.Condition.Value;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.indicator.Indicators;
+
+// Walks the tree on every evaluation, the baseline CompiledCondition is measured against
+final class ConditionInterpreter {
+  private enum Result {
+    TRUE,
+    FALSE,
+    MISSING
+  }
+
+  private ConditionInterpreter() {}
+
+  static boolean test(Condition condition, MarketSnapshot snapshot, Indicators indicators) {
+    return evaluate(condition, snapshot, indicators) == Result.TRUE;
+  }
+
+  private static Result evaluate(
+      Condition condition, MarketSnapshot snapshot, Indicators indicators) {
+    return switch (condition) {
+      case And and -> {
+        Result left = evaluate(and.left(), snapshot, indicators);
+        yield left == Result.TRUE ? evaluate(and.right(), snapshot, indicators) : left;
+      }
+      case Or or -> {
+        Result left = evaluate(or.left(), snapshot, indicators);
+        yield left == Result.FALSE ? evaluate(or.right(), snapshot, indicators) : left;
+      }
+      case Not not ->
+          switch (evaluate(not.operand(), snapshot, indicators)) {
+            case TRUE -> Result.FALSE;
+            case FALSE -> Result.TRUE;
+            case MISSING -> Result.MISSING;
+          };
+      case Comparison comparison -> {
+        double left = valueOf(comparison.left(), snapshot, indicators);
+        double right = valueOf(comparison.right(), snapshot, indicators);
+        if (Double.isNaN(left) || Double.isNaN(right)) yield Result.MISSING;
+        yield comparison.operator().test(left, right) ? Result.TRUE : Result.FALSE;
+      }
+    };
+  }
+
+  private static double valueOf(Operand operand, MarketSnapshot snapshot, Indicators indicators) {
+    return switch (operand) {
+      case Value value -> snapshot.value(value.registry(), value.symbol());
+      case IndicatorValue indicator ->
+          indicators.value(
+              indicator.indicator(),
+              indicator.value().registry(),
+              snapshot.symbols().idOf(indicator.value().symbol()));
+      case Constant constant -> constant.value();
+    };
+  }
+}
@@ -0,0 +1,234 @@
+package com.example.evooq.demo.domain.condition;
+
+import com.example.evooq.demo.domain.condition.Condition.And;
+import com.example.evooq.demo.domain.condition.Condition.Comparison;
+import com.example.evooq.demo.domain.condition.Condition.Constant;
+import com.example.evooq.demo.domain.condition.Condition.IndicatorValue;
+import com.example.evooq.demo.domain.condition.Condition.Not;
+import com.example.evooq.demo.domain.condition.Condition.Operand;
+import com.example.evooq.demo.domain.condition.Condition.Operator;
+import com.example.evooq.demo.domain.condition.Condition.Or;
+import com.example.evooq.demo.domain.condition.Condition.Value;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.indicator.Indicator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recursive descent parser for conditions:
+ *
+ * <pre>
+ * or         := and ( OR and )*
+ * and        := unary ( AND unary )*
+ * unary      := NOT unary | '(' or ')' | comparison
+ * comparison := operand ( '<' | '<=' | '>' | '>=' | '==' | '!=' ) operand
+ * operand    := value | indicator '(' value ')' | number | OPEN | CLOSED
+ * value      := function '(' symbol ')'
+ * </pre>
+ *
+ * Functions read the latest value of a symbol on one channel: {@code price}, {@code etf}, {@code
+ * forex}, {@code crypto}, {@code volume}, {@code book}, {@code spread} and {@code status}. Market
+ * status is {@code OPEN} (1) or {@code CLOSED} (0). Indicators aggregate a value over a sliding
+ * window, e.g. {@code sma(price(AAPL))}: {@code sma}, {@code ema}, {@code min}, {@code max}, {@code
+ * volatility} and {@code vwap}, see {@link Indicator}. Keywords, functions and constants are case
+ * insensitive, symbols are taken as written. Comparisons are normalized to put the value on the
+ * left.
+ */
+final class ConditionParser {
+  static final int MAX_LENGTH = 1000;
+  static final int MAX_DEPTH = 32;
+  static final int MAX_COMPARISONS = 64;
+
+  private static final Map<String, ContextRegistry> FUNCTIONS =
+      Map.of(
+          "price", ContextRegistry.STOCK_PRICES,
+          "etf", ContextRegistry.EFT_PRICES,
+          "forex", ContextRegistry.FOREX_PRICES,
+          "crypto", ContextRegistry.CRYPTO_PRICES,
+          "volume", ContextRegistry.VOLUMES,
+          "book", ContextRegistry.ORDER_BOOKS,
+          "spread", ContextRegistry.SPREADS,
+          "status", ContextRegistry.MARKET_STATUS);
+  private static final Map<String, Indicator> INDICATORS =
+      Map.of(
+          "sma", Indicator.SMA,
+          "ema", Indicator.EMA,
+          "min", Indicator.MIN,
+          "max", Indicator.MAX,
+          "volatility", Indicator.VOLATILITY,
+          "vwap", Indicator.VWAP);
+  private static final Map<String, Double> CONSTANTS = Map.of("open", 1.0, "closed", 0.0);
+
+  private final String input;
+  private int position;
+  private int depth;
+  private int comparisons;
+
+  ConditionParser(String input) {
+    if (input == null || input.isBlank()) {
+      throw new IllegalArgumentException("Condition is required");
+    }
+    if (input.length() > MAX_LENGTH) {
+      throw new IllegalArgumentException("Condition is longer than " + MAX_LENGTH + " characters");
+    }
+    this.input = input;
+  }
+
+  Condition parse() {
+    Condition condition = or();
+    skipWhitespace();
+    if (position < input.length()) throw error("unexpected '" + input.charAt(position) + "'");
+    return condition;
+  }
+
+  private Condition or() {
+    Condition condition = and();
+    while (keyword("OR")) {
+      condition = new Or(condition, and());
+    }
+    return condition;
+  }
+
+  private Condition and() {
+    Condition condition = unary();
+    while (keyword("AND")) {
+      condition = new And(condition, unary());
+    }
+    return condition;
+  }
+
+  private Condition unary() {
+    if (++depth > MAX_DEPTH) throw error("nested deeper than " + MAX_DEPTH);
+    try {
+      if (keyword("NOT")) return new Not(unary());
+      if (symbol("(")) {
+        Condition condition = or();
+        expect(")");
+        return condition;
+      }
+      return comparison();
+    } finally {
+      depth--;
+    }
+  }
+
+  private Condition comparison() {
+    if (++comparisons > MAX_COMPARISONS) {
+      throw error("more than " + MAX_COMPARISONS + " comparisons");
+    }
+    int start = skipWhitespace();
+    Operand left = operand();
+    Operator operator = operator();
+    Operand right = operand();
+    if (left instanceof Constant && right instanceof Constant) {
+      position = start;
+      throw error("comparison must read a market value");
+    }
+    return left instanceof Constant
+        ? new Comparison(right, operator.swapped(), left)
+        : new Comparison(left, operator, right);
+  }
+
+  private Operand operand() {
+    int start = skipWhitespace();
+    if (start < input.length()
+        && (Character.isDigit(input.charAt(start)) || input.charAt(start) == '-')) {
+      return number();
+    }
+    String word = word();
+    if (word.isEmpty()) throw error("expected a value");
+    String name = word.toLowerCase(Locale.ROOT);
+    Double constant = CONSTANTS.get(name);
+    if (constant != null) return new Constant(constant);
+    Indicator indicator = INDICATORS.get(name);
+    if (indicator != null) {
+      expect("(");
+      if (!(operand() instanceof Value value)) throw error("expected a value to aggregate");
+      expect(")");
+      return new IndicatorValue(indicator, value);
+    }
+    ContextRegistry registry = FUNCTIONS.get(name);
+    if (registry == null) {
+      position = start;
+      throw error("unknown function '" + word + "'");
+    }
+    expect("(");
+    int symbolStart = skipWhitespace();
+    int close = input.indexOf(')', symbolStart);
+    if (close < 0) throw error("expected ')'");
+    String symbol = input.substring(symbolStart, close).strip();
+    if (symbol.isEmpty()) throw error("expected a symbol");
+    position = close + 1;
+    return new Value(registry, symbol);
+  }
+
+  private Constant number() {
+    int start = position;
+    if (input.charAt(position) == '-') position++;
+    int digits = digits();
+    if (position < input.length() && input.charAt(position) == '.') {
+      position++;
+      digits += digits();
+    }
+    if (digits == 0) {
+      position = start;
+      throw error("expected a number");
+    }
+    return new Constant(Double.parseDouble(input.substring(start, position)));
+  }
+
+  private int digits() {
+    int start = position;
+    while (position < input.length() && Character.isDigit(input.charAt(position))) position++;
+    return position - start;
+  }
+
+  private Operator operator() {
+    skipWhitespace();
+    // Two-character operators first, so that "<=" is not read as "<"
+    for (Operator operator : new Operator[] {Operator.LE, Operator.GE, Operator.EQ, Operator.NE}) {
+      if (input.startsWith(operator.symbol(), position)) {
+        position += 2;
+        return operator;
+      }
+    }
+    if (symbol("<")) return Operator.LT;
+    if (symbol(">")) return Operator.GT;
+    throw error("expected a comparison operator");
+  }
+
+  private String word() {
+    int start = position;
+    while (position < input.length() && Character.isLetter(input.charAt(position))) position++;
+    return input.substring(start, position);
+  }
+
+  private boolean keyword(String keyword) {
+    int start = skipWhitespace();
+    String word = word();
+    if (word.equalsIgnoreCase(keyword)) return true;
+    position = start;
+    return false;
+  }
+
+  private boolean symbol(String symbol) {
+    skipWhitespace();
+    if (!input.startsWith(symbol, position)) return false;
+    position += symbol.length();
+    return true;
+  }
+
+  private void expect(String symbol) {
+    if (!symbol(symbol)) throw error("expected '" + symbol + "'");
+  }
+
+  private int skipWhitespace() {
+    while (position < input.length() && Character.isWhitespace(input.charAt(position))) position++;
+    return position;
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(
+        "Invalid condition at position " + position + ": " + message);
+  }
+}
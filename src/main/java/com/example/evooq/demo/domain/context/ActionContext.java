@@ -1,16 +1,108 @@
 package com.example.evooq.demo.domain.context;
 
+import com.example.evooq.demo.domain.indicator.Indicators;
+import com.example.evooq.demo.domain.orderbook.OrderBooks;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * String-keyed view kept for existing callers. Values stored under a {@link ContextRegistry} name
+ * as a {@code Map<String, Number>} are written through to the underlying {@link MarketSnapshot} and
+ * read back as a read-only {@code Map<String, Float>} copy; any other key is kept as is.
+ *
+ * <p>Sliding-window aggregates over the same market data are read from {@link #indicators()}, and
+ * the depth behind {@link ContextRegistry#ORDER_BOOKS} from {@link #orderBooks()}. Indicators are
+ * only kept where ticks are applied: the context of a {@code ConditionEvaluator} carries the ones
+ * its conditions read, and is read on the evaluating thread. Any other context tracks none.
+ */
 public class ActionContext {
+  private static final ContextRegistry[] REGISTRIES = ContextRegistry.values();
+
+  private final MarketSnapshot snapshot;
+  private final Indicators indicators;
+  private final OrderBooks orderBooks;
   private final Map<String, Object> values = new HashMap<>();
 
+  public ActionContext() {
+    this(new MarketSnapshot());
+  }
+
+  public ActionContext(MarketSnapshot snapshot) {
+    this(snapshot, new OrderBooks(snapshot.symbols(), OrderBooks.DEFAULT_LEVELS));
+  }
+
+  public ActionContext(MarketSnapshot snapshot, OrderBooks orderBooks) {
+    this(snapshot, new Indicators(), orderBooks);
+  }
+
+  public ActionContext(MarketSnapshot snapshot, Indicators indicators, OrderBooks orderBooks) {
+    this.snapshot = snapshot;
+    this.indicators = indicators;
+    this.orderBooks = orderBooks;
+  }
+
+  public MarketSnapshot snapshot() {
+    return snapshot;
+  }
+
+  public Indicators indicators() {
+    return indicators;
+  }
+
+  public OrderBooks orderBooks() {
+    return orderBooks;
+  }
+
   public <T> void set(String key, T value) {
+    ContextRegistry registry = registryOf(key);
+    if (registry != null && value instanceof Map<?, ?> channel) {
+      // Checked up front, so that a bad entry leaves the snapshot as it was
+      channel.forEach(ActionContext::checkEntry);
+      snapshot.clear(registry);
+      channel.forEach(
+          (symbol, price) -> {
+            if (price != null) {
+              snapshot.set(registry, (String) symbol, ((Number) price).doubleValue());
+            }
+          });
+      return;
+    }
     values.put(key, value);
   }
 
   public <T> T get(String key, Class<T> type) {
+    ContextRegistry registry = registryOf(key);
+    if (registry != null && !values.containsKey(key)) {
+      return type.cast(channel(registry));
+    }
     return type.cast(values.get(key));
   }
+
+  private static void checkEntry(Object symbol, Object price) {
+    if (!(symbol instanceof String)) {
+      throw new IllegalArgumentException("Symbols must be strings, got: " + symbol);
+    }
+    if (price != null && !(price instanceof Number)) {
+      throw new IllegalArgumentException("Price of " + symbol + " is not a number: " + price);
+    }
+  }
+
+  private static ContextRegistry registryOf(String key) {
+    for (ContextRegistry registry : REGISTRIES) {
+      if (registry.name().equals(key)) return registry;
+    }
+    return null;
+  }
+
+  // A read-only copy: changes go through set or the snapshot
+  private Map<String, Float> channel(ContextRegistry registry) {
+    SymbolTable symbols = snapshot.symbols();
+    Map<String, Float> prices = new HashMap<>();
+    for (int id = 0; id < symbols.size(); id++) {
+      double value = snapshot.value(registry, id);
+      if (!Double.isNaN(value)) prices.put(symbols.symbolOf(id), (float) value);
+    }
+    return Collections.unmodifiableMap(prices);
+  }
 }
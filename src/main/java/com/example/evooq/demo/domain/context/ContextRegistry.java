@@ -1,12 +1,23 @@
 package com.example.evooq.demo.domain.context;
 
+/** Market data channels. Each has the number of decimals its fixed-point {@link Price}s keep. */
 public enum ContextRegistry {
-  STOCK_PRICES,
-  EFT_PRICES,
-  FOREX_PRICES,
-  CRYPTO_PRICES,
-  VOLUMES,
-  ORDER_BOOKS,
-  SPREADS,
-  MARKET_STATUS
+  STOCK_PRICES(4),
+  EFT_PRICES(4),
+  FOREX_PRICES(6),
+  CRYPTO_PRICES(8),
+  VOLUMES(4),
+  ORDER_BOOKS(4),
+  SPREADS(6),
+  MARKET_STATUS(0);
+
+  private final int priceScale;
+
+  ContextRegistry(int priceScale) {
+    this.priceScale = priceScale;
+  }
+
+  public int priceScale() {
+    return priceScale;
+  }
 }
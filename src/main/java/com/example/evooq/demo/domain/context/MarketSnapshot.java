@@ -0,0 +1,77 @@
+package com.example.evooq.demo.domain.context;
+
+import java.util.Arrays;
+
+/**
+ * Market data indexed by {@link ContextRegistry} ordinal and symbol id, stored in primitive {@code
+ * double} arrays. Missing values read as {@code NaN}. Lookups do not allocate.
+ *
+ * <p>Not thread-safe: a snapshot has a single writer, readers should be handed a {@link #copy()}.
+ */
+public class MarketSnapshot {
+  private static final int CHANNELS = ContextRegistry.values().length;
+
+  private final SymbolTable symbols;
+  private final double[][] channels = new double[CHANNELS][];
+
+  public MarketSnapshot() {
+    this(new SymbolTable());
+  }
+
+  public MarketSnapshot(SymbolTable symbols) {
+    this.symbols = symbols;
+    for (int i = 0; i < CHANNELS; i++) {
+      channels[i] = empty(Math.max(16, symbols.size()));
+    }
+  }
+
+  public SymbolTable symbols() {
+    return symbols;
+  }
+
+  public double value(ContextRegistry registry, int symbolId) {
+    double[] values = channels[registry.ordinal()];
+    return symbolId >= 0 && symbolId < values.length ? values[symbolId] : Double.NaN;
+  }
+
+  public double value(ContextRegistry registry, String symbol) {
+    return value(registry, symbols.idOf(symbol));
+  }
+
+  public void set(ContextRegistry registry, int symbolId, double value) {
+    double[] values = channels[registry.ordinal()];
+    if (symbolId >= values.length) {
+      values = grow(values, symbolId + 1);
+      channels[registry.ordinal()] = values;
+    }
+    values[symbolId] = value;
+  }
+
+  public void set(ContextRegistry registry, String symbol, double value) {
+    set(registry, symbols.register(symbol), value);
+  }
+
+  public void clear(ContextRegistry registry) {
+    Arrays.fill(channels[registry.ordinal()], Double.NaN);
+  }
+
+  public MarketSnapshot copy() {
+    MarketSnapshot copy = new MarketSnapshot(symbols);
+    for (int i = 0; i < CHANNELS; i++) {
+      copy.channels[i] = channels[i].clone();
+    }
+    return copy;
+  }
+
+  private static double[] empty(int capacity) {
+    double[] values = new double[capacity];
+    Arrays.fill(values, Double.NaN);
+    return values;
+  }
+
+  private static double[] grow(double[] values, int minCapacity) {
+    double[] grown = empty(Math.max(minCapacity, values.length * 2));
+    System.arraycopy(values, 0, grown, 0, values.length);
+    return grown;
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.evooq.demo.domain.context;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point prices: a price is a {@code long} count of units of {@code 10^-scale}, where the
+ * scale is {@link ContextRegistry#priceScale()} of the channel it is quoted on. Comparisons on the
+ * evaluation path are then exact primitive comparisons. Decimals enter and leave at the API and
+ * database boundary; ticks arrive as {@code double} and are rounded once on the way in.
+ */
+public final class Price {
+  /** Stands for an absent price, e.g. a field left out of a partial update. */
+  public static final long NONE = Long.MIN_VALUE;
+
+  /** Scale used when the registry is not known, enough for any registry's prices. */
+  public static final int MAX_SCALE = 8;
+
+  private static final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+
+  static {
+    for (int i = 0; i <= MAX_SCALE; i++) {
+      POWERS_OF_TEN[i] = Math.pow(10, i);
+    }
+  }
+
+  private Price() {}
+
+  public static int scale(ContextRegistry registry) {
+    return registry == null ? MAX_SCALE : registry.priceScale();
+  }
+
+  /** Rounds a tick value to the registry's scale; {@code value} must not be {@code NaN}. */
+  public static long of(double value, ContextRegistry registry) {
+    return Math.round(value * POWERS_OF_TEN[scale(registry)]);
+  }
+
+  /**
+   * Exact conversion of a decimal; {@code null} becomes {@link #NONE}. Rejects values with more
+   * decimals than the registry keeps, rather than rounding them.
+   */
+  public static long of(BigDecimal value, ContextRegistry registry) {
+    if (value == null) return NONE;
+    try {
+      return value
+          .setScale(scale(registry), RoundingMode.UNNECESSARY)
+          .unscaledValue()
+          .longValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(
+          "Price " + value + " does not fit " + scale(registry) + " decimals", e);
+    }
+  }
+
+  /** {@link #NONE} becomes {@code null}. */
+  public static BigDecimal toDecimal(long price, ContextRegistry registry) {
+    return price == NONE ? null : BigDecimal.valueOf(price, scale(registry));
+  }
+
+  public static double toDouble(long price, ContextRegistry registry) {
+    return price / POWERS_OF_TEN[scale(registry)];
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.evooq.demo.domain.context;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Assigns dense {@code int} ids to symbols so that market data can live in primitive arrays. */
+public class SymbolTable {
+  public static final int UNKNOWN = -1;
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] symbols = new String[0];
+
+  public int idOf(String symbol) {
+    Integer id = ids.get(symbol);
+    return id == null ? UNKNOWN : id;
+  }
+
+  public int register(String symbol) {
+    Integer id = ids.get(symbol);
+    if (id != null) return id;
+    synchronized (this) {
+      return ids.computeIfAbsent(
+          symbol,
+          key -> {
+            String[] grown = Arrays.copyOf(symbols, symbols.length + 1);
+            grown[symbols.length] = key;
+            symbols = grown;
+            return symbols.length - 1;
+          });
+    }
+  }
+
+  public String symbolOf(int id) {
+    return symbols[id];
+  }
+
+  public int size() {
+    return symbols.length;
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.evooq.demo.domain.indicator;
+
+/** Sliding-window aggregates kept by {@link Indicators}, over the last {@code window} ticks. */
+public enum Indicator {
+  /** Simple moving average of the price. */
+  SMA,
+  /** Exponential moving average of the price, smoothing {@code 2 / (window + 1)}. */
+  EMA,
+  MIN,
+  MAX,
+  /** Population standard deviation of the tick-to-tick returns, not annualized. */
+  VOLATILITY,
+  /** Volume-weighted average price of the volume ticks, each at the price it traded at. */
+  VWAP
+}
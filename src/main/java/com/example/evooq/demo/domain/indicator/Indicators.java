@@ -0,0 +1,149 @@
+package com.example.evooq.demo.domain.indicator;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import java.util.Arrays;
+
+/**
+ * Sliding-window {@link Indicator}s per channel and symbol, fed from the tick stream. Only the
+ * series something asked for with {@link #track} are kept, in {@link RollingWindow}s of {@code
+ * window} ticks allocated when first tracked and released once every {@code track} was matched by
+ * an {@link #untrack}. A tick then costs one array lookup for an untracked symbol, and amortized
+ * constant time without allocation for a tracked one.
+ *
+ * <p>A {@link ContextRegistry#VOLUMES} tick is taken as volume traded at the latest value of the
+ * same symbol on every other channel, which is what {@link Indicator#VWAP} averages over.
+ *
+ * <p>An indicator reads {@code NaN} until its window is full. Not thread-safe: indicators have a
+ * single writer, like the {@link com.example.evooq.demo.domain.context.MarketSnapshot} they are fed
+ * alongside.
+ */
+public class Indicators {
+  public static final int DEFAULT_WINDOW = 50;
+
+  private static final ContextRegistry[] REGISTRIES = ContextRegistry.values();
+
+  private final int window;
+  private final Series[][] series = new Series[REGISTRIES.length][0];
+
+  // Each window exists while an indicator that needs it is tracked; the counts are its trackers
+  private static final class Series {
+    RollingWindow values;
+    RollingWindow returns;
+    RollingWindow notionals;
+    RollingWindow volumes;
+    int valueTrackers;
+    int returnTrackers;
+    int vwapTrackers;
+    double last = Double.NaN;
+  }
+
+  public Indicators() {
+    this(DEFAULT_WINDOW);
+  }
+
+  public Indicators(int window) {
+    if (window < 2) throw new IllegalArgumentException("Indicator window must be at least 2");
+    this.window = window;
+  }
+
+  public int window() {
+    return window;
+  }
+
+  /** Starts keeping {@code indicator} for the symbol; it fills up from the next tick on. */
+  public void track(Indicator indicator, ContextRegistry registry, int symbolId) {
+    Series[] channel = series[registry.ordinal()];
+    if (symbolId >= channel.length) {
+      channel = Arrays.copyOf(channel, Math.max(symbolId + 1, channel.length * 2));
+      series[registry.ordinal()] = channel;
+    }
+    Series tracked = channel[symbolId];
+    if (tracked == null) {
+      tracked = new Series();
+      channel[symbolId] = tracked;
+    }
+    switch (indicator) {
+      case SMA, EMA, MIN, MAX -> {
+        if (tracked.valueTrackers++ == 0) tracked.values = new RollingWindow(window);
+      }
+      case VOLATILITY -> {
+        if (tracked.returnTrackers++ == 0) tracked.returns = new RollingWindow(window, false);
+      }
+      case VWAP -> {
+        if (tracked.vwapTrackers++ == 0) {
+          tracked.notionals = new RollingWindow(window, false);
+          tracked.volumes = new RollingWindow(window, false);
+        }
+      }
+    }
+  }
+
+  /** Undoes one {@link #track}; the window is released once nothing tracks it any more. */
+  public void untrack(Indicator indicator, ContextRegistry registry, int symbolId) {
+    Series tracked = series(registry, symbolId);
+    if (tracked == null) return;
+    switch (indicator) {
+      case SMA, EMA, MIN, MAX -> {
+        if (tracked.valueTrackers > 0 && --tracked.valueTrackers == 0) tracked.values = null;
+      }
+      case VOLATILITY -> {
+        if (tracked.returnTrackers > 0 && --tracked.returnTrackers == 0) tracked.returns = null;
+      }
+      case VWAP -> {
+        if (tracked.vwapTrackers > 0 && --tracked.vwapTrackers == 0) {
+          tracked.notionals = null;
+          tracked.volumes = null;
+        }
+      }
+    }
+    if (tracked.valueTrackers + tracked.returnTrackers + tracked.vwapTrackers == 0) {
+      series[registry.ordinal()][symbolId] = null;
+    }
+  }
+
+  public void onTick(ContextRegistry registry, int symbolId, double value) {
+    if (Double.isNaN(value)) return;
+    Series tracked = series(registry, symbolId);
+    if (tracked != null) {
+      if (tracked.values != null) tracked.values.push(value);
+      if (tracked.returns != null && tracked.last != 0 && !Double.isNaN(tracked.last)) {
+        tracked.returns.push(value / tracked.last - 1);
+      }
+      tracked.last = value;
+    }
+    if (registry != ContextRegistry.VOLUMES) return;
+    for (ContextRegistry priced : REGISTRIES) {
+      Series traded = series(priced, symbolId);
+      if (traded != null && traded.notionals != null && !Double.isNaN(traded.last)) {
+        traded.notionals.push(traded.last * value);
+        traded.volumes.push(value);
+      }
+    }
+  }
+
+  /** {@code NaN} when not tracked or its window is not full yet. */
+  public double value(Indicator indicator, ContextRegistry registry, int symbolId) {
+    Series tracked = series(registry, symbolId);
+    if (tracked == null) return Double.NaN;
+    return switch (indicator) {
+      case SMA -> full(tracked.values) ? tracked.values.mean() : Double.NaN;
+      case EMA -> full(tracked.values) ? tracked.values.ema() : Double.NaN;
+      case MIN -> full(tracked.values) ? tracked.values.min() : Double.NaN;
+      case MAX -> full(tracked.values) ? tracked.values.max() : Double.NaN;
+      case VOLATILITY -> full(tracked.returns) ? Math.sqrt(tracked.returns.variance()) : Double.NaN;
+      case VWAP ->
+          full(tracked.volumes) && tracked.volumes.sum() > 0
+              ? tracked.notionals.sum() / tracked.volumes.sum()
+              : Double.NaN;
+    };
+  }
+
+  private Series series(ContextRegistry registry, int symbolId) {
+    Series[] channel = series[registry.ordinal()];
+    return symbolId >= 0 && symbolId < channel.length ? channel[symbolId] : null;
+  }
+
+  private static boolean full(RollingWindow window) {
+    return window != null && window.isFull();
+  }
+}
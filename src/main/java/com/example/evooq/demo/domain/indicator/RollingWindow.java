@@ -0,0 +1,144 @@
+package com.example.evooq.demo.domain.indicator;
+
+/**
+ * Aggregates over the last {@code length} values of one series, kept in preallocated primitive
+ * rings. The sum and sum of squares are maintained incrementally; the minimum and maximum are the
+ * fronts of monotonic deques of slots, so every {@link #push} is amortized constant time and never
+ * allocates.
+ *
+ * <p>The running sums are recomputed from the ring once per {@code length} pushes, so floating
+ * point error from adding and removing values cannot accumulate. A window created without extremes
+ * skips the deques and only keeps the sums. Not thread-safe.
+ */
+public final class RollingWindow {
+  private final int length;
+  private final double alpha;
+  private final double[] values;
+  // Slots of the values that can still become the minimum (maximum), oldest first. Each deque is
+  // a ring of size entries from head.
+  private final int[] minQueue;
+  private final int[] maxQueue;
+  private int minHead;
+  private int minSize;
+  private int maxHead;
+  private int maxSize;
+  // Slot the next value is written to, always the oldest value once the window is full
+  private int next;
+  private long count;
+  private double sum;
+  private double sumOfSquares;
+  private double ema = Double.NaN;
+
+  public RollingWindow(int length) {
+    this(length, true);
+  }
+
+  public RollingWindow(int length, boolean extremes) {
+    if (length < 1) throw new IllegalArgumentException("Window length must be positive");
+    this.length = length;
+    this.alpha = 2.0 / (length + 1);
+    this.values = new double[length];
+    this.minQueue = extremes ? new int[length] : null;
+    this.maxQueue = extremes ? new int[length] : null;
+  }
+
+  public void push(double value) {
+    int slot = next;
+    if (count >= length) {
+      double evicted = values[slot];
+      sum -= evicted;
+      sumOfSquares -= evicted * evicted;
+      // The oldest value leaves the window, and with it the front of a deque that holds its slot
+      if (minQueue != null) {
+        if (minSize > 0 && minQueue[minHead] == slot) {
+          minHead = wrap(minHead + 1);
+          minSize--;
+        }
+        if (maxSize > 0 && maxQueue[maxHead] == slot) {
+          maxHead = wrap(maxHead + 1);
+          maxSize--;
+        }
+      }
+    }
+    values[slot] = value;
+    sum += value;
+    sumOfSquares += value * value;
+    ema = Double.isNaN(ema) ? value : ema + alpha * (value - ema);
+    count++;
+
+    if (minQueue != null) pushExtremes(slot, value);
+    next = wrap(slot + 1);
+    if (next == 0) recompute();
+  }
+
+  private void pushExtremes(int slot, double value) {
+    while (minSize > 0 && values[minQueue[wrap(minHead + minSize - 1)]] >= value) minSize--;
+    minQueue[wrap(minHead + minSize++)] = slot;
+    while (maxSize > 0 && values[maxQueue[wrap(maxHead + maxSize - 1)]] <= value) maxSize--;
+    maxQueue[wrap(maxHead + maxSize++)] = slot;
+  }
+
+  // Indices stay below twice the length, so a subtraction replaces the division of a modulo
+  private int wrap(int index) {
+    return index >= length ? index - length : index;
+  }
+
+  private void recompute() {
+    double recomputedSum = 0;
+    double recomputedSquares = 0;
+    for (double value : values) {
+      recomputedSum += value;
+      recomputedSquares += value * value;
+    }
+    sum = recomputedSum;
+    sumOfSquares = recomputedSquares;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /** Values currently in the window, up to {@link #length}. */
+  public int size() {
+    return (int) Math.min(count, length);
+  }
+
+  public boolean isFull() {
+    return count >= length;
+  }
+
+  public double sum() {
+    return sum;
+  }
+
+  public double mean() {
+    return count == 0 ? Double.NaN : sum / size();
+  }
+
+  /** Population variance of the values in the window. */
+  public double variance() {
+    if (count == 0) return Double.NaN;
+    double mean = mean();
+    // Rounding can take it a hair below zero for a flat series
+    return Math.max(0, sumOfSquares / size() - mean * mean);
+  }
+
+  /** Requires a window with extremes. */
+  public double min() {
+    return count == 0 ? Double.NaN : values[minQueue[minHead]];
+  }
+
+  /** Requires a window with extremes. */
+  public double max() {
+    return count == 0 ? Double.NaN : values[maxQueue[maxHead]];
+  }
+
+  /**
+   * Exponential moving average with the smoothing of a {@code length}-value window, {@code 2 /
+   * (length + 1)}, seeded with the first value. Unlike the other aggregates it covers every value
+   * pushed so far.
+   */
+  public double ema() {
+    return ema;
+  }
+}
@@ -0,0 +1,112 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.orderbook.Side;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads ticks as {@code timestamp,registry,symbol,value} lines, e.g. {@code
+ * 1718000000000,STOCK_PRICES,AAPL,189.5}, and order book levels as {@code
+ * timestamp,side,symbol,price,size} lines, e.g. {@code 1718000000000,BID,AAPL,189.49,300}, which
+ * are skipped unless an {@link OrderBookHandler} is given. Blank lines and lines starting with
+ * {@code #} are skipped too.
+ */
+public class CsvTickSource implements MarketDataSource {
+  private static final ContextRegistry[] REGISTRIES = ContextRegistry.values();
+  private static final Side[] SIDES = Side.values();
+
+  private final Opener opener;
+  private final SymbolTable symbols;
+
+  public CsvTickSource(Opener opener, SymbolTable symbols) {
+    this.opener = opener;
+    this.symbols = symbols;
+  }
+
+  public static CsvTickSource file(Path path, SymbolTable symbols) {
+    return new CsvTickSource(() -> Files.newBufferedReader(path, StandardCharsets.UTF_8), symbols);
+  }
+
+  // Line-oriented TCP feed; the socket is closed together with the reader
+  public static CsvTickSource socket(String host, int port, SymbolTable symbols) {
+    return new CsvTickSource(
+        () -> {
+          Socket socket = new Socket(host, port);
+          return new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+        },
+        symbols);
+  }
+
+  @Override
+  public void run(TickHandler sink) throws IOException {
+    run(sink, null);
+  }
+
+  @Override
+  public void run(TickHandler sink, OrderBookHandler books) throws IOException {
+    try (BufferedReader reader = new BufferedReader(opener.open())) {
+      String line;
+      while ((line = reader.readLine()) != null && !Thread.currentThread().isInterrupted()) {
+        if (line.isBlank() || line.charAt(0) == '#') continue;
+        parse(line, sink, books);
+      }
+    }
+  }
+
+  private void parse(String line, TickHandler sink, OrderBookHandler books) {
+    int first = line.indexOf(',');
+    int second = line.indexOf(',', first + 1);
+    int third = line.indexOf(',', second + 1);
+    if (first < 0 || second < 0 || third < 0) {
+      throw new IllegalArgumentException("Malformed tick: " + line);
+    }
+    long timestamp = Long.parseLong(line, 0, first, 10);
+    Side side = sideOf(line, first + 1, second);
+    if (side != null) {
+      int fourth = line.indexOf(',', third + 1);
+      if (fourth < 0) throw new IllegalArgumentException("Malformed level: " + line);
+      if (books == null) return;
+      int symbolId = symbols.register(line.substring(second + 1, third));
+      long price =
+          Price.of(
+              Double.parseDouble(line.substring(third + 1, fourth)), ContextRegistry.ORDER_BOOKS);
+      long size = Long.parseLong(line, fourth + 1, line.length(), 10);
+      books.onLevel(symbolId, side, price, size, timestamp);
+      return;
+    }
+    ContextRegistry registry = registryOf(line, first + 1, second);
+    int symbolId = symbols.register(line.substring(second + 1, third));
+    double value = Double.parseDouble(line.substring(third + 1));
+    sink.onTick(registry, symbolId, value, timestamp);
+  }
+
+  private static Side sideOf(String line, int from, int to) {
+    for (Side side : SIDES) {
+      String name = side.name();
+      if (name.length() == to - from && line.startsWith(name, from)) return side;
+    }
+    return null;
+  }
+
+  private static ContextRegistry registryOf(String line, int from, int to) {
+    for (ContextRegistry registry : REGISTRIES) {
+      String name = registry.name();
+      if (name.length() == to - from && line.startsWith(name, from)) return registry;
+    }
+    throw new IllegalArgumentException("Unknown context registry in tick: " + line);
+  }
+
+  @FunctionalInterface
+  public interface Opener {
+    Reader open() throws IOException;
+  }
+}
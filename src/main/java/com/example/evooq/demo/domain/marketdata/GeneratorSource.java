@@ -0,0 +1,58 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.orderbook.Side;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * In-process feed for tests and sizing: a random walk over {@code SYM0..SYMn-1} stock prices,
+ * emitted as fast as the sink accepts them. With an {@link OrderBookHandler}, every price tick is
+ * followed by a bid and an ask level a cent either side of it, which clear the levels they cross.
+ */
+public class GeneratorSource implements MarketDataSource {
+  // A cent at the ORDER_BOOKS scale
+  private static final long HALF_SPREAD = 100;
+
+  private final int[] symbolIds;
+  private final long ticks;
+  private final long seed;
+
+  public GeneratorSource(SymbolTable symbols, int symbolCount, long ticks, long seed) {
+    this.symbolIds = new int[symbolCount];
+    for (int i = 0; i < symbolCount; i++) {
+      symbolIds[i] = symbols.register("SYM" + i);
+    }
+    this.ticks = ticks;
+    this.seed = seed;
+  }
+
+  @Override
+  public void run(TickHandler sink) {
+    run(sink, null);
+  }
+
+  @Override
+  public void run(TickHandler sink, OrderBookHandler books) {
+    SplittableRandom random = new SplittableRandom(seed);
+    double[] prices = new double[symbolIds.length];
+    Arrays.fill(prices, 100.0);
+    Thread thread = Thread.currentThread();
+    for (long i = 0; i < ticks; i++) {
+      if ((i & 1023) == 0 && thread.isInterrupted()) return;
+      int index = random.nextInt(symbolIds.length);
+      prices[index] = Math.max(0.01, prices[index] + random.nextDouble(-0.05, 0.05));
+      long timestamp = System.currentTimeMillis();
+      sink.onTick(ContextRegistry.STOCK_PRICES, symbolIds[index], prices[index], timestamp);
+      if (books != null) {
+        long quote = Price.of(prices[index], ContextRegistry.ORDER_BOOKS);
+        books.onLevel(
+            symbolIds[index], Side.BID, quote - HALF_SPREAD, random.nextInt(1, 1_000), timestamp);
+        books.onLevel(
+            symbolIds[index], Side.ASK, quote + HALF_SPREAD, random.nextInt(1, 1_000), timestamp);
+      }
+    }
+  }
+}
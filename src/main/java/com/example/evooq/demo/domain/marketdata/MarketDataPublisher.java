@@ -0,0 +1,39 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.SymbolTable;
+
+/**
+ * Consumer end of the ingestion pipeline. Ticks are applied to a private working snapshot, and
+ * {@link #publish()} swaps in a copy of it for readers. A published snapshot is never written to
+ * again, so action evaluation can read it from any thread without locking.
+ */
+public class MarketDataPublisher implements TickHandler {
+  private final MarketSnapshot working;
+  private volatile MarketSnapshot current;
+  private boolean dirty;
+
+  public MarketDataPublisher(SymbolTable symbols) {
+    this.working = new MarketSnapshot(symbols);
+    this.current = working.copy();
+  }
+
+  @Override
+  public void onTick(ContextRegistry registry, int symbolId, double value, long timestamp) {
+    working.set(registry, symbolId, value);
+    dirty = true;
+  }
+
+  /** Publishes the ticks applied since the last call; returns {@code false} if there were none. */
+  public boolean publish() {
+    if (!dirty) return false;
+    current = working.copy();
+    dirty = false;
+    return true;
+  }
+
+  public MarketSnapshot current() {
+    return current;
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import java.io.IOException;
+
+/**
+ * A feed of ticks. {@link #run} pushes ticks into the sink on the calling thread and returns when
+ * the feed is exhausted or the thread is interrupted.
+ */
+public interface MarketDataSource {
+  void run(TickHandler sink) throws IOException;
+
+  /** Also pushes order book updates, on the same thread; by default the feed has none. */
+  default void run(TickHandler sink, OrderBookHandler books) throws IOException {
+    run(sink);
+  }
+}
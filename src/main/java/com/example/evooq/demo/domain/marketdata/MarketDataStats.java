@@ -0,0 +1,16 @@
+package com.example.evooq.demo.domain.marketdata;
+
+/**
+ * Point-in-time view of the ingestion pipeline. {@code received} counts every tick the source
+ * produced, {@code published} those that made it into the ring, and {@code conflated} those
+ * replaced by a newer value for the same symbol before consumers caught up. {@code ticksPerSecond}
+ * is the receive rate over the last second.
+ */
+public record MarketDataStats(
+    long received,
+    long published,
+    long conflated,
+    long queueDepth,
+    int pendingSymbols,
+    int capacity,
+    double ticksPerSecond) {}
@@ -0,0 +1,13 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import com.example.evooq.demo.domain.orderbook.Side;
+
+/**
+ * Receives incremental order book updates: the size now at one price level, 0 when the level is
+ * gone. {@code price} is fixed-point at the ORDER_BOOKS scale, {@code timestamp} is in epoch
+ * milliseconds.
+ */
+@FunctionalInterface
+public interface OrderBookHandler {
+  void onLevel(int symbolId, Side side, long price, long size, long timestamp);
+}
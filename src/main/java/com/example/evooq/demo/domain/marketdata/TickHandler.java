@@ -0,0 +1,9 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+
+/** Receives ticks one at a time. {@code timestamp} is in epoch milliseconds. */
+@FunctionalInterface
+public interface TickHandler {
+  void onTick(ContextRegistry registry, int symbolId, double value, long timestamp);
+}
@@ -0,0 +1,263 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded single-producer, multi-consumer ring of ticks in which every subscription sees every tick
+ * in order. Entries live in parallel primitive arrays, so publishing does not allocate.
+ *
+ * <p>The producer never waits for consumers. Once the slowest subscription is a full ring behind,
+ * ticks are parked in a conflation table holding only the latest value per registry and symbol,
+ * which is drained into the ring (oldest key first) as slots free up. A lagging consumer skips
+ * intermediate values but always ends up on the latest one.
+ *
+ * <p>{@link #publish} and {@link #flush} must be called from a single producer thread, and
+ * consumers should {@link #subscribe} before it starts. Consumers also drain the conflation table
+ * after each poll, so parked ticks reach the ring even when the feed goes quiet. The table and the
+ * write position are then guarded by a lock, which the producer only takes while ticks are parked.
+ */
+public class TickRingBuffer {
+  private static final ContextRegistry[] REGISTRIES = ContextRegistry.values();
+
+  private final int capacity;
+  private final int mask;
+  private final byte[] registries;
+  private final int[] symbolIds;
+  private final double[] values;
+  private final long[] timestamps;
+  private final Sequence cursor = new Sequence(-1);
+  private final AtomicLong conflated = new AtomicLong();
+  private final Conflation pending = new Conflation();
+  private final ReentrantLock draining = new ReentrantLock();
+  private volatile Sequence[] gates = new Sequence[0];
+
+  // Next sequence to write and the last observed position of the slowest consumer. Written by the
+  // producer while nothing is parked, otherwise by whoever holds the drain lock
+  private long next;
+  private long gateCache = -1;
+
+  public TickRingBuffer(int capacity) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Ring capacity must be a power of two");
+    }
+    this.capacity = capacity;
+    this.mask = capacity - 1;
+    this.registries = new byte[capacity];
+    this.symbolIds = new int[capacity];
+    this.values = new double[capacity];
+    this.timestamps = new long[capacity];
+  }
+
+  public synchronized Subscription subscribe() {
+    Subscription subscription = new Subscription(cursor.get());
+    Sequence[] grown = Arrays.copyOf(gates, gates.length + 1);
+    grown[gates.length] = subscription.sequence;
+    gates = grown;
+    return subscription;
+  }
+
+  public void publish(ContextRegistry registry, int symbolId, double value, long timestamp) {
+    // Only the producer parks ticks, so while none are parked no consumer drains concurrently
+    if (pending.size == 0 && hasCapacity()) {
+      write(registry.ordinal(), symbolId, value, timestamp);
+      return;
+    }
+    draining.lock();
+    try {
+      drainPending();
+      if (pending.size == 0 && hasCapacity()) {
+        write(registry.ordinal(), symbolId, value, timestamp);
+      } else if (pending.offer(registry.ordinal(), symbolId, value, timestamp)) {
+        conflated.lazySet(conflated.get() + 1);
+      }
+    } finally {
+      draining.unlock();
+    }
+  }
+
+  /** Moves conflated ticks into the ring; returns {@code true} once none are left. */
+  public boolean flush() {
+    if (pending.size == 0) return true;
+    draining.lock();
+    try {
+      drainPending();
+    } finally {
+      draining.unlock();
+    }
+    return pending.size == 0;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  /** Ticks written to the ring so far. */
+  public long published() {
+    return cursor.get() + 1;
+  }
+
+  /**
+   * Ticks dropped because a newer value for the same symbol replaced them while consumers lagged.
+   */
+  public long conflated() {
+    return conflated.get();
+  }
+
+  /** Distance between the producer and the slowest subscription. */
+  public long depth() {
+    long head = cursor.get();
+    return head - minimumGate(head);
+  }
+
+  /** Symbols waiting in the conflation table; read without synchronisation, so approximate. */
+  public int pending() {
+    return pending.size;
+  }
+
+  private boolean hasCapacity() {
+    long wrapPoint = next - capacity;
+    if (wrapPoint <= gateCache) return true;
+    gateCache = minimumGate(next - 1);
+    return wrapPoint <= gateCache;
+  }
+
+  private long minimumGate(long fallback) {
+    long minimum = fallback;
+    for (Sequence gate : gates) {
+      minimum = Math.min(minimum, gate.get());
+    }
+    return minimum;
+  }
+
+  private void drainPending() {
+    while (pending.size > 0 && hasCapacity()) {
+      int key = pending.peek();
+      write(
+          key % Conflation.CHANNELS,
+          key / Conflation.CHANNELS,
+          pending.values[key],
+          pending.timestamps[key]);
+      pending.remove();
+    }
+  }
+
+  private void write(int channel, int symbolId, double value, long timestamp) {
+    int index = (int) next & mask;
+    registries[index] = (byte) channel;
+    symbolIds[index] = symbolId;
+    values[index] = value;
+    timestamps[index] = timestamp;
+    cursor.set(next++);
+  }
+
+  /** A consumer's read position. Each subscription is meant to be polled by one thread. */
+  public final class Subscription {
+    private final Sequence sequence;
+
+    private Subscription(long start) {
+      this.sequence = new Sequence(start);
+    }
+
+    /** Hands up to {@code limit} ticks to the handler and returns how many there were. */
+    public int poll(TickHandler handler, int limit) {
+      long current = sequence.get();
+      long available = Math.min(cursor.get(), current + limit);
+      for (long s = current + 1; s <= available; s++) {
+        int index = (int) s & mask;
+        handler.onTick(
+            REGISTRIES[registries[index]], symbolIds[index], values[index], timestamps[index]);
+      }
+      sequence.set(available);
+      // A consumer never waits: if the producer or another consumer is draining, leave it to them
+      if (pending.size > 0 && draining.tryLock()) {
+        try {
+          drainPending();
+        } finally {
+          draining.unlock();
+        }
+      }
+      return (int) (available - current);
+    }
+
+    public long lag() {
+      return cursor.get() - sequence.get();
+    }
+  }
+
+  // Sequence value padded on both sides so that producer and consumer positions never share a
+  // cache line
+  private static final class Sequence {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int INDEX = 7;
+
+    private final long[] padded = new long[INDEX * 2 + 1];
+
+    Sequence(long initial) {
+      set(initial);
+    }
+
+    long get() {
+      return (long) SLOT.getAcquire(padded, INDEX);
+    }
+
+    void set(long value) {
+      SLOT.setRelease(padded, INDEX, value);
+    }
+  }
+
+  // Latest value per (registry, symbol) plus a FIFO of keys in first-parked order. Guarded by the
+  // drain lock; size is volatile so the unlocked checks see it
+  private static final class Conflation {
+    static final int CHANNELS = REGISTRIES.length;
+
+    private double[] values = new double[0];
+    private long[] timestamps = new long[0];
+    private boolean[] queued = new boolean[0];
+    private int[] order = new int[16];
+    private int head;
+    private volatile int size;
+
+    // Returns true when an already parked value was replaced
+    boolean offer(int channel, int symbolId, double value, long timestamp) {
+      int key = symbolId * CHANNELS + channel;
+      if (key >= queued.length) grow(key + 1);
+      values[key] = value;
+      timestamps[key] = timestamp;
+      if (queued[key]) return true;
+      queued[key] = true;
+      if (size == order.length) {
+        int[] grown = new int[order.length * 2];
+        for (int i = 0; i < size; i++) {
+          grown[i] = order[(head + i) % order.length];
+        }
+        order = grown;
+        head = 0;
+      }
+      order[(head + size) % order.length] = key;
+      size = size + 1;
+      return false;
+    }
+
+    int peek() {
+      return order[head];
+    }
+
+    void remove() {
+      queued[order[head]] = false;
+      head = (head + 1) % order.length;
+      size = size - 1;
+    }
+
+    private void grow(int minCapacity) {
+      int capacity = Math.max(minCapacity, queued.length * 2);
+      values = Arrays.copyOf(values, capacity);
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      queued = Arrays.copyOf(queued, capacity);
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package com.example.evooq.demo.domain.orderbook;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Price levels of one symbol, best first on each side, in preallocated primitive arrays. Prices are
+ * fixed-point at the {@link ContextRegistry#ORDER_BOOKS} scale, sizes are whole units. Only the
+ * best {@code levels} of each side are kept: a level worse than all of them is dropped.
+ *
+ * <p>A single writer applies incremental updates with {@link #set}. Readers on any thread get
+ * consistent values without locking through a seqlock: the writer makes the version odd while it
+ * changes the arrays, and a reader retries until it read everything under the same even version.
+ * Reads never allocate; {@link #read} copies the top of the book into a reader-owned {@link
+ * OrderBookView} for several values from one state.
+ */
+public class OrderBook {
+  private static final VarHandle VERSION;
+
+  static {
+    try {
+      VERSION = MethodHandles.lookup().findVarHandle(OrderBook.class, "version", long.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final int levels;
+  // Indexed by Side ordinal; bids descending, asks ascending
+  private final long[][] prices = new long[2][];
+  private final long[][] sizes = new long[2][];
+  private final int[] counts = new int[2];
+  // Odd while the writer is changing the book
+  private long version;
+
+  public OrderBook(int levels) {
+    if (levels < 1) throw new IllegalArgumentException("Order book levels must be positive");
+    this.levels = levels;
+    for (int side = 0; side < 2; side++) {
+      prices[side] = new long[levels];
+      sizes[side] = new long[levels];
+    }
+  }
+
+  public int levels() {
+    return levels;
+  }
+
+  /**
+   * Sets the size at a price level, removing the level when {@code size} is 0. A level that crosses
+   * the book removes the levels of the other side it trades through, as a feed that missed their
+   * deletes would have them. Single writer only.
+   */
+  public void set(Side side, long price, long size) {
+    if (size < 0) throw new IllegalArgumentException("Size must not be negative");
+    long start = (long) VERSION.getOpaque(this);
+    VERSION.setOpaque(this, start + 1);
+    VarHandle.storeStoreFence();
+    if (size == 0) {
+      remove(side.ordinal(), price);
+    } else {
+      uncross(side == Side.BID ? Side.ASK.ordinal() : Side.BID.ordinal(), price);
+      put(side.ordinal(), price, size);
+    }
+    VERSION.setRelease(this, start + 2);
+  }
+
+  /** Removes every level. Single writer only. */
+  public void clear() {
+    long start = (long) VERSION.getOpaque(this);
+    VERSION.setOpaque(this, start + 1);
+    VarHandle.storeStoreFence();
+    counts[0] = 0;
+    counts[1] = 0;
+    VERSION.setRelease(this, start + 2);
+  }
+
+  private void put(int side, long price, long size) {
+    int count = counts[side];
+    int index = search(side, price, count);
+    if (index >= 0) {
+      sizes[side][index] = size;
+      return;
+    }
+    index = -index - 1;
+    if (index == levels) return;
+    int moved = Math.min(count, levels - 1) - index;
+    System.arraycopy(prices[side], index, prices[side], index + 1, moved);
+    System.arraycopy(sizes[side], index, sizes[side], index + 1, moved);
+    prices[side][index] = price;
+    sizes[side][index] = size;
+    counts[side] = index + moved + 1;
+  }
+
+  private void remove(int side, long price) {
+    int count = counts[side];
+    int index = search(side, price, count);
+    if (index < 0) return;
+    System.arraycopy(prices[side], index + 1, prices[side], index, count - index - 1);
+    System.arraycopy(sizes[side], index + 1, sizes[side], index, count - index - 1);
+    counts[side] = count - 1;
+  }
+
+  // Drops the levels of side at or through price, which are all at its front
+  private void uncross(int side, long price) {
+    int count = counts[side];
+    int crossed = 0;
+    while (crossed < count && !better(side, price, prices[side][crossed])) crossed++;
+    if (crossed == 0) return;
+    System.arraycopy(prices[side], crossed, prices[side], 0, count - crossed);
+    System.arraycopy(sizes[side], crossed, sizes[side], 0, count - crossed);
+    counts[side] = count - crossed;
+  }
+
+  // Whether a is strictly better than b on side: higher for bids, lower for asks
+  private static boolean better(int side, long a, long b) {
+    return side == 0 ? a > b : a < b;
+  }
+
+  // Binary search in best-first order, with the Arrays.binarySearch convention for misses
+  private int search(int side, long price, int count) {
+    long[] levelPrices = prices[side];
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long candidate = levelPrices[middle];
+      if (candidate == price) return middle;
+      if (better(side, candidate, price)) {
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /** The best price on {@code side}, {@link Price#NONE} when that side is empty. */
+  public long best(Side side) {
+    int s = side.ordinal();
+    while (true) {
+      long stamp = beginRead();
+      long best = counts[s] > 0 ? prices[s][0] : Price.NONE;
+      if (validate(stamp)) return best;
+    }
+  }
+
+  /** Best ask minus best bid, {@link Price#NONE} unless both sides have a level. */
+  public long spread() {
+    int bid = Side.BID.ordinal();
+    int ask = Side.ASK.ordinal();
+    while (true) {
+      long stamp = beginRead();
+      long spread =
+          counts[bid] > 0 && counts[ask] > 0 ? prices[ask][0] - prices[bid][0] : Price.NONE;
+      if (validate(stamp)) return spread;
+    }
+  }
+
+  /** Total size of the best {@code levels} levels on {@code side}. */
+  public long depth(Side side, int levels) {
+    int s = side.ordinal();
+    while (true) {
+      long stamp = beginRead();
+      long depth = 0;
+      int count = Math.min(Math.min(counts[s], levels), this.levels);
+      for (int i = 0; i < count; i++) depth += sizes[s][i];
+      if (validate(stamp)) return depth;
+    }
+  }
+
+  /**
+   * Copies the best levels of both sides that fit into {@code view}, from one state of the book.
+   */
+  public void read(OrderBookView view) {
+    int capacity = Math.min(view.capacity(), levels);
+    while (true) {
+      long stamp = beginRead();
+      for (int s = 0; s < 2; s++) {
+        int count = Math.min(counts[s], capacity);
+        System.arraycopy(prices[s], 0, view.prices[s], 0, count);
+        System.arraycopy(sizes[s], 0, view.sizes[s], 0, count);
+        view.counts[s] = count;
+      }
+      if (validate(stamp)) return;
+    }
+  }
+
+  private long beginRead() {
+    while (true) {
+      long stamp = (long) VERSION.getAcquire(this);
+      if ((stamp & 1) == 0) return stamp;
+      Thread.onSpinWait();
+    }
+  }
+
+  // Reads before the fence were racy; they are only kept if no write started in the meantime
+  private boolean validate(long stamp) {
+    VarHandle.loadLoadFence();
+    return (long) VERSION.getOpaque(this) == stamp;
+  }
+}
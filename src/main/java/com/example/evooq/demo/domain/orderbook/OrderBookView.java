@@ -0,0 +1,58 @@
+package com.example.evooq.demo.domain.orderbook;
+
+import com.example.evooq.demo.domain.context.Price;
+
+/**
+ * The best levels of an {@link OrderBook} as of one {@link OrderBook#read}, owned by one reader and
+ * reused across reads so that they do not allocate.
+ */
+public class OrderBookView {
+  final long[][] prices = new long[2][];
+  final long[][] sizes = new long[2][];
+  final int[] counts = new int[2];
+
+  public OrderBookView(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("View capacity must be positive");
+    for (int side = 0; side < 2; side++) {
+      prices[side] = new long[capacity];
+      sizes[side] = new long[capacity];
+    }
+  }
+
+  public int capacity() {
+    return prices[0].length;
+  }
+
+  /** Levels read on {@code side}, up to {@link #capacity()}. */
+  public int count(Side side) {
+    return counts[side.ordinal()];
+  }
+
+  /** Price of the {@code level}th best level, 0 being the best. */
+  public long price(Side side, int level) {
+    return prices[side.ordinal()][level];
+  }
+
+  public long size(Side side, int level) {
+    return sizes[side.ordinal()][level];
+  }
+
+  /** {@link Price#NONE} when {@code side} is empty. */
+  public long best(Side side) {
+    return count(side) > 0 ? price(side, 0) : Price.NONE;
+  }
+
+  /** {@link Price#NONE} unless both sides have a level. */
+  public long spread() {
+    return count(Side.BID) > 0 && count(Side.ASK) > 0
+        ? best(Side.ASK) - best(Side.BID)
+        : Price.NONE;
+  }
+
+  /** Total size of the best {@code levels} levels read on {@code side}. */
+  public long depth(Side side, int levels) {
+    long depth = 0;
+    for (int i = 0; i < Math.min(levels, count(side)); i++) depth += size(side, i);
+    return depth;
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.evooq.demo.domain.orderbook;
+
+import com.example.evooq.demo.domain.context.SymbolTable;
+import java.util.Arrays;
+
+/**
+ * The {@link OrderBook}s behind {@link
+ * com.example.evooq.demo.domain.context.ContextRegistry#ORDER_BOOKS}, indexed by symbol id. A book
+ * is created on the first update of its symbol. {@link #apply} must be called from a single writer
+ * thread; {@link #book} can be called from any thread.
+ */
+public class OrderBooks {
+  public static final int DEFAULT_LEVELS = 32;
+
+  private final SymbolTable symbols;
+  private final int levels;
+  // Replaced by a larger copy when a symbol id does not fit, so readers never see a partial array
+  private volatile OrderBook[] books = new OrderBook[0];
+
+  public OrderBooks() {
+    this(new SymbolTable(), DEFAULT_LEVELS);
+  }
+
+  public OrderBooks(SymbolTable symbols, int levels) {
+    if (levels < 1) throw new IllegalArgumentException("Order book levels must be positive");
+    this.symbols = symbols;
+    this.levels = levels;
+  }
+
+  public SymbolTable symbols() {
+    return symbols;
+  }
+
+  /** The book of the symbol, {@code null} until it had an update. */
+  public OrderBook book(int symbolId) {
+    OrderBook[] current = books;
+    return symbolId >= 0 && symbolId < current.length ? current[symbolId] : null;
+  }
+
+  public OrderBook book(String symbol) {
+    return book(symbols.idOf(symbol));
+  }
+
+  /** Applies an update with {@link OrderBook#set}, and returns the book it changed. */
+  public OrderBook apply(int symbolId, Side side, long price, long size) {
+    OrderBook book = book(symbolId);
+    if (book == null) {
+      book = new OrderBook(levels);
+      OrderBook[] current = books;
+      OrderBook[] grown =
+          symbolId < current.length
+              ? current.clone()
+              : Arrays.copyOf(current, Math.max(symbolId + 1, current.length * 2));
+      grown[symbolId] = book;
+      books = grown;
+    }
+    book.set(side, price, size);
+    return book;
+  }
+}
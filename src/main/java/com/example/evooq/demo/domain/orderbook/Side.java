@@ -0,0 +1,6 @@
+package com.example.evooq.demo.domain.orderbook;
+
+public enum Side {
+  BID,
+  ASK
+}
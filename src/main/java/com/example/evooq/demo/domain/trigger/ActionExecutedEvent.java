@@ -0,0 +1,16 @@
+package com.example.evooq.demo.domain.trigger;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by the outbox relay for every fired action, at least once. Consumers deduplicate on
+ * {@code idempotencyKey}; {@code executed} is false when the balance delta was rejected.
+ */
+public record ActionExecutedEvent(
+    String idempotencyKey,
+    long actionId,
+    String userId,
+    String contextId,
+    BigDecimal price,
+    BigDecimal balanceDelta,
+    boolean executed) {}
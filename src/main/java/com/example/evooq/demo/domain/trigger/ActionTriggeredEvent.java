@@ -0,0 +1,10 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.Action;
+
+/**
+ * Published when an action's condition is met; {@code price} is the fixed-point price of the tick
+ * that fired it, at the scale of the action's context registry, or {@link
+ * com.example.evooq.demo.domain.context.Price#NONE}.
+ */
+public record ActionTriggeredEvent(Action action, long price) {}
@@ -0,0 +1,174 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.ConditionAction;
+import com.example.evooq.demo.domain.condition.CompiledCondition;
+import com.example.evooq.demo.domain.context.ActionContext;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.indicator.Indicators;
+import com.example.evooq.demo.domain.marketdata.TickHandler;
+import com.example.evooq.demo.domain.orderbook.OrderBooks;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Evaluates {@link ConditionAction}s, which read several symbols and so cannot live on one price
+ * shard. The evaluator applies every tick to its own {@link MarketSnapshot} and {@link Indicators},
+ * tracking the indicators registered conditions read for as long as they are registered. Each
+ * condition is compiled once when registered and indexed under every value it reads, so a tick only
+ * re-evaluates the conditions that read the channel and symbol it changed. Conditions are one-shot:
+ * once one holds it is removed and handed to the listener with the fixed-point first value it
+ * reads. {@link #context()} exposes the snapshot and indicators to {@code shouldTake}.
+ *
+ * <p>Not thread-safe: an evaluator is meant to be owned by a single evaluating thread.
+ */
+public class ConditionEvaluator implements TickHandler {
+  private final MarketSnapshot snapshot;
+  private final Indicators indicators;
+  private final ActionContext context;
+  private final ObjLongConsumer<ConditionAction> listener;
+  private final EvaluationMetrics metrics;
+  // Indexed by CompiledCondition.key, the conditions reading that value
+  private List<Registration>[] dependents = newDependents(64);
+  private final Map<ConditionAction, Registration> registrations = new IdentityHashMap<>();
+  // Reused across ticks, so evaluation does not allocate
+  private final List<Registration> fired = new ArrayList<>();
+
+  private record Registration(ConditionAction action, CompiledCondition compiled) {}
+
+  public ConditionEvaluator(
+      SymbolTable symbols, ObjLongConsumer<ConditionAction> listener, EvaluationMetrics metrics) {
+    this(new MarketSnapshot(symbols), listener, metrics);
+  }
+
+  public ConditionEvaluator(
+      MarketSnapshot snapshot,
+      ObjLongConsumer<ConditionAction> listener,
+      EvaluationMetrics metrics) {
+    this(snapshot, new Indicators(), listener, metrics);
+  }
+
+  /**
+   * Starts from the values in {@code snapshot}, which the evaluator then owns along with {@code
+   * indicators}.
+   */
+  public ConditionEvaluator(
+      MarketSnapshot snapshot,
+      Indicators indicators,
+      ObjLongConsumer<ConditionAction> listener,
+      EvaluationMetrics metrics) {
+    this(
+        snapshot,
+        indicators,
+        new OrderBooks(snapshot.symbols(), OrderBooks.DEFAULT_LEVELS),
+        listener,
+        metrics);
+  }
+
+  /** Also reads {@code orderBooks}, which may be written by another thread, into its context. */
+  public ConditionEvaluator(
+      MarketSnapshot snapshot,
+      Indicators indicators,
+      OrderBooks orderBooks,
+      ObjLongConsumer<ConditionAction> listener,
+      EvaluationMetrics metrics) {
+    this.snapshot = snapshot;
+    this.indicators = indicators;
+    this.context = new ActionContext(snapshot, indicators, orderBooks);
+    this.listener = listener;
+    this.metrics = metrics;
+  }
+
+  /**
+   * The evaluator's own snapshot and indicators, the latter tracking what registered conditions
+   * read. Live and owned by the evaluating thread, so only to be read on it.
+   */
+  public ActionContext context() {
+    return context;
+  }
+
+  /**
+   * Indexes the condition, or fires it right away when it already holds. Returns {@code false} when
+   * it is already registered.
+   */
+  public boolean register(ConditionAction action) {
+    if (registrations.containsKey(action)) return false;
+    CompiledCondition compiled = action.compile(snapshot.symbols());
+    metrics.registered(action);
+    Registration registration = new Registration(action, compiled);
+    compiled.track(indicators);
+    if (compiled.test(snapshot, indicators)) {
+      fire(registration);
+      compiled.untrack(indicators);
+      return true;
+    }
+    registrations.put(action, registration);
+    for (int key : compiled.dependencies()) {
+      if (key >= dependents.length) {
+        dependents = Arrays.copyOf(dependents, Math.max(key + 1, dependents.length * 2));
+      }
+      if (dependents[key] == null) dependents[key] = new ArrayList<>(2);
+      dependents[key].add(registration);
+    }
+    return true;
+  }
+
+  public boolean remove(ConditionAction action) {
+    Registration registration = registrations.remove(action);
+    if (registration == null) return false;
+    for (int key : registration.compiled().dependencies()) {
+      dependents[key].remove(registration);
+    }
+    registration.compiled().untrack(indicators);
+    return true;
+  }
+
+  public int size() {
+    return registrations.size();
+  }
+
+  public void clear() {
+    registrations.values().forEach(registration -> registration.compiled().untrack(indicators));
+    registrations.clear();
+    dependents = newDependents(dependents.length);
+  }
+
+  @Override
+  public void onTick(ContextRegistry registry, int symbolId, double value, long timestamp) {
+    snapshot.set(registry, symbolId, value);
+    indicators.onTick(registry, symbolId, value);
+    int key = CompiledCondition.key(registry, symbolId);
+    if (key >= dependents.length || dependents[key] == null) return;
+    List<Registration> candidates = dependents[key];
+    for (int i = 0; i < candidates.size(); i++) {
+      Registration registration = candidates.get(i);
+      if (registration.compiled().test(snapshot, indicators)) fired.add(registration);
+    }
+    if (fired.isEmpty()) return;
+    // Fired before it is removed, which may release the indicators its first value reads
+    for (int i = 0; i < fired.size(); i++) {
+      fire(fired.get(i));
+      remove(fired.get(i).action());
+    }
+    fired.clear();
+    metrics.tickTriggered(timestamp);
+  }
+
+  private void fire(Registration registration) {
+    ConditionAction action = registration.action();
+    metrics.triggered(action);
+    double value = registration.compiled().firstValue(snapshot, indicators);
+    listener.accept(action, Price.of(value, action.getContextRegistry()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Registration>[] newDependents(int capacity) {
+    return new List[capacity];
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.Action;
+
+/**
+ * Hooks called by the evaluators on their threads. Implementations sit on the tick path, so they
+ * must be thread-safe and must not allocate.
+ */
+public interface EvaluationMetrics {
+  EvaluationMetrics NONE =
+      new EvaluationMetrics() {
+        @Override
+        public void registered(Action action) {}
+
+        @Override
+        public void evaluated(int ticks) {}
+
+        @Override
+        public void triggered(Action action) {}
+
+        @Override
+        public void tickTriggered(long tickTimestamp) {}
+      };
+
+  void registered(Action action);
+
+  void evaluated(int ticks);
+
+  void triggered(Action action);
+
+  /**
+   * Called once all actions fired by a tick have been handed to the listener, with the timestamp
+   * that tick carried.
+   */
+  void tickTriggered(long tickTimestamp);
+}
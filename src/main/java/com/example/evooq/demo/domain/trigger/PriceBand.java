@@ -0,0 +1,80 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import java.util.Arrays;
+
+/**
+ * Actions watching one {@code contextId}. Upper bounds live in a min-heap and lower bounds in a
+ * min-heap of negated values, so the actions a tick crosses are always at the top of a heap.
+ */
+final class PriceBand {
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final ThresholdHeap above = new ThresholdHeap(INITIAL_CAPACITY);
+  private final ThresholdHeap below = new ThresholdHeap(INITIAL_CAPACITY);
+  private TargetPriceAction[] actions = new TargetPriceAction[INITIAL_CAPACITY];
+  private int[] freeSlots = new int[INITIAL_CAPACITY];
+  private int freeCount;
+  private int nextSlot;
+  private int size;
+
+  int size() {
+    return size;
+  }
+
+  // Fires when price > upper or price < lower
+  int add(TargetPriceAction action, long upper, long lower) {
+    int slot;
+    if (freeCount > 0) {
+      slot = freeSlots[--freeCount];
+    } else {
+      slot = nextSlot++;
+      if (slot == actions.length) {
+        actions = Arrays.copyOf(actions, slot * 2);
+      }
+    }
+    actions[slot] = action;
+    above.add(slot, upper);
+    below.add(slot, -lower);
+    size++;
+    return slot;
+  }
+
+  TargetPriceAction remove(int slot) {
+    TargetPriceAction action = actions[slot];
+    actions[slot] = null;
+    above.remove(slot);
+    below.remove(slot);
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+    }
+    freeSlots[freeCount++] = slot;
+    size--;
+    return action;
+  }
+
+  TargetPriceAction actionAt(int slot) {
+    return actions[slot];
+  }
+
+  // Slot of any action crossed by the price, or -1 when none is
+  int firingSlot(long price) {
+    if (above.size() > 0 && above.keyAt(0) < price) return above.slotAt(0);
+    if (below.size() > 0 && below.keyAt(0) < -price) return below.slotAt(0);
+    return -1;
+  }
+
+  int forEachFiring(long price, TriggerListener listener) {
+    return visit(above, 0, price, price, listener) + visit(below, 0, -price, price, listener);
+  }
+
+  // Heap order means a subtree can be skipped as soon as its root is not crossed
+  private int visit(
+      ThresholdHeap heap, int index, long limit, long price, TriggerListener listener) {
+    if (index >= heap.size() || !(heap.keyAt(index) < limit)) return 0;
+    listener.onTrigger(actions[heap.slotAt(index)], price);
+    return 1
+        + visit(heap, 2 * index + 1, limit, price, listener)
+        + visit(heap, 2 * index + 2, limit, price, listener);
+  }
+}
@@ -0,0 +1,266 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.marketdata.TickHandler;
+import com.example.evooq.demo.domain.marketdata.TickRingBuffer;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates {@link TargetPriceAction}s on N single-writer shards. Actions and market data are
+ * partitioned by symbol: an action lives on the shard that owns its {@code contextId}, and every
+ * tick for that symbol is routed to the same shard, which applies it to its own {@link
+ * MarketSnapshot} and its own {@link TriggerEngine}. Shards share nothing on the tick path, so
+ * there are no locks there.
+ *
+ * <p>Ticks enter through {@link #onTick}, which must be called from a single thread; each shard has
+ * its own {@link TickRingBuffer}, so a slow shard conflates its own backlog without holding up the
+ * others. Registrations may come from any thread and are queued to the owning shard.
+ *
+ * <p>Each shard runs on a dedicated platform thread. The JDK cannot bind a thread to a core; for
+ * strict pinning, run the JVM under {@code taskset}/isolated CPUs with one core per shard.
+ */
+public class ShardedEvaluator implements TickHandler, AutoCloseable {
+  private static final int POLL_BATCH = 1024;
+  private static final int SPINS_BEFORE_PARK = 100;
+  private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final SymbolTable symbols;
+  private final EvaluationMetrics metrics;
+  private final Shard[] shards;
+
+  /**
+   * @param oneShot whether an action is removed once it fires, or reported on every tick for as
+   *     long as its condition holds
+   * @param listener called on the shard threads, so it must be thread-safe
+   */
+  public ShardedEvaluator(
+      SymbolTable symbols,
+      int shardCount,
+      int ringCapacity,
+      boolean oneShot,
+      TriggerListener listener) {
+    this(symbols, shardCount, ringCapacity, oneShot, listener, EvaluationMetrics.NONE);
+  }
+
+  public ShardedEvaluator(
+      SymbolTable symbols,
+      int shardCount,
+      int ringCapacity,
+      boolean oneShot,
+      TriggerListener listener,
+      EvaluationMetrics metrics) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    this.symbols = symbols;
+    this.metrics = metrics;
+    this.shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(ringCapacity, oneShot, listener);
+      shards[i].thread =
+          Thread.ofPlatform().name("evaluator-shard-" + i).daemon().start(shards[i]::run);
+    }
+  }
+
+  public int shardCount() {
+    return shards.length;
+  }
+
+  // Symbol ids are dense, so taking them modulo the shard count spreads symbols evenly
+  public int shardOf(String contextId) {
+    return symbols.register(contextId) % shards.length;
+  }
+
+  /** Completes with the result of {@link TriggerEngine#register} once the owning shard ran it. */
+  public CompletableFuture<Boolean> register(TargetPriceAction action) {
+    Shard shard = shards[shardOf(action.getContextId())];
+    return shard.submit(() -> shard.register(action));
+  }
+
+  public CompletableFuture<Boolean> remove(TargetPriceAction action) {
+    Shard shard = shards[shardOf(action.getContextId())];
+    return shard.submit(() -> shard.engine.remove(action));
+  }
+
+  /** Removes every action from every shard; completes once all shards have. */
+  public CompletableFuture<Void> clear() {
+    CompletableFuture<?>[] cleared = new CompletableFuture<?>[shards.length];
+    for (int i = 0; i < shards.length; i++) {
+      TriggerEngine engine = shards[i].engine;
+      cleared[i] =
+          shards[i].submit(
+              () -> {
+                engine.clear();
+                return null;
+              });
+    }
+    return CompletableFuture.allOf(cleared);
+  }
+
+  /**
+   * Runs {@link TriggerEngine#drainHighWaterMarks} on every shard; completes once all shards have.
+   * The sink is called on the shard threads, so it must be thread-safe.
+   */
+  public CompletableFuture<Void> drainHighWaterMarks(ObjLongConsumer<TrailingStopAction> sink) {
+    CompletableFuture<?>[] drained = new CompletableFuture<?>[shards.length];
+    for (int i = 0; i < shards.length; i++) {
+      TriggerEngine engine = shards[i].engine;
+      drained[i] =
+          shards[i].submit(
+              () -> {
+                engine.drainHighWaterMarks(sink);
+                return null;
+              });
+    }
+    return CompletableFuture.allOf(drained);
+  }
+
+  @Override
+  public void onTick(ContextRegistry registry, int symbolId, double value, long timestamp) {
+    shards[symbolId % shards.length].inbox.publish(registry, symbolId, value, timestamp);
+  }
+
+  /**
+   * Called from the tick thread: pushes out conflated ticks and returns {@code true} once every
+   * shard has processed everything routed to it.
+   */
+  public boolean drained() {
+    boolean drained = true;
+    for (Shard shard : shards) {
+      drained &= shard.inbox.flush() && shard.inbox.depth() == 0;
+    }
+    return drained;
+  }
+
+  /** Ticks evaluated across all shards. */
+  public long processed() {
+    long processed = 0;
+    for (Shard shard : shards) {
+      processed += shard.processed.get();
+    }
+    return processed;
+  }
+
+  /** Actions reported to the listener across all shards. */
+  public long fired() {
+    long fired = 0;
+    for (Shard shard : shards) {
+      fired += shard.fired.get();
+    }
+    return fired;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    for (Shard shard : shards) {
+      shard.thread.interrupt();
+    }
+    for (Shard shard : shards) {
+      shard.thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+  }
+
+  private final class Shard implements TickHandler {
+    private final TickRingBuffer inbox;
+    private final TickRingBuffer.Subscription subscription;
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final MarketSnapshot market = new MarketSnapshot(symbols);
+    private final TriggerEngine engine = new TriggerEngine();
+    private final boolean oneShot;
+    private final TriggerListener listener;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong fired = new AtomicLong();
+    private Thread thread;
+
+    Shard(int ringCapacity, boolean oneShot, TriggerListener listener) {
+      this.inbox = new TickRingBuffer(ringCapacity);
+      this.subscription = inbox.subscribe();
+      this.oneShot = oneShot;
+      this.listener =
+          (action, price) -> {
+            metrics.triggered(action);
+            listener.onTrigger(action, price);
+          };
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> command) {
+      CompletableFuture<T> result = new CompletableFuture<>();
+      commands.offer(
+          () -> {
+            try {
+              result.complete(command.get());
+            } catch (RuntimeException e) {
+              result.completeExceptionally(e);
+            }
+          });
+      LockSupport.unpark(thread);
+      return result;
+    }
+
+    // An action whose condition already holds at the last known price fires straight away
+    boolean register(TargetPriceAction action) {
+      if (!engine.register(action)) return false;
+      metrics.registered(action);
+      ContextRegistry registry = action.getContextRegistry();
+      double value = market.value(registry, action.getContextId());
+      if (oneShot && !Double.isNaN(value)) {
+        fired.lazySet(
+            fired.get()
+                + engine.trigger(
+                    registry, action.getContextId(), Price.of(value, registry), listener));
+      }
+      return true;
+    }
+
+    void run() {
+      int idle = 0;
+      while (!Thread.currentThread().isInterrupted()) {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+          command.run();
+        }
+        int polled = subscription.poll(this, POLL_BATCH);
+        if (polled > 0) {
+          metrics.evaluated(polled);
+          idle = 0;
+        } else if (++idle < SPINS_BEFORE_PARK) {
+          Thread.onSpinWait();
+        } else {
+          LockSupport.parkNanos(PARK_NANOS);
+        }
+      }
+    }
+
+    @Override
+    public void onTick(ContextRegistry registry, int symbolId, double value, long timestamp) {
+      market.set(registry, symbolId, value);
+      if (Double.isNaN(value)) {
+        processed.lazySet(processed.get() + 1);
+        return;
+      }
+      String contextId = symbols.symbolOf(symbolId);
+      long price = Price.of(value, registry);
+      int count =
+          oneShot
+              ? engine.trigger(registry, contextId, price, listener)
+              : engine.evaluate(registry, contextId, price, listener);
+      if (count > 0) {
+        metrics.tickTriggered(timestamp);
+        fired.lazySet(fired.get() + count);
+      }
+      processed.lazySet(processed.get() + 1);
+    }
+  }
+}
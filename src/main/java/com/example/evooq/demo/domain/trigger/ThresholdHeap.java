@@ -0,0 +1,102 @@
+package com.example.evooq.demo.domain.trigger;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of {@code long} price thresholds keyed by action slot. Positions are
+ * tracked per slot so that arbitrary removal stays O(log n).
+ */
+final class ThresholdHeap {
+  private long[] keys;
+  private int[] slots;
+  private int[] positions;
+  private int size;
+
+  ThresholdHeap(int capacity) {
+    keys = new long[capacity];
+    slots = new int[capacity];
+    positions = new int[capacity];
+    Arrays.fill(positions, -1);
+  }
+
+  int size() {
+    return size;
+  }
+
+  long keyAt(int index) {
+    return keys[index];
+  }
+
+  int slotAt(int index) {
+    return slots[index];
+  }
+
+  void add(int slot, long key) {
+    if (slot >= positions.length) {
+      int previous = positions.length;
+      positions = Arrays.copyOf(positions, Math.max(slot + 1, previous * 2));
+      Arrays.fill(positions, previous, positions.length, -1);
+    }
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      slots = Arrays.copyOf(slots, size * 2);
+    }
+    keys[size] = key;
+    slots[size] = slot;
+    positions[slot] = size;
+    siftUp(size++);
+  }
+
+  void remove(int slot) {
+    int index = slot < positions.length ? positions[slot] : -1;
+    if (index < 0) return;
+    positions[slot] = -1;
+    int last = --size;
+    if (index == last) return;
+    keys[index] = keys[last];
+    slots[index] = slots[last];
+    positions[slots[index]] = index;
+    if (index > 0 && keys[index] < keys[(index - 1) >>> 1]) {
+      siftUp(index);
+    } else {
+      siftDown(index);
+    }
+  }
+
+  private void siftUp(int index) {
+    long key = keys[index];
+    int slot = slots[index];
+    while (index > 0) {
+      int parent = (index - 1) >>> 1;
+      if (keys[parent] <= key) break;
+      move(parent, index);
+      index = parent;
+    }
+    keys[index] = key;
+    slots[index] = slot;
+    positions[slot] = index;
+  }
+
+  private void siftDown(int index) {
+    long key = keys[index];
+    int slot = slots[index];
+    int half = size >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      int right = child + 1;
+      if (right < size && keys[right] < keys[child]) child = right;
+      if (key <= keys[child]) break;
+      move(child, index);
+      index = child;
+    }
+    keys[index] = key;
+    slots[index] = slot;
+    positions[slot] = index;
+  }
+
+  private void move(int from, int to) {
+    keys[to] = keys[from];
+    slots[to] = slots[from];
+    positions[slots[to]] = to;
+  }
+}
@@ -0,0 +1,285 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Trailing stops watching one {@code contextId}. Stops that share a high-water mark move together
+ * from then on, so they are kept in groups, one per mark, each a min-heap of its stops by trail
+ * percent: the smallest trail has the highest stop and fires first. Groups are indexed twice, in a
+ * min-heap by mark and in a max-heap by the stop of their first member.
+ *
+ * <p>A tick above some marks merges the groups under it into one at the new mark, moving the
+ * members of the smaller groups into the largest; a stop that keeps riding a rising price is then
+ * not touched again. A tick below the top of the stop heap fires stops in order. Any other tick
+ * costs a look at the top of each heap.
+ */
+final class TrailingStopBand {
+  private static final int INITIAL_CAPACITY = 8;
+
+  private final ThresholdHeap marks = new ThresholdHeap(INITIAL_CAPACITY);
+  // Keyed by the negated stop, so that the highest stop is on top
+  private final ThresholdHeap stops = new ThresholdHeap(INITIAL_CAPACITY);
+  private final Map<Long, Group> groupsByMark = new HashMap<>();
+  private Group[] groups = new Group[INITIAL_CAPACITY];
+  private int[] freeGroups = new int[INITIAL_CAPACITY];
+  private int freeGroupCount;
+  private int nextGroup;
+
+  private TrailingStopAction[] actions = new TrailingStopAction[INITIAL_CAPACITY];
+  private Group[] groupOf = new Group[INITIAL_CAPACITY];
+  // Position of each stop in the heap of its group; a stop is in one group at a time
+  private int[] memberPositions = new int[INITIAL_CAPACITY];
+  private int[] freeSlots = new int[INITIAL_CAPACITY];
+  private int freeCount;
+  private int nextSlot;
+  private int size;
+
+  // Min-heap of stops by trail percent; positions live in the band, so a group costs its size
+  private final class Group {
+    final int id;
+    long[] keys = new long[INITIAL_CAPACITY];
+    int[] slots = new int[INITIAL_CAPACITY];
+    int size;
+    long mark;
+    // Whether the mark moved since the last drain
+    boolean dirty;
+
+    Group(int id, long mark) {
+      this.id = id;
+      this.mark = mark;
+    }
+
+    void add(int slot, long key) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        slots = Arrays.copyOf(slots, size * 2);
+      }
+      keys[size] = key;
+      slots[size] = slot;
+      siftUp(size++);
+    }
+
+    void remove(int slot) {
+      int index = memberPositions[slot];
+      int last = --size;
+      if (index == last) return;
+      keys[index] = keys[last];
+      slots[index] = slots[last];
+      if (index > 0 && keys[index] < keys[(index - 1) >>> 1]) {
+        siftUp(index);
+      } else {
+        siftDown(index);
+      }
+    }
+
+    private void siftUp(int index) {
+      long key = keys[index];
+      int slot = slots[index];
+      while (index > 0) {
+        int parent = (index - 1) >>> 1;
+        if (keys[parent] <= key) break;
+        place(index, keys[parent], slots[parent]);
+        index = parent;
+      }
+      place(index, key, slot);
+    }
+
+    private void siftDown(int index) {
+      long key = keys[index];
+      int slot = slots[index];
+      int half = size >>> 1;
+      while (index < half) {
+        int child = 2 * index + 1;
+        int right = child + 1;
+        if (right < size && keys[right] < keys[child]) child = right;
+        if (key <= keys[child]) break;
+        place(index, keys[child], slots[child]);
+        index = child;
+      }
+      place(index, key, slot);
+    }
+
+    private void place(int index, long key, int slot) {
+      keys[index] = key;
+      slots[index] = slot;
+      memberPositions[slot] = index;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  int add(TrailingStopAction action) {
+    int slot;
+    if (freeCount > 0) {
+      slot = freeSlots[--freeCount];
+    } else {
+      slot = nextSlot++;
+      if (slot == actions.length) {
+        actions = Arrays.copyOf(actions, slot * 2);
+        groupOf = Arrays.copyOf(groupOf, slot * 2);
+        memberPositions = Arrays.copyOf(memberPositions, slot * 2);
+      }
+    }
+    actions[slot] = action;
+    long mark = action.getHighWaterMark();
+    Group group = groupsByMark.get(mark);
+    if (group == null) {
+      group = newGroup(mark);
+    } else {
+      unindex(group);
+    }
+    group.add(slot, trailKey(action));
+    groupOf[slot] = group;
+    index(group);
+    size++;
+    return slot;
+  }
+
+  TrailingStopAction remove(int slot) {
+    TrailingStopAction action = actions[slot];
+    Group group = groupOf[slot];
+    actions[slot] = null;
+    groupOf[slot] = null;
+    unindex(group);
+    group.remove(slot);
+    if (group.size > 0) {
+      index(group);
+    } else {
+      releaseGroup(group);
+    }
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+    }
+    freeSlots[freeCount++] = slot;
+    size--;
+    return action;
+  }
+
+  TrailingStopAction actionAt(int slot) {
+    return actions[slot];
+  }
+
+  long markOf(int slot) {
+    return groupOf[slot].mark;
+  }
+
+  /** Raises every mark below {@code price} to it. */
+  void ratchet(long price) {
+    if (marks.size() == 0 || marks.keyAt(0) >= price) return;
+    Group target = groupsByMark.get(price);
+    if (target != null) unindex(target);
+    while (marks.size() > 0 && marks.keyAt(0) < price) {
+      Group group = groups[marks.slotAt(0)];
+      unindex(group);
+      target = target == null ? group : merge(target, group);
+    }
+    target.mark = price;
+    target.dirty = true;
+    index(target);
+  }
+
+  // Slot of a stop at or above the price, or -1 when none is; call after ratchet
+  int firingSlot(long price) {
+    if (stops.size() == 0 || -stops.keyAt(0) < price) return -1;
+    return groups[stops.slotAt(0)].slots[0];
+  }
+
+  int forEachFiring(long price, TriggerListener listener) {
+    return visitGroups(0, price, listener);
+  }
+
+  /** Hands every mark that moved since the last call to {@code sink}, once per stop. */
+  void drainMarks(ObjLongConsumer<TrailingStopAction> sink) {
+    for (int i = 0; i < nextGroup; i++) {
+      Group group = groups[i];
+      if (group == null || !group.dirty) continue;
+      for (int m = 0; m < group.size; m++) {
+        sink.accept(actions[group.slots[m]], group.mark);
+      }
+      group.dirty = false;
+    }
+  }
+
+  // Heap order means a subtree can be skipped as soon as its root is below the price
+  private int visitGroups(int index, long price, TriggerListener listener) {
+    if (index >= stops.size() || -stops.keyAt(index) < price) return 0;
+    Group group = groups[stops.slotAt(index)];
+    return visitMembers(group, 0, price, listener)
+        + visitGroups(2 * index + 1, price, listener)
+        + visitGroups(2 * index + 2, price, listener);
+  }
+
+  private int visitMembers(Group group, int index, long price, TriggerListener listener) {
+    if (index >= group.size) return 0;
+    TrailingStopAction action = actions[group.slots[index]];
+    if (TrailingStopAction.stopPrice(group.mark, action.getTrailPercent()) < price) return 0;
+    listener.onTrigger(action, price);
+    return 1
+        + visitMembers(group, 2 * index + 1, price, listener)
+        + visitMembers(group, 2 * index + 2, price, listener);
+  }
+
+  // Moves the members of the smaller group into the larger one, which is returned
+  private Group merge(Group a, Group b) {
+    Group into = a.size >= b.size ? a : b;
+    Group from = into == a ? b : a;
+    for (int i = 0; i < from.size; i++) {
+      int slot = from.slots[i];
+      into.add(slot, from.keys[i]);
+      groupOf[slot] = into;
+    }
+    releaseGroup(from);
+    return into;
+  }
+
+  private Group newGroup(long mark) {
+    int id;
+    if (freeGroupCount > 0) {
+      id = freeGroups[--freeGroupCount];
+    } else {
+      id = nextGroup++;
+      if (id == groups.length) {
+        groups = Arrays.copyOf(groups, id * 2);
+      }
+    }
+    Group group = new Group(id, mark);
+    groups[id] = group;
+    return group;
+  }
+
+  private void releaseGroup(Group group) {
+    groups[group.id] = null;
+    if (freeGroupCount == freeGroups.length) {
+      freeGroups = Arrays.copyOf(freeGroups, freeGroupCount * 2);
+    }
+    freeGroups[freeGroupCount++] = group.id;
+  }
+
+  private void index(Group group) {
+    marks.add(group.id, group.mark);
+    stops.add(group.id, -stopOf(group));
+    groupsByMark.put(group.mark, group);
+  }
+
+  private void unindex(Group group) {
+    marks.remove(group.id);
+    stops.remove(group.id);
+    groupsByMark.remove(group.mark);
+  }
+
+  private long stopOf(Group group) {
+    TrailingStopAction first = actions[group.slots[0]];
+    return TrailingStopAction.stopPrice(group.mark, first.getTrailPercent());
+  }
+
+  // Positive floats order like their bit patterns, so the heap orders by trail percent
+  private static long trailKey(TrailingStopAction action) {
+    return Float.floatToIntBits(action.getTrailPercent());
+  }
+}
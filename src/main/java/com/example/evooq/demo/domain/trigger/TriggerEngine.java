@@ -0,0 +1,193 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Price-trigger index over {@link TargetPriceAction}s. Each action is stored under its {@code
+ * contextRegistry}/{@code contextId} with the fixed-point bounds {@code target ± tolerance} outside
+ * of which {@code shouldTake} returns {@code true}, so a tick only touches the actions it actually
+ * crosses.
+ *
+ * <p>{@link TrailingStopAction}s, whose bound moves with the price, are kept apart in a {@link
+ * TrailingStopBand} per context, which also keeps their running high-water marks until {@link
+ * #drainHighWaterMarks} hands them out.
+ *
+ * <p>Not thread-safe: an engine is meant to be owned by a single evaluating thread.
+ */
+public class TriggerEngine {
+  private static final long MAX_PRICE = Long.MAX_VALUE / 4;
+
+  private final Map<ContextRegistry, Map<String, PriceBand>> bands =
+      new EnumMap<>(ContextRegistry.class);
+  private final Map<TargetPriceAction, Registration> registrations = new IdentityHashMap<>();
+  private final Map<ContextRegistry, Map<String, TrailingStopBand>> trailingBands =
+      new EnumMap<>(ContextRegistry.class);
+  private final Map<TrailingStopAction, TrailingRegistration> trailingRegistrations =
+      new IdentityHashMap<>();
+
+  private record Registration(Map<String, PriceBand> contexts, PriceBand band, int slot) {}
+
+  private record TrailingRegistration(
+      Map<String, TrailingStopBand> contexts, TrailingStopBand band, int slot) {}
+
+  /**
+   * Indexes the action. Returns {@code false} when it is already registered or when its direction
+   * flag means {@code shouldTake} can never return {@code true}.
+   */
+  public boolean register(TargetPriceAction action) {
+    validate(action);
+    if (action instanceof TrailingStopAction trailingStop) return register(trailingStop);
+    if (!action.isArmed() || registrations.containsKey(action)) return false;
+
+    long upper = action.getTargetPrice() + action.getDivergenceTolerance();
+    long lower = action.getTargetPrice() - action.getDivergenceTolerance();
+    Map<String, PriceBand> contexts =
+        bands.computeIfAbsent(action.getContextRegistry(), registry -> new HashMap<>());
+    PriceBand band = contexts.computeIfAbsent(action.getContextId(), contextId -> new PriceBand());
+    int slot = band.add(action, upper, lower);
+    registrations.put(action, new Registration(contexts, band, slot));
+    return true;
+  }
+
+  private boolean register(TrailingStopAction action) {
+    if (trailingRegistrations.containsKey(action)) return false;
+    Map<String, TrailingStopBand> contexts =
+        trailingBands.computeIfAbsent(action.getContextRegistry(), registry -> new HashMap<>());
+    TrailingStopBand band =
+        contexts.computeIfAbsent(action.getContextId(), contextId -> new TrailingStopBand());
+    int slot = band.add(action);
+    trailingRegistrations.put(action, new TrailingRegistration(contexts, band, slot));
+    return true;
+  }
+
+  public boolean remove(TargetPriceAction action) {
+    if (action instanceof TrailingStopAction trailingStop) {
+      TrailingRegistration registration = trailingRegistrations.remove(trailingStop);
+      if (registration == null) return false;
+      release(registration);
+      return true;
+    }
+    Registration registration = registrations.remove(action);
+    if (registration == null) return false;
+    release(registration);
+    return true;
+  }
+
+  public int size() {
+    return registrations.size() + trailingRegistrations.size();
+  }
+
+  public void clear() {
+    bands.clear();
+    registrations.clear();
+    trailingBands.clear();
+    trailingRegistrations.clear();
+  }
+
+  /** Reports every registered action whose {@code shouldTake} holds for the given price. */
+  public int evaluate(
+      ContextRegistry registry, String contextId, long price, TriggerListener listener) {
+    int fired = 0;
+    TrailingStopBand trailing = trailingBand(registry, contextId);
+    if (trailing != null) {
+      trailing.ratchet(price);
+      fired += trailing.forEachFiring(price, listener);
+    }
+    PriceBand band = band(registry, contextId);
+    if (band == null) return fired;
+    return fired + band.forEachFiring(price, listener);
+  }
+
+  /** Like {@link #evaluate} but removes each reported action, for one-shot triggers. */
+  public int trigger(
+      ContextRegistry registry, String contextId, long price, TriggerListener listener) {
+    int fired = 0;
+    int slot;
+    TrailingStopBand trailing = trailingBand(registry, contextId);
+    if (trailing != null) {
+      trailing.ratchet(price);
+      while ((slot = trailing.firingSlot(price)) >= 0) {
+        TrailingStopAction action = trailing.actionAt(slot);
+        // The engine will not see it again, so its mark is handed back before it goes
+        action.ratchet(trailing.markOf(slot));
+        release(trailingRegistrations.remove(action));
+        listener.onTrigger(action, price);
+        fired++;
+      }
+    }
+    PriceBand band = band(registry, contextId);
+    if (band == null) return fired;
+    while ((slot = band.firingSlot(price)) >= 0) {
+      TargetPriceAction action = band.actionAt(slot);
+      release(registrations.remove(action));
+      listener.onTrigger(action, price);
+      fired++;
+    }
+    return fired;
+  }
+
+  /**
+   * Hands every high-water mark raised since the last call to {@code sink}, with its action. Marks
+   * of stops that fired or were removed in the meantime are not reported.
+   */
+  public void drainHighWaterMarks(ObjLongConsumer<TrailingStopAction> sink) {
+    for (Map<String, TrailingStopBand> contexts : trailingBands.values()) {
+      for (TrailingStopBand band : contexts.values()) {
+        band.drainMarks(sink);
+      }
+    }
+  }
+
+  private TrailingStopBand trailingBand(ContextRegistry registry, String contextId) {
+    Map<String, TrailingStopBand> contexts = trailingBands.get(registry);
+    return contexts == null ? null : contexts.get(contextId);
+  }
+
+  private PriceBand band(ContextRegistry registry, String contextId) {
+    Map<String, PriceBand> contexts = bands.get(registry);
+    return contexts == null ? null : contexts.get(contextId);
+  }
+
+  private void release(Registration registration) {
+    PriceBand band = registration.band();
+    TargetPriceAction action = band.remove(registration.slot());
+    if (band.size() == 0) {
+      registration.contexts().remove(action.getContextId());
+    }
+  }
+
+  private void release(TrailingRegistration registration) {
+    TrailingStopBand band = registration.band();
+    TrailingStopAction action = band.remove(registration.slot());
+    if (band.size() == 0) {
+      registration.contexts().remove(action.getContextId());
+    }
+  }
+
+  private static void validate(TargetPriceAction action) {
+    if (action.getContextRegistry() == null
+        || action.getContextId() == null
+        || action.getTargetPrice() == Price.NONE
+        || action.getDivergenceTolerance() == Price.NONE
+        || action.getPriceIsLessThanTarget() == null) {
+      throw new IllegalArgumentException("Incomplete target price action: " + action);
+    }
+    if (action.getDivergenceTolerance() < 0) {
+      throw new IllegalArgumentException(
+          "Divergence tolerance must not be negative: " + action.getDivergenceTolerance());
+    }
+    // Keeps both bounds, and the negated lower bound, within range
+    if (Math.abs(action.getTargetPrice()) > MAX_PRICE
+        || action.getDivergenceTolerance() > MAX_PRICE) {
+      throw new IllegalArgumentException("Target price out of range: " + action.getTargetPrice());
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.example.evooq.demo.domain.trigger;
+
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+
+/**
+ * {@code price} is the fixed-point {@link com.example.evooq.demo.domain.context.Price} that fired.
+ */
+@FunctionalInterface
+public interface TriggerListener {
+  void onTrigger(TargetPriceAction action, long price);
+}
@@ -0,0 +1,6 @@
+package com.example.evooq.demo.domain.user;
+
+import java.math.BigDecimal;
+
+/** Published once a balance update outside of trigger execution has committed. */
+public record BalanceChangedEvent(Long userId, BigDecimal delta) {}
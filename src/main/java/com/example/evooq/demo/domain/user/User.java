@@ -1,3 +1,5 @@
 package com.example.evooq.demo.domain.user;
 
-public record User(Long id, String name, String email, Double balance) {}
+import java.math.BigDecimal;
+
+public record User(Long id, String name, String email, BigDecimal balance) {}
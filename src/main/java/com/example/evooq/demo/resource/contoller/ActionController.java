@@ -2,29 +2,111 @@ package com.example.evooq.demo.resource.contoller;
 
 import com.example.evooq.demo.domain.action.Action;
 import com.example.evooq.demo.resource.mapper.ActionResourceMapper;
+import com.example.evooq.demo.resource.model.ActionBatchItemResource;
+import com.example.evooq.demo.resource.model.ActionPageResource;
 import com.example.evooq.demo.resource.model.ActionResource;
+import com.example.evooq.demo.resource.model.ActionType;
+import com.example.evooq.demo.services.ActionNotFoundException;
 import com.example.evooq.demo.services.ActionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/actions")
 public class ActionController {
 
+  private static final int MAX_PAGE_SIZE = 1000;
+
   private final ActionService actionService;
   private final ActionResourceMapper actionResourceMapper;
+  private final ObjectMapper objectMapper;
+  private final Timer createTimer;
+  private final Timer editTimer;
+  private final Timer deleteTimer;
 
-  public ActionController(ActionService actionService, ActionResourceMapper actionResourceMapper) {
+  public ActionController(
+      ActionService actionService,
+      ActionResourceMapper actionResourceMapper,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
     this.actionService = actionService;
     this.actionResourceMapper = actionResourceMapper;
+    this.objectMapper = objectMapper;
+    this.createTimer = operationTimer(meterRegistry, "create");
+    this.editTimer = operationTimer(meterRegistry, "edit");
+    this.deleteTimer = operationTimer(meterRegistry, "delete");
+  }
+
+  @GetMapping("/{userId}")
+  public ActionPageResource list(
+      @PathVariable String userId,
+      @RequestParam(defaultValue = "0") long afterId,
+      @RequestParam(defaultValue = "100") int limit,
+      @RequestParam(required = false) ActionType actionType,
+      @RequestParam(required = false) String assetSymbol) {
+    int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+    List<ActionResource> actions =
+        actionService
+            .list(userId, afterId, toEntityType(actionType), assetSymbol, pageSize)
+            .stream()
+            .map(actionResourceMapper::mapToResource)
+            .toList();
+    Long nextAfterId = actions.size() == pageSize ? actions.getLast().id() : null;
+    return new ActionPageResource(actions, nextAfterId);
+  }
+
+  @GetMapping(value = "/{userId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export(
+      @PathVariable String userId,
+      @RequestParam(required = false) ActionType actionType,
+      @RequestParam(required = false) String assetSymbol) {
+    StreamingResponseBody body =
+        out -> {
+          try (SequenceWriter writer =
+              objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            actionService.export(
+                userId,
+                toEntityType(actionType),
+                assetSymbol,
+                action -> {
+                  try {
+                    writer.write(actionResourceMapper.mapToResource(action));
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
   }
 
   @PostMapping("/{userId}")
   public ResponseEntity<ActionResource> create(
       @PathVariable String userId, @RequestBody ActionResource actionResource) {
     Action action = actionResourceMapper.mapToDomainAction(actionResource);
-    Action created = actionService.create(action);
+    Action created = createTimer.record(() -> actionService.create(action));
     return ResponseEntity.created(URI.create("actions/" + userId))
         .body(actionResourceMapper.mapToResource(created));
   }
@@ -34,14 +116,207 @@ public class ActionController {
       @PathVariable String userId,
       @PathVariable Long id,
       @RequestBody ActionResource actionResource) {
+    if (actionResource.version() == null) {
+      throw new ResponseStatusException(
+          HttpStatus.PRECONDITION_REQUIRED, "The version of the action being edited is required");
+    }
     Action action = actionResourceMapper.mapToDomainAction(actionResource);
-    Action updated = actionService.edit(id, action);
+    Action updated = editTimer.record(() -> actionService.edit(userId, id, action));
     return ResponseEntity.ok(actionResourceMapper.mapToResource(updated));
   }
 
   @DeleteMapping("/{userId}/{id}")
   public ResponseEntity<Void> delete(@PathVariable String userId, @PathVariable Long id) {
-    actionService.delete(id);
+    deleteTimer.record(() -> actionService.delete(userId, id));
     return ResponseEntity.noContent().build();
   }
+
+  @PostMapping("/{userId}/batch")
+  public ResponseEntity<List<ActionBatchItemResource>> createBatch(
+      @PathVariable String userId, @RequestBody List<ActionResource> actionResources) {
+    ActionBatchItemResource[] results = new ActionBatchItemResource[actionResources.size()];
+    List<Integer> indexes = new ArrayList<>();
+    List<Action> actions = new ArrayList<>();
+    for (int i = 0; i < actionResources.size(); i++) {
+      try {
+        actions.add(toDomain(userId, actionResources.get(i)));
+        indexes.add(i);
+      } catch (RuntimeException e) {
+        results[i] = ActionBatchItemResource.failed(i, null, 400, message(e));
+      }
+    }
+
+    List<Action> created;
+    try {
+      created = actionService.createAll(actions);
+    } catch (RuntimeException e) {
+      // One bad row rolls the batch back; each item is then retried alone, so that only it fails
+      created = null;
+    }
+    for (int k = 0; k < actions.size(); k++) {
+      int i = indexes.get(k);
+      try {
+        Action action = created != null ? created.get(k) : actionService.create(actions.get(k));
+        results[i] =
+            ActionBatchItemResource.succeeded(
+                i, action.getId(), 201, actionResourceMapper.mapToResource(action));
+      } catch (RuntimeException itemFailure) {
+        results[i] =
+            ActionBatchItemResource.failed(i, null, statusOf(itemFailure), message(itemFailure));
+      }
+    }
+    return ResponseEntity.ok(Arrays.asList(results));
+  }
+
+  @PutMapping("/{userId}/batch")
+  public ResponseEntity<List<ActionBatchItemResource>> editBatch(
+      @PathVariable String userId, @RequestBody List<ActionResource> actionResources) {
+    ActionBatchItemResource[] results = new ActionBatchItemResource[actionResources.size()];
+    Map<Long, Action> updates = new LinkedHashMap<>();
+    Map<Long, Integer> indexes = new HashMap<>();
+    for (int i = 0; i < actionResources.size(); i++) {
+      Long id = actionResources.get(i).id();
+      try {
+        if (id == null) throw new IllegalArgumentException("Action id is required");
+        if (indexes.putIfAbsent(id, i) != null) {
+          throw new IllegalArgumentException("Duplicate action id: " + id);
+        }
+        if (actionResources.get(i).version() == null) {
+          results[i] =
+              ActionBatchItemResource.failed(
+                  i, id, 428, "The version of the action being edited is required");
+          continue;
+        }
+        updates.put(id, toDomain(userId, actionResources.get(i)));
+      } catch (RuntimeException e) {
+        results[i] = ActionBatchItemResource.failed(i, id, 400, message(e));
+      }
+    }
+
+    ActionService.BatchEdit batch;
+    try {
+      batch = actionService.editAll(userId, updates);
+    } catch (RuntimeException e) {
+      // Retried one by one, as in createBatch
+      batch = null;
+    }
+    for (Map.Entry<Long, Action> update : updates.entrySet()) {
+      Long id = update.getKey();
+      int i = indexes.get(id);
+      try {
+        if (batch != null && batch.stale().contains(id)) {
+          results[i] =
+              ActionBatchItemResource.failed(
+                  i,
+                  id,
+                  409,
+                  "Action " + id + " was modified since version " + update.getValue().getVersion());
+          continue;
+        }
+        Action action =
+            batch != null
+                ? batch.edited().get(id)
+                : actionService.edit(userId, id, update.getValue());
+        results[i] =
+            action == null
+                ? ActionBatchItemResource.failed(i, id, 404, "Action not found")
+                : ActionBatchItemResource.succeeded(
+                    i, id, 200, actionResourceMapper.mapToResource(action));
+      } catch (RuntimeException itemFailure) {
+        results[i] =
+            ActionBatchItemResource.failed(i, id, statusOf(itemFailure), message(itemFailure));
+      }
+    }
+    return ResponseEntity.ok(Arrays.asList(results));
+  }
+
+  @DeleteMapping("/{userId}/batch")
+  public ResponseEntity<List<ActionBatchItemResource>> deleteBatch(
+      @PathVariable String userId, @RequestBody List<Long> ids) {
+    Set<Long> deleted;
+    try {
+      deleted = actionService.deleteAll(userId, ids);
+    } catch (RuntimeException e) {
+      // Retried one by one, as in createBatch
+      deleted = null;
+    }
+    List<ActionBatchItemResource> results = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      Long id = ids.get(i);
+      try {
+        boolean found =
+            deleted != null
+                ? deleted.contains(id)
+                : !actionService.deleteAll(userId, List.of(id)).isEmpty();
+        results.add(
+            found
+                ? ActionBatchItemResource.succeeded(i, id, 204, null)
+                : ActionBatchItemResource.failed(i, id, 404, "Action not found"));
+      } catch (RuntimeException itemFailure) {
+        results.add(
+            ActionBatchItemResource.failed(i, id, statusOf(itemFailure), message(itemFailure)));
+      }
+    }
+    return ResponseEntity.ok(results);
+  }
+
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ProblemDetail> conflict(OptimisticLockingFailureException e) {
+    return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage()))
+        .build();
+  }
+
+  @ExceptionHandler(ActionNotFoundException.class)
+  public ResponseEntity<ProblemDetail> notFound(ActionNotFoundException e) {
+    return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage()))
+        .build();
+  }
+
+  // A price with more decimals than its context registry keeps, or a malformed request
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ProblemDetail> badRequest(IllegalArgumentException e) {
+    return ResponseEntity.of(
+            ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()))
+        .build();
+  }
+
+  // Around the service call, so the commit is included
+  private static Timer operationTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder("actions.operation")
+        .description("Latency of single action writes")
+        .tag("operation", operation)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+  private Action toDomain(String userId, ActionResource actionResource) {
+    if (!userId.equals(actionResource.userId())) {
+      throw new IllegalArgumentException("Action userId does not match path userId " + userId);
+    }
+    if (actionResource.type() == null) {
+      throw new IllegalArgumentException("Action type is required");
+    }
+    return actionResourceMapper.mapToDomainAction(actionResource);
+  }
+
+  private static com.example.evooq.demo.db.model.ActionType toEntityType(ActionType actionType) {
+    return actionType == null
+        ? null
+        : com.example.evooq.demo.db.model.ActionType.valueOf(actionType.name());
+  }
+
+  private static int statusOf(RuntimeException e) {
+    if (e instanceof IllegalArgumentException) return 400;
+    if (e instanceof ActionNotFoundException) return 404;
+    if (e instanceof OptimisticLockingFailureException) return 409;
+    if (e instanceof DataIntegrityViolationException) return 409;
+    return 500;
+  }
+
+  // The root cause of a database error, rather than the statement that hit it
+  private static String message(RuntimeException e) {
+    Throwable cause =
+        e instanceof NestedRuntimeException nested ? nested.getMostSpecificCause() : e;
+    return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+  }
 }
@@ -0,0 +1,89 @@
+package com.example.evooq.demo.resource.contoller;
+
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.backtest.BacktestFire;
+import com.example.evooq.demo.domain.backtest.BacktestReport;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.resource.mapper.ActionResourceMapper;
+import com.example.evooq.demo.resource.model.ActionResource;
+import com.example.evooq.demo.resource.model.BacktestFireResource;
+import com.example.evooq.demo.resource.model.BacktestResource;
+import com.example.evooq.demo.services.BacktestService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/backtest")
+public class BacktestController {
+  private final BacktestService backtestService;
+  private final ActionResourceMapper actionResourceMapper;
+  private final ObjectMapper objectMapper;
+
+  public BacktestController(
+      BacktestService backtestService,
+      ActionResourceMapper actionResourceMapper,
+      ObjectMapper objectMapper) {
+    this.backtestService = backtestService;
+    this.actionResourceMapper = actionResourceMapper;
+    this.objectMapper = objectMapper;
+  }
+
+  @GetMapping("/{userId}")
+  public BacktestResource stored(@PathVariable String userId, @RequestParam String ticks)
+      throws IOException {
+    return toResource(backtestService.runStored(ticks, userId));
+  }
+
+  // Takes actions in the NDJSON format of GET /actions/{userId}/export, so an exported book can be
+  // edited and backtested before it is stored
+  @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  public BacktestResource supplied(@RequestParam String ticks, HttpServletRequest request)
+      throws IOException {
+    List<Action> actions = new ArrayList<>();
+    try (MappingIterator<ActionResource> resources =
+        objectMapper.readerFor(ActionResource.class).readValues(request.getInputStream())) {
+      while (resources.hasNextValue()) {
+        actions.add(actionResourceMapper.mapToDomainAction(resources.nextValue()));
+      }
+    }
+    return toResource(backtestService.run(ticks, actions));
+  }
+
+  @ExceptionHandler(NoSuchFileException.class)
+  public ResponseEntity<ProblemDetail> notFound(NoSuchFileException e) {
+    return ResponseEntity.of(
+            ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, "No tick file " + e.getFile()))
+        .build();
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ProblemDetail> badRequest(IllegalArgumentException e) {
+    return ResponseEntity.of(
+            ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage()))
+        .build();
+  }
+
+  private static BacktestResource toResource(BacktestReport report) {
+    List<BacktestFireResource> fires = new ArrayList<>(report.fires().size());
+    for (BacktestFire fire : report.fires()) {
+      fires.add(
+          new BacktestFireResource(
+              fire.action().getId(),
+              fire.action().getDescription(),
+              fire.action().getContextId(),
+              fire.timestamp(),
+              Price.toDecimal(fire.price(), fire.action().getContextRegistry())));
+    }
+    return new BacktestResource(report.ticks(), report.actions(), report.ticksPerSecond(), fires);
+  }
+}
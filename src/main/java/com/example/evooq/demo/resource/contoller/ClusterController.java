@@ -0,0 +1,27 @@
+package com.example.evooq.demo.resource.contoller;
+
+import com.example.evooq.demo.resource.model.ClusterResource;
+import com.example.evooq.demo.services.PartitionLeaseService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cluster")
+public class ClusterController {
+  private final PartitionLeaseService partitionLeaseService;
+
+  public ClusterController(PartitionLeaseService partitionLeaseService) {
+    this.partitionLeaseService = partitionLeaseService;
+  }
+
+  // The partitions whose actions this instance evaluates
+  @GetMapping
+  public ClusterResource status() {
+    return new ClusterResource(
+        partitionLeaseService.nodeId(),
+        partitionLeaseService.isEnabled(),
+        partitionLeaseService.partitions(),
+        partitionLeaseService.ownedPartitions());
+  }
+}
@@ -0,0 +1,22 @@
+package com.example.evooq.demo.resource.contoller;
+
+import com.example.evooq.demo.domain.marketdata.MarketDataStats;
+import com.example.evooq.demo.services.MarketDataService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/market-data")
+public class MarketDataController {
+  private final MarketDataService marketDataService;
+
+  public MarketDataController(MarketDataService marketDataService) {
+    this.marketDataService = marketDataService;
+  }
+
+  @GetMapping("/stats")
+  public MarketDataStats stats() {
+    return marketDataService.stats();
+  }
+}
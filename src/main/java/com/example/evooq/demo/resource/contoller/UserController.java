@@ -3,6 +3,8 @@ package com.example.evooq.demo.resource.contoller;
 import com.example.evooq.demo.db.model.UserEntity;
 import com.example.evooq.demo.resource.model.UserResource;
 import com.example.evooq.demo.services.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -12,14 +14,20 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/user")
 public class UserController {
   private final UserService userService;
+  private final Timer loginTimer;
 
-  public UserController(UserService userService) {
+  public UserController(UserService userService, MeterRegistry meterRegistry) {
     this.userService = userService;
+    this.loginTimer =
+        Timer.builder("user.login")
+            .description("Latency of logins, cached or not")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
   }
 
   @PostMapping("/login")
   public UserResource login(@RequestParam String name, @RequestParam String email) {
-    UserEntity user = userService.login(name, email);
+    UserEntity user = loginTimer.record(() -> userService.login(name, email));
     return new UserResource(user.getId(), user.getName(), user.getEmail(), user.getBalance());
   }
 }
@@ -0,0 +1,89 @@
+package com.example.evooq.demo.resource.contoller;
+
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.trigger.ActionExecutedEvent;
+import com.example.evooq.demo.domain.trigger.ActionTriggeredEvent;
+import com.example.evooq.demo.domain.user.BalanceChangedEvent;
+import com.example.evooq.demo.resource.model.BalanceEventResource;
+import com.example.evooq.demo.resource.model.TriggerEventResource;
+import com.example.evooq.demo.services.UserEventBus;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/actions")
+public class UserEventController {
+  private final UserEventBus userEventBus;
+  private final long timeoutMillis;
+
+  public UserEventController(
+      UserEventBus userEventBus, @Value("${events.timeout-ms:1800000}") long timeoutMillis) {
+    this.userEventBus = userEventBus;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  // Held open as an async request, so an idle stream occupies no request thread
+  @GetMapping(value = "/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events(@PathVariable String userId) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    UserEventBus.Subscription subscription =
+        userEventBus.subscribe(userId, new EmitterSink(emitter));
+    emitter.onCompletion(subscription::cancel);
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(error -> subscription.cancel());
+    return emitter;
+  }
+
+  private record EmitterSink(SseEmitter emitter) implements UserEventBus.Sink {
+    @Override
+    public void send(Object event) throws IOException {
+      switch (event) {
+        case ActionTriggeredEvent trigger -> {
+          Action action = trigger.action();
+          emitter.send(
+              SseEmitter.event()
+                  .name("trigger")
+                  .data(
+                      new TriggerEventResource(
+                          action.getId(),
+                          action.getDescription(),
+                          action.getContextId(),
+                          Price.toDecimal(trigger.price(), action.getContextRegistry()))));
+        }
+        case ActionExecutedEvent executed ->
+            emitter.send(
+                SseEmitter.event()
+                    .name("balance")
+                    .id(executed.idempotencyKey())
+                    .data(
+                        new BalanceEventResource(
+                            executed.actionId(), executed.balanceDelta(), executed.executed())));
+        case BalanceChangedEvent changed ->
+            emitter.send(
+                SseEmitter.event()
+                    .name("balance")
+                    .data(new BalanceEventResource(null, changed.delta(), true)));
+        case UserEventBus.Dropped dropped ->
+            emitter.send(SseEmitter.event().name("dropped").data(dropped.count()));
+        default -> {}
+      }
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+      emitter.send(SseEmitter.event().comment(""));
+    }
+
+    @Override
+    public void close() {
+      emitter.complete();
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.evooq.demo.resource.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps the number of database-backed requests in flight. On virtual threads Tomcat no longer limits
+ * concurrency, so without a cap every request would pile up on the connection pool; here excess
+ * requests wait briefly for a permit and are otherwise rejected with 503. Streaming responses keep
+ * their permit until the async request completes. Event streams are exempt: they stay open
+ * indefinitely without touching the database.
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+  private final Semaphore permits;
+  private final long maxWaitMillis;
+
+  public BulkheadFilter(
+      @Value("${bulkhead.max-concurrent-requests:200}") int maxConcurrentRequests,
+      @Value("${bulkhead.max-wait-ms:500}") long maxWaitMillis) {
+    this.permits = new Semaphore(maxConcurrentRequests, true);
+    this.maxWaitMillis = maxWaitMillis;
+  }
+
+  public int availablePermits() {
+    return permits.availablePermits();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI();
+    if (path.startsWith("/actions") && path.endsWith("/events")) return true;
+    return !path.startsWith("/actions") && !path.startsWith("/user");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    if (!acquire()) {
+      response.setHeader("Retry-After", "1");
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+      return;
+    }
+    boolean async = false;
+    try {
+      chain.doFilter(request, response);
+      async = request.isAsyncStarted();
+      if (async) {
+        request.getAsyncContext().addListener(new ReleaseOnComplete());
+      }
+    } finally {
+      if (!async) permits.release();
+    }
+  }
+
+  private boolean acquire() {
+    try {
+      return permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  // onComplete also follows a timeout or an error, so it is the only place to release
+  private final class ReleaseOnComplete implements AsyncListener {
+    @Override
+    public void onComplete(AsyncEvent event) {
+      permits.release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {}
+
+    @Override
+    public void onError(AsyncEvent event) {}
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+  }
+}
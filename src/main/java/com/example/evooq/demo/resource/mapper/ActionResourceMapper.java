@@ -4,12 +4,17 @@ import static com.example.evooq.demo.resource.model.ActionType.SELL_AUTOMATIC;
 
 import com.example.evooq.demo.domain.action.Action;
 import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.ConditionAction;
 import com.example.evooq.demo.domain.action.SellAutomaticAction;
 import com.example.evooq.demo.domain.action.SetStopLossAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.Price;
 import com.example.evooq.demo.resource.model.ActionResource;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+// Prices are converted explicitly at the registry's scale, see Price
+@Mapper(componentModel = "spring", imports = Price.class)
 public interface ActionResourceMapper {
 
   default Action mapToDomainAction(ActionResource actionResource) {
@@ -18,6 +23,8 @@ public interface ActionResourceMapper {
       case SELL_AUTOMATIC -> mapToDomainSellAutomaticAction(actionResource);
       case BUY_AUTOMATIC -> mapToDomainBuyAutomaticAction(actionResource);
       case SET_STOP_LOSS -> mapToDomainSetStopLossAction(actionResource);
+      case CONDITION -> mapToDomainConditionAction(actionResource);
+      case TRAILING_STOP -> mapToDomainTrailingStopAction(actionResource);
       default ->
           throw new IllegalArgumentException("Unsupported action type: " + actionResource.type());
     };
@@ -27,22 +34,87 @@ public interface ActionResourceMapper {
     return switch (action) {
       case null -> null;
       case SetStopLossAction stopLossAction -> mapToSetStopLossResource(stopLossAction);
+      case TrailingStopAction trailingStopAction -> mapToTrailingStopResource(trailingStopAction);
       case SellAutomaticAction sellAction -> mapToSellAutomaticResource(sellAction);
       case BuyAutomaticAction buyAction -> mapToBuyAutomaticResource(buyAction);
+      case ConditionAction conditionAction -> mapToConditionResource(conditionAction);
       default ->
           throw new IllegalArgumentException("Unsupported action type: " + action.getClass());
     };
   }
 
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(Price.of(actionResource.targetPrice(), actionResource.contextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression =
+          "java(Price.of(actionResource.divergenceTolerance(), actionResource.contextRegistry()))")
   SellAutomaticAction mapToDomainSellAutomaticAction(ActionResource actionResource);
 
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(Price.of(actionResource.targetPrice(), actionResource.contextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression =
+          "java(Price.of(actionResource.divergenceTolerance(), actionResource.contextRegistry()))")
   BuyAutomaticAction mapToDomainBuyAutomaticAction(ActionResource actionResource);
 
   SetStopLossAction mapToDomainSetStopLossAction(ActionResource actionResource);
 
+  ConditionAction mapToDomainConditionAction(ActionResource actionResource);
+
+  // The target price is the purchase price; the mark starts there and is the evaluator's to raise
+  @Mapping(
+      target = "purchasePrice",
+      expression = "java(Price.of(actionResource.targetPrice(), actionResource.contextRegistry()))")
+  @Mapping(target = "highWaterMark", expression = "java(Price.NONE)")
+  TrailingStopAction mapToDomainTrailingStopAction(ActionResource actionResource);
+
+  @Mapping(target = "type", constant = "SELL_AUTOMATIC")
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(Price.toDecimal(action.getTargetPrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression =
+          "java(Price.toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
   ActionResource mapToSellAutomaticResource(SellAutomaticAction action);
 
+  @Mapping(target = "type", constant = "BUY_AUTOMATIC")
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(Price.toDecimal(action.getTargetPrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression =
+          "java(Price.toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
   ActionResource mapToBuyAutomaticResource(BuyAutomaticAction action);
 
+  @Mapping(target = "type", constant = "SET_STOP_LOSS")
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(Price.toDecimal(action.getTargetPrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression =
+          "java(Price.toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
   ActionResource mapToSetStopLossResource(SetStopLossAction action);
+
+  @Mapping(target = "type", constant = "TRAILING_STOP")
+  @Mapping(
+      target = "targetPrice",
+      expression = "java(Price.toDecimal(action.getPurchasePrice(), action.getContextRegistry()))")
+  @Mapping(
+      target = "divergenceTolerance",
+      expression =
+          "java(Price.toDecimal(action.getDivergenceTolerance(), action.getContextRegistry()))")
+  @Mapping(
+      target = "highWaterMark",
+      expression = "java(Price.toDecimal(action.getHighWaterMark(), action.getContextRegistry()))")
+  ActionResource mapToTrailingStopResource(TrailingStopAction action);
+
+  @Mapping(target = "type", constant = "CONDITION")
+  ActionResource mapToConditionResource(ConditionAction action);
 }
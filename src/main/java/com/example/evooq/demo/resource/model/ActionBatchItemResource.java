@@ -0,0 +1,14 @@
+package com.example.evooq.demo.resource.model;
+
+public record ActionBatchItemResource(
+    int index, Long id, int status, ActionResource action, String error) {
+
+  public static ActionBatchItemResource succeeded(
+      int index, Long id, int status, ActionResource action) {
+    return new ActionBatchItemResource(index, id, status, action, null);
+  }
+
+  public static ActionBatchItemResource failed(int index, Long id, int status, String error) {
+    return new ActionBatchItemResource(index, id, status, null, error);
+  }
+}
@@ -0,0 +1,6 @@
+package com.example.evooq.demo.resource.model;
+
+import java.util.List;
+
+// nextAfterId is the cursor for the following page, null on the last page
+public record ActionPageResource(List<ActionResource> actions, Long nextAfterId) {}
@@ -1,10 +1,19 @@
 package com.example.evooq.demo.resource.model;
 
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import java.math.BigDecimal;
+
 public record ActionResource(
+    Long id,
+    Long version,
     String userId,
     String description,
     ActionType type,
-    Double targetPrice,
-    Double divergenceTolerance,
+    BigDecimal targetPrice,
+    BigDecimal divergenceTolerance,
     Boolean priceIsLessThanTarget,
-    String contextId) {}
+    String contextId,
+    ContextRegistry contextRegistry,
+    String condition,
+    Float trailPercent,
+    BigDecimal highWaterMark) {}
@@ -3,5 +3,7 @@ package com.example.evooq.demo.resource.model;
 public enum ActionType {
   SELL_AUTOMATIC,
   BUY_AUTOMATIC,
-  SET_STOP_LOSS
+  SET_STOP_LOSS,
+  CONDITION,
+  TRAILING_STOP
 }
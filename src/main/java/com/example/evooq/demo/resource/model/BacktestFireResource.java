@@ -0,0 +1,6 @@
+package com.example.evooq.demo.resource.model;
+
+import java.math.BigDecimal;
+
+public record BacktestFireResource(
+    Long actionId, String description, String contextId, long timestamp, BigDecimal price) {}
@@ -0,0 +1,7 @@
+package com.example.evooq.demo.resource.model;
+
+import java.util.List;
+
+// actions counts the actions that could fire at all, fires are in tick order
+public record BacktestResource(
+    long ticks, int actions, double ticksPerSecond, List<BacktestFireResource> fires) {}
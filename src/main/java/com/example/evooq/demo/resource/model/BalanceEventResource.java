@@ -0,0 +1,6 @@
+package com.example.evooq.demo.resource.model;
+
+import java.math.BigDecimal;
+
+// actionId is null for balance updates that were not caused by an action
+public record BalanceEventResource(Long actionId, BigDecimal delta, boolean applied) {}
@@ -0,0 +1,6 @@
+package com.example.evooq.demo.resource.model;
+
+import java.util.List;
+
+public record ClusterResource(
+    String nodeId, boolean enabled, int partitions, List<Integer> ownedPartitions) {}
@@ -0,0 +1,6 @@
+package com.example.evooq.demo.resource.model;
+
+import java.math.BigDecimal;
+
+public record TriggerEventResource(
+    Long actionId, String description, String contextId, BigDecimal price) {}
@@ -1,3 +1,5 @@
 package com.example.evooq.demo.resource.model;
 
-public record UserResource(Long id, String name, String email, Double balance) {}
+import java.math.BigDecimal;
+
+public record UserResource(Long id, String name, String email, BigDecimal balance) {}
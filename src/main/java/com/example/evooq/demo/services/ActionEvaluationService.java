@@ -0,0 +1,305 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.ActionChange;
+import com.example.evooq.demo.domain.action.ActionChangeFeed;
+import com.example.evooq.demo.domain.action.ActionChangeHandler;
+import com.example.evooq.demo.domain.action.ConditionAction;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.indicator.Indicators;
+import com.example.evooq.demo.domain.marketdata.TickRingBuffer;
+import com.example.evooq.demo.domain.trigger.ActionTriggeredEvent;
+import com.example.evooq.demo.domain.trigger.ConditionEvaluator;
+import com.example.evooq.demo.domain.trigger.EvaluationMetrics;
+import com.example.evooq.demo.domain.trigger.ShardedEvaluator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+/**
+ * Feeds the market data tick stream into a {@link ShardedEvaluator} and publishes an {@link
+ * ActionTriggeredEvent} for every action that fires. Actions are one-shot: once fired they are
+ * dropped from evaluation. Only runs when a market data source is configured.
+ *
+ * <p>{@link ConditionAction}s read several symbols, so they are evaluated apart from the price
+ * shards, by a {@link ConditionEvaluator} on its own thread and its own subscription to the tick
+ * stream.
+ *
+ * <p>The stored actions are followed through the {@link ActionService} change feed: each committed
+ * change replaces the action registered under its id, an O(log n) update of the owning shard's
+ * index. Only a resync, when the feed has dropped changes this service did not read, reloads them
+ * all.
+ *
+ * <p>With several instances, only the actions in partitions this instance holds a lease on are
+ * registered, see {@link PartitionLeaseService}. When its partitions change it resyncs, and a fired
+ * action is only published while the lease on its partition is current.
+ *
+ * <p>The high-water marks of {@link TrailingStopAction}s are kept by the shards and written back
+ * every {@code evaluation.trailing-stop.flush-millis}, in one statement for all stops whose mark
+ * rose. A restart resumes from the last written marks, so a stop can come back lower than it was,
+ * never higher.
+ */
+@Service
+public class ActionEvaluationService {
+  private static final Logger log = LoggerFactory.getLogger(ActionEvaluationService.class);
+  private static final int POLL_BATCH = 4096;
+  private static final long IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final int CHANGE_BATCH = 1024;
+  private static final long CHANGE_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final MarketDataService marketDataService;
+  private final ActionService actionService;
+  private final PartitionLeaseService cluster;
+  private final ApplicationEventPublisher events;
+  private final EvaluationMetrics metrics;
+  private final int shards;
+  private final int ringCapacity;
+  private final int indicatorWindow;
+  private final long markFlushMillis;
+  private final Counter resyncFailures;
+  private final Counter markWriteFailures;
+  // Changes to the conditions, run on the condition thread before it polls the next ticks
+  private final Queue<Runnable> conditionCommands = new ConcurrentLinkedQueue<>();
+  private ShardedEvaluator evaluator;
+  private ConditionEvaluator conditions;
+  private Thread router;
+  private Thread conditionThread;
+  private Thread changeFollower;
+  private Thread markFlusher;
+
+  public ActionEvaluationService(
+      MarketDataService marketDataService,
+      ActionService actionService,
+      PartitionLeaseService cluster,
+      ApplicationEventPublisher events,
+      EvaluationMetrics metrics,
+      MeterRegistry meterRegistry,
+      @Value("${evaluation.shards:0}") int shards,
+      @Value("${evaluation.ring-capacity:16384}") int ringCapacity,
+      @Value("${evaluation.indicator-window:50}") int indicatorWindow,
+      @Value("${evaluation.trailing-stop.flush-millis:1000}") long markFlushMillis) {
+    this.marketDataService = marketDataService;
+    this.actionService = actionService;
+    this.cluster = cluster;
+    this.events = events;
+    this.metrics = metrics;
+    // 0 means one shard per available core
+    this.shards = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    this.ringCapacity = ringCapacity;
+    this.indicatorWindow = indicatorWindow;
+    this.markFlushMillis = markFlushMillis;
+    this.resyncFailures =
+        Counter.builder("evaluation.resync.failures")
+            .description("Failed reloads of the stored actions into evaluation")
+            .register(meterRegistry);
+    this.markWriteFailures =
+        Counter.builder("evaluation.mark.write.failures")
+            .description("Failed writes of trailing stop high-water marks, retried on the next")
+            .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!marketDataService.isEnabled()) return;
+    evaluator =
+        new ShardedEvaluator(
+            marketDataService.symbols(), shards, ringCapacity, true, this::publishTrigger, metrics);
+    TickRingBuffer.Subscription ticks = marketDataService.subscribe();
+    router =
+        Thread.ofPlatform()
+            .name("evaluator-router")
+            .daemon()
+            .start(
+                () -> {
+                  while (!Thread.currentThread().isInterrupted()) {
+                    if (ticks.poll(evaluator, POLL_BATCH) == 0) {
+                      evaluator.drained();
+                      LockSupport.parkNanos(IDLE_NANOS);
+                    }
+                  }
+                });
+
+    TickRingBuffer.Subscription conditionTicks = marketDataService.subscribe();
+    // Subscribed first, so no tick falls between the copy and the stream
+    conditions =
+        new ConditionEvaluator(
+            marketDataService.snapshot().copy(),
+            new Indicators(indicatorWindow),
+            marketDataService.orderBooks(),
+            this::publishTrigger,
+            metrics);
+    conditionThread =
+        Thread.ofPlatform()
+            .name("evaluator-conditions")
+            .daemon()
+            .start(
+                () -> {
+                  while (!Thread.currentThread().isInterrupted()) {
+                    Runnable command;
+                    while ((command = conditionCommands.poll()) != null) command.run();
+                    if (conditionTicks.poll(conditions, POLL_BATCH) == 0) {
+                      LockSupport.parkNanos(IDLE_NANOS);
+                    }
+                  }
+                });
+
+    ActionChangeFeed.Subscription changes = actionService.subscribeToChanges();
+    StoredActions stored = new StoredActions();
+    changeFollower =
+        Thread.ofPlatform()
+            .name("evaluator-changes")
+            .daemon()
+            .start(
+                () -> {
+                  int generation = cluster.generation();
+                  while (!Thread.currentThread().isInterrupted()) {
+                    if (cluster.generation() != generation) {
+                      generation = cluster.generation();
+                      changes.requestResync();
+                    }
+                    int polled;
+                    try {
+                      polled = changes.poll(stored, CHANGE_BATCH);
+                    } catch (RuntimeException e) {
+                      // A failed resync is retried on the next poll
+                      resyncFailures.increment();
+                      log.warn("Reloading the stored actions failed, retrying", e);
+                      polled = 0;
+                    }
+                    if (polled == 0) LockSupport.parkNanos(CHANGE_IDLE_NANOS);
+                  }
+                });
+
+    markFlusher =
+        Thread.ofPlatform().name("evaluator-marks").daemon().start(this::flushHighWaterMarks);
+  }
+
+  private void flushHighWaterMarks() {
+    // Filled on the shard threads, which own the actions and so are the ones to ratchet them; a
+    // failed write stays here and is retried with the next one
+    Set<TrailingStopAction> raised =
+        Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Thread.sleep(markFlushMillis);
+        evaluator
+            .drainHighWaterMarks(
+                (action, mark) -> {
+                  action.ratchet(mark);
+                  raised.add(action);
+                })
+            .join();
+        synchronized (raised) {
+          actionService.saveHighWaterMarks(raised);
+          raised.clear();
+        }
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        // Marks only rise, so writing them late is safe
+        markWriteFailures.increment();
+        log.warn("Writing {} high-water marks failed, retrying", raised.size(), e);
+      }
+    }
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    if (router == null) return;
+    router.interrupt();
+    conditionThread.interrupt();
+    changeFollower.interrupt();
+    markFlusher.interrupt();
+    router.join(TimeUnit.SECONDS.toMillis(5));
+    conditionThread.join(TimeUnit.SECONDS.toMillis(5));
+    changeFollower.join(TimeUnit.SECONDS.toMillis(5));
+    markFlusher.join(TimeUnit.SECONDS.toMillis(5));
+    evaluator.close();
+  }
+
+  public CompletableFuture<Boolean> register(TargetPriceAction action) {
+    return running().register(action);
+  }
+
+  public CompletableFuture<Boolean> remove(TargetPriceAction action) {
+    return running().remove(action);
+  }
+
+  private ShardedEvaluator running() {
+    if (evaluator == null) {
+      throw new IllegalStateException("Action evaluation requires a market data source");
+    }
+    return evaluator;
+  }
+
+  private void publishTrigger(Action action, long price) {
+    if (cluster.owns(action.getContextId())) {
+      events.publishEvent(new ActionTriggeredEvent(action, price));
+    }
+  }
+
+  // Owned by the change follower thread: the action registered for each stored id
+  private final class StoredActions implements ActionChangeHandler {
+    private final Map<Long, Action> registered = new HashMap<>();
+
+    @Override
+    public void onChange(ActionChange change) {
+      Action current = registered.get(change.actionId());
+      // A change replayed after a resync is no newer than what the reload registered
+      if (current != null && change.action() != null && !isNewer(change.action(), current)) {
+        return;
+      }
+      if (current != null) {
+        registered.remove(change.actionId());
+        switch (current) {
+          case TargetPriceAction target -> evaluator.remove(target);
+          case ConditionAction condition ->
+              conditionCommands.add(() -> conditions.remove(condition));
+          default -> {}
+        }
+      }
+      Action action = change.action();
+      if (action == null || !cluster.isAssigned(action.getContextId())) return;
+      switch (action) {
+        case TargetPriceAction target -> {
+          registered.put(change.actionId(), target);
+          evaluator.register(target);
+        }
+        case ConditionAction condition -> {
+          registered.put(change.actionId(), condition);
+          conditionCommands.add(() -> conditions.register(condition));
+        }
+        default -> {}
+      }
+    }
+
+    @Override
+    public void resync() {
+      registered.clear();
+      evaluator.clear();
+      conditionCommands.add(conditions::clear);
+      actionService.exportAll(action -> onChange(ActionChange.insert(action)));
+    }
+
+    private static boolean isNewer(Action action, Action current) {
+      return action.getVersion() > current.getVersion();
+    }
+  }
+}
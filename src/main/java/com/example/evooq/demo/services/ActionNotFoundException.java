@@ -0,0 +1,7 @@
+package com.example.evooq.demo.services;
+
+public class ActionNotFoundException extends RuntimeException {
+  public ActionNotFoundException(Long id) {
+    super("Action " + id + " not found");
+  }
+}
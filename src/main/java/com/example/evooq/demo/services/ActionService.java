@@ -3,37 +3,307 @@ package com.example.evooq.demo.services;
 import com.example.evooq.demo.db.jpa.ActionRepository;
 import com.example.evooq.demo.db.mapper.ActionEntityMapper;
 import com.example.evooq.demo.db.model.ActionEntity;
+import com.example.evooq.demo.db.model.ActionType;
 import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.ActionChange;
+import com.example.evooq.demo.domain.action.ActionChangeFeed;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.Price;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Stores actions, and publishes every committed insert, patch and delete to an {@link
+ * ActionChangeFeed} so that in-memory views can follow the store without reloading it.
+ *
+ * <p>With {@code cluster.enabled}, each transaction also sends the changed ids to the other
+ * instances with a Postgres {@code NOTIFY}, delivered on commit. {@link ClusterChangeListener}
+ * receives them and {@link #publishRemoteChanges} adds them to this instance's feed.
+ */
 @Service
 public class ActionService {
+  // Ids per NOTIFY payload
+  private static final int NOTIFY_IDS = 300;
+
   private final ActionRepository actionRepository;
   private final ActionEntityMapper actionEntityMapper;
+  private final EntityManager entityManager;
+  private final int batchSize;
+  private final ActionChangeFeed changeFeed;
+  private final PartitionLeaseService cluster;
 
-  public ActionService(ActionRepository actionRepository, ActionEntityMapper actionEntityMapper) {
+  public ActionService(
+      ActionRepository actionRepository,
+      ActionEntityMapper actionEntityMapper,
+      EntityManager entityManager,
+      PartitionLeaseService cluster,
+      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+      @Value("${actions.change-feed.retention:65536}") int changeFeedRetention) {
     this.actionEntityMapper = actionEntityMapper;
     this.actionRepository = actionRepository;
+    this.entityManager = entityManager;
+    this.batchSize = batchSize;
+    this.changeFeed = new ActionChangeFeed(changeFeedRetention);
+    this.cluster = cluster;
+  }
+
+  public ActionChangeFeed.Subscription subscribeToChanges() {
+    return changeFeed.subscribe();
   }
 
+  @Transactional
   public Action create(Action action) {
     ActionEntity entity = actionEntityMapper.toEntity(action);
+    entity.setId(null);
     entity = actionRepository.save(entity);
-    return actionEntityMapper.toDomain(entity);
+    Action created = actionEntityMapper.toDomain(entity);
+    publishAfterCommit(List.of(ActionChange.insert(created)));
+    return created;
   }
 
-  public Action edit(Long id, Action updatedAction) {
-    Optional<ActionEntity> existing = actionRepository.findById(id);
-    if (existing.isEmpty()) throw new RuntimeException("Action not found");
+  // One conditional UPDATE ... RETURNING, the existence check only runs when it matches nothing.
+  // The version is required: an edit that does not say what it was based on cannot be checked
+  @Transactional
+  public Action edit(String userId, Long id, Action updatedAction) {
+    if (updatedAction.getVersion() == null) {
+      throw new IllegalArgumentException("The version of the action being edited is required");
+    }
     ActionEntity updated = actionEntityMapper.toEntity(updatedAction);
-    ActionEntity existingEntity = existing.get();
-    existingEntity.patch(updated);
-    actionRepository.save(existingEntity); // Update fields as needed
-    return actionEntityMapper.toDomain(existingEntity);
+    Optional<ActionEntity> patched =
+        actionRepository.patch(
+            userId,
+            id,
+            updatedAction.getVersion(),
+            updated.getDescription(),
+            updated.getAmount(),
+            updated.getAssetSymbol(),
+            updated.getTargetValue(),
+            updated.getStopLossValue(),
+            updated.getConditionExpression(),
+            updated.getContextId(),
+            updated.getContextType());
+    if (patched.isPresent()) {
+      Action edited = actionEntityMapper.toDomain(patched.get());
+      publishAfterCommit(List.of(ActionChange.patch(edited)));
+      return edited;
+    }
+    if (!actionRepository.existsByUserIdAndId(userId, id)) throw new ActionNotFoundException(id);
+    throw new OptimisticLockingFailureException(
+        "Action " + id + " was modified since version " + updatedAction.getVersion());
+  }
+
+  // Scoped to the owner like the batch delete, which also keeps it to one partition
+  @Transactional
+  public void delete(String userId, Long id) {
+    deleteAll(userId, List.of(id));
+  }
+
+  @Transactional
+  public List<Action> createAll(List<Action> actions) {
+    List<Action> created = new ArrayList<>(actions.size());
+    List<ActionChange> changes = new ArrayList<>(actions.size());
+    for (int from = 0; from < actions.size(); from += batchSize) {
+      List<ActionEntity> chunk = new ArrayList<>(batchSize);
+      for (Action action : actions.subList(from, Math.min(from + batchSize, actions.size()))) {
+        ActionEntity entity = actionEntityMapper.toEntity(action);
+        entity.setId(null);
+        chunk.add(entity);
+      }
+      for (ActionEntity entity : actionRepository.saveAll(chunk)) {
+        Action action = actionEntityMapper.toDomain(entity);
+        created.add(action);
+        changes.add(ActionChange.insert(action));
+      }
+      // One JDBC batch per chunk, and the persistence context does not grow with the request
+      entityManager.flush();
+      entityManager.clear();
+    }
+    publishAfterCommit(changes);
+    return created;
+  }
+
+  public List<Action> list(
+      String userId, long afterId, ActionType actionType, String assetSymbol, int limit) {
+    return actionRepository
+        .findPage(userId, afterId, actionType, assetSymbol, Limit.of(limit))
+        .stream()
+        .map(actionEntityMapper::toDomain)
+        .toList();
+  }
+
+  // Streams from a forward-only cursor, detaching each row so memory stays flat
+  @Transactional
+  public void export(
+      String userId, ActionType actionType, String assetSymbol, Consumer<Action> sink) {
+    try (Stream<ActionEntity> entities =
+        actionRepository.streamAll(userId, actionType, assetSymbol)) {
+      entities.forEach(
+          entity -> {
+            entityManager.detach(entity);
+            sink.accept(actionEntityMapper.toDomain(entity));
+          });
+    }
+  }
+
+  /** Every stored action that has not fired yet, for rebuilding an in-memory view. */
+  @Transactional
+  public void exportAll(Consumer<Action> sink) {
+    try (Stream<ActionEntity> entities = actionRepository.streamArmed()) {
+      entities.forEach(
+          entity -> {
+            entityManager.detach(entity);
+            sink.accept(actionEntityMapper.toDomain(entity));
+          });
+    }
+  }
+
+  /**
+   * The outcome of {@link #editAll}: the edited actions by id, and the ids whose stored version had
+   * moved on from the one given. Ids in neither do not exist or belong to another user.
+   */
+  public record BatchEdit(Map<Long, Action> edited, Set<Long> stale) {}
+
+  // Every update must carry the version it was based on, as in edit. A row changed between the
+  // check and the flush fails the whole batch with an OptimisticLockingFailureException
+  @Transactional
+  public BatchEdit editAll(String userId, Map<Long, Action> updates) {
+    updates.forEach(
+        (id, update) -> {
+          if (update.getVersion() == null) {
+            throw new IllegalArgumentException(
+                "The version of action " + id + " being edited is required");
+          }
+        });
+    Map<Long, Action> edited = new LinkedHashMap<>();
+    Set<Long> stale = new HashSet<>();
+    List<Long> ids = new ArrayList<>(updates.keySet());
+    for (int from = 0; from < ids.size(); from += batchSize) {
+      List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+      List<ActionEntity> patched = new ArrayList<>(chunk.size());
+      for (ActionEntity existing : actionRepository.findAllByIdForUser(userId, chunk)) {
+        Action update = updates.get(existing.getId());
+        if (!existing.getVersion().equals(update.getVersion())) {
+          stale.add(existing.getId());
+          continue;
+        }
+        existing.patch(actionEntityMapper.toEntity(update));
+        patched.add(existing);
+      }
+      // Mapped after the flush, which is when Hibernate bumps the versions
+      entityManager.flush();
+      for (ActionEntity existing : patched) {
+        edited.put(existing.getId(), actionEntityMapper.toDomain(existing));
+      }
+      entityManager.clear();
+    }
+    publishAfterCommit(edited.values().stream().map(ActionChange::patch).toList());
+    return new BatchEdit(edited, stale);
+  }
+
+  // Returns the ids that existed, belonged to the user and were deleted
+  @Transactional
+  public Set<Long> deleteAll(String userId, Collection<Long> ids) {
+    if (ids.isEmpty()) return Set.of();
+    Set<Long> deleted = new HashSet<>(actionRepository.deleteAllForUser(userId, ids));
+    publishAfterCommit(deleted.stream().map(ActionChange::delete).toList());
+    return deleted;
+  }
+
+  /**
+   * Publishes the committed state of actions another instance changed, and a delete for the ones
+   * that no longer exist.
+   */
+  @Transactional
+  public void publishRemoteChanges(Collection<Long> ids) {
+    if (ids.isEmpty()) return;
+    Map<Long, ActionChange> changes = new LinkedHashMap<>();
+    ids.forEach(id -> changes.put(id, ActionChange.delete(id)));
+    for (ActionEntity entity : actionRepository.findAllByIdForShare(changes.keySet())) {
+      entityManager.detach(entity);
+      changes.put(entity.getId(), ActionChange.patch(actionEntityMapper.toDomain(entity)));
+    }
+    sequenceAfterCommit(new ArrayList<>(changes.values()));
+  }
+
+  /**
+   * Writes back the high-water marks trailing stops reached in evaluation, see {@link
+   * ActionRepository#raiseHighWaterMarks}. Not published as changes: the evaluator that raised the
+   * marks already has them.
+   */
+  @Transactional
+  public int saveHighWaterMarks(Collection<TrailingStopAction> actions) {
+    if (actions.isEmpty()) return 0;
+    Long[] ids = new Long[actions.size()];
+    BigDecimal[] marks = new BigDecimal[actions.size()];
+    int i = 0;
+    for (TrailingStopAction action : actions) {
+      ids[i] = action.getId();
+      marks[i++] = Price.toDecimal(action.getHighWaterMark(), action.getContextRegistry());
+    }
+    return actionRepository.raiseHighWaterMarks(ids, marks);
   }
 
-  public void delete(Long id) {
-    actionRepository.deleteById(id);
+  /** Makes every change feed subscription resync, after changes from elsewhere were missed. */
+  public void invalidateChanges() {
+    changeFeed.invalidate();
+  }
+
+  private void publishAfterCommit(List<ActionChange> changes) {
+    if (changes.isEmpty()) return;
+    if (cluster.isEnabled()) notifyInstances(changes);
+    sequenceAfterCommit(changes);
+  }
+
+  // Chunked to stay under the 8000 byte NOTIFY payload limit
+  private void notifyInstances(List<ActionChange> changes) {
+    StringBuilder payload = new StringBuilder(cluster.nodeId());
+    for (int i = 0; i < changes.size(); i++) {
+      payload.append(i % NOTIFY_IDS == 0 ? ' ' : ',').append(changes.get(i).actionId());
+      if (i % NOTIFY_IDS == NOTIFY_IDS - 1 || i == changes.size() - 1) {
+        entityManager
+            .createNativeQuery("SELECT pg_notify(:channel, :payload)")
+            .setParameter("channel", ClusterChangeListener.CHANNEL)
+            .setParameter("payload", payload.toString())
+            .getSingleResult();
+        payload.setLength(cluster.nodeId().length());
+      }
+    }
+  }
+
+  // Sequence numbers are reserved before commit, while the changed rows are still locked, and
+  // filled in once the outcome is known
+  private void sequenceAfterCommit(List<ActionChange> changes) {
+    if (changes.isEmpty()) return;
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          private long first = -1;
+
+          @Override
+          public void beforeCommit(boolean readOnly) {
+            first = changeFeed.reserve(changes.size());
+          }
+
+          @Override
+          public void afterCompletion(int status) {
+            if (first >= 0) changeFeed.complete(first, status == STATUS_COMMITTED ? changes : null);
+          }
+        });
   }
 }
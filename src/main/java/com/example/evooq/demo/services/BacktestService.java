@@ -0,0 +1,57 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.backtest.Backtest;
+import com.example.evooq.demo.domain.backtest.BacktestReport;
+import com.example.evooq.demo.domain.backtest.MappedTickFile;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Backtests actions against tick files in {@code backtest.directory}, either the actions a user has
+ * stored or a set supplied by the caller. Tick files are produced by {@link
+ * com.example.evooq.demo.domain.backtest.CsvTickConverter}.
+ */
+@Service
+public class BacktestService {
+  private final ActionService actionService;
+  private final Path directory;
+
+  public BacktestService(
+      ActionService actionService, @Value("${backtest.directory:backtests}") Path directory) {
+    this.actionService = actionService;
+    this.directory = directory.toAbsolutePath().normalize();
+  }
+
+  public BacktestReport runStored(String tickFile, String userId) throws IOException {
+    List<Action> actions = new ArrayList<>();
+    actionService.export(userId, null, null, actions::add);
+    return run(tickFile, actions);
+  }
+
+  // Only target price actions can fire on ticks; other actions are ignored
+  public BacktestReport run(String tickFile, Collection<? extends Action> actions)
+      throws IOException {
+    List<TargetPriceAction> targets = new ArrayList<>(actions.size());
+    for (Action action : actions) {
+      if (action instanceof TargetPriceAction target) {
+        targets.add(target);
+      }
+    }
+    return Backtest.run(MappedTickFile.open(resolve(tickFile)), targets);
+  }
+
+  private Path resolve(String tickFile) {
+    Path path = directory.resolve(tickFile).normalize();
+    if (!directory.equals(path.getParent())) {
+      throw new IllegalArgumentException("Tick file must be a file name in " + directory);
+    }
+    return path;
+  }
+}
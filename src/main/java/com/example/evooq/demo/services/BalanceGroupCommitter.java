@@ -0,0 +1,146 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.db.jpa.UserRepository;
+import com.example.evooq.demo.domain.user.BalanceChangedEvent;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Group commit for balance updates. Deltas submitted for the same user within the configured window
+ * are applied together in one transaction with a single {@code balance = balance + sum} statement,
+ * and each caller's future completes once that transaction has committed.
+ */
+@Service
+public class BalanceGroupCommitter {
+  private final UserRepository userRepository;
+  private final UserLoginCache userLoginCache;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate transactionTemplate;
+  private final ScheduledExecutorService flusher;
+  private final long windowMicros;
+  private final Map<Long, Batch> pending = new ConcurrentHashMap<>();
+
+  public BalanceGroupCommitter(
+      UserRepository userRepository,
+      UserLoginCache userLoginCache,
+      ApplicationEventPublisher events,
+      PlatformTransactionManager transactionManager,
+      @Value("${balance.group-commit.window-micros:2000}") long windowMicros,
+      @Value("${balance.group-commit.flush-threads:4}") int flushThreads,
+      @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    this.userRepository = userRepository;
+    this.userLoginCache = userLoginCache;
+    this.events = events;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.windowMicros = windowMicros;
+    // Flushes block on JDBC, so they may run on virtual threads; flushThreads still bounds how many
+    // hold a connection at once
+    ThreadFactory threads =
+        virtualThreads
+            ? Thread.ofVirtual().name("balance-flush-", 0).factory()
+            : Thread.ofPlatform().name("balance-flush-", 0).factory();
+    this.flusher = Executors.newScheduledThreadPool(flushThreads, threads);
+  }
+
+  public CompletableFuture<Void> submit(Long userId, BigDecimal delta) {
+    CompletableFuture<Void> committed = new CompletableFuture<>();
+    pending.compute(
+        userId,
+        (id, batch) -> {
+          if (batch == null) {
+            batch = new Batch();
+            flusher.schedule(() -> flush(id), windowMicros, TimeUnit.MICROSECONDS);
+          }
+          batch.add(delta, committed);
+          return batch;
+        });
+    return committed;
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    // Delayed flushes still run after shutdown, so pending callers are not left hanging
+    flusher.shutdown();
+    flusher.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  private void flush(Long userId) {
+    Batch batch = pending.remove(userId);
+    if (batch == null) return;
+    boolean[] accepted;
+    try {
+      accepted = transactionTemplate.execute(status -> apply(userId, batch.deltas));
+    } catch (RuntimeException e) {
+      batch.callers.forEach(caller -> caller.completeExceptionally(e));
+      return;
+    }
+    userLoginCache.invalidate(userId);
+    BigDecimal applied = BigDecimal.ZERO;
+    for (int i = 0; i < accepted.length; i++) {
+      if (accepted[i]) {
+        applied = applied.add(batch.deltas.get(i));
+        batch.callers.get(i).complete(null);
+      } else {
+        batch
+            .callers
+            .get(i)
+            .completeExceptionally(new IllegalArgumentException("Balance cannot be negative"));
+      }
+    }
+    if (applied.signum() != 0) events.publishEvent(new BalanceChangedEvent(userId, applied));
+  }
+
+  private boolean[] apply(Long userId, List<BigDecimal> deltas) {
+    boolean[] accepted = new boolean[deltas.size()];
+    BigDecimal total = deltas.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    if (userRepository.addToBalanceIfNotNegative(userId, total) == 1) {
+      Arrays.fill(accepted, true);
+      return accepted;
+    }
+
+    // The batch as a whole would overdraw: lock the row and apply the deltas in arrival order,
+    // dropping each debit that would take the balance below zero at that point
+    BigDecimal balance =
+        userRepository
+            .findByIdForUpdate(userId)
+            .orElseThrow(() -> new RuntimeException("User not found"))
+            .getBalance();
+    BigDecimal sum = BigDecimal.ZERO;
+    for (int i = 0; i < deltas.size(); i++) {
+      BigDecimal delta = deltas.get(i);
+      if (delta.signum() >= 0 || balance.add(sum).add(delta).signum() >= 0) {
+        sum = sum.add(delta);
+        accepted[i] = true;
+      }
+    }
+    if (sum.signum() != 0) {
+      userRepository.addToBalance(userId, sum);
+    }
+    return accepted;
+  }
+
+  private static final class Batch {
+    private final List<BigDecimal> deltas = new ArrayList<>();
+    private final List<CompletableFuture<Void>> callers = new ArrayList<>();
+
+    void add(BigDecimal delta, CompletableFuture<Void> caller) {
+      deltas.add(delta);
+      callers.add(caller);
+    }
+  }
+}
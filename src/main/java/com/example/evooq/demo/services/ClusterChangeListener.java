@@ -0,0 +1,103 @@
+package com.example.evooq.demo.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Receives the ids of actions changed on other instances, which {@link ActionService} sends with
+ * {@code NOTIFY} as {@code "<node id> <id>,<id>,..."}, and publishes their committed state to this
+ * instance's change feed. Listens on a connection of its own rather than one from the pool.
+ * Notifications sent while it is not listening are lost, so every (re)connect and every failure
+ * makes the feed's subscriptions resync. Only runs with {@code cluster.enabled}.
+ */
+@Service
+public class ClusterChangeListener {
+  private static final Logger log = LoggerFactory.getLogger(ClusterChangeListener.class);
+  static final String CHANNEL = "action_changes";
+  private static final int POLL_MILLIS = 500;
+  private static final long RECONNECT_MILLIS = 1000;
+
+  private final ActionService actionService;
+  private final PartitionLeaseService cluster;
+  private final String url;
+  private final String username;
+  private final String password;
+  private Thread listener;
+
+  public ClusterChangeListener(
+      ActionService actionService,
+      PartitionLeaseService cluster,
+      @Value("${spring.datasource.url}") String url,
+      @Value("${spring.datasource.username}") String username,
+      @Value("${spring.datasource.password}") String password) {
+    this.actionService = actionService;
+    this.cluster = cluster;
+    this.url = url;
+    this.username = username;
+    this.password = password;
+  }
+
+  @PostConstruct
+  void start() {
+    if (!cluster.isEnabled()) return;
+    listener = Thread.ofPlatform().name("cluster-changes").daemon().start(this::run);
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    if (listener == null) return;
+    listener.interrupt();
+    listener.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try (Connection connection = DriverManager.getConnection(url, username, password)) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + CHANNEL);
+        }
+        actionService.invalidateChanges();
+        PGConnection notifications = connection.unwrap(PGConnection.class);
+        while (!Thread.currentThread().isInterrupted()) {
+          PGNotification[] received = notifications.getNotifications(POLL_MILLIS);
+          if (received == null || received.length == 0) continue;
+          Set<Long> ids = new LinkedHashSet<>();
+          for (PGNotification notification : received) {
+            collectRemoteIds(notification.getParameter(), ids);
+          }
+          actionService.publishRemoteChanges(ids);
+        }
+      } catch (SQLException | RuntimeException e) {
+        log.warn("Listening for remote action changes failed, reconnecting and resyncing", e);
+        actionService.invalidateChanges();
+        try {
+          Thread.sleep(RECONNECT_MILLIS);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+      }
+    }
+  }
+
+  // This instance's own changes are already in its feed
+  private void collectRemoteIds(String payload, Set<Long> ids) {
+    int space = payload.indexOf(' ');
+    if (space < 0 || payload.substring(0, space).equals(cluster.nodeId())) return;
+    for (String id : payload.substring(space + 1).split(",")) {
+      ids.add(Long.parseLong(id));
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.db.model.ActionType;
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.ConditionAction;
+import com.example.evooq.demo.domain.action.SetStopLossAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.trigger.EvaluationMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer backing for {@link EvaluationMetrics}. Every meter is registered up front and looked
+ * up by {@link ActionType} ordinal, so recording on the shard threads does not allocate. Tick
+ * timestamps are {@link System#nanoTime()} values stamped when {@link MarketDataService} ingests
+ * the tick. Latencies are exported as histogram buckets, so percentiles such as p99/p999 are
+ * computed by the monitoring backend and can be aggregated across instances.
+ */
+@Component
+public class EvaluationMeters implements EvaluationMetrics {
+  private static final ActionType[] TYPES = ActionType.values();
+
+  private final Counter[] registrations = new Counter[TYPES.length];
+  private final Counter[] triggers = new Counter[TYPES.length];
+  private final Counter ticks;
+  private final Timer tickToTrigger;
+
+  public EvaluationMeters(MeterRegistry meterRegistry) {
+    for (ActionType type : TYPES) {
+      registrations[type.ordinal()] =
+          Counter.builder("evaluation.registrations")
+              .description("Actions added to evaluation")
+              .tag("type", type.name())
+              .register(meterRegistry);
+      triggers[type.ordinal()] =
+          Counter.builder("evaluation.triggers")
+              .description("Actions whose condition was met")
+              .tag("type", type.name())
+              .register(meterRegistry);
+    }
+    this.ticks =
+        Counter.builder("evaluation.ticks")
+            .description("Ticks evaluated by the shards")
+            .register(meterRegistry);
+    this.tickToTrigger =
+        Timer.builder("evaluation.tick.to.trigger")
+            .description("From ingesting a tick to handing off the actions it fired")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(1_000))
+            .maximumExpectedValue(Duration.ofSeconds(1))
+            .register(meterRegistry);
+  }
+
+  @Override
+  public void registered(Action action) {
+    registrations[typeOf(action).ordinal()].increment();
+  }
+
+  @Override
+  public void evaluated(int count) {
+    ticks.increment(count);
+  }
+
+  @Override
+  public void triggered(Action action) {
+    triggers[typeOf(action).ordinal()].increment();
+  }
+
+  @Override
+  public void tickTriggered(long tickTimestamp) {
+    tickToTrigger.record(System.nanoTime() - tickTimestamp, TimeUnit.NANOSECONDS);
+  }
+
+  private static ActionType typeOf(Action action) {
+    if (action instanceof ConditionAction) return ActionType.CONDITION;
+    if (action instanceof TrailingStopAction) return ActionType.TRAILING_STOP;
+    if (action instanceof SetStopLossAction) return ActionType.SET_STOP_LOSS;
+    if (action instanceof BuyAutomaticAction) return ActionType.BUY_AUTOMATIC;
+    return ActionType.SELL_AUTOMATIC;
+  }
+}
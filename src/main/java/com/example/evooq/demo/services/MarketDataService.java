@@ -0,0 +1,202 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.domain.context.ActionContext;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.marketdata.CsvTickSource;
+import com.example.evooq.demo.domain.marketdata.GeneratorSource;
+import com.example.evooq.demo.domain.marketdata.MarketDataPublisher;
+import com.example.evooq.demo.domain.marketdata.MarketDataSource;
+import com.example.evooq.demo.domain.marketdata.MarketDataStats;
+import com.example.evooq.demo.domain.marketdata.TickHandler;
+import com.example.evooq.demo.domain.marketdata.TickRingBuffer;
+import com.example.evooq.demo.domain.orderbook.OrderBook;
+import com.example.evooq.demo.domain.orderbook.OrderBooks;
+import com.example.evooq.demo.domain.orderbook.Side;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the market data pipeline: one thread pushes ticks from the configured source into a {@link
+ * TickRingBuffer}, another drains it into a {@link MarketDataPublisher}. The published snapshot is
+ * refreshed at most once per publish interval while ticks keep arriving, and as soon as the ring
+ * runs dry. Ticks are re-stamped with {@link System#nanoTime()} as they are ingested, so latencies
+ * measured downstream include the time spent in the ring and the conflation table.
+ *
+ * <p>With {@code market-data.order-books.enabled}, the ingest thread is also the single writer of
+ * the {@link OrderBooks}: it applies the source's level updates, and publishes a {@link
+ * ContextRegistry#SPREADS} tick whenever the top of a book moves.
+ */
+@Service
+public class MarketDataService {
+  private static final int POLL_BATCH = 4096;
+  private static final long IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final SymbolTable symbols = new SymbolTable();
+  private final TickRingBuffer ring;
+  private final TickRingBuffer.Subscription subscription;
+  private final MarketDataPublisher publisher = new MarketDataPublisher(symbols);
+  private final MarketDataSource source;
+  private final OrderBooks orderBooks;
+  private final boolean orderBooksEnabled;
+  private final long publishIntervalNanos;
+  private volatile double ticksPerSecond;
+  private Thread producer;
+  private Thread consumer;
+
+  public MarketDataService(
+      @Value("${market-data.source:none}") String source,
+      @Value("${market-data.ring-capacity:65536}") int ringCapacity,
+      @Value("${market-data.publish-interval-micros:1000}") long publishIntervalMicros,
+      @Value("${market-data.file:}") String file,
+      @Value("${market-data.host:localhost}") String host,
+      @Value("${market-data.port:9000}") int port,
+      @Value("${market-data.generator.symbols:1000}") int generatorSymbols,
+      @Value("${market-data.order-books.enabled:false}") boolean orderBooksEnabled,
+      @Value("${market-data.order-books.levels:32}") int orderBookLevels) {
+    this.ring = new TickRingBuffer(ringCapacity);
+    this.subscription = ring.subscribe();
+    this.publishIntervalNanos = TimeUnit.MICROSECONDS.toNanos(publishIntervalMicros);
+    this.orderBooks = new OrderBooks(symbols, orderBookLevels);
+    this.orderBooksEnabled = orderBooksEnabled;
+    this.source =
+        switch (source) {
+          case "none" -> null;
+          case "generator" ->
+              new GeneratorSource(symbols, generatorSymbols, Long.MAX_VALUE, System.nanoTime());
+          case "file" -> CsvTickSource.file(Path.of(file), symbols);
+          case "socket" -> CsvTickSource.socket(host, port, symbols);
+          default -> throw new IllegalArgumentException("Unknown market-data.source: " + source);
+        };
+  }
+
+  @PostConstruct
+  void start() {
+    if (source == null) return;
+    // Busy loops rather than blocking work, so these stay platform threads in virtual-thread mode
+    consumer = Thread.ofPlatform().name("market-data-publish").daemon().start(this::consume);
+    producer = Thread.ofPlatform().name("market-data-ingest").daemon().start(this::produce);
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    for (Thread thread : new Thread[] {producer, consumer}) {
+      if (thread != null) {
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+      }
+    }
+  }
+
+  /** The latest published snapshot. Read-only: it is shared with every other caller. */
+  public MarketSnapshot snapshot() {
+    return publisher.current();
+  }
+
+  /**
+   * The latest snapshot with the live books. It tracks no indicators: those are kept by the {@link
+   * com.example.evooq.demo.domain.trigger.ConditionEvaluator} applying the ticks, whose context
+   * carries them.
+   */
+  public ActionContext context() {
+    return new ActionContext(publisher.current(), orderBooks);
+  }
+
+  /** Live books, updated in place; see {@link OrderBooks} for reading them from other threads. */
+  public OrderBooks orderBooks() {
+    return orderBooks;
+  }
+
+  public SymbolTable symbols() {
+    return symbols;
+  }
+
+  public boolean isEnabled() {
+    return source != null;
+  }
+
+  /**
+   * Adds a consumer of the raw tick stream; it sees ticks published from now on, with their {@link
+   * System#nanoTime()} ingestion stamp in place of the feed timestamp.
+   */
+  public TickRingBuffer.Subscription subscribe() {
+    return ring.subscribe();
+  }
+
+  public MarketDataStats stats() {
+    long published = ring.published();
+    long conflated = ring.conflated();
+    int pending = ring.pending();
+    return new MarketDataStats(
+        published + conflated + pending,
+        published,
+        conflated,
+        ring.depth(),
+        pending,
+        ring.capacity(),
+        ticksPerSecond);
+  }
+
+  private void produce() {
+    try {
+      TickHandler ingest =
+          (registry, symbolId, value, timestamp) ->
+              ring.publish(registry, symbolId, value, System.nanoTime());
+      if (orderBooksEnabled) {
+        source.run(ingest, this::onLevel);
+      } else {
+        source.run(ingest);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      // Hand over whatever is still parked in the conflation table once the feed ends
+      while (!ring.flush() && !Thread.currentThread().isInterrupted()) {
+        LockSupport.parkNanos(IDLE_NANOS);
+      }
+    }
+  }
+
+  private void onLevel(int symbolId, Side side, long price, long size, long timestamp) {
+    OrderBook book = orderBooks.book(symbolId);
+    long spread = book == null ? Price.NONE : book.spread();
+    long updated = orderBooks.apply(symbolId, side, price, size).spread();
+    if (updated != spread) {
+      double value =
+          updated == Price.NONE ? Double.NaN : Price.toDouble(updated, ContextRegistry.ORDER_BOOKS);
+      ring.publish(ContextRegistry.SPREADS, symbolId, value, System.nanoTime());
+    }
+  }
+
+  private void consume() {
+    long lastPublish = System.nanoTime();
+    long lastSample = lastPublish;
+    long lastReceived = 0;
+    while (!Thread.currentThread().isInterrupted()) {
+      int polled = subscription.poll(publisher, POLL_BATCH);
+      long now = System.nanoTime();
+      if ((polled == 0 || now - lastPublish >= publishIntervalNanos) && publisher.publish()) {
+        lastPublish = now;
+      }
+      if (now - lastSample >= SAMPLE_NANOS) {
+        long received = stats().received();
+        ticksPerSecond = (received - lastReceived) * 1e9 / (now - lastSample);
+        lastReceived = received;
+        lastSample = now;
+      }
+      if (polled == 0) {
+        LockSupport.parkNanos(IDLE_NANOS);
+      }
+    }
+  }
+}
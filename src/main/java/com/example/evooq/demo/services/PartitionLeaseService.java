@@ -0,0 +1,208 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.db.jpa.ClusterMemberRepository;
+import com.example.evooq.demo.db.jpa.PartitionLeaseRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Splits action evaluation between the instances running against one database. Actions are
+ * partitioned by a hash of their {@code contextId}, and an instance only evaluates the partitions
+ * it holds a lease on in {@code partition_leases}. Every {@code cluster.lease.renew-interval-ms}
+ * each instance:
+ *
+ * <ol>
+ *   <li>heartbeats its {@code cluster_members} row and renews its leases for another {@code
+ *       cluster.lease.ttl-ms};
+ *   <li>releases leases above its fair share, {@code partitions / live members} rounded up, after
+ *       it has stopped firing their actions;
+ *   <li>claims unowned or expired leases up to its fair share.
+ * </ol>
+ *
+ * A new instance gets its share within two renew intervals, and the partitions of one that died are
+ * taken over once its leases expire. An instance that cannot renew stops firing when its leases
+ * would have expired, measured from before the renewal, so it never fires past the moment another
+ * instance may claim them. Its actions that fired in the meantime were not published, so once it
+ * renews again the generation changes even if the partitions did not, and evaluation resyncs them.
+ * When {@code cluster.enabled} is off this instance owns everything.
+ */
+@Service
+public class PartitionLeaseService {
+  private static final Logger log = LoggerFactory.getLogger(PartitionLeaseService.class);
+
+  private final PartitionLeaseRepository leases;
+  private final ClusterMemberRepository members;
+  private final boolean enabled;
+  private final String nodeId;
+  private final long ttlMillis;
+  private final long renewIntervalMillis;
+  private volatile int partitions;
+  private volatile Ownership ownership = new Ownership(new BitSet(), 0, System.nanoTime());
+  private Thread renewer;
+
+  // Never mutated once published; the generation changes whenever the partition set does, or the
+  // leases lapsed
+  private record Ownership(BitSet owned, int generation, long validUntilNanos) {}
+
+  public PartitionLeaseService(
+      PartitionLeaseRepository leases,
+      ClusterMemberRepository members,
+      MeterRegistry meterRegistry,
+      @Value("${cluster.enabled:false}") boolean enabled,
+      @Value("${cluster.node-id:}") String nodeId,
+      @Value("${cluster.lease.ttl-ms:10000}") long ttlMillis,
+      @Value("${cluster.lease.renew-interval-ms:2000}") long renewIntervalMillis) {
+    if (renewIntervalMillis <= 0 || ttlMillis < 2 * renewIntervalMillis) {
+      throw new IllegalArgumentException(
+          "cluster.lease.ttl-ms must be at least twice cluster.lease.renew-interval-ms");
+    }
+    this.leases = leases;
+    this.members = members;
+    this.enabled = enabled;
+    this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    this.ttlMillis = ttlMillis;
+    this.renewIntervalMillis = renewIntervalMillis;
+    Gauge.builder("cluster.partitions.owned", this, service -> service.ownedPartitions().size())
+        .description("Action partitions this instance holds a lease on")
+        .register(meterRegistry);
+  }
+
+  // The first renewal is synchronous, so evaluation starts with this instance's share
+  @PostConstruct
+  void start() {
+    if (!enabled) return;
+    renew();
+    renewer =
+        Thread.ofPlatform()
+            .name("partition-leases")
+            .daemon()
+            .start(
+                () -> {
+                  while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                      Thread.sleep(renewIntervalMillis);
+                      renew();
+                    } catch (InterruptedException e) {
+                      return;
+                    } catch (RuntimeException e) {
+                      // Retried on the next interval; firing stops once the leases run out
+                      log.warn("Renewing partition leases failed, retrying", e);
+                    }
+                  }
+                });
+  }
+
+  // Hands the partitions over right away instead of after the lease expiry
+  @PreDestroy
+  void stop() throws InterruptedException {
+    if (!enabled) return;
+    if (renewer != null) {
+      renewer.interrupt();
+      renewer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    List<Integer> owned = ownedPartitions();
+    publish(new BitSet(), System.nanoTime());
+    if (!owned.isEmpty()) leases.release(nodeId, owned);
+    members.deleteById(nodeId);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public String nodeId() {
+    return nodeId;
+  }
+
+  public int partitions() {
+    return partitions;
+  }
+
+  public int partitionOf(String contextId) {
+    int count = partitions;
+    if (count == 0) {
+      throw new IllegalStateException("The partitions are only known after the first renewal");
+    }
+    return Math.floorMod(Objects.hashCode(contextId), count);
+  }
+
+  /** Whether this instance may fire the actions on {@code contextId}, checked on every trigger. */
+  public boolean owns(String contextId) {
+    if (!enabled) return true;
+    Ownership current = ownership;
+    return System.nanoTime() - current.validUntilNanos() < 0
+        && current.owned().get(partitionOf(contextId));
+  }
+
+  /**
+   * Whether the actions on {@code contextId} belong to this instance's leases, renewed or not. The
+   * actions to keep loaded for evaluation.
+   */
+  public boolean isAssigned(String contextId) {
+    return !enabled || ownership.owned().get(partitionOf(contextId));
+  }
+
+  /** Changes whenever the set of partitions this instance holds does. */
+  public int generation() {
+    return ownership.generation();
+  }
+
+  public List<Integer> ownedPartitions() {
+    return ownership.owned().stream().boxed().toList();
+  }
+
+  void renew() {
+    if (partitions == 0) {
+      int count = (int) leases.count();
+      if (count == 0) throw new IllegalStateException("partition_leases holds no partitions");
+      partitions = count;
+    }
+    long started = System.nanoTime();
+    members.deleteExpired();
+    members.heartbeat(nodeId, ttlMillis);
+    BitSet owned = new BitSet(partitions);
+    leases.renew(nodeId, ttlMillis).forEach(owned::set);
+
+    long live = Math.max(1, members.countLive());
+    int share = (int) ((partitions + live - 1) / live);
+    int surplus = owned.cardinality() - share;
+    if (surplus > 0) {
+      List<Integer> released = new ArrayList<>(surplus);
+      for (int p = owned.length() - 1; released.size() < surplus; p = owned.previousSetBit(p - 1)) {
+        released.add(p);
+        owned.clear(p);
+      }
+      // Stop firing before another instance can claim them
+      publish(owned, started);
+      leases.release(nodeId, released);
+    } else if (surplus < 0) {
+      leases.claim(nodeId, ttlMillis, -surplus).forEach(owned::set);
+    }
+    publish(owned, started);
+  }
+
+  private void publish(BitSet owned, long renewedAt) {
+    Ownership current = ownership;
+    // While the leases had lapsed, owns() was false and fired actions were dropped
+    boolean lapsed = System.nanoTime() - current.validUntilNanos() >= 0;
+    int generation =
+        owned.equals(current.owned()) && !lapsed ? current.generation() : current.generation() + 1;
+    ownership =
+        new Ownership(
+            (BitSet) owned.clone(),
+            generation,
+            renewedAt + TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+  }
+}
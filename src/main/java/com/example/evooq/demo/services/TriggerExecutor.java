@@ -0,0 +1,343 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.db.jpa.ActionRepository;
+import com.example.evooq.demo.db.jpa.TriggerOutboxRepository;
+import com.example.evooq.demo.db.model.ActionEntity;
+import com.example.evooq.demo.db.model.ActionType;
+import com.example.evooq.demo.db.model.ExecutionStatus;
+import com.example.evooq.demo.db.model.TriggerOutboxEntity;
+import com.example.evooq.demo.db.model.UserEntity;
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.trigger.ActionTriggeredEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Executes fired actions in batches. Triggers are queued as they arrive and written by a single
+ * thread, up to {@code execution.batch-size} per transaction: each batch inserts its rows into the
+ * trigger outbox and applies the matching balance deltas through {@link
+ * UserService#applyBalanceDeltas} in that same transaction, so a burst of triggers costs a few
+ * large commits instead of one per action.
+ *
+ * <p>A trigger's idempotency key is its action id and version. Keys already in the outbox are
+ * skipped, so a trigger seen twice moves the balance once, and a failed batch can be retried as a
+ * whole. A buy debits and a sell credits {@code price * amount}; actions without an amount are
+ * recorded with a zero delta. The same transaction marks the fired actions as triggered, so that
+ * reloading the stored actions does not arm them again.
+ *
+ * <p>A batch that keeps failing is halved until the triggers that fail are on their own, and those
+ * are dead-lettered as {@link ExecutionStatus#FAILED}. Triggers that find the queue full are parked
+ * in an unbounded overflow queue rather than blocking the evaluator shard that fired them.
+ */
+@Service
+public class TriggerExecutor {
+  private static final Logger log = LoggerFactory.getLogger(TriggerExecutor.class);
+  private static final long RETRY_DELAY_MILLIS = 1000;
+  private static final int MAX_ATTEMPTS = 3;
+  private static final long IDLE_MILLIS = 100;
+
+  private final TriggerOutboxRepository outboxRepository;
+  private final ActionRepository actionRepository;
+  private final UserService userService;
+  private final TransactionTemplate transactionTemplate;
+  private final BlockingQueue<ActionTriggeredEvent> queue;
+  private final Queue<ActionTriggeredEvent> overflow = new ConcurrentLinkedQueue<>();
+  // Owned by the writer thread until it has been joined
+  private final List<ActionTriggeredEvent> batch;
+  private final int batchSize;
+  private final long lingerNanos;
+  private final Counter overflowed;
+  private final Counter writeFailures;
+  private final Counter deadLettered;
+  private final Counter lost;
+  private Thread writer;
+
+  public TriggerExecutor(
+      TriggerOutboxRepository outboxRepository,
+      ActionRepository actionRepository,
+      UserService userService,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${execution.queue-capacity:65536}") int queueCapacity,
+      @Value("${execution.batch-size:1000}") int batchSize,
+      @Value("${execution.linger-micros:2000}") long lingerMicros) {
+    this.outboxRepository = outboxRepository;
+    this.actionRepository = actionRepository;
+    this.userService = userService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.batch = new ArrayList<>(batchSize);
+    this.batchSize = batchSize;
+    this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+    this.overflowed =
+        Counter.builder("execution.queue.overflow")
+            .description("Triggers parked in the overflow queue because the queue was full")
+            .register(meterRegistry);
+    this.writeFailures =
+        Counter.builder("execution.write.failures")
+            .description("Failed attempts to write a batch of triggers")
+            .register(meterRegistry);
+    this.deadLettered = deadLetterCounter(meterRegistry, "recorded");
+    this.lost = deadLetterCounter(meterRegistry, "lost");
+  }
+
+  @PostConstruct
+  void start() {
+    writer = Thread.ofPlatform().name("trigger-executor").daemon().start(this::run);
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    writer.interrupt();
+    writer.join(TimeUnit.SECONDS.toMillis(10));
+    List<ActionTriggeredEvent> remaining = new ArrayList<>(batchSize);
+    if (writer.isAlive()) {
+      // Still inside a write: its batch stays its own, only the queues are drained here
+      log.warn("Trigger writer did not stop within 10 s, leaving it the batch in hand");
+    } else {
+      remaining.addAll(batch);
+    }
+    // Whatever was still in flight or queued is written before the context goes away
+    do {
+      if (!remaining.isEmpty()) write(remaining);
+      remaining.clear();
+    } while (drainTo(remaining, batchSize) > 0);
+  }
+
+  // Never blocks the evaluator shard: a full queue spills into the unbounded overflow queue
+  @EventListener
+  public void onTriggered(ActionTriggeredEvent event) {
+    if (!queue.offer(event)) {
+      overflow.offer(event);
+      overflowed.increment();
+    }
+  }
+
+  public int pending() {
+    return queue.size() + overflow.size();
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        // Polled rather than taken, so triggers that only made it to the overflow are picked up
+        ActionTriggeredEvent first = overflow.poll();
+        if (first == null) first = queue.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+        // Linger briefly so that a burst fills the batch instead of committing it piecemeal
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+          drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() == batchSize || remaining <= 0) break;
+          ActionTriggeredEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) break;
+          batch.add(next);
+        }
+        writeWithRetry(batch, MAX_ATTEMPTS);
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      // Shutting down; stop() writes the batch in hand
+    }
+  }
+
+  // The overflow holds the older triggers, so it goes first
+  private int drainTo(List<ActionTriggeredEvent> target, int max) {
+    int drained = 0;
+    ActionTriggeredEvent next;
+    while (drained < max && (next = overflow.poll()) != null) {
+      target.add(next);
+      drained++;
+    }
+    return drained + queue.drainTo(target, max - drained);
+  }
+
+  /**
+   * Retries the batch, then halves it until the triggers that keep failing are on their own. A
+   * single trigger gets the full attempts before it is dead-lettered.
+   */
+  private void writeWithRetry(List<ActionTriggeredEvent> batch, int attempts)
+      throws InterruptedException {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        write(batch);
+        return;
+      } catch (RuntimeException e) {
+        writeFailures.increment();
+        if (attempt < attempts) {
+          log.warn(
+              "Writing {} triggers failed (attempt {} of {}), retrying",
+              batch.size(),
+              attempt,
+              attempts,
+              e);
+          // Safe to repeat: rows that did commit are skipped by their idempotency key
+          Thread.sleep(RETRY_DELAY_MILLIS);
+        } else if (batch.size() > 1) {
+          log.warn("Writing {} triggers failed, splitting the batch", batch.size(), e);
+          int half = batch.size() / 2;
+          for (List<ActionTriggeredEvent> part :
+              List.of(batch.subList(0, half), batch.subList(half, batch.size()))) {
+            writeWithRetry(part, part.size() == 1 ? MAX_ATTEMPTS : 1);
+          }
+          return;
+        } else {
+          deadLetter(batch.get(0), e);
+          return;
+        }
+      }
+    }
+  }
+
+  // Recorded with no balance change, in its own transaction, so that it is not retried
+  private void deadLetter(ActionTriggeredEvent trigger, RuntimeException failure) {
+    Action action = trigger.action();
+    String key = idempotencyKey(action);
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            if (!outboxRepository.findExistingKeys(List.of(key)).isEmpty()) return;
+            TriggerOutboxEntity row = new TriggerOutboxEntity();
+            row.setIdempotencyKey(key);
+            row.setActionId(action.getId());
+            row.setUserId(action.getUserId());
+            row.setStatus(ExecutionStatus.FAILED);
+            row.setBalanceDelta(BigDecimal.ZERO);
+            outboxRepository.save(row);
+            actionRepository.markTriggered(
+                new Long[] {action.getId()}, new Long[] {action.getVersion()}, LocalDateTime.now());
+          });
+      deadLettered.increment();
+      log.error("Dead-lettered trigger {} after repeated write failures", key, failure);
+    } catch (RuntimeException e) {
+      lost.increment();
+      e.addSuppressed(failure);
+      log.error("Dropped trigger {}: it could neither be written nor dead-lettered", key, e);
+    }
+  }
+
+  void write(List<ActionTriggeredEvent> batch) {
+    transactionTemplate.executeWithoutResult(status -> writeBatch(batch));
+  }
+
+  private void writeBatch(List<ActionTriggeredEvent> batch) {
+    Map<String, ActionTriggeredEvent> triggers = new LinkedHashMap<>();
+    for (ActionTriggeredEvent trigger : batch) {
+      // Only stored actions can be executed
+      if (trigger.action().getId() != null) {
+        triggers.putIfAbsent(idempotencyKey(trigger.action()), trigger);
+      }
+    }
+    if (triggers.isEmpty()) return;
+    outboxRepository.findExistingKeys(triggers.keySet()).forEach(triggers::remove);
+    if (triggers.isEmpty()) return;
+
+    Map<Long, ActionEntity> stored =
+        actionRepository
+            .findAllById(triggers.values().stream().map(t -> t.action().getId()).toList())
+            .stream()
+            .collect(Collectors.toMap(ActionEntity::getId, Function.identity()));
+    List<TriggerOutboxEntity> rows = new ArrayList<>(triggers.size());
+    List<Long> userIds = new ArrayList<>(triggers.size());
+    List<BigDecimal> deltas = new ArrayList<>(triggers.size());
+    List<Long> versions = new ArrayList<>(triggers.size());
+    triggers.forEach(
+        (key, trigger) -> {
+          ActionEntity action = stored.get(trigger.action().getId());
+          // Deleted or edited since it was registered: the trigger no longer stands
+          if (action == null
+              || !Objects.equals(action.getVersion(), trigger.action().getVersion())) {
+            return;
+          }
+          BigDecimal price =
+              Price.toDecimal(trigger.price(), trigger.action().getContextRegistry());
+          BigDecimal delta = balanceDelta(action, price);
+          rows.add(outboxRow(key, action, price, delta));
+          userIds.add(parseUserId(action.getUserId()));
+          deltas.add(delta);
+          versions.add(action.getVersion());
+        });
+
+    if (rows.isEmpty()) return;
+    boolean[] accepted = userService.applyBalanceDeltas(userIds, deltas);
+    for (int i = 0; i < rows.size(); i++) {
+      rows.get(i).setStatus(accepted[i] ? ExecutionStatus.EXECUTED : ExecutionStatus.REJECTED);
+    }
+    outboxRepository.saveAll(rows);
+    actionRepository.markTriggered(
+        rows.stream().map(TriggerOutboxEntity::getActionId).toArray(Long[]::new),
+        versions.toArray(Long[]::new),
+        LocalDateTime.now());
+  }
+
+  private static Counter deadLetterCounter(MeterRegistry meterRegistry, String outcome) {
+    return Counter.builder("execution.dead.letters")
+        .description("Triggers given up on after repeated write failures")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  static String idempotencyKey(Action action) {
+    return action.getId() + ":" + action.getVersion();
+  }
+
+  // Rounded to the balance column's scale here, so the delta applied is the delta recorded
+  private static BigDecimal balanceDelta(ActionEntity action, BigDecimal price) {
+    if (action.getAmount() == null) return BigDecimal.ZERO;
+    BigDecimal notional =
+        price
+            .multiply(BigDecimal.valueOf(action.getAmount()))
+            .setScale(UserEntity.BALANCE_SCALE, RoundingMode.HALF_EVEN);
+    return action.getActionType() == ActionType.BUY_AUTOMATIC ? notional.negate() : notional;
+  }
+
+  private static TriggerOutboxEntity outboxRow(
+      String key, ActionEntity action, BigDecimal price, BigDecimal delta) {
+    TriggerOutboxEntity row = new TriggerOutboxEntity();
+    row.setIdempotencyKey(key);
+    row.setActionId(action.getId());
+    row.setUserId(action.getUserId());
+    row.setContextId(action.getContextId());
+    row.setActionType(action.getActionType());
+    row.setPrice(price);
+    row.setAmount(action.getAmount());
+    row.setBalanceDelta(delta);
+    return row;
+  }
+
+  // Action user ids are free-form strings; one that names no user is rejected, not retried
+  private static Long parseUserId(String userId) {
+    try {
+      return Long.valueOf(userId);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.db.jpa.TriggerOutboxRepository;
+import com.example.evooq.demo.db.model.ExecutionStatus;
+import com.example.evooq.demo.db.model.TriggerOutboxEntity;
+import com.example.evooq.demo.domain.trigger.ActionExecutedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the trigger outbox: takes up to {@code execution.relay.batch-size} unrelayed rows with
+ * {@code SKIP LOCKED}, publishes an {@link ActionExecutedEvent} for each and marks them relayed in
+ * the same transaction. Delivery is at least once, since a crash before the commit relays the batch
+ * again; consumers deduplicate on the idempotency key. Runs back to back while full batches come
+ * back and polls every {@code execution.relay.interval-ms} otherwise.
+ */
+@Service
+public class TriggerOutboxRelay {
+  private static final Logger log = LoggerFactory.getLogger(TriggerOutboxRelay.class);
+
+  private final TriggerOutboxRepository outboxRepository;
+  private final ApplicationEventPublisher events;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int batchSize;
+  private final long intervalMillis;
+  private final Counter relayFailures;
+  private Thread relay;
+
+  public TriggerOutboxRelay(
+      TriggerOutboxRepository outboxRepository,
+      ApplicationEventPublisher events,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${execution.relay.enabled:true}") boolean enabled,
+      @Value("${execution.relay.batch-size:5000}") int batchSize,
+      @Value("${execution.relay.interval-ms:100}") long intervalMillis) {
+    this.outboxRepository = outboxRepository;
+    this.events = events;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.batchSize = batchSize;
+    this.intervalMillis = intervalMillis;
+    this.relayFailures =
+        Counter.builder("execution.relay.failures")
+            .description("Failed outbox relay batches, retried on the next poll")
+            .register(meterRegistry);
+  }
+
+  @PostConstruct
+  void start() {
+    if (!enabled) return;
+    relay = Thread.ofPlatform().name("outbox-relay").daemon().start(this::run);
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    if (relay == null) return;
+    relay.interrupt();
+    relay.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      int relayed;
+      try {
+        relayed = relayBatch();
+      } catch (RuntimeException e) {
+        // The rows stay unrelayed and are picked up on the next attempt
+        relayFailures.increment();
+        log.warn("Relaying the trigger outbox failed, retrying", e);
+        relayed = 0;
+      }
+      if (relayed < batchSize) {
+        try {
+          Thread.sleep(intervalMillis);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    }
+  }
+
+  /** Relays one batch and returns its size. */
+  public int relayBatch() {
+    Integer relayed =
+        transactionTemplate.execute(
+            status -> {
+              List<TriggerOutboxEntity> rows =
+                  outboxRepository.findUnrelayedForUpdate(Limit.of(batchSize));
+              if (rows.isEmpty()) return 0;
+              for (TriggerOutboxEntity row : rows) {
+                events.publishEvent(
+                    new ActionExecutedEvent(
+                        row.getIdempotencyKey(),
+                        row.getActionId(),
+                        row.getUserId(),
+                        row.getContextId(),
+                        row.getPrice(),
+                        row.getBalanceDelta(),
+                        row.getStatus() == ExecutionStatus.EXECUTED));
+              }
+              outboxRepository.markRelayed(
+                  rows.stream().map(TriggerOutboxEntity::getId).toList(), LocalDateTime.now());
+              return rows.size();
+            });
+    return relayed == null ? 0 : relayed;
+  }
+}
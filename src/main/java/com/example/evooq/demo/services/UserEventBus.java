@@ -0,0 +1,255 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.domain.trigger.ActionExecutedEvent;
+import com.example.evooq.demo.domain.trigger.ActionTriggeredEvent;
+import com.example.evooq.demo.domain.user.BalanceChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fans out each user's trigger and balance events to their streaming subscribers. Publishing never
+ * blocks: an event is appended to each subscriber's buffer of at most {@code events.buffer-size}
+ * events, and a virtual thread drains the buffer into the subscriber's {@link Sink} only while
+ * there is something to send. An idle subscription holds no thread and no buffer. When a slow
+ * subscriber's buffer is full, {@code events.overflow-policy} either drops its oldest event, and
+ * the subscriber receives a {@link Dropped} with the count before the next event, or disconnects
+ * it.
+ */
+@Service
+public class UserEventBus {
+  public enum OverflowPolicy {
+    DROP_OLDEST,
+    DISCONNECT
+  }
+
+  /** Receives one subscription's events, one call at a time. */
+  public interface Sink {
+    void send(Object event) throws IOException;
+
+    // Sent while nothing else is, so that dead connections are noticed
+    void heartbeat() throws IOException;
+
+    void close();
+  }
+
+  /** Events lost to a full buffer since the last one sent. */
+  public record Dropped(long count) {}
+
+  private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+  private final AtomicInteger subscribers = new AtomicInteger();
+  private final int bufferSize;
+  private final OverflowPolicy overflowPolicy;
+  private final ExecutorService senders =
+      Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-events-", 0).factory());
+  private final ScheduledExecutorService heartbeats;
+  private final Counter dropped;
+  private final Counter disconnected;
+
+  public UserEventBus(
+      MeterRegistry meterRegistry,
+      @Value("${events.buffer-size:256}") int bufferSize,
+      @Value("${events.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+      @Value("${events.heartbeat-ms:15000}") long heartbeatMillis) {
+    if (bufferSize < 1) throw new IllegalArgumentException("events.buffer-size must be positive");
+    this.bufferSize = bufferSize;
+    this.overflowPolicy = overflowPolicy;
+    this.heartbeats =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("user-events-heartbeat").daemon().factory());
+    heartbeats.scheduleWithFixedDelay(
+        this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    Gauge.builder("events.subscribers", subscribers, AtomicInteger::get)
+        .description("Open event stream subscriptions")
+        .register(meterRegistry);
+    this.dropped =
+        Counter.builder("events.dropped")
+            .description("Events dropped from full subscriber buffers")
+            .register(meterRegistry);
+    this.disconnected =
+        Counter.builder("events.disconnected")
+            .description("Subscribers disconnected because their buffer was full")
+            .register(meterRegistry);
+  }
+
+  public Subscription subscribe(String userId, Sink sink) {
+    Subscription subscription = new Subscription(userId, sink);
+    subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+    subscribers.incrementAndGet();
+    return subscription;
+  }
+
+  public void publish(String userId, Object event) {
+    Set<Subscription> subscribed = subscriptions.get(userId);
+    if (subscribed == null) return;
+    for (Subscription subscription : subscribed) {
+      subscription.offer(event);
+    }
+  }
+
+  public int subscribers() {
+    return subscribers.get();
+  }
+
+  // Runs on the evaluator shard that fired the action
+  @EventListener
+  public void onTriggered(ActionTriggeredEvent event) {
+    publish(event.action().getUserId(), event);
+  }
+
+  @EventListener
+  public void onExecuted(ActionExecutedEvent event) {
+    publish(event.userId(), event);
+  }
+
+  @EventListener
+  public void onBalanceChanged(BalanceChangedEvent event) {
+    publish(String.valueOf(event.userId()), event);
+  }
+
+  @PreDestroy
+  void shutdown() throws InterruptedException {
+    heartbeats.shutdownNow();
+    subscriptions.values().forEach(subscribed -> subscribed.forEach(Subscription::close));
+    senders.shutdown();
+    senders.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  private void heartbeat() {
+    subscriptions.values().forEach(subscribed -> subscribed.forEach(Subscription::heartbeat));
+  }
+
+  private void remove(Subscription subscription) {
+    subscriptions.computeIfPresent(
+        subscription.userId,
+        (id, subscribed) -> {
+          if (subscribed.remove(subscription)) subscribers.decrementAndGet();
+          return subscribed.isEmpty() ? null : subscribed;
+        });
+  }
+
+  /** One subscriber's buffer. Guarded by itself; the sink is only called by the draining thread. */
+  public final class Subscription {
+    private final String userId;
+    private final Sink sink;
+    // Allocated on the first event and released once drained
+    private ArrayDeque<Object> buffer;
+    private long lost;
+    private boolean heartbeatDue;
+    private boolean draining;
+    private boolean closed;
+    private boolean sinkClosed;
+
+    private Subscription(String userId, Sink sink) {
+      this.userId = userId;
+      this.sink = sink;
+    }
+
+    /** Stops delivery after the subscriber went away; the sink is not called again. */
+    public void cancel() {
+      synchronized (this) {
+        closed = true;
+        sinkClosed = true;
+        buffer = null;
+      }
+      remove(this);
+    }
+
+    private void offer(Object event) {
+      synchronized (this) {
+        if (closed) return;
+        if (buffer == null) buffer = new ArrayDeque<>();
+        if (buffer.size() == bufferSize) {
+          if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+            disconnected.increment();
+            closed = true;
+            buffer = null;
+          } else {
+            dropped.increment();
+            buffer.pollFirst();
+            lost++;
+            buffer.addLast(event);
+          }
+        } else {
+          buffer.addLast(event);
+        }
+        if (draining) return;
+        draining = true;
+      }
+      senders.execute(this::drain);
+    }
+
+    private void heartbeat() {
+      synchronized (this) {
+        if (closed || draining) return;
+        heartbeatDue = true;
+        draining = true;
+      }
+      senders.execute(this::drain);
+    }
+
+    // Closes the sink from the draining thread, so it never races a send
+    private void close() {
+      synchronized (this) {
+        if (closed) return;
+        closed = true;
+        buffer = null;
+        if (draining) return;
+        draining = true;
+      }
+      senders.execute(this::drain);
+    }
+
+    private void drain() {
+      while (true) {
+        Object event;
+        long lostSince;
+        boolean heartbeat;
+        synchronized (this) {
+          if (closed) {
+            draining = false;
+            if (sinkClosed) return;
+            sinkClosed = true;
+            break;
+          }
+          event = buffer == null ? null : buffer.pollFirst();
+          lostSince = lost;
+          heartbeat = heartbeatDue && event == null;
+          lost = 0;
+          heartbeatDue = false;
+          if (event == null && lostSince == 0 && !heartbeat) {
+            buffer = null;
+            draining = false;
+            return;
+          }
+        }
+        try {
+          if (lostSince > 0) sink.send(new Dropped(lostSince));
+          if (event != null) sink.send(event);
+          if (heartbeat) sink.heartbeat();
+        } catch (IOException | RuntimeException e) {
+          synchronized (this) {
+            closed = true;
+            buffer = null;
+          }
+        }
+      }
+      remove(this);
+      sink.close();
+    }
+  }
+}
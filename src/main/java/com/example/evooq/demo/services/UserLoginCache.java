@@ -0,0 +1,129 @@
+package com.example.evooq.demo.services;
+
+import com.example.evooq.demo.db.model.UserEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded cache of logged-in users by email, with size and TTL eviction. Balance changes invalidate
+ * the entry so that a cached login never reports a balance older than the last commit.
+ *
+ * <p>A login that misses takes a {@link #stamp()} before reading the row and hands it to {@link
+ * #put}. The row is only cached if the user was not invalidated since, so a balance committed while
+ * the row was being read cannot be overwritten by the older value. Entries are copies, callers
+ * never share an instance with the cache.
+ *
+ * <p>The emails {@link #invalidate} looks users up by follow the cache: an entry's email is only
+ * dropped when the entry is, so a cached user can always be invalidated.
+ */
+@Component
+public class UserLoginCache {
+  private final Cache<String, UserEntity> usersByEmail;
+  private final Map<Long, String> emailsById = new ConcurrentHashMap<>();
+  private final Cache<Long, Long> invalidatedAt;
+  private final AtomicLong invalidations = new AtomicLong();
+  // Highest stamp of an evicted invalidatedAt entry, stands in for the users it no longer tracks
+  private final AtomicLong evictedInvalidation = new AtomicLong();
+
+  public UserLoginCache(
+      @Value("${user.login-cache.maximum-size:100000}") long maximumSize,
+      @Value("${user.login-cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds) {
+    Duration ttl = Duration.ofSeconds(expireAfterWriteSeconds);
+    this.usersByEmail =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .<String, UserEntity>evictionListener(
+                (email, user, cause) -> emailsById.remove(user.getId(), email))
+            .recordStats()
+            .build();
+    this.invalidatedAt =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .<Long, Long>evictionListener(
+                (userId, stamp, cause) -> evictedInvalidation.accumulateAndGet(stamp, Math::max))
+            .build();
+  }
+
+  public UserEntity get(String email) {
+    UserEntity cached = usersByEmail.getIfPresent(email);
+    return cached == null ? null : copy(cached);
+  }
+
+  /** To be taken before reading the row that is then passed to {@link #put}. */
+  public long stamp() {
+    return invalidations.get();
+  }
+
+  public void put(UserEntity user, long stamp) {
+    // Mapped before the entry exists, so an invalidate racing with the write still finds it
+    emailsById.put(user.getId(), user.getEmail());
+    UserEntity copy = copy(user);
+    // Atomic with invalidate() on the same email, so the check and the write cannot be split
+    usersByEmail
+        .asMap()
+        .compute(
+            user.getEmail(),
+            (email, current) -> {
+              if (!invalidatedSince(user.getId(), stamp)) return copy;
+              if (current == null) emailsById.remove(user.getId(), email);
+              return current;
+            });
+  }
+
+  public void invalidate(Long userId) {
+    invalidatedAt.put(userId, invalidations.incrementAndGet());
+    String email = emailsById.get(userId);
+    if (email != null) {
+      usersByEmail.invalidate(email);
+      emailsById.remove(userId, email);
+    }
+  }
+
+  // Inside a transaction the entry is dropped once it commits, so a concurrent login cannot
+  // re-cache the balance it is about to replace
+  public void invalidateAfterCommit(Long userId) {
+    invalidate(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              invalidate(userId);
+            }
+          });
+    }
+  }
+
+  public CacheStats stats() {
+    return usersByEmail.stats();
+  }
+
+  public long size() {
+    return usersByEmail.estimatedSize();
+  }
+
+  private boolean invalidatedSince(Long userId, long stamp) {
+    Long invalidated = invalidatedAt.getIfPresent(userId);
+    return (invalidated != null && invalidated > stamp) || evictedInvalidation.get() > stamp;
+  }
+
+  private static UserEntity copy(UserEntity user) {
+    UserEntity copy = new UserEntity();
+    copy.setId(user.getId());
+    copy.setName(user.getName());
+    copy.setEmail(user.getEmail());
+    copy.setBalance(user.getBalance());
+    return copy;
+  }
+}
@@ -2,39 +2,172 @@ package com.example.evooq.demo.services;
 
 import com.example.evooq.demo.db.jpa.UserRepository;
 import com.example.evooq.demo.db.model.UserEntity;
+import com.example.evooq.demo.domain.user.BalanceChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class UserService {
   private final UserRepository userRepository;
+  private final BalanceGroupCommitter balanceGroupCommitter;
+  private final UserLoginCache userLoginCache;
+  private final ApplicationEventPublisher events;
+  private final Timer balanceLockWait;
+  private final Timer balanceCommitted;
+  private final Timer balanceRolledBack;
 
-  public UserService(UserRepository userRepository) {
+  public UserService(
+      UserRepository userRepository,
+      BalanceGroupCommitter balanceGroupCommitter,
+      UserLoginCache userLoginCache,
+      ApplicationEventPublisher events,
+      MeterRegistry meterRegistry) {
     this.userRepository = userRepository;
+    this.balanceGroupCommitter = balanceGroupCommitter;
+    this.userLoginCache = userLoginCache;
+    this.events = events;
+    this.balanceLockWait =
+        Timer.builder("user.balance.lock.wait")
+            .description("Time spent acquiring the row lock for a balance update")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    this.balanceCommitted = balanceTransactionTimer(meterRegistry, "committed");
+    this.balanceRolledBack = balanceTransactionTimer(meterRegistry, "rolled_back");
   }
 
   public UserEntity login(String name, String email) {
-    return userRepository
-        .findByEmail(email)
-        .orElseGet(
-            () -> {
-              UserEntity user = new UserEntity();
-              user.setName(name);
-              user.setEmail(email);
-              user.setBalance(0.0);
-              return userRepository.save(user);
-            });
+    UserEntity cached = userLoginCache.get(email);
+    if (cached != null) return cached;
+    long stamp = userLoginCache.stamp();
+    // Single round trip, and concurrent first logins resolve to the same row
+    UserEntity user = userRepository.upsertByEmail(name, email);
+    userLoginCache.put(user, stamp);
+    return user;
   }
 
   @Transactional
   public void updateBalance(Long userId, BigDecimal delta) {
+    checkScale(delta);
+    long started = System.nanoTime();
+    recordTransactionDuration(started);
     UserEntity user =
         userRepository
             .findByIdForUpdate(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
+    balanceLockWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
 
-    user.setBalance(user.getBalance() + delta.doubleValue());
+    user.setBalance(user.getBalance().add(delta));
+    userLoginCache.invalidateAfterCommit(userId);
+    publishAfterCommit(new BalanceChangedEvent(userId, delta));
     // Hibernate automatically updates at transaction commit
   }
+
+  /**
+   * Applies many deltas inside the caller's transaction, locking each affected user once. Per user,
+   * credits are applied first and debits in order while the balance stays non-negative. Returns
+   * which deltas were applied; unknown users are rejected. Deltas must fit the balance scale.
+   */
+  @Transactional(Transactional.TxType.MANDATORY)
+  public boolean[] applyBalanceDeltas(List<Long> userIds, List<BigDecimal> deltas) {
+    deltas.forEach(UserService::checkScale);
+    Set<Long> ids = new HashSet<>(userIds);
+    ids.remove(null);
+    Map<Long, UserEntity> users = new HashMap<>();
+    Map<Long, BigDecimal> balances = new HashMap<>();
+    if (ids.isEmpty()) return new boolean[deltas.size()];
+    for (UserEntity user : userRepository.findAllByIdForUpdate(ids)) {
+      users.put(user.getId(), user);
+      balances.put(user.getId(), user.getBalance());
+    }
+
+    boolean[] accepted = new boolean[deltas.size()];
+    for (int i = 0; i < deltas.size(); i++) {
+      if (users.containsKey(userIds.get(i)) && deltas.get(i).signum() >= 0) {
+        balances.merge(userIds.get(i), deltas.get(i), BigDecimal::add);
+        accepted[i] = true;
+      }
+    }
+    for (int i = 0; i < deltas.size(); i++) {
+      Long userId = userIds.get(i);
+      if (users.containsKey(userId) && deltas.get(i).signum() < 0) {
+        BigDecimal balance = balances.get(userId).add(deltas.get(i));
+        if (balance.signum() >= 0) {
+          balances.put(userId, balance);
+          accepted[i] = true;
+        }
+      }
+    }
+
+    balances.forEach(
+        (userId, balance) -> {
+          UserEntity user = users.get(userId);
+          if (user.getBalance().compareTo(balance) != 0) {
+            user.setBalance(balance);
+            userLoginCache.invalidateAfterCommit(userId);
+          }
+        });
+    return accepted;
+  }
+
+  // Group-commit variant for hot accounts, completes once the delta is durable
+  public CompletableFuture<Void> updateBalanceAsync(Long userId, BigDecimal delta) {
+    checkScale(delta);
+    return balanceGroupCommitter.submit(userId, delta);
+  }
+
+  // The column would round anything finer; callers round explicitly instead, see TriggerExecutor
+  private static void checkScale(BigDecimal delta) {
+    if (delta.stripTrailingZeros().scale() > UserEntity.BALANCE_SCALE) {
+      throw new IllegalArgumentException(
+          "Balance delta " + delta + " has more than " + UserEntity.BALANCE_SCALE + " decimals");
+    }
+  }
+
+  private void publishAfterCommit(BalanceChangedEvent event) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      events.publishEvent(event);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            events.publishEvent(event);
+          }
+        });
+  }
+
+  // Stopped once the transaction completes, so the commit itself is part of the duration
+  private void recordTransactionDuration(long started) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            Timer timer = status == STATUS_COMMITTED ? balanceCommitted : balanceRolledBack;
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+          }
+        });
+  }
+
+  private static Timer balanceTransactionTimer(MeterRegistry meterRegistry, String outcome) {
+    return Timer.builder("user.balance.transaction")
+        .description("Duration of balance update transactions")
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
 }
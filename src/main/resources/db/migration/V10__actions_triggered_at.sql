@@ -0,0 +1,3 @@
+-- Set in the trigger outbox transaction when a one-shot action fires, so that reloading the
+-- stored actions does not arm it again. An edit re-arms the action and clears it.
+ALTER TABLE actions ADD COLUMN triggered_at timestamp(6);
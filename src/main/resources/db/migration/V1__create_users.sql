@@ -0,0 +1,8 @@
+CREATE TABLE users (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name varchar(255),
+  email varchar(255) NOT NULL,
+  balance double precision NOT NULL DEFAULT 0,
+  -- Login upserts on email, ON CONFLICT needs the unique index
+  CONSTRAINT uk_users_email UNIQUE (email)
+);
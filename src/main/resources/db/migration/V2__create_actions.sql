@@ -0,0 +1,35 @@
+CREATE SEQUENCE actions_seq START WITH 1 INCREMENT BY 50;
+
+-- Hash partitioned by owner: pages and exports filter on user_id and touch a single partition.
+-- The partition key has to be part of the primary key, which then also serves the keyset page.
+CREATE TABLE actions (
+  id bigint NOT NULL,
+  version bigint NOT NULL DEFAULT 0,
+  user_id varchar(255) NOT NULL,
+  description varchar(255),
+  context_id varchar(255),
+  context_type varchar(255),
+  action_type varchar(255) NOT NULL
+    CHECK (action_type IN ('SELL_AUTOMATIC', 'BUY_AUTOMATIC', 'SET_STOP_LOSS')),
+  created_at timestamp(6),
+  target_value double precision,
+  divergence_tolerance double precision,
+  price_is_less_than_target boolean,
+  stop_loss_value double precision,
+  amount double precision,
+  asset_symbol varchar(255),
+  PRIMARY KEY (user_id, id)
+) PARTITION BY HASH (user_id);
+
+DO $$
+BEGIN
+  FOR i IN 0..15 LOOP
+    EXECUTE format(
+      'CREATE TABLE actions_p%s PARTITION OF actions FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+      i, i);
+  END LOOP;
+END $$;
+
+-- Lookups by id alone (find, patch, delete) probe this index in every partition
+CREATE INDEX idx_actions_id ON actions (id);
+CREATE INDEX idx_actions_context_id_action_type ON actions (context_id, action_type);
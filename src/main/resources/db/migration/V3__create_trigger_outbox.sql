@@ -0,0 +1,21 @@
+CREATE SEQUENCE trigger_outbox_seq START WITH 1 INCREMENT BY 500;
+
+CREATE TABLE trigger_outbox (
+  id bigint PRIMARY KEY,
+  idempotency_key varchar(255) NOT NULL,
+  action_id bigint NOT NULL,
+  user_id varchar(255),
+  context_id varchar(255),
+  action_type varchar(255)
+    CHECK (action_type IN ('SELL_AUTOMATIC', 'BUY_AUTOMATIC', 'SET_STOP_LOSS')),
+  status varchar(255) NOT NULL CHECK (status IN ('EXECUTED', 'REJECTED')),
+  price double precision,
+  amount double precision,
+  balance_delta double precision,
+  created_at timestamp(6),
+  relayed_at timestamp(6),
+  CONSTRAINT uk_trigger_outbox_idempotency_key UNIQUE (idempotency_key)
+);
+
+-- Only unrelayed rows are indexed, so the relay scan stays small however long the outbox grows
+CREATE INDEX idx_trigger_outbox_unrelayed ON trigger_outbox (id) WHERE relayed_at IS NULL;
@@ -0,0 +1,11 @@
+-- Prices and balances as exact decimals instead of binary floating point. Prices are stored
+-- unscaled, so changing a registry's price scale needs no data migration.
+ALTER TABLE actions
+  ALTER COLUMN target_value TYPE numeric(19, 8),
+  ALTER COLUMN divergence_tolerance TYPE numeric(19, 8);
+
+ALTER TABLE users ALTER COLUMN balance TYPE numeric(19, 4);
+
+ALTER TABLE trigger_outbox
+  ALTER COLUMN price TYPE numeric(19, 8),
+  ALTER COLUMN balance_delta TYPE numeric(19, 4);
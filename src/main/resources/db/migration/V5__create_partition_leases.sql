@@ -0,0 +1,16 @@
+-- Ownership of the action partitions when several instances share this database. Partition p
+-- holds the actions whose context id hashes to p; its row names the instance evaluating them
+-- until expires_at, a time on the database clock.
+CREATE TABLE partition_leases (
+  partition_id integer PRIMARY KEY,
+  owner varchar(255),
+  expires_at timestamp(6)
+);
+
+INSERT INTO partition_leases (partition_id) SELECT generate_series(0, 63);
+
+-- Instances renewing their leases; the live ones share the partitions evenly
+CREATE TABLE cluster_members (
+  node_id varchar(255) PRIMARY KEY,
+  expires_at timestamp(6) NOT NULL
+);
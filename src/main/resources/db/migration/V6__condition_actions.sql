@@ -0,0 +1,11 @@
+-- Condition actions: an alert on an expression over market data, e.g.
+-- price(AAPL) < 180 AND spread(AAPL) < 0.05. Their context is the first value the expression reads.
+ALTER TABLE actions ADD COLUMN condition_expression varchar(1000);
+
+ALTER TABLE actions DROP CONSTRAINT actions_action_type_check;
+ALTER TABLE actions ADD CONSTRAINT actions_action_type_check
+  CHECK (action_type IN ('SELL_AUTOMATIC', 'BUY_AUTOMATIC', 'SET_STOP_LOSS', 'CONDITION'));
+
+ALTER TABLE trigger_outbox DROP CONSTRAINT trigger_outbox_action_type_check;
+ALTER TABLE trigger_outbox ADD CONSTRAINT trigger_outbox_action_type_check
+  CHECK (action_type IN ('SELL_AUTOMATIC', 'BUY_AUTOMATIC', 'SET_STOP_LOSS', 'CONDITION'));
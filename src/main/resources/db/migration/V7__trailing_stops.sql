@@ -0,0 +1,13 @@
+-- Trailing stops: a stop that ratchets up with the highest price seen since purchase. The running
+-- mark is kept in memory by the evaluator and written back here periodically, in one statement.
+ALTER TABLE actions ADD COLUMN high_water_mark numeric(19, 8);
+
+ALTER TABLE actions DROP CONSTRAINT actions_action_type_check;
+ALTER TABLE actions ADD CONSTRAINT actions_action_type_check
+  CHECK (action_type IN ('SELL_AUTOMATIC', 'BUY_AUTOMATIC', 'SET_STOP_LOSS', 'CONDITION',
+    'TRAILING_STOP'));
+
+ALTER TABLE trigger_outbox DROP CONSTRAINT trigger_outbox_action_type_check;
+ALTER TABLE trigger_outbox ADD CONSTRAINT trigger_outbox_action_type_check
+  CHECK (action_type IN ('SELL_AUTOMATIC', 'BUY_AUTOMATIC', 'SET_STOP_LOSS', 'CONDITION',
+    'TRAILING_STOP'));
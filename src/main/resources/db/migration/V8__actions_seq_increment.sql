@@ -0,0 +1,2 @@
+-- One id block per JDBC batch: matches allocationSize and hibernate.jdbc.batch_size (500)
+ALTER SEQUENCE actions_seq INCREMENT BY 500;
@@ -0,0 +1,5 @@
+-- Triggers that could not be written even on their own are dead-lettered as FAILED, without a
+-- balance change, so that they are kept for inspection and not retried
+ALTER TABLE trigger_outbox DROP CONSTRAINT trigger_outbox_status_check;
+ALTER TABLE trigger_outbox ADD CONSTRAINT trigger_outbox_status_check
+  CHECK (status IN ('EXECUTED', 'REJECTED', 'FAILED'));
@@ -0,0 +1,125 @@
+package com.example.evooq.demo.domain.action;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ActionChangeFeedTest {
+
+  @Test
+  void poll_shouldStartWithResyncAndDeliverInSequenceOrder() {
+    ActionChangeFeed feed = new ActionChangeFeed(8);
+    Recorder recorder = new Recorder();
+    ActionChangeFeed.Subscription subscription = feed.subscribe();
+
+    assertEquals(0, subscription.poll(recorder, 16));
+    assertEquals(1, recorder.resyncs);
+
+    long first = feed.reserve(1);
+    long second = feed.reserve(2);
+    feed.complete(second, List.of(insert(2), insert(3)));
+
+    // The first reservation is still open, so nothing behind it is visible yet
+    assertEquals(0, subscription.poll(recorder, 16));
+    feed.complete(first, List.of(insert(1)));
+
+    assertEquals(3, subscription.poll(recorder, 16));
+    assertEquals(List.of(1L, 2L, 3L), recorder.ids());
+    assertEquals(1, recorder.resyncs);
+  }
+
+  @Test
+  void poll_shouldSkipRolledBackReservations() {
+    ActionChangeFeed feed = new ActionChangeFeed(8);
+    Recorder recorder = new Recorder();
+    ActionChangeFeed.Subscription subscription = feed.subscribe();
+    subscription.poll(recorder, 16);
+
+    feed.complete(feed.reserve(2), null);
+    feed.complete(feed.reserve(1), List.of(ActionChange.delete(7)));
+
+    assertEquals(3, subscription.poll(recorder, 16));
+    assertEquals(List.of(7L), recorder.ids());
+  }
+
+  @Test
+  void poll_shouldResyncOnceSubscriptionFallsBehindRetention() {
+    ActionChangeFeed feed = new ActionChangeFeed(4);
+    Recorder recorder = new Recorder();
+    ActionChangeFeed.Subscription subscription = feed.subscribe();
+    subscription.poll(recorder, 16);
+
+    for (int id = 1; id <= 5; id++) {
+      feed.complete(feed.reserve(1), List.of(insert(id)));
+    }
+    assertEquals(0, subscription.poll(recorder, 16));
+    assertEquals(2, recorder.resyncs);
+    assertEquals(List.of(), recorder.ids());
+
+    feed.complete(feed.reserve(1), List.of(insert(6)));
+    assertEquals(1, subscription.poll(recorder, 16));
+    assertEquals(List.of(6L), recorder.ids());
+  }
+
+  @Test
+  void poll_shouldReplayOpenReservationsAfterResync() {
+    ActionChangeFeed feed = new ActionChangeFeed(8);
+    Recorder recorder = new Recorder();
+    ActionChangeFeed.Subscription subscription = feed.subscribe();
+
+    // Open while the subscription resyncs, so the reload may not have seen it
+    long open = feed.reserve(1);
+    subscription.poll(recorder, 16);
+    feed.complete(open, List.of(insert(1)));
+
+    assertEquals(1, subscription.poll(recorder, 16));
+    assertEquals(List.of(1L), recorder.ids());
+  }
+
+  @Test
+  void complete_shouldForceResyncWhenItsSlotWasReservedAgain() {
+    ActionChangeFeed feed = new ActionChangeFeed(2);
+    Recorder recorder = new Recorder();
+    ActionChangeFeed.Subscription subscription = feed.subscribe();
+
+    long stuck = feed.reserve(1);
+    feed.complete(feed.reserve(2), List.of(insert(2), insert(3)));
+    subscription.poll(recorder, 16);
+    assertEquals(1, recorder.resyncs);
+
+    feed.complete(stuck, List.of(insert(1)));
+    subscription.poll(recorder, 16);
+    assertEquals(2, recorder.resyncs);
+  }
+
+  private static ActionChange insert(long id) {
+    Action action =
+        new SellAutomaticAction(
+            "1", "sell", ContextRegistry.STOCK_PRICES, "AAPL", 1_000_000, 10_000, true);
+    action.setId(id);
+    return ActionChange.insert(action);
+  }
+
+  private static final class Recorder implements ActionChangeHandler {
+    private final List<ActionChange> changes = new ArrayList<>();
+    private int resyncs;
+
+    @Override
+    public void onChange(ActionChange change) {
+      changes.add(change);
+    }
+
+    @Override
+    public void resync() {
+      resyncs++;
+      changes.clear();
+    }
+
+    List<Long> ids() {
+      return changes.stream().map(ActionChange::actionId).toList();
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.example.evooq.demo.domain.backtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.marketdata.GeneratorSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BacktestTest {
+
+  @TempDir Path dir;
+
+  @Test
+  void convert_shouldRoundTripCsvThroughTheMappedFile() throws IOException {
+    Path csv = dir.resolve("ticks.csv");
+    Files.writeString(
+        csv,
+        """
+        # timestamp,registry,symbol,price,volume
+        1000,STOCK_PRICES,AAPL,189.5,100
+        1001,CRYPTO_PRICES,BTC,65000.25,0.5
+
+        1002,STOCK_PRICES,AAPL,190
+        """);
+    Path bin = dir.resolve("ticks.bin");
+
+    assertEquals(3, CsvTickConverter.convert(csv, bin));
+
+    MappedTickFile ticks = MappedTickFile.open(bin);
+    assertEquals(3, ticks.size());
+    assertEquals("AAPL", ticks.symbols().symbolOf(ticks.symbolId(0)));
+    assertEquals("BTC", ticks.symbols().symbolOf(ticks.symbolId(1)));
+    assertEquals(ContextRegistry.CRYPTO_PRICES, ticks.registry(1));
+    assertEquals(1001, ticks.timestamp(1));
+    assertEquals(65000.25, ticks.price(1));
+    assertEquals(0.5, ticks.volume(1));
+    assertEquals(0, ticks.volume(2));
+
+    List<Double> replayed = new ArrayList<>();
+    ticks.replay((registry, symbolId, value, timestamp) -> replayed.add(value));
+    assertEquals(List.of(189.5, 65000.25, 190.0), replayed);
+  }
+
+  @Test
+  void open_shouldRejectOtherFiles() throws IOException {
+    Path other = dir.resolve("other.bin");
+    Files.writeString(other, "timestamp,registry,symbol,price");
+    assertThrows(IOException.class, () -> MappedTickFile.open(other));
+  }
+
+  @Test
+  void run_shouldFireEachActionOnTheFirstTickWhereShouldTakeHolds() throws IOException {
+    Path bin = dir.resolve("walk.bin");
+    SymbolTable symbols = new SymbolTable();
+    try (TickFileWriter writer = new TickFileWriter(bin, symbols)) {
+      new GeneratorSource(symbols, 8, 50_000, 42).run(writer);
+    }
+    MappedTickFile ticks = MappedTickFile.open(bin);
+
+    List<TargetPriceAction> actions = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      String symbol = "SYM" + i % 8;
+      long target = Price.of(99 + (i % 20) * 0.1, ContextRegistry.STOCK_PRICES);
+      long tolerance = Price.of(0.5, ContextRegistry.STOCK_PRICES);
+      actions.add(
+          i % 2 == 0
+              ? new BuyAutomaticAction(
+                  "1", "buy " + i, ContextRegistry.STOCK_PRICES, symbol, target, tolerance, false)
+              : new SellAutomaticAction(
+                  "1", "sell " + i, ContextRegistry.STOCK_PRICES, symbol, target, tolerance, true));
+    }
+
+    BacktestReport report = Backtest.run(ticks, actions);
+
+    assertEquals(50_000, report.ticks());
+    assertEquals(expectedFires(ticks, actions), describe(report.fires()));
+    assertFalse(report.fires().isEmpty());
+  }
+
+  // The naive reading: after each tick, every action that has not fired yet is asked shouldTake
+  private static List<String> expectedFires(MappedTickFile ticks, List<TargetPriceAction> actions) {
+    MarketSnapshot snapshot = new MarketSnapshot(ticks.symbols());
+    Set<TargetPriceAction> fired = new HashSet<>();
+    List<String> fires = new ArrayList<>();
+    for (long i = 0; i < ticks.size(); i++) {
+      snapshot.set(ticks.registry(i), ticks.symbolId(i), ticks.price(i));
+      String symbol = ticks.symbols().symbolOf(ticks.symbolId(i));
+      for (TargetPriceAction action : actions) {
+        if (action.isArmed()
+            && action.getContextId().equals(symbol)
+            && !fired.contains(action)
+            && action.shouldTake(snapshot)) {
+          fired.add(action);
+          fires.add(action.getDescription() + "@" + ticks.timestamp(i));
+        }
+      }
+    }
+    return fires.stream().sorted().toList();
+  }
+
+  private static List<String> describe(List<BacktestFire> fires) {
+    return fires.stream()
+        .map(fire -> fire.action().getDescription() + "@" + fire.timestamp())
+        .sorted()
+        .toList();
+  }
+}
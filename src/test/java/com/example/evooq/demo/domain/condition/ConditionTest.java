@@ -0,0 +1,171 @@
+package com.example.evooq.demo.domain.condition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.condition.Condition.And;
+import com.example.evooq.demo.domain.condition.Condition.Comparison;
+import com.example.evooq.demo.domain.condition.Condition.Constant;
+import com.example.evooq.demo.domain.condition.Condition.IndicatorValue;
+import com.example.evooq.demo.domain.condition.Condition.Not;
+import com.example.evooq.demo.domain.condition.Condition.Operator;
+import com.example.evooq.demo.domain.condition.Condition.Or;
+import com.example.evooq.demo.domain.condition.Condition.Value;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.indicator.Indicator;
+import com.example.evooq.demo.domain.indicator.Indicators;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ConditionTest {
+
+  private static final Value AAPL = new Value(ContextRegistry.STOCK_PRICES, "AAPL");
+  private static final Value AAPL_SPREAD = new Value(ContextRegistry.SPREADS, "AAPL");
+  private static final Value NYSE = new Value(ContextRegistry.MARKET_STATUS, "NYSE");
+
+  @Test
+  void parse_shouldBindAndTighterThanOrAndNormalizeConstantsToTheRight() {
+    Condition condition =
+        Condition.parse(
+            "price(AAPL) < 180 and 0.05 > spread( AAPL ) OR NOT (status(NYSE) == CLOSED)");
+
+    assertEquals(
+        new Or(
+            new And(
+                new Comparison(AAPL, Operator.LT, new Constant(180)),
+                new Comparison(AAPL_SPREAD, Operator.LT, new Constant(0.05))),
+            new Not(new Comparison(NYSE, Operator.EQ, new Constant(0)))),
+        condition);
+    assertEquals(List.of(AAPL, AAPL_SPREAD, NYSE), condition.values());
+  }
+
+  @Test
+  void test_shouldReadIndicatorsOnceTheirWindowIsFull() {
+    Condition condition =
+        Condition.parse("price(AAPL) > SMA(price(AAPL)) AND vwap(price(AAPL)) < 12");
+    assertEquals(
+        new Comparison(AAPL, Operator.GT, new IndicatorValue(Indicator.SMA, AAPL)),
+        ((And) condition).left());
+    assertEquals(List.of(AAPL, AAPL, AAPL), condition.values());
+    assertThrows(IllegalArgumentException.class, () -> Condition.parse("sma(3) > 1"));
+
+    MarketSnapshot snapshot = new MarketSnapshot();
+    Indicators indicators = new Indicators(2);
+    CompiledCondition compiled = CompiledCondition.compile(condition, snapshot.symbols());
+    compiled.track(indicators);
+    int aapl = snapshot.symbols().idOf("AAPL");
+    assertArrayEquals(
+        new int[] {
+          CompiledCondition.key(ContextRegistry.STOCK_PRICES, aapl),
+          CompiledCondition.key(ContextRegistry.VOLUMES, aapl)
+        },
+        compiled.dependencies());
+
+    for (double[] tick : new double[][] {{10, 100}, {11, 300}}) {
+      snapshot.set(ContextRegistry.STOCK_PRICES, aapl, tick[0]);
+      indicators.onTick(ContextRegistry.STOCK_PRICES, aapl, tick[0]);
+      indicators.onTick(ContextRegistry.VOLUMES, aapl, tick[1]);
+    }
+
+    assertEquals(10.5, indicators.value(Indicator.SMA, ContextRegistry.STOCK_PRICES, aapl));
+    assertEquals(10.75, indicators.value(Indicator.VWAP, ContextRegistry.STOCK_PRICES, aapl));
+    assertTrue(compiled.test(snapshot, indicators));
+    assertTrue(condition.test(snapshot, indicators));
+  }
+
+  @Test
+  void parse_shouldRejectInvalidConditionsWithThePosition() {
+    assertEquals(
+        "Condition is required",
+        assertThrows(IllegalArgumentException.class, () -> Condition.parse(" ")).getMessage());
+    assertEquals(
+        "Invalid condition at position 0: unknown function 'quote'",
+        assertThrows(IllegalArgumentException.class, () -> Condition.parse("quote(AAPL) < 1"))
+            .getMessage());
+    assertEquals(
+        "Invalid condition at position 12: expected a comparison operator",
+        assertThrows(IllegalArgumentException.class, () -> Condition.parse("price(AAPL) = 1"))
+            .getMessage());
+    assertEquals(
+        "Invalid condition at position 0: comparison must read a market value",
+        assertThrows(IllegalArgumentException.class, () -> Condition.parse("1 < 2")).getMessage());
+    assertThrows(IllegalArgumentException.class, () -> Condition.parse("price(AAPL) < 1 AND"));
+    assertThrows(IllegalArgumentException.class, () -> Condition.parse("(price(AAPL) < 1"));
+    assertThrows(IllegalArgumentException.class, () -> Condition.parse("price(AAPL) < 1 2"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Condition.parse("(".repeat(40) + "price(AAPL) < 1" + ")".repeat(40)));
+  }
+
+  private final Indicators indicators = new Indicators();
+
+  @Test
+  void test_shouldBeFalseWhileAValueItReadsIsMissing() {
+    MarketSnapshot snapshot = new MarketSnapshot();
+    snapshot.set(ContextRegistry.STOCK_PRICES, "AAPL", 170);
+    Condition condition = Condition.parse("NOT spread(AAPL) > 1 OR price(AAPL) < 180");
+    CompiledCondition compiled = CompiledCondition.compile(condition, snapshot.symbols());
+
+    assertFalse(condition.test(snapshot, indicators));
+    assertFalse(compiled.test(snapshot, indicators));
+
+    snapshot.set(ContextRegistry.SPREADS, "AAPL", 2);
+    assertTrue(condition.test(snapshot, indicators));
+    assertTrue(compiled.test(snapshot, indicators));
+  }
+
+  @Test
+  void compile_shouldMatchTheInterpreterOnRandomConditionsAndSnapshots() {
+    Random random = new Random(42);
+    MarketSnapshot snapshot = new MarketSnapshot();
+    for (int i = 0; i < 2_000; i++) {
+      Condition condition = Condition.parse(randomExpression(random, 3));
+      CompiledCondition compiled = CompiledCondition.compile(condition, snapshot.symbols());
+      for (int round = 0; round < 20; round++) {
+        randomize(random, snapshot);
+        assertEquals(
+            condition.test(snapshot, indicators),
+            compiled.test(snapshot, indicators),
+            condition.toString());
+      }
+    }
+  }
+
+  private static String randomExpression(Random random, int depth) {
+    int choice = depth == 0 ? 0 : random.nextInt(5);
+    return switch (choice) {
+      case 0, 1 -> {
+        String[] operators = {"<", "<=", ">", ">=", "==", "!="};
+        String operator = operators[random.nextInt(operators.length)];
+        String right =
+            random.nextBoolean() ? randomValue(random) : String.valueOf(random.nextInt(4));
+        yield randomValue(random) + " " + operator + " " + right;
+      }
+      case 2 -> randomExpression(random, depth - 1) + " AND " + randomExpression(random, depth - 1);
+      case 3 ->
+          "("
+              + randomExpression(random, depth - 1)
+              + " OR "
+              + randomExpression(random, depth - 1)
+              + ")";
+      default -> "NOT " + randomExpression(random, depth - 1);
+    };
+  }
+
+  private static String randomValue(Random random) {
+    String[] functions = {"price", "spread", "volume"};
+    return functions[random.nextInt(functions.length)] + "(S" + random.nextInt(3) + ")";
+  }
+
+  // Small integers so that equality comparisons hold often, and some values missing
+  private static void randomize(Random random, MarketSnapshot snapshot) {
+    for (ContextRegistry registry :
+        List.of(ContextRegistry.STOCK_PRICES, ContextRegistry.SPREADS, ContextRegistry.VOLUMES)) {
+      for (int s = 0; s < 3; s++) {
+        double value = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(4);
+        snapshot.set(registry, "S" + s, value);
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.evooq.demo.domain.context;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ActionContextTest {
+
+  @Test
+  void registryChannel_shouldBeWrittenThroughToSnapshot() {
+    ActionContext context = new ActionContext();
+    context.set(ContextRegistry.FOREX_PRICES.name(), Map.of("EURUSD", 1.085f, "GBPUSD", 1.27));
+
+    MarketSnapshot snapshot = context.snapshot();
+    assertEquals(1.085f, (float) snapshot.value(ContextRegistry.FOREX_PRICES, "EURUSD"));
+    assertEquals(1.27, snapshot.value(ContextRegistry.FOREX_PRICES, "GBPUSD"));
+    assertTrue(Double.isNaN(snapshot.value(ContextRegistry.STOCK_PRICES, "EURUSD")));
+    assertTrue(Double.isNaN(snapshot.value(ContextRegistry.FOREX_PRICES, "USDJPY")));
+  }
+
+  @Test
+  void registryChannel_shouldReadBackAsMapOfFloats() {
+    ActionContext context = new ActionContext();
+    HashMap<String, Float> prices = new HashMap<>();
+    prices.put("AAPL", 180.5f);
+    context.set(ContextRegistry.STOCK_PRICES.name(), prices);
+
+    Map<?, ?> read = context.get(ContextRegistry.STOCK_PRICES.name(), Map.class);
+    assertEquals(prices, read);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void registryChannel_shouldBeAReadOnlyCopy() {
+    ActionContext context = new ActionContext();
+    context.set(ContextRegistry.STOCK_PRICES.name(), Map.of("AAPL", 180.5f, "MSFT", 410f));
+
+    Map<String, Float> read = context.get(ContextRegistry.STOCK_PRICES.name(), Map.class);
+    assertThrows(UnsupportedOperationException.class, () -> read.put("TSLA", 250f));
+    context.set(ContextRegistry.STOCK_PRICES.name(), Map.of("TSLA", 250f));
+
+    assertEquals(Map.of("AAPL", 180.5f, "MSFT", 410f), read);
+    assertEquals(Map.of("TSLA", 250f), context.get(ContextRegistry.STOCK_PRICES.name(), Map.class));
+  }
+
+  @Test
+  void registryChannel_shouldRejectNonStringSymbolsWithoutChangingTheSnapshot() {
+    ActionContext context = new ActionContext();
+    context.set(ContextRegistry.STOCK_PRICES.name(), Map.of("AAPL", 180.5f));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> context.set(ContextRegistry.STOCK_PRICES.name(), Map.of(1, 2f)));
+    assertEquals(180.5, context.snapshot().value(ContextRegistry.STOCK_PRICES, "AAPL"));
+  }
+
+  @Test
+  void otherKeys_shouldBeStoredAsIs() {
+    ActionContext context = new ActionContext();
+    context.set("session", "pre-market");
+
+    assertEquals("pre-market", context.get("session", String.class));
+  }
+
+  @Test
+  void shouldTake_shouldGiveSameAnswerThroughAdapterAndSnapshot() {
+    ActionContext context = new ActionContext();
+    context.set(ContextRegistry.STOCK_PRICES.name(), Map.of("AAPL", 120f));
+    BuyAutomaticAction buy =
+        new BuyAutomaticAction(
+            "u1",
+            "buy",
+            ContextRegistry.STOCK_PRICES,
+            "AAPL",
+            Price.of(100, ContextRegistry.STOCK_PRICES),
+            Price.of(5, ContextRegistry.STOCK_PRICES),
+            false);
+
+    assertTrue(buy.shouldTake(context));
+    assertTrue(buy.shouldTake(context.snapshot()));
+    context.snapshot().set(ContextRegistry.STOCK_PRICES, "AAPL", 103.0);
+    assertFalse(buy.shouldTake(context));
+  }
+}
@@ -0,0 +1,44 @@
+package com.example.evooq.demo.domain.context;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class PriceTest {
+
+  @Test
+  void of_shouldScaleByRegistry() {
+    assertEquals(1_001_234, Price.of(new BigDecimal("100.1234"), ContextRegistry.STOCK_PRICES));
+    assertEquals(1_100_000, Price.of(new BigDecimal("1.1"), ContextRegistry.FOREX_PRICES));
+    assertEquals(6_500_025_000_000L, Price.of(65000.25, ContextRegistry.CRYPTO_PRICES));
+    assertEquals(10_000_000_000L, Price.of(new BigDecimal("100"), null));
+  }
+
+  @Test
+  void of_shouldRoundTicksToTheNearestUnit() {
+    assertEquals(
+        Price.of(0.3, ContextRegistry.STOCK_PRICES),
+        Price.of(0.1 + 0.2, ContextRegistry.STOCK_PRICES));
+    assertEquals(1_001_000, Price.of(100.1f, ContextRegistry.STOCK_PRICES));
+  }
+
+  @Test
+  void of_shouldRejectDecimalsTheRegistryDoesNotKeep() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> Price.of(new BigDecimal("100.12345"), ContextRegistry.STOCK_PRICES));
+    assertEquals(1_001_234, Price.of(new BigDecimal("100.12340000"), ContextRegistry.STOCK_PRICES));
+  }
+
+  @Test
+  void toDecimal_shouldRoundTripAndKeepAbsentPricesAbsent() {
+    BigDecimal price = new BigDecimal("1.23456789");
+    assertEquals(
+        price,
+        Price.toDecimal(
+            Price.of(price, ContextRegistry.CRYPTO_PRICES), ContextRegistry.CRYPTO_PRICES));
+    assertEquals(Price.NONE, Price.of((BigDecimal) null, ContextRegistry.STOCK_PRICES));
+    assertNull(Price.toDecimal(Price.NONE, ContextRegistry.STOCK_PRICES));
+  }
+}
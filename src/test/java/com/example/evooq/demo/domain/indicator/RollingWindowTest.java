@@ -0,0 +1,80 @@
+package com.example.evooq.demo.domain.indicator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class RollingWindowTest {
+
+  @Test
+  void push_shouldMatchAggregatesRecomputedOverTheLastValues() {
+    Random random = new Random(42);
+    int length = 7;
+    RollingWindow window = new RollingWindow(length);
+    double[] pushed = new double[1_000];
+    double ema = Double.NaN;
+    for (int i = 0; i < pushed.length; i++) {
+      // Few distinct values, so the deques see ties
+      pushed[i] = random.nextInt(5) == 0 ? random.nextInt(3) : 100 + random.nextGaussian();
+      window.push(pushed[i]);
+      ema = Double.isNaN(ema) ? pushed[i] : ema + 2.0 / (length + 1) * (pushed[i] - ema);
+
+      double[] last = Arrays.copyOfRange(pushed, Math.max(0, i + 1 - length), i + 1);
+      double mean = Arrays.stream(last).average().orElseThrow();
+      double variance = Arrays.stream(last).map(v -> (v - mean) * (v - mean)).sum() / last.length;
+      assertEquals(i + 1 >= length, window.isFull());
+      assertEquals(last.length, window.size());
+      assertEquals(mean, window.mean(), 1e-9);
+      assertEquals(variance, window.variance(), 1e-6);
+      assertEquals(Arrays.stream(last).min().orElseThrow(), window.min());
+      assertEquals(Arrays.stream(last).max().orElseThrow(), window.max());
+      assertEquals(ema, window.ema(), 1e-9);
+    }
+  }
+
+  @Test
+  void value_shouldBeNanUntilTheIndicatorIsTrackedAndItsWindowIsFull() {
+    Indicators indicators = new Indicators(3);
+    ContextRegistry prices = ContextRegistry.CRYPTO_PRICES;
+    indicators.onTick(prices, 4, 100);
+    indicators.track(Indicator.MAX, prices, 4);
+    indicators.track(Indicator.VOLATILITY, prices, 4);
+
+    for (double price : new double[] {100, 110, 99}) {
+      assertTrue(Double.isNaN(indicators.value(Indicator.MAX, prices, 4)));
+      indicators.onTick(prices, 4, price);
+    }
+
+    assertEquals(110, indicators.value(Indicator.MAX, prices, 4));
+    assertTrue(Double.isNaN(indicators.value(Indicator.VOLATILITY, prices, 4)));
+    assertTrue(Double.isNaN(indicators.value(Indicator.VWAP, prices, 4)));
+    assertTrue(Double.isNaN(indicators.value(Indicator.MAX, prices, 5)));
+
+    indicators.onTick(prices, 4, 99);
+    // Returns 0.1, -0.1 and 0
+    assertEquals(Math.sqrt(0.02 / 3), indicators.value(Indicator.VOLATILITY, prices, 4), 1e-12);
+  }
+
+  @Test
+  void untrack_shouldReleaseTheWindowOnceNothingTracksIt() {
+    Indicators indicators = new Indicators(2);
+    ContextRegistry prices = ContextRegistry.CRYPTO_PRICES;
+    indicators.track(Indicator.SMA, prices, 4);
+    indicators.track(Indicator.MIN, prices, 4);
+    indicators.onTick(prices, 4, 100);
+    indicators.onTick(prices, 4, 110);
+
+    indicators.untrack(Indicator.SMA, prices, 4);
+    assertEquals(105, indicators.value(Indicator.SMA, prices, 4));
+
+    indicators.untrack(Indicator.MIN, prices, 4);
+    assertTrue(Double.isNaN(indicators.value(Indicator.MIN, prices, 4)));
+
+    indicators.track(Indicator.MIN, prices, 4);
+    indicators.onTick(prices, 4, 120);
+    assertTrue(Double.isNaN(indicators.value(Indicator.MIN, prices, 4)));
+  }
+}
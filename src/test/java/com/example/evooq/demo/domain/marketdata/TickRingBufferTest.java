@@ -0,0 +1,149 @@
+package com.example.evooq.demo.domain.marketdata;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class TickRingBufferTest {
+
+  @Test
+  void poll_shouldDeliverEveryTickToEverySubscriptionInOrder() {
+    TickRingBuffer ring = new TickRingBuffer(8);
+    TickRingBuffer.Subscription first = ring.subscribe();
+    TickRingBuffer.Subscription second = ring.subscribe();
+
+    for (int i = 0; i < 5; i++) {
+      ring.publish(ContextRegistry.STOCK_PRICES, i, 100 + i, i);
+    }
+
+    List<Double> firstSeen = new ArrayList<>();
+    List<Double> secondSeen = new ArrayList<>();
+    assertEquals(5, first.poll((registry, symbolId, value, timestamp) -> firstSeen.add(value), 16));
+    assertEquals(
+        3, second.poll((registry, symbolId, value, timestamp) -> secondSeen.add(value), 3));
+    assertEquals(
+        2, second.poll((registry, symbolId, value, timestamp) -> secondSeen.add(value), 3));
+    assertEquals(List.of(100.0, 101.0, 102.0, 103.0, 104.0), firstSeen);
+    assertEquals(firstSeen, secondSeen);
+    assertEquals(0, ring.depth());
+  }
+
+  @Test
+  void publish_shouldConflateToLatestValueWhenConsumerLags() {
+    TickRingBuffer ring = new TickRingBuffer(4);
+    TickRingBuffer.Subscription subscription = ring.subscribe();
+
+    // Fill the ring, then keep updating two symbols while nobody consumes
+    for (int i = 0; i < 4; i++) {
+      ring.publish(ContextRegistry.STOCK_PRICES, 0, i, i);
+    }
+    for (int i = 0; i < 100; i++) {
+      ring.publish(ContextRegistry.STOCK_PRICES, 1, 1000 + i, i);
+      ring.publish(ContextRegistry.FOREX_PRICES, 1, 2000 + i, i);
+    }
+
+    assertEquals(4, ring.depth());
+    assertEquals(2, ring.pending());
+    assertEquals(198, ring.conflated());
+
+    double[] latest = new double[2];
+    List<ContextRegistry> seen = new ArrayList<>();
+    TickHandler handler =
+        (registry, symbolId, value, timestamp) -> {
+          seen.add(registry);
+          if (symbolId == 1) latest[registry == ContextRegistry.STOCK_PRICES ? 0 : 1] = value;
+        };
+    assertEquals(4, subscription.poll(handler, 16));
+    assertTrue(ring.flush());
+    assertEquals(2, subscription.poll(handler, 16));
+
+    assertEquals(1099, latest[0]);
+    assertEquals(2099, latest[1]);
+    assertEquals(6, seen.size());
+    assertEquals(ContextRegistry.STOCK_PRICES, seen.get(4));
+  }
+
+  @Test
+  void poll_shouldDrainParkedTicksWithoutAnotherPublish() {
+    TickRingBuffer ring = new TickRingBuffer(2);
+    TickRingBuffer.Subscription subscription = ring.subscribe();
+    for (int i = 0; i < 3; i++) {
+      ring.publish(ContextRegistry.STOCK_PRICES, i, 100 + i, i);
+    }
+    assertEquals(1, ring.pending());
+
+    List<Double> seen = new ArrayList<>();
+    TickHandler handler = (registry, symbolId, value, timestamp) -> seen.add(value);
+    assertEquals(2, subscription.poll(handler, 16));
+    assertEquals(0, ring.pending());
+    assertEquals(1, subscription.poll(handler, 16));
+
+    assertEquals(List.of(100.0, 101.0, 102.0), seen);
+  }
+
+  @Test
+  void publish_shouldNeverLetLaggingConsumerEndOnStalePrice() throws Exception {
+    int symbols = 64;
+    int ticks = 2_000_000;
+    TickRingBuffer ring = new TickRingBuffer(256);
+    TickRingBuffer.Subscription subscription = ring.subscribe();
+    double[] lastSeen = new double[symbols];
+    AtomicReference<String> violation = new AtomicReference<>();
+
+    Thread producer =
+        Thread.ofPlatform()
+            .start(
+                () -> {
+                  for (int i = 0; i < ticks; i++) {
+                    ring.publish(ContextRegistry.STOCK_PRICES, i % symbols, i, i);
+                  }
+                  while (!ring.flush()) {
+                    Thread.onSpinWait();
+                  }
+                });
+    TickHandler handler =
+        (registry, symbolId, value, timestamp) -> {
+          if (value < lastSeen[symbolId]) violation.set(symbolId + " went back to " + value);
+          lastSeen[symbolId] = value;
+        };
+    while (producer.isAlive() || subscription.lag() > 0) {
+      subscription.poll(handler, 64);
+    }
+    producer.join();
+
+    assertNull(violation.get());
+    for (int symbol = 0; symbol < symbols; symbol++) {
+      assertEquals(ticks - symbols + symbol, lastSeen[symbol]);
+    }
+    assertEquals(ticks, ring.published() + ring.conflated());
+  }
+
+  @Test
+  void csvSource_shouldParseTicksAndSkipComments() throws Exception {
+    SymbolTable symbols = new SymbolTable();
+    MarketDataPublisher publisher = new MarketDataPublisher(symbols);
+    String csv =
+        """
+        # timestamp,registry,symbol,value
+        1718000000000,STOCK_PRICES,AAPL,189.5
+
+        1718000000001,FOREX_PRICES,EURUSD,1.0712
+        1718000000002,STOCK_PRICES,AAPL,190.25
+        """;
+
+    new CsvTickSource(() -> new StringReader(csv), symbols).run(publisher);
+
+    // Nothing is visible to readers until the publisher swaps in a new snapshot
+    assertTrue(Double.isNaN(publisher.current().value(ContextRegistry.STOCK_PRICES, "AAPL")));
+    assertTrue(publisher.publish());
+    assertEquals(190.25, publisher.current().value(ContextRegistry.STOCK_PRICES, "AAPL"));
+    assertEquals(1.0712, publisher.current().value(ContextRegistry.FOREX_PRICES, "EURUSD"));
+    assertFalse(publisher.publish());
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.evooq.demo.domain.orderbook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.context.Price;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class OrderBookTest {
+
+  @Test
+  void set_shouldKeepTheBestLevelsOfEachSideInOrder() {
+    OrderBook book = new OrderBook(3);
+    assertEquals(Price.NONE, book.best(Side.BID));
+    assertEquals(Price.NONE, book.spread());
+
+    book.set(Side.BID, 99, 10);
+    book.set(Side.BID, 101, 20);
+    book.set(Side.BID, 100, 30);
+    book.set(Side.BID, 98, 40);
+    book.set(Side.BID, 97, 50);
+    book.set(Side.ASK, 104, 5);
+    book.set(Side.ASK, 103, 6);
+    book.set(Side.BID, 100, 35);
+
+    OrderBookView view = new OrderBookView(8);
+    book.read(view);
+    assertEquals(3, view.count(Side.BID));
+    assertArrayEquals(new long[] {101, 100, 99}, levels(view, Side.BID));
+    assertArrayEquals(new long[] {103, 104}, levels(view, Side.ASK));
+    assertEquals(20 + 35, book.depth(Side.BID, 2));
+    assertEquals(20 + 35 + 10, view.depth(Side.BID, 5));
+    assertEquals(2, book.spread());
+    assertEquals(book.spread(), view.spread());
+
+    book.set(Side.BID, 101, 0);
+    book.set(Side.BID, 42, 0);
+
+    assertEquals(100, book.best(Side.BID));
+    assertEquals(35 + 10, book.depth(Side.BID, 3));
+  }
+
+  @Test
+  void set_shouldClearTheLevelsALevelCrosses() {
+    OrderBook book = new OrderBook(8);
+    for (long price = 100; price < 105; price++) book.set(Side.BID, price, 1);
+    for (long price = 106; price < 110; price++) book.set(Side.ASK, price, 1);
+
+    book.set(Side.ASK, 103, 7);
+
+    assertEquals(102, book.best(Side.BID));
+    assertEquals(103, book.best(Side.ASK));
+    assertEquals(3, book.depth(Side.BID, 8));
+
+    book.set(Side.BID, 108, 2);
+
+    assertEquals(108, book.best(Side.BID));
+    assertEquals(109, book.best(Side.ASK));
+    assertEquals(1, book.depth(Side.ASK, 8));
+  }
+
+  @Test
+  void read_shouldNeverSeeAHalfAppliedUpdateWhileTheWriterRuns() throws InterruptedException {
+    // Each update shifts every level down to insert a new best one, sized at its own price
+    OrderBook book = new OrderBook(16);
+    for (long price = 1; price <= 16; price++) book.set(Side.BID, price, price);
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicLong reads = new AtomicLong();
+    AtomicReference<String> inconsistent = new AtomicReference<>();
+    Thread reader =
+        Thread.ofPlatform()
+            .start(
+                () -> {
+                  OrderBookView view = new OrderBookView(16);
+                  while (!done.get() && inconsistent.get() == null) {
+                    book.read(view);
+                    reads.lazySet(reads.get() + 1);
+                    long best = view.best(Side.BID);
+                    for (int i = 0; i < view.count(Side.BID); i++) {
+                      if (view.price(Side.BID, i) != best - i
+                          || view.size(Side.BID, i) != best - i
+                          || view.count(Side.BID) != 16) {
+                        inconsistent.set("level " + i + " of a book at " + best);
+                      }
+                    }
+                  }
+                });
+
+    // Until the reader got many reads in, on however few cores
+    for (long price = 17; reads.get() < 500_000 && inconsistent.get() == null; price++) {
+      book.set(Side.BID, price, price);
+    }
+    done.set(true);
+    reader.join();
+
+    assertNull(inconsistent.get());
+  }
+
+  private static long[] levels(OrderBookView view, Side side) {
+    long[] prices = new long[view.count(side)];
+    for (int i = 0; i < prices.length; i++) prices[i] = view.price(side, i);
+    return prices;
+  }
+}
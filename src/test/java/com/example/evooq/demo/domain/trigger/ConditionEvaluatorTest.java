@@ -0,0 +1,183 @@
+package com.example.evooq.demo.domain.trigger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.action.ConditionAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.MarketSnapshot;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import com.example.evooq.demo.domain.indicator.Indicator;
+import com.example.evooq.demo.domain.indicator.Indicators;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ConditionEvaluatorTest {
+  private static final Indicators NO_INDICATORS = new Indicators();
+
+  @Test
+  void onTick_shouldFireOnceWhenEveryValueTheConditionReadsLinesUp() {
+    SymbolTable symbols = new SymbolTable();
+    List<String> fired = new ArrayList<>();
+    ConditionEvaluator evaluator =
+        new ConditionEvaluator(
+            symbols,
+            (action, price) -> fired.add(action.getDescription() + "@" + price),
+            EvaluationMetrics.NONE);
+    ConditionAction alert =
+        new ConditionAction(
+            "u1", "alert", "price(AAPL) < 180 AND spread(AAPL) < 0.05 AND status(NYSE) == OPEN");
+    assertEquals(ContextRegistry.STOCK_PRICES, alert.getContextRegistry());
+    assertEquals("AAPL", alert.getContextId());
+    assertTrue(evaluator.register(alert));
+    assertFalse(evaluator.register(alert));
+
+    int aapl = symbols.register("AAPL");
+    int nyse = symbols.register("NYSE");
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 179, 1);
+    evaluator.onTick(ContextRegistry.SPREADS, aapl, 0.01, 2);
+    assertEquals(List.of(), fired);
+
+    evaluator.onTick(ContextRegistry.MARKET_STATUS, nyse, 1, 3);
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 178, 4);
+
+    assertEquals(List.of("alert@" + Price.of(179, ContextRegistry.STOCK_PRICES)), fired);
+    assertEquals(0, evaluator.size());
+  }
+
+  @Test
+  void register_shouldFireRightAwayWhenTheConditionAlreadyHolds() {
+    MarketSnapshot snapshot = new MarketSnapshot();
+    snapshot.set(ContextRegistry.CRYPTO_PRICES, "BTC", 65_000);
+    List<ConditionAction> fired = new ArrayList<>();
+    ConditionEvaluator evaluator =
+        new ConditionEvaluator(
+            snapshot, (action, price) -> fired.add(action), EvaluationMetrics.NONE);
+    ConditionAction alert = new ConditionAction("u1", "btc", "crypto(BTC) > 60000");
+
+    assertTrue(evaluator.register(alert));
+
+    assertEquals(List.of(alert), fired);
+    assertEquals(0, evaluator.size());
+  }
+
+  @Test
+  void onTick_shouldFireOnAVolumeTickThatMovesTheVwap() {
+    SymbolTable symbols = new SymbolTable();
+    List<Long> fired = new ArrayList<>();
+    ConditionEvaluator evaluator =
+        new ConditionEvaluator(
+            new MarketSnapshot(symbols),
+            new Indicators(2),
+            (action, price) -> fired.add(price),
+            EvaluationMetrics.NONE);
+    evaluator.register(new ConditionAction("u1", "above vwap", "price(AAPL) > vwap(price(AAPL))"));
+
+    int aapl = symbols.idOf("AAPL");
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 10, 1);
+    evaluator.onTick(ContextRegistry.VOLUMES, aapl, 100, 2);
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 12, 3);
+    assertEquals(List.of(), fired);
+
+    // The second volume ticks at 11, for a VWAP of (10 * 100 + 11 * 900) / 1000 = 10.9
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 11, 4);
+    assertEquals(List.of(), fired);
+    evaluator.onTick(ContextRegistry.VOLUMES, aapl, 900, 5);
+
+    assertEquals(List.of(Price.of(11, ContextRegistry.STOCK_PRICES)), fired);
+  }
+
+  @Test
+  void onTick_shouldFireWithTheIndicatorValueAndThenReleaseIt() {
+    SymbolTable symbols = new SymbolTable();
+    Indicators indicators = new Indicators(2);
+    List<Long> fired = new ArrayList<>();
+    ConditionEvaluator evaluator =
+        new ConditionEvaluator(
+            new MarketSnapshot(symbols),
+            indicators,
+            (action, price) -> fired.add(price),
+            EvaluationMetrics.NONE);
+    evaluator.register(new ConditionAction("u1", "sma", "sma(price(AAPL)) > 10"));
+
+    int aapl = symbols.idOf("AAPL");
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 10, 1);
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 12, 2);
+
+    assertEquals(List.of(Price.of(11, ContextRegistry.STOCK_PRICES)), fired);
+    assertTrue(Double.isNaN(indicators.value(Indicator.SMA, ContextRegistry.STOCK_PRICES, aapl)));
+  }
+
+  @Test
+  void context_shouldExposeTheTrackedIndicatorsToShouldTake() {
+    SymbolTable symbols = new SymbolTable();
+    ConditionEvaluator evaluator =
+        new ConditionEvaluator(
+            new MarketSnapshot(symbols),
+            new Indicators(2),
+            (action, price) -> {},
+            EvaluationMetrics.NONE);
+    evaluator.register(new ConditionAction("u1", "sma", "sma(price(AAPL)) > 11"));
+    ConditionAction lower = new ConditionAction("u1", "lower", "sma(price(AAPL)) > 10");
+
+    int aapl = symbols.idOf("AAPL");
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 10, 1);
+    assertFalse(lower.shouldTake(evaluator.context()));
+    evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 11, 2);
+
+    assertTrue(lower.shouldTake(evaluator.context()));
+    assertEquals(
+        10.5,
+        evaluator.context().indicators().value(Indicator.SMA, ContextRegistry.STOCK_PRICES, aapl));
+  }
+
+  @Test
+  void onTick_shouldFireWhatShouldTakeHoldsForAfterEachTick() {
+    Random random = new Random(7);
+    SymbolTable symbols = new SymbolTable();
+    Set<ConditionAction> fired = new HashSet<>();
+    ConditionEvaluator evaluator =
+        new ConditionEvaluator(
+            symbols, (action, price) -> fired.add(action), EvaluationMetrics.NONE);
+    List<ConditionAction> actions = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      String expression =
+          "price(S%d) > %d AND (volume(S%d) < %d OR NOT spread(S%d) >= 2)"
+              .formatted(
+                  random.nextInt(5),
+                  random.nextInt(10),
+                  random.nextInt(5),
+                  random.nextInt(10),
+                  random.nextInt(5));
+      ConditionAction action = new ConditionAction("u1", "c" + i, expression);
+      actions.add(action);
+      evaluator.register(action);
+    }
+    ConditionAction removed = actions.removeLast();
+    assertTrue(evaluator.remove(removed));
+
+    MarketSnapshot reference = new MarketSnapshot(symbols);
+    Set<ConditionAction> expected = new HashSet<>();
+    ContextRegistry[] registries = {
+      ContextRegistry.STOCK_PRICES, ContextRegistry.VOLUMES, ContextRegistry.SPREADS
+    };
+    for (int tick = 0; tick < 500; tick++) {
+      ContextRegistry registry = registries[random.nextInt(registries.length)];
+      int symbolId = symbols.register("S" + random.nextInt(5));
+      double value = random.nextInt(12);
+      reference.set(registry, symbolId, value);
+      for (ConditionAction action : actions) {
+        if (action.parsed().test(reference, NO_INDICATORS)) expected.add(action);
+      }
+      evaluator.onTick(registry, symbolId, value, tick);
+    }
+
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, fired);
+    assertFalse(fired.contains(removed));
+  }
+}
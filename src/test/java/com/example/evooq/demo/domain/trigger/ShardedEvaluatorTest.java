@@ -0,0 +1,128 @@
+package com.example.evooq.demo.domain.trigger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.context.SymbolTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ShardedEvaluatorTest {
+
+  @Test
+  void onTick_shouldFireSameActionsAsSingleEngine() throws Exception {
+    Random random = new Random(11);
+    SymbolTable symbols = new SymbolTable();
+    TriggerEngine reference = new TriggerEngine();
+    Map<TargetPriceAction, AtomicInteger> expected = new ConcurrentHashMap<>();
+    Map<TargetPriceAction, AtomicInteger> actual = new ConcurrentHashMap<>();
+
+    try (ShardedEvaluator evaluator =
+        new ShardedEvaluator(
+            symbols,
+            4,
+            8192,
+            false,
+            (action, price) ->
+                actual.computeIfAbsent(action, a -> new AtomicInteger()).incrementAndGet())) {
+      for (int i = 0; i < 1_000; i++) {
+        TargetPriceAction action = randomAction(random, "SYM" + random.nextInt(20));
+        reference.register(action);
+        assertTrue(evaluator.register(action).get(5, TimeUnit.SECONDS));
+      }
+
+      for (int tick = 0; tick < 2_000; tick++) {
+        String symbol = "SYM" + random.nextInt(20);
+        double price = 80 + random.nextDouble() * 40;
+        reference.evaluate(
+            ContextRegistry.STOCK_PRICES,
+            symbol,
+            Price.of(price, ContextRegistry.STOCK_PRICES),
+            (action, p) ->
+                expected.computeIfAbsent(action, a -> new AtomicInteger()).incrementAndGet());
+        evaluator.onTick(ContextRegistry.STOCK_PRICES, symbols.register(symbol), price, tick);
+      }
+      awaitDrained(evaluator);
+
+      assertEquals(2_000, evaluator.processed());
+      assertEquals(expected.keySet(), actual.keySet());
+      expected.forEach((action, count) -> assertEquals(count.get(), actual.get(action).get()));
+    }
+  }
+
+  @Test
+  void register_shouldFireOneShotActionsOnceIncludingAtLastKnownPrice() throws Exception {
+    SymbolTable symbols = new SymbolTable();
+    List<TargetPriceAction> fired = new CopyOnWriteArrayList<>();
+
+    try (ShardedEvaluator evaluator =
+        new ShardedEvaluator(symbols, 2, 1024, true, (action, price) -> fired.add(action))) {
+      SellAutomaticAction sell =
+          new SellAutomaticAction(
+              "u1", "sell", ContextRegistry.STOCK_PRICES, "AAPL", price(100), price(5), true);
+      assertTrue(evaluator.register(sell).get(5, TimeUnit.SECONDS));
+
+      int aapl = symbols.register("AAPL");
+      evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 103, 1);
+      evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 110, 2);
+      evaluator.onTick(ContextRegistry.STOCK_PRICES, aapl, 111, 3);
+      awaitDrained(evaluator);
+      assertEquals(List.of(sell), fired);
+
+      // Registered after the price already moved away from its target
+      BuyAutomaticAction buy =
+          new BuyAutomaticAction(
+              "u2", "buy", ContextRegistry.STOCK_PRICES, "AAPL", price(100), price(5), false);
+      assertTrue(evaluator.register(buy).get(5, TimeUnit.SECONDS));
+      assertEquals(List.of(sell, buy), fired);
+      assertEquals(2, evaluator.fired());
+    }
+  }
+
+  @Test
+  void shardOf_shouldKeepEverySymbolOnOneShard() throws Exception {
+    SymbolTable symbols = new SymbolTable();
+    try (ShardedEvaluator evaluator =
+        new ShardedEvaluator(symbols, 3, 1024, false, (action, price) -> {})) {
+      List<Integer> shards = new ArrayList<>();
+      for (int i = 0; i < 9; i++) {
+        shards.add(evaluator.shardOf("SYM" + i));
+      }
+      assertEquals(List.of(0, 1, 2, 0, 1, 2, 0, 1, 2), shards);
+      assertEquals(shards.get(4), evaluator.shardOf("SYM4"));
+    }
+  }
+
+  private static void awaitDrained(ShardedEvaluator evaluator) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!evaluator.drained()) {
+      assertTrue(System.nanoTime() < deadline, "shards did not drain");
+      Thread.sleep(1);
+    }
+  }
+
+  private static long price(double value) {
+    return Price.of(value, ContextRegistry.STOCK_PRICES);
+  }
+
+  private static TargetPriceAction randomAction(Random random, String symbol) {
+    long target = price(90) + random.nextInt((int) price(20));
+    long tolerance = random.nextInt((int) price(10));
+    return random.nextBoolean()
+        ? new BuyAutomaticAction(
+            "u", "buy", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, false)
+        : new SellAutomaticAction(
+            "u", "sell", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, true);
+  }
+}
@@ -0,0 +1,252 @@
+package com.example.evooq.demo.domain.trigger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.SetStopLossAction;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.ActionContext;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TriggerEngineTest {
+
+  private static final String[] SYMBOLS = {"AAPL", "MSFT", "EURUSD"};
+
+  @Test
+  void evaluate_shouldMatchShouldTakeForRandomActionsAndTicks() {
+    Random random = new Random(42);
+    TriggerEngine engine = new TriggerEngine();
+    List<TargetPriceAction> actions = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      TargetPriceAction action = randomAction(random);
+      actions.add(action);
+      engine.register(action);
+    }
+
+    for (int tick = 0; tick < 500; tick++) {
+      String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+      long price = price(80) + random.nextInt((int) price(40));
+      ActionContext context = contextWith(symbol, price);
+
+      Set<TargetPriceAction> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (TargetPriceAction action : actions) {
+        if (action.getContextId().equals(symbol) && action.shouldTake(context)) {
+          expected.add(action);
+        }
+      }
+      Set<TargetPriceAction> actual = Collections.newSetFromMap(new IdentityHashMap<>());
+      int count =
+          engine.evaluate(
+              ContextRegistry.STOCK_PRICES, symbol, price, (action, p) -> actual.add(action));
+
+      assertEquals(expected.size(), count);
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  void evaluate_shouldRespectExactBoundaries() {
+    TriggerEngine engine = new TriggerEngine();
+    SellAutomaticAction sell =
+        new SellAutomaticAction(
+            "u1", "sell", ContextRegistry.STOCK_PRICES, "AAPL", price(100.1), price(0.3), true);
+    engine.register(sell);
+
+    long upper = price(100.4);
+    long lower = price(99.8);
+    for (long price : new long[] {upper, upper + 1, upper - 1, lower, lower - 1, price(100.1)}) {
+      boolean expected = sell.shouldTake(contextWith("AAPL", price));
+      int fired = engine.evaluate(ContextRegistry.STOCK_PRICES, "AAPL", price, (a, p) -> {});
+      assertEquals(expected ? 1 : 0, fired, "price " + price);
+    }
+  }
+
+  @Test
+  void register_shouldSkipActionsThatCanNeverFire() {
+    TriggerEngine engine = new TriggerEngine();
+    BuyAutomaticAction disarmed =
+        new BuyAutomaticAction(
+            "u1", "buy", ContextRegistry.STOCK_PRICES, "AAPL", price(100), price(1), true);
+
+    assertFalse(engine.register(disarmed));
+    assertEquals(0, engine.size());
+  }
+
+  @Test
+  void trigger_shouldFireOnceAndDeregister() {
+    TriggerEngine engine = new TriggerEngine();
+    SetStopLossAction stopLoss =
+        new SetStopLossAction("u1", "stop", ContextRegistry.STOCK_PRICES, "AAPL", price(100), 0.1f);
+    SellAutomaticAction far =
+        new SellAutomaticAction(
+            "u1", "far", ContextRegistry.STOCK_PRICES, "AAPL", price(80), price(20), true);
+    engine.register(stopLoss);
+    engine.register(far);
+
+    List<TargetPriceAction> fired = new ArrayList<>();
+    assertEquals(
+        1, engine.trigger(ContextRegistry.STOCK_PRICES, "AAPL", price(85), (a, p) -> fired.add(a)));
+    assertEquals(List.of(stopLoss), fired);
+    assertEquals(
+        0, engine.trigger(ContextRegistry.STOCK_PRICES, "AAPL", price(85), (a, p) -> fired.add(a)));
+    assertEquals(1, engine.size());
+  }
+
+  @Test
+  void remove_shouldStopReportingAction() {
+    TriggerEngine engine = new TriggerEngine();
+    SellAutomaticAction sell =
+        new SellAutomaticAction(
+            "u1", "sell", ContextRegistry.STOCK_PRICES, "AAPL", price(100), price(1), true);
+    engine.register(sell);
+
+    assertTrue(engine.remove(sell));
+    assertFalse(engine.remove(sell));
+    assertEquals(0, engine.evaluate(ContextRegistry.STOCK_PRICES, "AAPL", 0, (a, p) -> {}));
+  }
+
+  @Test
+  void trigger_shouldMatchANaiveTrailingStopOverARandomWalk() {
+    Random random = new Random(7);
+    TriggerEngine engine = new TriggerEngine();
+    // What each live stop's mark is, recomputed from scratch on every tick
+    Map<TrailingStopAction, Long> marks = new IdentityHashMap<>();
+    long price = price(100);
+
+    for (int tick = 0; tick < 5_000; tick++) {
+      if (random.nextInt(4) == 0) {
+        TrailingStopAction stop = randomTrailingStop(random, price);
+        engine.register(stop);
+        marks.put(stop, stop.getHighWaterMark());
+      }
+      if (random.nextInt(10) == 0 && !marks.isEmpty()) {
+        TrailingStopAction removed = new ArrayList<>(marks.keySet()).get(0);
+        assertTrue(engine.remove(removed));
+        marks.remove(removed);
+      }
+      price = Math.max(price(50), price + random.nextInt((int) price(1)) - price(0.5));
+
+      Set<TrailingStopAction> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Map.Entry<TrailingStopAction, Long> entry : marks.entrySet()) {
+        long mark = Math.max(entry.getValue(), price);
+        entry.setValue(mark);
+        if (price <= TrailingStopAction.stopPrice(mark, entry.getKey().getTrailPercent())) {
+          expected.add(entry.getKey());
+        }
+      }
+      Set<TargetPriceAction> actual = Collections.newSetFromMap(new IdentityHashMap<>());
+      int count =
+          engine.trigger(
+              ContextRegistry.STOCK_PRICES, "AAPL", price, (action, p) -> actual.add(action));
+
+      assertEquals(expected, actual, "tick " + tick);
+      assertEquals(expected.size(), count);
+      marks.keySet().removeAll(expected);
+      assertEquals(marks.size(), engine.size());
+    }
+  }
+
+  @Test
+  void evaluate_shouldReportTrailingStopsWithoutRemovingThem() {
+    TriggerEngine engine = new TriggerEngine();
+    TrailingStopAction tight = trailingStop(price(100), 0.05f, Price.NONE);
+    TrailingStopAction loose = trailingStop(price(100), 0.2f, price(110));
+    engine.register(tight);
+    engine.register(loose);
+
+    assertEquals(0, engine.evaluate(ContextRegistry.STOCK_PRICES, "AAPL", price(96), (a, p) -> {}));
+    // Raises both marks to 120: stops at 114 and 96
+    assertEquals(
+        0, engine.evaluate(ContextRegistry.STOCK_PRICES, "AAPL", price(120), (a, p) -> {}));
+    List<TargetPriceAction> fired = new ArrayList<>();
+    assertEquals(
+        1,
+        engine.evaluate(ContextRegistry.STOCK_PRICES, "AAPL", price(114), (a, p) -> fired.add(a)));
+    assertEquals(
+        2,
+        engine.evaluate(ContextRegistry.STOCK_PRICES, "AAPL", price(96), (a, p) -> fired.add(a)));
+    assertEquals(List.of(tight, tight, loose), fired);
+    assertEquals(2, engine.size());
+  }
+
+  @Test
+  void drainHighWaterMarks_shouldReportEachRaisedMarkOnce() {
+    TriggerEngine engine = new TriggerEngine();
+    TrailingStopAction first = trailingStop(price(100), 0.1f, Price.NONE);
+    TrailingStopAction second = trailingStop(price(105), 0.1f, Price.NONE);
+    TrailingStopAction above = trailingStop(price(130), 0.2f, Price.NONE);
+    engine.register(first);
+    engine.register(second);
+    engine.register(above);
+
+    engine.trigger(ContextRegistry.STOCK_PRICES, "AAPL", price(110), (a, p) -> {});
+    engine.trigger(ContextRegistry.STOCK_PRICES, "AAPL", price(120), (a, p) -> {});
+    Map<TrailingStopAction, Long> drained = new IdentityHashMap<>();
+    engine.drainHighWaterMarks(
+        (action, mark) -> {
+          assertNull(drained.put(action, mark));
+          action.ratchet(mark);
+        });
+
+    assertEquals(Map.of(first, price(120), second, price(120)), drained);
+    assertEquals(price(120), first.getHighWaterMark());
+    assertEquals(price(108), first.getTargetPrice());
+    assertEquals(price(130), above.getHighWaterMark());
+    engine.drainHighWaterMarks((action, mark) -> fail("Drained twice: " + action));
+  }
+
+  private static TrailingStopAction randomTrailingStop(Random random, long price) {
+    long purchase = price - price(5) + random.nextInt((int) price(10));
+    long mark = random.nextBoolean() ? Price.NONE : purchase + random.nextInt((int) price(5));
+    // Few distinct percents, as a real book has, so that stops share groups
+    float trail = (1 + random.nextInt(20)) / 100f;
+    return trailingStop(purchase, trail, mark);
+  }
+
+  private static TrailingStopAction trailingStop(long purchase, float trail, long mark) {
+    return new TrailingStopAction(
+        "u1", "trail", ContextRegistry.STOCK_PRICES, "AAPL", purchase, trail, mark);
+  }
+
+  private static TargetPriceAction randomAction(Random random) {
+    String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+    long target = price(90) + random.nextInt((int) price(20));
+    long tolerance = random.nextInt((int) price(10));
+    boolean less = random.nextBoolean();
+    return switch (random.nextInt(3)) {
+      case 0 ->
+          new BuyAutomaticAction(
+              "u1", "buy", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, less);
+      case 1 ->
+          new SellAutomaticAction(
+              "u1", "sell", ContextRegistry.STOCK_PRICES, symbol, target, tolerance, less);
+      default ->
+          new SetStopLossAction(
+              "u1", "stop", ContextRegistry.STOCK_PRICES, symbol, target, random.nextFloat() / 5);
+    };
+  }
+
+  private static long price(double value) {
+    return Price.of(value, ContextRegistry.STOCK_PRICES);
+  }
+
+  private static ActionContext contextWith(String symbol, long price) {
+    Map<String, Float> prices = new HashMap<>();
+    prices.put(symbol, (float) Price.toDouble(price, ContextRegistry.STOCK_PRICES));
+    ActionContext context = new ActionContext();
+    context.set(ContextRegistry.STOCK_PRICES.name(), prices);
+    return context;
+  }
+}
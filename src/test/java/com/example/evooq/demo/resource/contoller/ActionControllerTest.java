@@ -0,0 +1,187 @@
+package com.example.evooq.demo.resource.contoller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.evooq.demo.db.jpa.ActionRepository;
+import com.example.evooq.demo.db.model.ActionEntity;
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.SetStopLossAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.resource.model.ActionPageResource;
+import com.example.evooq.demo.resource.model.ActionResource;
+import com.example.evooq.demo.services.ActionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+class ActionControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private ActionService actionService;
+  @Autowired private ActionRepository actionRepository;
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16")
+          .withDatabaseName("testdb")
+          .withUsername("testuser")
+          .withPassword("testpass");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void overrideProps(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Test
+  void list_shouldPageAfterTheLastIdUntilAPageComesBackShort() throws Exception {
+    String userId = newUser();
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 4; i++) ids.add(actionService.create(sell(userId, "sell " + i)).getId());
+
+    ActionPageResource first = page(userId, "?limit=2");
+    ActionPageResource second = page(userId, "?limit=2&afterId=" + first.nextAfterId());
+    // The previous page was exactly full, so only an empty page tells it was the last
+    ActionPageResource third = page(userId, "?limit=2&afterId=" + second.nextAfterId());
+
+    assertEquals(ids.subList(0, 2), idsOf(first));
+    assertEquals(ids.get(1), first.nextAfterId());
+    assertEquals(ids.subList(2, 4), idsOf(second));
+    assertEquals(ids.get(3), second.nextAfterId());
+    assertEquals(List.of(), idsOf(third));
+    assertNull(third.nextAfterId());
+
+    // One row fewer than the limit ends the listing right away
+    ActionPageResource shortPage = page(userId, "?limit=4&afterId=" + ids.get(0));
+    assertEquals(ids.subList(1, 4), idsOf(shortPage));
+    assertNull(shortPage.nextAfterId());
+  }
+
+  @Test
+  void list_shouldFilterByActionTypeAndAssetSymbol() throws Exception {
+    String userId = newUser();
+    Action sell = actionService.create(sell(userId, "sell"));
+    Action stopLoss =
+        actionService.create(
+            new SetStopLossAction(
+                userId,
+                "stop",
+                ContextRegistry.STOCK_PRICES,
+                "AAPL",
+                Price.of(100.0, ContextRegistry.STOCK_PRICES),
+                0.1f));
+    withAssetSymbol(sell.getId(), "AAPL");
+    withAssetSymbol(stopLoss.getId(), "MSFT");
+
+    assertEquals(List.of(stopLoss.getId()), idsOf(page(userId, "?actionType=SET_STOP_LOSS")));
+    assertEquals(List.of(sell.getId()), idsOf(page(userId, "?assetSymbol=AAPL")));
+    assertEquals(List.of(), idsOf(page(userId, "?actionType=SELL_AUTOMATIC&assetSymbol=MSFT")));
+  }
+
+  @Test
+  void list_shouldClampTheLimit() throws Exception {
+    String userId = newUser();
+    for (int i = 0; i < 3; i++) actionService.create(sell(userId, "sell " + i));
+
+    ActionPageResource zero = page(userId, "?limit=0");
+    ActionPageResource negative = page(userId, "?limit=-5");
+    ActionPageResource huge = page(userId, "?limit=1000000");
+
+    assertEquals(1, zero.actions().size());
+    assertNotNull(zero.nextAfterId());
+    assertEquals(1, negative.actions().size());
+    assertEquals(3, huge.actions().size());
+    assertNull(huge.nextAfterId());
+  }
+
+  @Test
+  void export_shouldStreamEveryActionAsOneJsonLineEach() throws Exception {
+    String userId = newUser();
+    List<Long> ids = new ArrayList<>();
+    for (int i = 0; i < 5; i++) ids.add(actionService.create(sell(userId, "sell " + i)).getId());
+
+    MvcResult started =
+        mockMvc
+            .perform(get("/actions/" + userId + "/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    MvcResult result =
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+
+    assertTrue(
+        MediaType.APPLICATION_NDJSON.isCompatibleWith(
+            MediaType.parseMediaType(result.getResponse().getContentType())));
+    String[] lines = result.getResponse().getContentAsString().strip().split("\n");
+    List<Long> exported = new ArrayList<>();
+    for (String line : lines) {
+      ActionResource action = objectMapper.readValue(line, ActionResource.class);
+      assertEquals(userId, action.userId());
+      exported.add(action.id());
+    }
+    assertEquals(ids, exported);
+  }
+
+  private ActionPageResource page(String userId, String query) throws Exception {
+    String body =
+        mockMvc
+            .perform(get("/actions/" + userId + query))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(body, ActionPageResource.class);
+  }
+
+  // The domain model has no asset symbol, so it is set on the stored row
+  private void withAssetSymbol(Long id, String assetSymbol) {
+    ActionEntity entity = actionRepository.findById(id).orElseThrow();
+    entity.setAssetSymbol(assetSymbol);
+    actionRepository.save(entity);
+  }
+
+  private static List<Long> idsOf(ActionPageResource page) {
+    return page.actions().stream().map(ActionResource::id).toList();
+  }
+
+  private static String newUser() {
+    return "pager-" + UUID.randomUUID();
+  }
+
+  private static SellAutomaticAction sell(String userId, String description) {
+    ContextRegistry registry = ContextRegistry.STOCK_PRICES;
+    return new SellAutomaticAction(
+        userId,
+        description,
+        registry,
+        "AAPL",
+        Price.of(100.0, registry),
+        Price.of(1, registry),
+        true);
+  }
+}
@@ -0,0 +1,321 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.ActionChange;
+import com.example.evooq.demo.domain.action.ActionChangeFeed;
+import com.example.evooq.demo.domain.action.ActionChangeHandler;
+import com.example.evooq.demo.domain.action.ConditionAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.TrailingStopAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@ActiveProfiles("test")
+@SpringBootTest
+class ActionServiceTest {
+
+  @Autowired private ActionService actionService;
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16")
+          .withDatabaseName("testdb")
+          .withUsername("testuser")
+          .withPassword("testpass");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void overrideProps(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Test
+  void edit_shouldPatchAllowedFieldsAndBumpVersion() {
+    Action created = actionService.create(sell("original", 100.0));
+
+    Action patch = sell("patched", 120.1234);
+    patch.setVersion(created.getVersion());
+    SellAutomaticAction edited =
+        (SellAutomaticAction) actionService.edit(created.getUserId(), created.getId(), patch);
+
+    assertEquals("patched", edited.getDescription());
+    assertEquals(1_201_234, edited.getTargetPrice());
+    assertEquals(ContextRegistry.STOCK_PRICES, edited.getContextRegistry());
+    assertEquals(created.getVersion() + 1, edited.getVersion());
+  }
+
+  @Test
+  void edit_shouldReplaceTheConditionAndTheContextDerivedFromIt() {
+    Action created =
+        actionService.create(
+            new ConditionAction("1", "alert", "price(AAPL) < 180 AND spread(AAPL) < 0.05"));
+
+    Action patch = new ConditionAction("1", null, "forex(EURUSD) > 1.1");
+    patch.setVersion(created.getVersion());
+    ConditionAction edited =
+        (ConditionAction) actionService.edit(created.getUserId(), created.getId(), patch);
+
+    assertEquals("alert", edited.getDescription());
+    assertEquals("forex(EURUSD) > 1.1", edited.getCondition());
+    assertEquals("EURUSD", edited.getContextId());
+    assertEquals(ContextRegistry.FOREX_PRICES, edited.getContextRegistry());
+  }
+
+  @Test
+  void edit_withStaleVersion_shouldConflict() {
+    Action created = actionService.create(sell("original", 100.0));
+    Action first = sell("first", null);
+    first.setVersion(created.getVersion());
+    actionService.edit(created.getUserId(), created.getId(), first);
+
+    Action second = sell("second", null);
+    second.setVersion(created.getVersion());
+    assertThrows(
+        OptimisticLockingFailureException.class,
+        () -> actionService.edit(created.getUserId(), created.getId(), second));
+  }
+
+  @Test
+  void edit_withUnknownId_shouldReportNotFound() {
+    Action patch = sell("x", null);
+    patch.setVersion(0L);
+    assertThrows(ActionNotFoundException.class, () -> actionService.edit("user-1", -1L, patch));
+  }
+
+  @Test
+  void edit_withoutVersion_shouldBeRefused() {
+    Action created = actionService.create(sell("original", 100.0));
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> actionService.edit(created.getUserId(), created.getId(), sell("unversioned", null)));
+  }
+
+  @Test
+  void editAndDelete_shouldOnlyMatchTheOwnersAction() {
+    Action created = actionService.create(sell("owned", 100.0));
+    Action patch = sell("theirs", 1.0);
+    patch.setVersion(created.getVersion());
+
+    assertThrows(
+        ActionNotFoundException.class, () -> actionService.edit("user-2", created.getId(), patch));
+    actionService.delete("user-2", created.getId());
+
+    Action stored = actionService.list("user-1", created.getId() - 1, null, null, 1).get(0);
+    assertEquals(created.getId(), stored.getId());
+    assertEquals("owned", stored.getDescription());
+  }
+
+  @Test
+  void batchEditAndDelete_shouldLeaveOtherUsersActionsAlone() {
+    Action owned = actionService.create(sell("owned", 100.0));
+    Action other =
+        actionService.create(
+            new SellAutomaticAction(
+                "user-2",
+                "other",
+                ContextRegistry.STOCK_PRICES,
+                "AAPL",
+                Price.of(100.0, ContextRegistry.STOCK_PRICES),
+                0,
+                true));
+
+    Map<Long, Action> edited =
+        actionService
+            .editAll(
+                "user-1",
+                Map.of(
+                    owned.getId(),
+                    sell("mine", 101.0, owned.getVersion()),
+                    other.getId(),
+                    sell("theirs", 1.0, other.getVersion())))
+            .edited();
+    Set<Long> deleted = actionService.deleteAll("user-1", List.of(owned.getId(), other.getId()));
+
+    assertEquals(Set.of(owned.getId()), edited.keySet());
+    assertEquals(Set.of(owned.getId()), deleted);
+    assertEquals(
+        List.of(other.getId()),
+        actionService.list("user-2", 0, null, null, 10).stream()
+            .map(Action::getId)
+            .filter(other.getId()::equals)
+            .toList());
+  }
+
+  @Test
+  void saveHighWaterMarks_shouldOnlyRaiseTheMarkAndKeepTheVersion() {
+    TrailingStopAction created =
+        (TrailingStopAction)
+            actionService.create(
+                new TrailingStopAction(
+                    "1",
+                    "trail",
+                    ContextRegistry.STOCK_PRICES,
+                    "AAPL",
+                    Price.of(100.0, ContextRegistry.STOCK_PRICES),
+                    0.1f,
+                    Price.NONE));
+    created.ratchet(Price.of(120.5, ContextRegistry.STOCK_PRICES));
+    TrailingStopAction stale =
+        new TrailingStopAction(
+            "1",
+            "trail",
+            ContextRegistry.STOCK_PRICES,
+            "AAPL",
+            Price.of(100.0, ContextRegistry.STOCK_PRICES),
+            0.1f,
+            Price.of(110.0, ContextRegistry.STOCK_PRICES));
+    stale.setId(created.getId());
+    assertEquals(1, actionService.saveHighWaterMarks(List.of(created)));
+    actionService.saveHighWaterMarks(List.of(stale));
+
+    // A partial edit leaves the percent and the mark as they are
+    Action patch = new TrailingStopAction("1", "renamed", null, null, Price.NONE, null, Price.NONE);
+    patch.setVersion(created.getVersion());
+    TrailingStopAction edited =
+        (TrailingStopAction) actionService.edit(created.getUserId(), created.getId(), patch);
+
+    assertEquals("renamed", edited.getDescription());
+    assertEquals(0.1f, edited.getTrailPercent());
+    assertEquals(Price.of(120.5, ContextRegistry.STOCK_PRICES), edited.getHighWaterMark());
+    assertEquals(Price.of(108.45, ContextRegistry.STOCK_PRICES), edited.getTargetPrice());
+    assertEquals(created.getVersion() + 1, edited.getVersion());
+  }
+
+  @Test
+  void changes_shouldCarryCommittedStateInCommitOrder() {
+    ActionChangeFeed.Subscription subscription = actionService.subscribeToChanges();
+    List<ActionChange> changes = new ArrayList<>();
+    ActionChangeHandler handler = recording(changes);
+    subscription.poll(handler, 100);
+
+    Action created = actionService.create(sell("original", 100.0));
+    Action patch = sell("patched", 120.1234);
+    patch.setVersion(created.getVersion());
+    actionService.edit(created.getUserId(), created.getId(), patch);
+    Action stale = sell("stale", null);
+    stale.setVersion(created.getVersion());
+    assertThrows(
+        OptimisticLockingFailureException.class,
+        () -> actionService.edit(created.getUserId(), created.getId(), stale));
+    actionService.delete(created.getUserId(), created.getId());
+    actionService.delete(created.getUserId(), created.getId());
+
+    assertEquals(3, subscription.poll(handler, 100));
+    assertEquals(
+        List.of(ActionChange.Type.INSERT, ActionChange.Type.PATCH, ActionChange.Type.DELETE),
+        changes.stream().map(ActionChange::type).toList());
+    assertTrue(changes.stream().allMatch(change -> change.actionId() == created.getId()));
+    assertEquals("original", changes.get(0).action().getDescription());
+    assertEquals("patched", changes.get(1).action().getDescription());
+    assertEquals(created.getVersion() + 1, changes.get(1).action().getVersion());
+    assertNull(changes.get(2).action());
+  }
+
+  @Test
+  void editAll_shouldPublishAndReturnTheNewVersion() {
+    Action created = actionService.create(sell("original", 100.0));
+    ActionChangeFeed.Subscription subscription = actionService.subscribeToChanges();
+    List<ActionChange> changes = new ArrayList<>();
+    ActionChangeHandler handler = recording(changes);
+    subscription.poll(handler, 100);
+
+    Action edited =
+        actionService
+            .editAll("user-1", Map.of(created.getId(), sell("batch", 101.0, created.getVersion())))
+            .edited()
+            .get(created.getId());
+
+    assertEquals(created.getVersion() + 1, edited.getVersion());
+    assertEquals(1, subscription.poll(handler, 100));
+    assertEquals(ActionChange.Type.PATCH, changes.get(0).type());
+    assertEquals("batch", changes.get(0).action().getDescription());
+    assertEquals(created.getVersion() + 1, changes.get(0).action().getVersion());
+  }
+
+  @Test
+  void publishRemoteChanges_shouldPublishCommittedStateAndDeletes() {
+    Action created = actionService.create(sell("remote", 100.0));
+    ActionChangeFeed.Subscription subscription = actionService.subscribeToChanges();
+    List<ActionChange> changes = new ArrayList<>();
+    ActionChangeHandler handler = recording(changes);
+    subscription.poll(handler, 100);
+
+    actionService.publishRemoteChanges(List.of(created.getId(), -1L));
+
+    assertEquals(2, subscription.poll(handler, 100));
+    assertEquals(ActionChange.Type.PATCH, changes.get(0).type());
+    assertEquals("remote", changes.get(0).action().getDescription());
+    assertEquals(created.getVersion(), changes.get(0).action().getVersion());
+    assertEquals(ActionChange.delete(-1L), changes.get(1));
+  }
+
+  @Test
+  void editAll_shouldOnlyApplyUpdatesBasedOnTheStoredVersion() {
+    Action current = actionService.create(sell("current", 100.0));
+    Action outdated = actionService.create(sell("outdated", 100.0));
+
+    ActionService.BatchEdit batch =
+        actionService.editAll(
+            "user-1",
+            Map.of(
+                current.getId(),
+                sell("edited", 101.0, current.getVersion()),
+                outdated.getId(),
+                sell("lost", 101.0, outdated.getVersion() - 1)));
+
+    assertEquals(Set.of(current.getId()), batch.edited().keySet());
+    assertEquals(Set.of(outdated.getId()), batch.stale());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> actionService.editAll("user-1", Map.of(current.getId(), sell("unversioned", 1.0))));
+    assertEquals(
+        List.of("edited", "outdated"),
+        actionService.list("user-1", current.getId() - 1, null, null, 2).stream()
+            .map(Action::getDescription)
+            .toList());
+  }
+
+  private static ActionChangeHandler recording(List<ActionChange> changes) {
+    return new ActionChangeHandler() {
+      @Override
+      public void onChange(ActionChange change) {
+        changes.add(change);
+      }
+
+      @Override
+      public void resync() {}
+    };
+  }
+
+  private static SellAutomaticAction sell(String description, Double targetPrice, Long version) {
+    SellAutomaticAction action = sell(description, targetPrice);
+    action.setVersion(version);
+    return action;
+  }
+
+  private static SellAutomaticAction sell(String description, Double targetPrice) {
+    ContextRegistry registry = ContextRegistry.STOCK_PRICES;
+    long target = targetPrice == null ? Price.NONE : Price.of(targetPrice, registry);
+    return new SellAutomaticAction(
+        "user-1", description, registry, "AAPL", target, Price.of(1, registry), true);
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.action.BuyAutomaticAction;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.action.SetStopLossAction;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.Test;
+
+class EvaluationMetersTest {
+
+  private final PrometheusMeterRegistry registry =
+      new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+  private final EvaluationMeters meters = new EvaluationMeters(registry);
+
+  private final TargetPriceAction buy =
+      new BuyAutomaticAction(
+          "1", "buy", ContextRegistry.STOCK_PRICES, "AAPL", price(100), price(1), true);
+  private final TargetPriceAction sell =
+      new SellAutomaticAction(
+          "1", "sell", ContextRegistry.STOCK_PRICES, "AAPL", price(100), price(1), true);
+  private final TargetPriceAction stopLoss =
+      new SetStopLossAction("1", "stop", ContextRegistry.STOCK_PRICES, "AAPL", price(100), 0.1f);
+
+  @Test
+  void triggered_shouldCountPerActionType() {
+    meters.registered(buy);
+    meters.registered(sell);
+    meters.triggered(sell);
+    meters.triggered(stopLoss);
+    meters.triggered(stopLoss);
+    meters.evaluated(42);
+    meters.tickTriggered(System.nanoTime());
+
+    assertEquals(1, count("evaluation.registrations", "BUY_AUTOMATIC"));
+    assertEquals(0, count("evaluation.registrations", "SET_STOP_LOSS"));
+    assertEquals(1, count("evaluation.triggers", "SELL_AUTOMATIC"));
+    assertEquals(2, count("evaluation.triggers", "SET_STOP_LOSS"));
+    assertEquals(42, registry.get("evaluation.ticks").counter().count());
+    assertEquals(1, registry.get("evaluation.tick.to.trigger").timer().count());
+
+    String scrape = registry.scrape();
+    assertTrue(scrape.contains("evaluation_triggers_total{type=\"SET_STOP_LOSS\"} 2.0"));
+    assertTrue(scrape.contains("evaluation_tick_to_trigger_seconds_bucket{le=\"+Inf\"} 1"));
+  }
+
+  @Test
+  void recording_shouldNotAllocate() {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().threadId();
+    record(100_000);
+
+    long before = threads.getThreadAllocatedBytes(thread);
+    record(100_000);
+    long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+    // A single allocation per call would be at least 1.6MB here
+    assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes");
+  }
+
+  private void record(int times) {
+    for (int i = 0; i < times; i++) {
+      meters.evaluated(1);
+      meters.triggered(i % 2 == 0 ? buy : stopLoss);
+      meters.tickTriggered(System.nanoTime() - 1_000);
+    }
+  }
+
+  private double count(String name, String type) {
+    return registry.get(name).tag("type", type).counter().count();
+  }
+
+  private static long price(double value) {
+    return Price.of(value, ContextRegistry.STOCK_PRICES);
+  }
+}
@@ -0,0 +1,60 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.marketdata.TickRingBuffer;
+import com.example.evooq.demo.domain.orderbook.OrderBook;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MarketDataServiceTest {
+
+  @TempDir Path dir;
+  private MarketDataService service;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    service.stop();
+  }
+
+  @Test
+  void onLevel_shouldPublishASpreadWheneverTheTopOfTheBookMoves() throws Exception {
+    Path feed = dir.resolve("ticks.csv");
+    Files.write(
+        feed,
+        List.of(
+            "1,STOCK_PRICES,AAPL,189.5",
+            "2,BID,AAPL,189.49,300",
+            "3,ASK,AAPL,189.52,100",
+            "4,BID,AAPL,189.40,50",
+            "5,ASK,AAPL,189.51,200"));
+    service = new MarketDataService("file", 1024, 1000, feed.toString(), "", 0, 0, true, 8);
+    TickRingBuffer.Subscription subscription = service.subscribe();
+    service.start();
+
+    List<Double> spreads = new ArrayList<>();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (spreads.size() < 2 && System.nanoTime() < deadline) {
+      subscription.poll(
+          (registry, symbolId, value, timestamp) -> {
+            if (registry == ContextRegistry.SPREADS && !Double.isNaN(value)) spreads.add(value);
+          },
+          64);
+    }
+
+    // The lower bid leaves the top alone; the tighter ask moves it
+    assertEquals(2, spreads.size());
+    assertEquals(0.03, spreads.get(0), 1e-9);
+    assertEquals(0.02, spreads.get(1), 1e-9);
+    OrderBook book = service.orderBooks().book(service.symbols().idOf("AAPL"));
+    assertEquals(Price.of(0.02, ContextRegistry.ORDER_BOOKS), book.spread());
+  }
+}
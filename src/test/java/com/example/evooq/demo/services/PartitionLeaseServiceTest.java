@@ -0,0 +1,152 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.db.jpa.ClusterMemberRepository;
+import com.example.evooq.demo.db.jpa.PartitionLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+// Several instances' lease services against one database, renewing in explicit rounds
+@ActiveProfiles("test")
+@SpringBootTest
+class PartitionLeaseServiceTest {
+  private static final long TTL_MILLIS = 1_000;
+
+  @Autowired private PartitionLeaseRepository leases;
+  @Autowired private ClusterMemberRepository members;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private final List<PartitionLeaseService> nodes = new ArrayList<>();
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16")
+          .withDatabaseName("testdb")
+          .withUsername("testuser")
+          .withPassword("testpass");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void overrideProps(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    for (PartitionLeaseService node : nodes) {
+      node.stop();
+    }
+  }
+
+  @Test
+  void renew_shouldSplitPartitionsEvenlyAndDisjointly() {
+    PartitionLeaseService a = node("a");
+    a.renew();
+    assertEquals(64, a.ownedPartitions().size());
+
+    PartitionLeaseService b = node("b");
+    PartitionLeaseService c = node("c");
+    renewRounds(3, a, b, c);
+
+    assertEquals(List.of(22, 22, 20), sizes(a, b, c));
+    assertCoverEveryPartitionOnce(a, b, c);
+    for (String contextId : List.of("AAPL", "MSFT", "EURUSD", "BTC")) {
+      assertEquals(1, IntStream.of(0, 1, 2).filter(i -> node(i).owns(contextId)).count());
+    }
+  }
+
+  @Test
+  void renew_shouldHandOverPartitionsOfStoppedAndFailedInstances() throws InterruptedException {
+    PartitionLeaseService a = node("a");
+    PartitionLeaseService b = node("b");
+    PartitionLeaseService c = node("c");
+    renewRounds(3, a, b, c);
+
+    c.stop();
+    renewRounds(1, a, b);
+    assertEquals(List.of(32, 32), sizes(a, b));
+    assertCoverEveryPartitionOnce(a, b);
+
+    // b stops renewing, as if it had crashed
+    String bContextId = contextIdIn(b.ownedPartitions().getFirst(), b);
+    assertTrue(b.owns(bContextId));
+    Thread.sleep(TTL_MILLIS + 100);
+    assertFalse(b.owns(bContextId));
+    renewRounds(1, a);
+    assertEquals(64, a.ownedPartitions().size());
+    assertTrue(a.owns(bContextId));
+  }
+
+  @Test
+  void renew_shouldChangeTheGenerationOnceLapsedLeasesAreRenewed() throws InterruptedException {
+    PartitionLeaseService a = node("a");
+    assertThrows(IllegalStateException.class, () -> a.partitionOf("AAPL"));
+    a.renew();
+    int generation = a.generation();
+    a.renew();
+    assertEquals(generation, a.generation());
+
+    // Renewals failed for longer than the TTL: triggers were dropped, so evaluation must resync
+    Thread.sleep(TTL_MILLIS + 100);
+    a.renew();
+    assertEquals(64, a.ownedPartitions().size());
+    assertNotEquals(generation, a.generation());
+  }
+
+  private PartitionLeaseService node(String nodeId) {
+    PartitionLeaseService node =
+        new PartitionLeaseService(
+            leases, members, meterRegistry, true, nodeId, TTL_MILLIS, TTL_MILLIS / 4);
+    nodes.add(node);
+    return node;
+  }
+
+  private PartitionLeaseService node(int index) {
+    return nodes.get(index);
+  }
+
+  private static void renewRounds(int rounds, PartitionLeaseService... nodes) {
+    for (int i = 0; i < rounds; i++) {
+      for (PartitionLeaseService node : nodes) {
+        node.renew();
+      }
+    }
+  }
+
+  private static List<Integer> sizes(PartitionLeaseService... nodes) {
+    return java.util.Arrays.stream(nodes).map(node -> node.ownedPartitions().size()).toList();
+  }
+
+  private static void assertCoverEveryPartitionOnce(PartitionLeaseService... nodes) {
+    Set<Integer> covered = new HashSet<>();
+    for (PartitionLeaseService node : nodes) {
+      for (int partition : node.ownedPartitions()) {
+        assertTrue(covered.add(partition), "partition " + partition + " owned twice");
+      }
+    }
+    assertEquals(64, covered.size());
+  }
+
+  private static String contextIdIn(int partition, PartitionLeaseService node) {
+    for (int i = 0; ; i++) {
+      if (node.partitionOf("SYM" + i) == partition) return "SYM" + i;
+    }
+  }
+}
@@ -0,0 +1,207 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.db.jpa.ActionRepository;
+import com.example.evooq.demo.db.jpa.TriggerOutboxRepository;
+import com.example.evooq.demo.db.jpa.UserRepository;
+import com.example.evooq.demo.db.mapper.ActionEntityMapper;
+import com.example.evooq.demo.db.model.ActionEntity;
+import com.example.evooq.demo.db.model.ActionType;
+import com.example.evooq.demo.db.model.ExecutionStatus;
+import com.example.evooq.demo.db.model.TriggerOutboxEntity;
+import com.example.evooq.demo.db.model.UserEntity;
+import com.example.evooq.demo.domain.action.TargetPriceAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import com.example.evooq.demo.domain.context.Price;
+import com.example.evooq.demo.domain.trigger.ActionExecutedEvent;
+import com.example.evooq.demo.domain.trigger.ActionTriggeredEvent;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@RecordApplicationEvents
+class TriggerExecutorTest {
+
+  @Autowired private TriggerExecutor triggerExecutor;
+  @Autowired private TriggerOutboxRelay triggerOutboxRelay;
+  @Autowired private TriggerOutboxRepository outboxRepository;
+  @Autowired private ActionRepository actionRepository;
+  @Autowired private ActionEntityMapper actionEntityMapper;
+  @Autowired private UserRepository userRepository;
+  @Autowired private UserService userService;
+  @Autowired private ActionService actionService;
+  @Autowired private ApplicationEvents applicationEvents;
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16")
+          .withDatabaseName("testdb")
+          .withUsername("testuser")
+          .withPassword("testpass");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void overrideProps(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+    // Relayed explicitly by the tests
+    registry.add("execution.relay.enabled", () -> "false");
+  }
+
+  @Test
+  void write_shouldApplyEachTriggerOnce() {
+    UserEntity user = user(100);
+    TargetPriceAction sell = action(user, ActionType.SELL_AUTOMATIC, 2.0);
+    ActionTriggeredEvent fired = new ActionTriggeredEvent(sell, price(10));
+
+    triggerExecutor.write(List.of(fired, fired));
+    triggerExecutor.write(List.of(fired));
+
+    assertEquals(120.0, balanceOf(user));
+    TriggerOutboxEntity row = outboxRow(sell);
+    assertEquals(ExecutionStatus.EXECUTED, row.getStatus());
+    assertEquals(0, new BigDecimal(20).compareTo(row.getBalanceDelta()));
+  }
+
+  @Test
+  void write_shouldRejectDebitsThatWouldOverdraw() {
+    UserEntity user = user(50);
+    TargetPriceAction first = action(user, ActionType.BUY_AUTOMATIC, 4.0);
+    TargetPriceAction second = action(user, ActionType.BUY_AUTOMATIC, 4.0);
+    TargetPriceAction credit = action(user, ActionType.SELL_AUTOMATIC, 1.0);
+
+    // Credits count first, so the first buy fits: 50 + 10 - 40 = 20, the second would overdraw
+    triggerExecutor.write(
+        List.of(
+            new ActionTriggeredEvent(first, price(10)),
+            new ActionTriggeredEvent(second, price(10)),
+            new ActionTriggeredEvent(credit, price(10))));
+
+    assertEquals(20.0, balanceOf(user));
+    assertEquals(ExecutionStatus.EXECUTED, outboxRow(first).getStatus());
+    assertEquals(ExecutionStatus.REJECTED, outboxRow(second).getStatus());
+    assertEquals(ExecutionStatus.EXECUTED, outboxRow(credit).getStatus());
+  }
+
+  @Test
+  void write_shouldSkipActionsEditedSinceTheyFired() {
+    UserEntity user = user(100);
+    TargetPriceAction sell = action(user, ActionType.SELL_AUTOMATIC, 1.0);
+    sell.setVersion(sell.getVersion() - 1);
+
+    triggerExecutor.write(List.of(new ActionTriggeredEvent(sell, price(10))));
+
+    assertEquals(100.0, balanceOf(user));
+    assertEquals(List.of(), outboxRepository.findExistingKeys(List.of(key(sell))));
+  }
+
+  @Test
+  void onTriggered_shouldDeadLetterATriggerThatKeepsFailingAndWriteTheRest() throws Exception {
+    UserEntity user = user(0);
+    // Its delta overflows the balance column, so any batch holding it fails
+    TargetPriceAction poison = action(user, ActionType.SELL_AUTOMATIC, 1e15);
+    TargetPriceAction sell = action(user, ActionType.SELL_AUTOMATIC, 1.0);
+
+    triggerExecutor.onTriggered(new ActionTriggeredEvent(poison, price(10)));
+    triggerExecutor.onTriggered(new ActionTriggeredEvent(sell, price(10)));
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (outboxRepository.findExistingKeys(List.of(key(poison), key(sell))).size() < 2) {
+      assertTrue(System.nanoTime() < deadline, "timed out");
+      Thread.sleep(50);
+    }
+    assertEquals(ExecutionStatus.FAILED, outboxRow(poison).getStatus());
+    assertEquals(0, BigDecimal.ZERO.compareTo(outboxRow(poison).getBalanceDelta()));
+    assertEquals(ExecutionStatus.EXECUTED, outboxRow(sell).getStatus());
+    assertEquals(10.0, balanceOf(user));
+  }
+
+  @Test
+  void write_shouldDisarmTheFiredActionUntilItIsEdited() {
+    UserEntity user = user(0);
+    TargetPriceAction sell = action(user, ActionType.SELL_AUTOMATIC, 1.0);
+
+    triggerExecutor.write(List.of(new ActionTriggeredEvent(sell, price(10))));
+
+    assertNotNull(actionRepository.findById(sell.getId()).orElseThrow().getTriggeredAt());
+    assertFalse(exportedIds().contains(sell.getId()));
+    actionService.edit(sell.getUserId(), sell.getId(), sell);
+    assertTrue(exportedIds().contains(sell.getId()));
+  }
+
+  @Test
+  void relayBatch_shouldPublishAndMarkRelayed() {
+    UserEntity user = user(0);
+    TargetPriceAction sell = action(user, ActionType.SELL_AUTOMATIC, 3.0);
+    triggerExecutor.write(List.of(new ActionTriggeredEvent(sell, price(5))));
+
+    while (triggerOutboxRelay.relayBatch() > 0) {}
+
+    List<ActionExecutedEvent> published =
+        applicationEvents.stream(ActionExecutedEvent.class)
+            .filter(event -> event.idempotencyKey().equals(key(sell)))
+            .toList();
+    assertEquals(1, published.size());
+    assertTrue(published.get(0).executed());
+    assertEquals(0, new BigDecimal(15).compareTo(published.get(0).balanceDelta()));
+    assertNotNull(outboxRow(sell).getRelayedAt());
+  }
+
+  private List<Long> exportedIds() {
+    List<Long> ids = new ArrayList<>();
+    actionService.exportAll(action -> ids.add(action.getId()));
+    return ids;
+  }
+
+  private static long price(double value) {
+    return Price.of(value, ContextRegistry.STOCK_PRICES);
+  }
+
+  private UserEntity user(double balance) {
+    UserEntity user = userService.login("Trader", UUID.randomUUID() + "@example.com");
+    user.setBalance(BigDecimal.valueOf(balance));
+    return userRepository.save(user);
+  }
+
+  private TargetPriceAction action(UserEntity user, ActionType type, double amount) {
+    ActionEntity entity =
+        new ActionEntity(String.valueOf(user.getId()), "fire", "AAPL", "STOCK_PRICES", type);
+    entity.setTargetValue(BigDecimal.TEN);
+    entity.setDivergenceTolerance(BigDecimal.ZERO);
+    entity.setPriceIsLessThanTarget(type == ActionType.BUY_AUTOMATIC);
+    entity.setAmount(amount);
+    return (TargetPriceAction) actionEntityMapper.toDomain(actionRepository.save(entity));
+  }
+
+  private double balanceOf(UserEntity user) {
+    return userRepository.findById(user.getId()).orElseThrow().getBalance().doubleValue();
+  }
+
+  private TriggerOutboxEntity outboxRow(TargetPriceAction action) {
+    return outboxRepository.findAll().stream()
+        .filter(row -> row.getIdempotencyKey().equals(key(action)))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static String key(TargetPriceAction action) {
+    return action.getId() + ":" + action.getVersion();
+  }
+}
@@ -0,0 +1,116 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class UserEventBusTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private UserEventBus bus;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    bus.shutdown();
+  }
+
+  @Test
+  void publish_shouldDropOldestEventsOfASlowSubscriberAndReportThem() throws Exception {
+    bus = new UserEventBus(registry, 2, UserEventBus.OverflowPolicy.DROP_OLDEST, 60_000);
+    RecordingSink slow = new RecordingSink();
+    RecordingSink other = new RecordingSink();
+    bus.subscribe("1", slow);
+    bus.subscribe("2", other);
+
+    bus.publish("1", "e1");
+    slow.sending.await(5, TimeUnit.SECONDS);
+    for (int i = 2; i <= 6; i++) {
+      bus.publish("1", "e" + i);
+    }
+    slow.release.countDown();
+
+    await(() -> slow.received.size() == 4);
+    assertEquals(List.of("e1", new UserEventBus.Dropped(3), "e5", "e6"), slow.received);
+    assertEquals(3, registry.get("events.dropped").counter().count());
+    assertTrue(other.received.isEmpty());
+    assertFalse(slow.closed);
+  }
+
+  @Test
+  void publish_shouldDisconnectASlowSubscriberWhenConfigured() throws Exception {
+    bus = new UserEventBus(registry, 2, UserEventBus.OverflowPolicy.DISCONNECT, 60_000);
+    RecordingSink slow = new RecordingSink();
+    bus.subscribe("1", slow);
+
+    bus.publish("1", "e1");
+    slow.sending.await(5, TimeUnit.SECONDS);
+    for (int i = 2; i <= 4; i++) {
+      bus.publish("1", "e" + i);
+    }
+    slow.release.countDown();
+
+    await(() -> slow.closed);
+    assertEquals(List.of("e1"), slow.received);
+    assertEquals(0, bus.subscribers());
+    assertEquals(1, registry.get("events.disconnected").counter().count());
+  }
+
+  @Test
+  void cancel_shouldStopDeliveryWithoutClosingTheSink() throws Exception {
+    bus = new UserEventBus(registry, 2, UserEventBus.OverflowPolicy.DROP_OLDEST, 60_000);
+    RecordingSink sink = new RecordingSink();
+    sink.release.countDown();
+    UserEventBus.Subscription subscription = bus.subscribe("1", sink);
+
+    subscription.cancel();
+    bus.publish("1", "e1");
+
+    assertEquals(0, bus.subscribers());
+    Thread.sleep(50);
+    assertTrue(sink.received.isEmpty());
+    assertFalse(sink.closed);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out");
+      Thread.sleep(5);
+    }
+  }
+
+  // Blocks in its first send until released, like a client that stopped reading
+  private static final class RecordingSink implements UserEventBus.Sink {
+    final List<Object> received = new CopyOnWriteArrayList<>();
+    final CountDownLatch sending = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    volatile boolean closed;
+
+    @Override
+    public void send(Object event) throws IOException {
+      sending.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      received.add(event);
+    }
+
+    @Override
+    public void heartbeat() {}
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
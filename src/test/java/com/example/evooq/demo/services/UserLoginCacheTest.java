@@ -0,0 +1,78 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.db.model.UserEntity;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class UserLoginCacheTest {
+
+  private final UserLoginCache cache = new UserLoginCache(100, 300);
+
+  @Test
+  void put_shouldNotCacheARowReadBeforeAnInvalidation() {
+    long stamp = cache.stamp();
+    UserEntity stale = user(BigDecimal.ZERO);
+    cache.invalidate(stale.getId());
+
+    cache.put(stale, stamp);
+
+    assertNull(cache.get(stale.getEmail()));
+  }
+
+  @Test
+  void put_shouldCacheARowReadAfterTheLastInvalidation() {
+    cache.invalidate(1L);
+    long stamp = cache.stamp();
+
+    cache.put(user(BigDecimal.TEN), stamp);
+
+    assertEquals(BigDecimal.TEN, cache.get("user@example.com").getBalance());
+  }
+
+  @Test
+  void get_shouldNotShareInstancesWithCallers() {
+    UserEntity user = user(BigDecimal.TEN);
+    cache.put(user, cache.stamp());
+
+    user.setBalance(BigDecimal.ONE);
+    cache.get("user@example.com").setBalance(BigDecimal.ONE);
+
+    assertEquals(BigDecimal.TEN, cache.get("user@example.com").getBalance());
+  }
+
+  @Test
+  void invalidate_shouldDropEveryCachedUserOnceTheCacheIsFull() {
+    UserLoginCache full = new UserLoginCache(10, 300);
+    for (long id = 1; id <= 40; id++) {
+      full.put(user(id, BigDecimal.TEN), full.stamp());
+      // Frequent logins of a few users, which size eviction favours
+      for (long hot = 1; hot <= 3; hot++) full.get("user" + hot + "@example.com");
+    }
+
+    int cached = 0;
+    for (long id = 1; id <= 40; id++) {
+      if (full.get("user" + id + "@example.com") == null) continue;
+      cached++;
+      full.invalidate(id);
+      assertNull(full.get("user" + id + "@example.com"));
+    }
+    assertTrue(cached > 0);
+  }
+
+  private static UserEntity user(BigDecimal balance) {
+    UserEntity user = user(1, balance);
+    user.setEmail("user@example.com");
+    return user;
+  }
+
+  private static UserEntity user(long id, BigDecimal balance) {
+    UserEntity user = new UserEntity();
+    user.setId(id);
+    user.setName("User " + id);
+    user.setEmail("user" + id + "@example.com");
+    user.setBalance(balance);
+    return user;
+  }
+}
@@ -6,6 +6,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.example.evooq.demo.db.jpa.UserRepository;
 import com.example.evooq.demo.db.model.UserEntity;
 import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.*;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,8 +48,8 @@ class UserServiceConcurrencyTest {
   void setUp() {
     user = new UserEntity();
     user.setName("Test");
-    user.setEmail("test@example.com");
-    user.setBalance(0.0);
+    user.setEmail("test-" + UUID.randomUUID() + "@example.com");
+    user.setBalance(BigDecimal.ZERO);
     user = userRepository.save(user);
   }
 
@@ -73,6 +75,116 @@ class UserServiceConcurrencyTest {
     executor.shutdown();
 
     UserEntity updated = userRepository.findById(user.getId()).orElseThrow();
-    assertEquals(threads * delta.doubleValue(), updated.getBalance());
+    assertEquals(0, delta.multiply(BigDecimal.valueOf(threads)).compareTo(updated.getBalance()));
+  }
+
+  @Test
+  void groupCommitBalanceUpdates_shouldApplyEveryDelta() {
+    int updates = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(50);
+    BigDecimal delta = BigDecimal.valueOf(10);
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[updates];
+    for (int i = 0; i < updates; i++) {
+      futures[i] =
+          CompletableFuture.supplyAsync(
+                  () -> userService.updateBalanceAsync(user.getId(), delta), executor)
+              .thenCompose(committed -> committed);
+    }
+    CompletableFuture.allOf(futures).orTimeout(10, TimeUnit.SECONDS).join();
+    executor.shutdown();
+
+    UserEntity updated = userRepository.findById(user.getId()).orElseThrow();
+    assertEquals(0, delta.multiply(BigDecimal.valueOf(updates)).compareTo(updated.getBalance()));
+  }
+
+  @Test
+  void groupCommitBalanceUpdates_shouldRejectOnlyOverdrawingDeltas() {
+    CompletableFuture<Void> credit =
+        userService.updateBalanceAsync(user.getId(), BigDecimal.valueOf(30));
+    CompletableFuture<Void> firstDebit =
+        userService.updateBalanceAsync(user.getId(), BigDecimal.valueOf(-20));
+    CompletableFuture<Void> secondDebit =
+        userService.updateBalanceAsync(user.getId(), BigDecimal.valueOf(-20));
+
+    credit.orTimeout(10, TimeUnit.SECONDS).join();
+    firstDebit.orTimeout(10, TimeUnit.SECONDS).join();
+    CompletionException rejected =
+        assertThrows(
+            CompletionException.class, () -> secondDebit.orTimeout(10, TimeUnit.SECONDS).join());
+    assertInstanceOf(IllegalArgumentException.class, rejected.getCause());
+
+    UserEntity updated = userRepository.findById(user.getId()).orElseThrow();
+    assertEquals(0, BigDecimal.TEN.compareTo(updated.getBalance()));
+  }
+
+  @Test
+  void groupCommitBalanceUpdates_shouldCheckDebitsInArrivalOrder() {
+    CompletableFuture<Void> earlyDebit =
+        userService.updateBalanceAsync(user.getId(), BigDecimal.valueOf(-20));
+    CompletableFuture<Void> credit =
+        userService.updateBalanceAsync(user.getId(), BigDecimal.valueOf(30));
+    CompletableFuture<Void> lateDebit =
+        userService.updateBalanceAsync(user.getId(), BigDecimal.valueOf(-20));
+
+    // The first debit came before the credit that would have covered it
+    assertThrows(
+        CompletionException.class, () -> earlyDebit.orTimeout(10, TimeUnit.SECONDS).join());
+    credit.orTimeout(10, TimeUnit.SECONDS).join();
+    lateDebit.orTimeout(10, TimeUnit.SECONDS).join();
+
+    UserEntity updated = userRepository.findById(user.getId()).orElseThrow();
+    assertEquals(0, BigDecimal.TEN.compareTo(updated.getBalance()));
+  }
+
+  @Test
+  void concurrentFirstLogins_shouldResolveToOneUser() throws Exception {
+    int threads = 20;
+    String email = "first-" + UUID.randomUUID() + "@example.com";
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    for (int i = 0; i < threads; i++) {
+      executor.submit(
+          () -> {
+            start.await();
+            ids.add(userService.login("First", email).getId());
+            return null;
+          });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1, ids.size());
+    assertEquals(ids.iterator().next(), userRepository.findByEmail(email).orElseThrow().getId());
+  }
+
+  @Test
+  void updateBalance_shouldRejectDeltasFinerThanTheBalanceScale() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> userService.updateBalance(user.getId(), new BigDecimal("0.00001")));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> userService.updateBalanceAsync(user.getId(), new BigDecimal("-1.23456")));
+    userService.updateBalance(user.getId(), new BigDecimal("1.2345000"));
+
+    assertEquals(
+        0,
+        new BigDecimal("1.2345")
+            .compareTo(userRepository.findById(user.getId()).orElseThrow().getBalance()));
+  }
+
+  @Test
+  void login_shouldNotServeStaleBalanceAfterUpdate() {
+    assertEquals(
+        0, BigDecimal.ZERO.compareTo(userService.login("Test", user.getEmail()).getBalance()));
+
+    userService.updateBalance(user.getId(), BigDecimal.valueOf(25));
+
+    assertEquals(
+        0, new BigDecimal(25).compareTo(userService.login("Test", user.getEmail()).getBalance()));
   }
 }
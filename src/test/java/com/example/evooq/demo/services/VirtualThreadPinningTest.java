@@ -0,0 +1,121 @@
+package com.example.evooq.demo.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.evooq.demo.db.model.UserEntity;
+import com.example.evooq.demo.domain.action.Action;
+import com.example.evooq.demo.domain.action.SellAutomaticAction;
+import com.example.evooq.demo.domain.context.ContextRegistry;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+@ActiveProfiles({"test", "virtual"})
+@SpringBootTest
+class VirtualThreadPinningTest {
+
+  @Autowired private UserService userService;
+  @Autowired private ActionService actionService;
+
+  static PostgreSQLContainer<?> postgres =
+      new PostgreSQLContainer<>("postgres:16")
+          .withDatabaseName("testdb")
+          .withUsername("testuser")
+          .withPassword("testpass");
+
+  static {
+    postgres.start();
+  }
+
+  @DynamicPropertySource
+  static void overrideProps(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+    // Pool waits are expected with 200 concurrent callers; only pinning should fail the test
+    registry.add("spring.datasource.hikari.connection-timeout", () -> "30000");
+  }
+
+  @Test
+  void services_shouldNotPinCarrierThreadsWhileWaitingOnDatabase() throws Exception {
+    UserEntity hot = userService.login("Hot", UUID.randomUUID() + "@example.com");
+    // Load classes up front: class initialisation legitimately pins and is not what we look for
+    workload(hot.getId(), 0);
+
+    Path dump = Files.createTempFile("pinning", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+      recording.start();
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+          int n = i;
+          futures.add(executor.submit(() -> workload(hot.getId(), n)));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      }
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<String> pinned = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+      pinned.add(describe(event));
+    }
+    Files.delete(dump);
+    assertEquals(List.of(), pinned);
+  }
+
+  // Row-lock contention on one hot account, group commit, logins and action writes
+  private Void workload(Long hotUserId, int n) {
+    if (n % 10 == 0) {
+      userService.updateBalance(hotUserId, BigDecimal.ONE);
+    }
+    userService.updateBalanceAsync(hotUserId, BigDecimal.ONE).join();
+    UserEntity user = userService.login("User " + n, UUID.randomUUID() + "@example.com");
+    Action action =
+        actionService.create(
+            new SellAutomaticAction(
+                String.valueOf(user.getId()),
+                "sell",
+                ContextRegistry.STOCK_PRICES,
+                "AAPL",
+                1_000_000L,
+                10_000L,
+                true));
+    actionService.edit(action.getUserId(), action.getId(), action);
+    actionService.list(String.valueOf(user.getId()), 0L, null, null, 10);
+    return null;
+  }
+
+  private static String describe(RecordedEvent event) {
+    StringBuilder frames = new StringBuilder(event.getThread().getJavaName());
+    if (event.getStackTrace() != null) {
+      for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+        frames.append("\n  at ").append(frame.getMethod().getType().getName());
+        frames.append('.').append(frame.getMethod().getName());
+      }
+    }
+    return frames.toString();
+  }
+}